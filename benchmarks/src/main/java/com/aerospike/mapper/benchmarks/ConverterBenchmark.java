@@ -0,0 +1,130 @@
+package com.aerospike.mapper.benchmarks;
+
+import com.aerospike.mapper.annotations.AerospikeEmbed.EmbedType;
+import com.aerospike.mapper.benchmarks.Models.Account;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.TypeMapper;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import com.aerospike.mapper.tools.mappers.ArrayMapper;
+import com.aerospike.mapper.tools.mappers.ListMapper;
+import com.aerospike.mapper.tools.mappers.MapMapper;
+import com.aerospike.mapper.tools.mappers.ObjectEmbedMapper;
+import com.aerospike.mapper.tools.utils.TypeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the collection converters on their own, with elements embedded as lists or as maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBenchmark {
+
+    @Param({"10", "1000"})
+    public int size;
+
+    @Param({"LIST", "MAP"})
+    public EmbedType elementType;
+
+    private ListMapper listMapper;
+    private ListMapper nativeListMapper;
+    private MapMapper mapMapper;
+    private ArrayMapper arrayMapper;
+
+    private List<Account> accounts;
+    private List<Long> longs;
+    private Map<String, Account> accountsByTitle;
+    private Account[] accountArray;
+
+    private Object aerospikeAccounts;
+    private Object aerospikeLongs;
+    private Object aerospikeAccountsByTitle;
+    private Object aerospikeAccountArray;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        AeroMapper mapper = new AeroMapper.Builder(new InMemoryAerospike().getClient()).build();
+        TypeMapper accountMapper = new ObjectEmbedMapper(Account.class, elementType, mapper, false);
+        TypeMapper stringMapper = TypeUtils.getMapper(String.class, TypeUtils.AnnotatedType.getDefaultAnnotateType(), mapper);
+        listMapper = new ListMapper(List.class, Account.class, accountMapper, mapper, EmbedType.LIST, false, true);
+        nativeListMapper = new ListMapper(List.class, Long.class, null, mapper, EmbedType.LIST, false, true);
+        mapMapper = new MapMapper(Map.class, String.class, Account.class, stringMapper, accountMapper, mapper);
+        arrayMapper = new ArrayMapper(Account.class, accountMapper, true);
+
+        accounts = new ArrayList<>(size);
+        longs = new ArrayList<>(size);
+        accountsByTitle = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Account account = Models.account(i);
+            accounts.add(account);
+            longs.add((long) i);
+            accountsByTitle.put(account.title, account);
+        }
+        accountArray = accounts.toArray(new Account[0]);
+
+        aerospikeAccounts = listMapper.toAerospikeFormat(accounts);
+        aerospikeLongs = nativeListMapper.toAerospikeFormat(longs);
+        aerospikeAccountsByTitle = mapMapper.toAerospikeFormat(accountsByTitle);
+        aerospikeAccountArray = arrayMapper.toAerospikeFormat(accountArray);
+    }
+
+    @Benchmark
+    public Object listToAerospike() {
+        return listMapper.toAerospikeFormat(accounts);
+    }
+
+    @Benchmark
+    public Object listFromAerospike() {
+        return listMapper.fromAerospikeFormat(aerospikeAccounts);
+    }
+
+    @Benchmark
+    public Object nativeListToAerospike() {
+        return nativeListMapper.toAerospikeFormat(longs);
+    }
+
+    @Benchmark
+    public Object nativeListFromAerospike() {
+        return nativeListMapper.fromAerospikeFormat(aerospikeLongs);
+    }
+
+    @Benchmark
+    public Object mapToAerospike() {
+        return mapMapper.toAerospikeFormat(accountsByTitle);
+    }
+
+    @Benchmark
+    public Object mapFromAerospike() {
+        return mapMapper.fromAerospikeFormat(aerospikeAccountsByTitle);
+    }
+
+    @Benchmark
+    public Object arrayToAerospike() {
+        return arrayMapper.toAerospikeFormat(accountArray);
+    }
+
+    @Benchmark
+    public Object arrayFromAerospike() {
+        return arrayMapper.fromAerospikeFormat(aerospikeAccountArray);
+    }
+}
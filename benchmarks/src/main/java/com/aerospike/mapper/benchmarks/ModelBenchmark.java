@@ -0,0 +1,101 @@
+package com.aerospike.mapper.benchmarks;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.Value;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks the conversion of whole objects to and from the record (bins) and embedded list forms, for each shape of
+ * model in {@link Models}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelBenchmark {
+
+    public enum Model {
+        FLAT(Models::flat),
+        INHERITED(Models::inherited),
+        EMBEDDED_LIST(Models::embeddedList),
+        EMBEDDED_MAP(Models::embeddedMap),
+        VERSIONED(Models::versioned),
+        REFERENCES(Models::references);
+
+        private final Supplier<Object> sampleFactory;
+
+        Model(Supplier<Object> sampleFactory) {
+            this.sampleFactory = sampleFactory;
+        }
+    }
+
+    @Param
+    public Model model;
+
+    private ClassCacheEntry<?> entry;
+    private Object sample;
+    private Key key;
+    private Record record;
+    private List<Object> list;
+    private Object target;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        AeroMapper mapper = new AeroMapper.Builder(new InMemoryAerospike().getClient()).build();
+        sample = model.sampleFactory.get();
+        entry = ClassCache.getInstance().loadClass(sample.getClass(), mapper);
+        key = new Key(entry.getNamespace(), entry.getSetName(), Value.get(entry.getKey(sample)));
+        record = new Record(entry.getMap(sample, false), 1, 0);
+        list = entry.getList(sample, false, false);
+        target = entry.constructAndHydrate(list, false);
+    }
+
+    @Benchmark
+    public Bin[] getBins() {
+        return entry.getBins(sample, false, null);
+    }
+
+    @Benchmark
+    public Object constructAndHydrateFromRecord() {
+        return entry.constructAndHydrate(key, record);
+    }
+
+    @Benchmark
+    public List<Object> getList() {
+        return entry.getList(sample, false, false);
+    }
+
+    @Benchmark
+    public Object constructAndHydrateFromList() {
+        return entry.constructAndHydrate(list, false);
+    }
+
+    @Benchmark
+    public Object hydrateFromList() {
+        entry.hydrateFromList(list, target);
+        return target;
+    }
+}
@@ -0,0 +1,212 @@
+package com.aerospike.mapper.benchmarks;
+
+import com.aerospike.mapper.annotations.AerospikeEmbed;
+import com.aerospike.mapper.annotations.AerospikeEmbed.EmbedType;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.annotations.AerospikeReference;
+import com.aerospike.mapper.annotations.AerospikeVersion;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The models used by the benchmarks, one for each shape of class the mapper handles differently, with a populated
+ * sample of each. References are lazy so that reading them never needs a server.
+ */
+public final class Models {
+    private static final int ELEMENTS = 10;
+
+    private Models() {
+    }
+
+    @AerospikeRecord(namespace = "test", set = "flat")
+    public static class Flat {
+        @AerospikeKey
+        public String id;
+        public String firstName;
+        public String lastName;
+        public int age;
+        public long balance;
+        public double height;
+        public boolean valid;
+        public Date dateOfBirth;
+        public byte[] photo;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "inherited")
+    public static class Base {
+        @AerospikeKey
+        public String id;
+        public String name;
+        public long created;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "inherited")
+    public static class Middle extends Base {
+        public String description;
+        public int priority;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "inherited")
+    public static class Inherited extends Middle {
+        public double weight;
+        public List<String> tags;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "account")
+    public static class Account {
+        @AerospikeKey
+        public long id;
+        public String title;
+        public long balance;
+        public int[] limits;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "embedList")
+    public static class EmbeddedList {
+        @AerospikeKey
+        public String id;
+        @AerospikeEmbed(type = EmbedType.LIST)
+        public Account primary;
+        @AerospikeEmbed(type = EmbedType.LIST, elementType = EmbedType.LIST)
+        public List<Account> accounts;
+        @AerospikeEmbed(elementType = EmbedType.LIST)
+        public Account[] accountArray;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "embedMap")
+    public static class EmbeddedMap {
+        @AerospikeKey
+        public String id;
+        @AerospikeEmbed(type = EmbedType.MAP)
+        public Account primary;
+        @AerospikeEmbed(type = EmbedType.MAP, elementType = EmbedType.MAP)
+        public Map<String, Account> accountsByTitle;
+        @AerospikeEmbed(type = EmbedType.MAP, elementType = EmbedType.MAP)
+        public List<Account> accounts;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "versioned", version = 3)
+    public static class Versioned {
+        @AerospikeKey
+        public String id;
+        @AerospikeVersion(max = 1)
+        public String address;
+        @AerospikeVersion(min = 2)
+        public String street;
+        @AerospikeVersion(min = 2)
+        public String city;
+        @AerospikeVersion(min = 3)
+        public String postcode;
+        @AerospikeVersion(min = 2)
+        @AerospikeEmbed(type = EmbedType.LIST, elementType = EmbedType.LIST)
+        public List<Account> accounts;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "references")
+    public static class References {
+        @AerospikeKey
+        public String id;
+        @AerospikeReference(lazy = true)
+        public Account owner;
+        @AerospikeReference(lazy = true)
+        public List<Account> accounts;
+        @AerospikeReference(lazy = true)
+        public Map<String, Account> accountsByTitle;
+    }
+
+    static Account account(long id) {
+        Account account = new Account();
+        account.id = id;
+        account.title = "Account " + id;
+        account.balance = id * 1000;
+        account.limits = new int[]{100, 200, 300};
+        return account;
+    }
+
+    static List<Account> accounts() {
+        List<Account> accounts = new ArrayList<>(ELEMENTS);
+        for (int i = 0; i < ELEMENTS; i++) {
+            accounts.add(account(i));
+        }
+        return accounts;
+    }
+
+    static Map<String, Account> accountsByTitle() {
+        Map<String, Account> accounts = new HashMap<>();
+        for (Account account : accounts()) {
+            accounts.put(account.title, account);
+        }
+        return accounts;
+    }
+
+    static Flat flat() {
+        Flat flat = new Flat();
+        flat.id = "flat-1";
+        flat.firstName = "Tim";
+        flat.lastName = "Jones";
+        flat.age = 42;
+        flat.balance = 123456;
+        flat.height = 1.85;
+        flat.valid = true;
+        flat.dateOfBirth = new Date(0);
+        flat.photo = new byte[]{1, 2, 3, 4, 5, 6, 7, 8};
+        return flat;
+    }
+
+    static Inherited inherited() {
+        Inherited inherited = new Inherited();
+        inherited.id = "inherited-1";
+        inherited.name = "Widget";
+        inherited.created = 1_700_000_000_000L;
+        inherited.description = "A widget with a description";
+        inherited.priority = 3;
+        inherited.weight = 12.5;
+        inherited.tags = new ArrayList<>();
+        for (int i = 0; i < ELEMENTS; i++) {
+            inherited.tags.add("tag" + i);
+        }
+        return inherited;
+    }
+
+    static EmbeddedList embeddedList() {
+        EmbeddedList embedded = new EmbeddedList();
+        embedded.id = "list-1";
+        embedded.primary = account(100);
+        embedded.accounts = accounts();
+        embedded.accountArray = accounts().toArray(new Account[0]);
+        return embedded;
+    }
+
+    static EmbeddedMap embeddedMap() {
+        EmbeddedMap embedded = new EmbeddedMap();
+        embedded.id = "map-1";
+        embedded.primary = account(100);
+        embedded.accountsByTitle = accountsByTitle();
+        embedded.accounts = accounts();
+        return embedded;
+    }
+
+    static Versioned versioned() {
+        Versioned versioned = new Versioned();
+        versioned.id = "versioned-1";
+        versioned.street = "1 Main St";
+        versioned.city = "Springfield";
+        versioned.postcode = "12345";
+        versioned.accounts = accounts();
+        return versioned;
+    }
+
+    static References references() {
+        References references = new References();
+        references.id = "references-1";
+        references.owner = account(100);
+        references.accounts = accounts();
+        references.accountsByTitle = accountsByTitle();
+        return references;
+    }
+}
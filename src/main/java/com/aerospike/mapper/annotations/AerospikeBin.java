@@ -17,4 +17,22 @@ public @interface AerospikeBin {
     String name() default "";
 
     boolean useAccessors() default false;
+
+    /**
+     * Compress the value of this bin when it is at least <code>compressThreshold</code> bytes long. The value is
+     * converted as usual and then stored as a compressed blob. Values which are not compressed, including those written
+     * before compression was turned on, are still read.
+     */
+    boolean compress() default false;
+
+    /**
+     * The smallest size in bytes of a value which is compressed, if <code>compress</code> is true.
+     */
+    int compressThreshold() default 1024;
+
+    /**
+     * The name of the codec to compress with, if <code>compress</code> is true. Only <code>deflate</code> is built in,
+     * other codecs must be registered with <code>CompressionCodecs.register</code> first.
+     */
+    String compressCodec() default "deflate";
 }
@@ -0,0 +1,33 @@
+package com.aerospike.mapper.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.aerospike.client.query.IndexCollectionType;
+import com.aerospike.client.query.IndexType;
+
+/**
+ * Declares a secondary index on the bin a field is mapped to. If the mapper is built with index creation enabled,
+ * any declared indexes which do not exist are created when the mapper is built. The declared indexes are also used
+ * to choose which condition of a <code>Criteria</code> query can be satisfied by a secondary index.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface AerospikeIndex {
+    /**
+     * The name of the index. If not specified, the name will be &lt;set&gt;_&lt;bin&gt;_idx.
+     */
+    String name() default "";
+
+    /**
+     * The type of the index, which must match the type the bin is stored as in the database.
+     */
+    IndexType type();
+
+    /**
+     * The collection type of the index, used to index the elements of a list or the keys or values of a map.
+     */
+    IndexCollectionType collectionType() default IndexCollectionType.DEFAULT;
+}
@@ -14,6 +14,14 @@ public @interface AerospikeRecord {
 
     String shortName() default "";
 
+    /**
+     * A small number identifying this class when its type must be stored in the database, such as for subclasses. If set,
+     * this number is stored instead of the <code>shortName</code>, which is much more compact in large polymorphic lists.
+     * It must be unique across all classes, between 0 and 65535, and must not change once data has been written. As
+     * <code>Integer.MIN_VALUE</code> cannot be a valid type id, it is used to indicate that no type id has been set.
+     */
+    int typeId() default Integer.MIN_VALUE;
+
     /**
      * The TTL for the record. As this must be a primitive value <code>Integer.MIN_VALUE</code> is used to indicate that the 
      * value has not been explicitly set.
@@ -27,6 +35,12 @@ public @interface AerospikeRecord {
 
     int version() default 1;
 
+    /**
+     * Store the bins of this class under short generated names instead of the field names. The names are kept in the
+     * <code>BinNameDictionary</code> set on the mapper builder, which is required if this is true.
+     */
+    boolean compactBinNames() default false;
+
     boolean sendKey() default false;
 
     boolean durableDelete() default false;
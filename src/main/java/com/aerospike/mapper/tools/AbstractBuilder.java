@@ -8,6 +8,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -25,8 +26,14 @@ import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.mapper.annotations.AerospikeRecord;
 import com.aerospike.mapper.tools.ClassCache.PolicyType;
 import com.aerospike.mapper.tools.configuration.BinConfig;
+import com.aerospike.mapper.tools.configuration.BinNameDictionary;
 import com.aerospike.mapper.tools.configuration.ClassConfig;
 import com.aerospike.mapper.tools.configuration.Configuration;
+import com.aerospike.mapper.tools.metrics.HotKeyTracker;
+import com.aerospike.mapper.tools.metrics.MapperMetrics;
+import com.aerospike.mapper.tools.metrics.RecordSizeProfiler;
+import com.aerospike.mapper.tools.query.IndexManager;
+import com.aerospike.mapper.tools.tracing.MapperInterceptor;
 import com.aerospike.mapper.tools.utils.TypeUtils;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.TypeDescription;
@@ -36,6 +43,8 @@ import org.yaml.snakeyaml.constructor.Constructor;
 public abstract class AbstractBuilder<T extends IBaseAeroMapper> {
     private final T mapper;
     private List<Class<?>> classesToPreload = null;
+    private final List<Class<?>> configuredClasses = new ArrayList<>();
+    private boolean createIndexes = false;
 
     protected AbstractBuilder(T mapper) {
         this.mapper = mapper;
@@ -119,6 +128,77 @@ public abstract class AbstractBuilder<T extends IBaseAeroMapper> {
         return this;
     }
 
+    /**
+     * Create any secondary indexes declared through <code>@AerospikeIndex</code> or the index option of the bin configuration
+     * which do not already exist when the mapper is built. Only classes which are preloaded or which are defined in
+     * configuration passed to this builder are processed.
+     *
+     * @return this object
+     */
+    public AbstractBuilder<T> withIndexCreation() {
+        this.createIndexes = true;
+        return this;
+    }
+
+    /**
+     * Report the time spent serializing objects, calling the database, hydrating objects and resolving references to the
+     * passed metrics, per class and operation. By default, the timings are discarded.
+     *
+     * @param metrics - the metrics to report to, for example a {@link com.aerospike.mapper.tools.metrics.HistogramMapperMetrics}.
+     * @return this object
+     */
+    public AbstractBuilder<T> withMetrics(MapperMetrics metrics) {
+        this.mapper.getMappingConverter().setMetrics(metrics);
+        return this;
+    }
+
+    /**
+     * Notify the passed interceptor before and after each call the mapper makes to the Aerospike client, including the
+     * batch reads which resolve references. This allows the calls to be traced. More than one interceptor can be
+     * registered; they are notified in the order they were registered.
+     *
+     * @param interceptor - the interceptor to notify.
+     * @return this object
+     */
+    public AbstractBuilder<T> withInterceptor(MapperInterceptor interceptor) {
+        this.mapper.getMappingConverter().addInterceptor(interceptor);
+        return this;
+    }
+
+    /**
+     * Pass the bins of each record the mapper writes to the profiler, to measure the size of the records and their bins
+     * per class. The profiler is registered as an interceptor.
+     *
+     * @param profiler - the profiler to pass the bins to.
+     * @return this object
+     */
+    public AbstractBuilder<T> withRecordSizeProfiler(RecordSizeProfiler profiler) {
+        return withInterceptor(profiler);
+    }
+
+    /**
+     * Pass the key of each record the mapper reads or writes to the tracker, to find the keys which are accessed most
+     * often. The tracker is registered as an interceptor.
+     *
+     * @param tracker - the tracker to pass the keys to.
+     * @return this object
+     */
+    public AbstractBuilder<T> withHotKeyTracker(HotKeyTracker tracker) {
+        return withInterceptor(tracker);
+    }
+
+    /**
+     * Set the dictionary holding the short bin names of classes with compact bin names. This must be set before any of
+     * these classes are loaded, and applies to all mappers.
+     *
+     * @param dictionary - the dictionary of stored bin names.
+     * @return this object
+     */
+    public AbstractBuilder<T> withBinNameDictionary(BinNameDictionary dictionary) {
+        ClassCache.getInstance().setBinNameDictionary(dictionary);
+        return this;
+    }
+
     public AbstractBuilder<T> withConfigurationFile(File file) throws IOException {
         return this.withConfigurationFile(file, false);
     }
@@ -173,6 +253,7 @@ public abstract class AbstractBuilder<T extends IBaseAeroMapper> {
             configuration.add(thisConfig);
         }
         ClassCache.getInstance().addConfiguration(configuration);
+        addConfiguredClasses(configuration);
         return this;
 
     }
@@ -188,7 +269,7 @@ public abstract class AbstractBuilder<T extends IBaseAeroMapper> {
                     throw new AerospikeException("Class with blank name in configuration file");
                 } else {
                     try {
-                        Class.forName(config.getClassName());
+                        configuredClasses.add(Class.forName(config.getClassName()));
                     } catch (ClassNotFoundException e) {
                         throw new AerospikeException("Cannot find a class with name " + name);
                     }
@@ -253,12 +334,34 @@ public abstract class AbstractBuilder<T extends IBaseAeroMapper> {
         return new AeroPolicyMapper<>(this, PolicyType.QUERY, policy);
     }
 
+    private void addConfiguredClasses(Configuration configuration) {
+        for (ClassConfig config : configuration.getClasses()) {
+            try {
+                configuredClasses.add(Class.forName(config.getClassName()));
+            } catch (ClassNotFoundException ignored) {
+            }
+        }
+    }
+
     public T build() {
         if (classesToPreload != null) {
             for (Class<?> clazz : classesToPreload) {
                 ClassCache.getInstance().loadClass(clazz, this.mapper);
             }
         }
+        if (createIndexes) {
+            IndexManager indexManager = new IndexManager(this.mapper.asMapper().getClient());
+            Set<Class<?>> clazzes = new LinkedHashSet<>(configuredClasses);
+            if (classesToPreload != null) {
+                clazzes.addAll(classesToPreload);
+            }
+            for (Class<?> clazz : clazzes) {
+                ClassCacheEntry<?> entry = ClassCache.getInstance().loadClass(clazz, this.mapper);
+                if (entry != null && !StringUtils.isBlank(entry.getNamespace())) {
+                    indexManager.createIndexes(entry);
+                }
+            }
+        }
         return this.mapper;
     }
 }
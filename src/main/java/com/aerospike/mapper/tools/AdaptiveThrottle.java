@@ -0,0 +1,180 @@
+package com.aerospike.mapper.tools;
+
+import java.util.concurrent.TimeUnit;
+
+import com.aerospike.client.AerospikeException;
+
+/**
+ * Controls the rate of a background scan or stream so that it does not disturb foreground latency. The scan is run in
+ * chunks of about one adjustment interval each. Before each chunk the rate is changed using additive increase,
+ * multiplicative decrease (AIMD): if the foreground latency is above the target the rate is multiplied by the decrease
+ * factor, otherwise the increase is added to it. The rate always stays between the minimum and maximum.
+ * <p/>
+ * The latency is taken from the {@link LatencySignal} set on the throttle, or if none is set, from the foreground
+ * operations of the mapper running the scan. Like <code>ScanPolicy.recordsPerSecond</code>, the rate applies to each
+ * server node.
+ * <p/>
+ * A throttle keeps its current rate between scans, so a job which scans repeatedly can reuse it. It is thread-safe, but
+ * scans sharing one throttle also share the rate.
+ */
+public class AdaptiveThrottle {
+    public static final int DEFAULT_MIN_RECORDS_PER_SECOND = 100;
+    public static final int DEFAULT_MAX_RECORDS_PER_SECOND = 10_000;
+    public static final double DEFAULT_TARGET_LATENCY_MILLIS = 5.0;
+    public static final double DEFAULT_DECREASE_FACTOR = 0.5;
+    public static final long DEFAULT_ADJUSTMENT_INTERVAL_MILLIS = 1000;
+
+    // The settings can be changed while a scan is adjusting the rate, so are volatile
+    private volatile int minRecordsPerSecond = DEFAULT_MIN_RECORDS_PER_SECOND;
+    private volatile int maxRecordsPerSecond = DEFAULT_MAX_RECORDS_PER_SECOND;
+    private volatile int additiveIncrease = -1;
+    private volatile double decreaseFactor = DEFAULT_DECREASE_FACTOR;
+    private volatile double targetLatencyMillis = DEFAULT_TARGET_LATENCY_MILLIS;
+    private volatile long adjustmentIntervalMillis = DEFAULT_ADJUSTMENT_INTERVAL_MILLIS;
+    private volatile LatencySignal latencySignal = null;
+    private int currentRate = -1;
+
+    /**
+     * Set the bounds of the rate, in records per second per node. The rate starts at the minimum unless
+     * {@link #withInitialRecordsPerSecond(int)} is used.
+     */
+    public AdaptiveThrottle withRecordsPerSecondBounds(int minRecordsPerSecond, int maxRecordsPerSecond) {
+        if (minRecordsPerSecond <= 0 || maxRecordsPerSecond < minRecordsPerSecond) {
+            throw new AerospikeException(String.format("Invalid bounds: min (%d) must be greater than zero and not more than max (%d)",
+                    minRecordsPerSecond, maxRecordsPerSecond));
+        }
+        synchronized (this) {
+            this.minRecordsPerSecond = minRecordsPerSecond;
+            this.maxRecordsPerSecond = maxRecordsPerSecond;
+            if (currentRate >= 0) {
+                currentRate = clamp(currentRate);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Set the rate used for the first chunk.
+     */
+    public synchronized AdaptiveThrottle withInitialRecordsPerSecond(int initialRecordsPerSecond) {
+        this.currentRate = clamp(initialRecordsPerSecond);
+        return this;
+    }
+
+    /**
+     * Set the foreground latency above which the rate is decreased.
+     */
+    public AdaptiveThrottle withTargetLatency(long latency, TimeUnit unit) {
+        double millis = unit.toNanos(latency) / 1_000_000.0;
+        if (millis <= 0) {
+            throw new AerospikeException(String.format("targetLatency must be greater than zero, not %d %s", latency, unit));
+        }
+        this.targetLatencyMillis = millis;
+        return this;
+    }
+
+    /**
+     * Set the number of records per second added to the rate after each chunk where latency was within the target.
+     * Defaults to 5% of the maximum rate.
+     */
+    public AdaptiveThrottle withAdditiveIncrease(int additiveIncrease) {
+        if (additiveIncrease <= 0) {
+            throw new AerospikeException(String.format("additiveIncrease must be greater than zero, not %d", additiveIncrease));
+        }
+        this.additiveIncrease = additiveIncrease;
+        return this;
+    }
+
+    /**
+     * Set the factor the rate is multiplied by after each chunk where latency was above the target.
+     */
+    public AdaptiveThrottle withDecreaseFactor(double decreaseFactor) {
+        if (!(decreaseFactor > 0 && decreaseFactor < 1)) {
+            throw new AerospikeException(String.format("decreaseFactor must be between 0 and 1, not %f", decreaseFactor));
+        }
+        this.decreaseFactor = decreaseFactor;
+        return this;
+    }
+
+    /**
+     * Set how often the rate is re-evaluated. Each chunk of the scan reads about this much time's worth of records.
+     */
+    public AdaptiveThrottle withAdjustmentInterval(long interval, TimeUnit unit) {
+        long millis = unit.toMillis(interval);
+        if (millis <= 0) {
+            throw new AerospikeException(String.format("adjustmentInterval must be at least 1ms, not %d %s", interval, unit));
+        }
+        this.adjustmentIntervalMillis = millis;
+        return this;
+    }
+
+    /**
+     * Use the passed signal instead of the foreground latency of the mapper running the scan.
+     */
+    public AdaptiveThrottle withLatencySignal(LatencySignal latencySignal) {
+        this.latencySignal = latencySignal;
+        return this;
+    }
+
+    public int getMinRecordsPerSecond() {
+        return minRecordsPerSecond;
+    }
+
+    public int getMaxRecordsPerSecond() {
+        return maxRecordsPerSecond;
+    }
+
+    public double getTargetLatencyMillis() {
+        return targetLatencyMillis;
+    }
+
+    public LatencySignal getLatencySignal() {
+        return latencySignal;
+    }
+
+    /**
+     * The rate which will be used for the next chunk, before adjustment.
+     */
+    public synchronized int getCurrentRate() {
+        return currentRate < 0 ? minRecordsPerSecond : currentRate;
+    }
+
+    /**
+     * Adjust the rate based on the latency from the passed signal and return the new rate. If no rate has been set yet,
+     * the minimum rate is returned without adjusting it.
+     *
+     * @param defaultSignal - the signal used if none has been set on this throttle.
+     */
+    synchronized int adjust(LatencySignal defaultSignal) {
+        if (currentRate < 0) {
+            currentRate = minRecordsPerSecond;
+            return currentRate;
+        }
+        LatencySignal signal = latencySignal == null ? defaultSignal : latencySignal;
+        double latency = signal == null ? -1 : signal.getLatencyMillis();
+        if (latency > targetLatencyMillis) {
+            currentRate = clamp((long) (currentRate * decreaseFactor));
+        } else {
+            int increase = additiveIncrease > 0 ? additiveIncrease : Math.max(1, maxRecordsPerSecond / 20);
+            currentRate = clamp((long) currentRate + increase);
+        }
+        return currentRate;
+    }
+
+    /**
+     * The number of records to read in a chunk at the passed rate per node.
+     */
+    long getChunkSize(int rate, int nodeCount) {
+        return Math.max(1, (long) rate * Math.max(1, nodeCount) * adjustmentIntervalMillis / 1000);
+    }
+
+    private int clamp(long rate) {
+        return (int) Math.max(minRecordsPerSecond, Math.min(maxRecordsPerSecond, rate));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdaptiveThrottle(rate=%d, bounds=[%d, %d], targetLatency=%.2fms)", getCurrentRate(),
+                minRecordsPerSecond, maxRecordsPerSecond, targetLatencyMillis);
+    }
+}
@@ -9,31 +9,48 @@ import com.aerospike.client.Operation;
 import com.aerospike.client.Record;
 import com.aerospike.client.Value;
 import com.aerospike.client.policy.BatchPolicy;
-import com.aerospike.client.policy.GenerationPolicy;
 import com.aerospike.client.policy.Policy;
 import com.aerospike.client.policy.QueryPolicy;
 import com.aerospike.client.policy.RecordExistsAction;
 import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
 import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.PartitionFilter;
 import com.aerospike.client.query.RecordSet;
 import com.aerospike.client.query.Statement;
 import com.aerospike.mapper.tools.ClassCache.PolicyType;
+import com.aerospike.mapper.tools.aggregation.Aggregation;
 import com.aerospike.mapper.tools.converters.MappingConverter;
+import com.aerospike.mapper.tools.metrics.MapperMetrics;
+import com.aerospike.mapper.tools.metrics.MapperMetrics.OperationType;
+import com.aerospike.mapper.tools.metrics.MapperMetrics.Phase;
+import com.aerospike.mapper.tools.query.Criteria;
+import com.aerospike.mapper.tools.query.QueryPlan;
+import com.aerospike.mapper.tools.tracing.ClientCall;
 import com.aerospike.mapper.tools.utils.MapperUtils;
+import com.aerospike.mapper.tools.virtuallist.ShardedVirtualList;
+import com.aerospike.mapper.tools.virtuallist.Sharding;
+import com.aerospike.mapper.tools.virtuallist.TimeBucketedVirtualList;
 import com.aerospike.mapper.tools.virtuallist.VirtualList;
 
 import jakarta.validation.constraints.NotNull;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class AeroMapper implements IAeroMapper {
 
     private final IAerospikeClient mClient;
     private final MappingConverter mappingConverter;
+    private final ForegroundLatencyTracker foregroundLatency = new ForegroundLatencyTracker();
 
     private AeroMapper(@NotNull IAerospikeClient client) {
         this.mClient = client;
@@ -62,9 +79,7 @@ public class AeroMapper implements IAeroMapper {
 
     @Override
     public <T> void save(@NotNull T object, String... binNames) throws AerospikeException {
-        WritePolicy writePolicy = generateWritePolicyFromObject(object);
-        writePolicy.recordExistsAction = RecordExistsAction.REPLACE;
-        save(writePolicy, object, binNames);
+        save(RecordExistsAction.REPLACE, object, binNames);
     }
 
     @SuppressWarnings("unchecked")
@@ -75,9 +90,23 @@ public class AeroMapper implements IAeroMapper {
         ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
 
         if (writePolicy == null) {
-            writePolicy = generateWritePolicyFromObject(object);
+            writePolicy = entry.getWritePolicy(object, entry.getWritePolicy().recordExistsAction);
         }
+        save(writePolicy, entry, clazz, object, binNames);
+    }
+
+    /**
+     * Save the object with the policy of its class for the given record exists action, resolving the class only once.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> void save(RecordExistsAction action, @NotNull T object, String[] binNames) {
+        Class<T> clazz = (Class<T>) object.getClass();
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        save(entry.getWritePolicy(object, action), entry, clazz, object, binNames);
+    }
 
+    private <T> void save(WritePolicy writePolicy, ClassCacheEntry<T> entry, Class<T> clazz, T object,
+            String[] binNames) {
         String set = entry.getSetName();
         if ("".equals(set)) {
             // Use the null set
@@ -85,52 +114,33 @@ public class AeroMapper implements IAeroMapper {
         }
         Key key = new Key(entry.getNamespace(), set, Value.get(entry.getKey(object)));
 
+        MapperMetrics metrics = mappingConverter.getMetrics();
+        long serializeStart = System.nanoTime();
         Bin[] bins = entry.getBins(object, writePolicy.recordExistsAction != RecordExistsAction.REPLACE, binNames);
 
-        mClient.put(writePolicy, key, bins);
+        metrics.recordLatency(clazz, OperationType.SAVE, Phase.SERIALIZE, System.nanoTime() - serializeStart);
+        ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.PUT, clazz, key, bins);
+        long start = System.nanoTime();
+        try {
+            mClient.put(writePolicy, key, bins);
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+            long elapsed = System.nanoTime() - start;
+            foregroundLatency.record(elapsed);
+            metrics.recordLatency(clazz, OperationType.SAVE, Phase.NETWORK, elapsed);
+        }
     }
 
     @Override
     public <T> void insert(@NotNull T object, String... binNames) {
-        WritePolicy writePolicy = generateWritePolicyFromObject(object);
-        writePolicy.recordExistsAction = RecordExistsAction.CREATE_ONLY;
-        save(writePolicy, object, binNames);
+        save(RecordExistsAction.CREATE_ONLY, object, binNames);
     }
 
     @Override
     public <T> void update(@NotNull T object, String... binNames) throws AerospikeException {
-        WritePolicy writePolicy = generateWritePolicyFromObject(object);
-        writePolicy.recordExistsAction = RecordExistsAction.UPDATE;
-        save(writePolicy, object, binNames);
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> WritePolicy generateWritePolicyFromObject(T object) {
-        Class<T> clazz = (Class<T>) object.getClass();
-        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
-
-        WritePolicy writePolicy = new WritePolicy(entry.getWritePolicy());
-
-        // #132 -- Ensure that if an overriding TTL / sendKey is passed in the policy it
-        // is NOT overwritten. Hence, only if the policy is null do we override these settings.
-        Integer ttl = entry.getTtl();
-        Boolean sendKey = entry.getSendKey();
-
-        if (ttl != null) {
-            writePolicy.expiration = ttl;
-        }
-        if (sendKey != null) {
-            writePolicy.sendKey = sendKey;
-        }
-
-        // #181 Handle @AerospikeGeneration field for optimistic concurrency control
-        Integer generationValue = entry.getGenerationValue(object);
-        if (generationValue != null && generationValue > 0) {
-            writePolicy.generation = generationValue;
-            writePolicy.generationPolicy = GenerationPolicy.EXPECT_GEN_EQUAL;
-        }
-
-        return writePolicy;
+        save(RecordExistsAction.UPDATE, object, binNames);
     }
 
     @Override
@@ -233,14 +243,26 @@ public class AeroMapper implements IAeroMapper {
         if (readPolicy == null) {
             readPolicy = entry.getReadPolicy();
         }
-        Record record = mClient.get(readPolicy, key);
+        Record record;
+        ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.GET, clazz, key, null);
+        long start = System.nanoTime();
+        try {
+            record = mClient.get(readPolicy, key);
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+            long elapsed = System.nanoTime() - start;
+            foregroundLatency.record(elapsed);
+            mappingConverter.getMetrics().recordLatency(clazz, OperationType.READ, Phase.NETWORK, elapsed);
+        }
 
         if (record == null) {
             return null;
         } else {
             try {
                 ThreadLocalKeySaver.save(key);
-                return mappingConverter.convertToObject(clazz, key, record, entry, resolveDependencies);
+                return mappingConverter.convertToObject(clazz, key, record, entry, resolveDependencies, OperationType.READ);
             } finally {
                 ThreadLocalKeySaver.clear();
             }
@@ -254,11 +276,25 @@ public class AeroMapper implements IAeroMapper {
             batchPolicy = entry.getBatchPolicy();
         }
 
+        MapperMetrics metrics = mappingConverter.getMetrics();
+        metrics.recordBatchSize(clazz, OperationType.BATCH_READ, keys.length);
         Record[] records;
-        if (operations != null && operations.length > 0) {
-            records = mClient.get(batchPolicy, keys, operations);
-        } else {
-            records = mClient.get(batchPolicy, keys);
+        ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.BATCH_GET, clazz, keys,
+                null, null, 0);
+        long start = System.nanoTime();
+        try {
+            if (operations != null && operations.length > 0) {
+                records = mClient.get(batchPolicy, keys, operations);
+            } else {
+                records = mClient.get(batchPolicy, keys);
+            }
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+            long elapsed = System.nanoTime() - start;
+            foregroundLatency.record(elapsed);
+            metrics.recordLatency(clazz, OperationType.BATCH_READ, Phase.NETWORK, elapsed);
         }
 
         T[] results = (T[]) Array.newInstance(clazz, records.length);
@@ -268,14 +304,15 @@ public class AeroMapper implements IAeroMapper {
             } else {
                 try {
                     ThreadLocalKeySaver.save(keys[i]);
-                    T result = mappingConverter.convertToObject(clazz, keys[i], records[i], entry, false);
+                    T result = mappingConverter.convertToObject(clazz, keys[i], records[i], entry, false,
+                            OperationType.BATCH_READ);
                     results[i] = result;
                 } finally {
                     ThreadLocalKeySaver.clear();
                 }
             }
         }
-        mappingConverter.resolveDependencies(entry);
+        mappingConverter.resolveDependencies(entry, OperationType.BATCH_READ);
         return results;
     }
 
@@ -291,16 +328,11 @@ public class AeroMapper implements IAeroMapper {
         Object asKey = entry.translateKeyToAerospikeKey(userKey);
 
         if (writePolicy == null) {
-            writePolicy = entry.getWritePolicy();
-            if (entry.getDurableDelete() != null) {
-                // Clone the write policy so we're not changing the original one
-                writePolicy = new WritePolicy(writePolicy);
-                writePolicy.durableDelete = entry.getDurableDelete();
-            }
+            writePolicy = entry.getDeletePolicy();
         }
         Key key = new Key(entry.getNamespace(), entry.getSetName(), Value.get(asKey));
 
-        return mClient.delete(writePolicy, key);
+        return timedDelete(writePolicy, clazz, key);
     }
 
     @Override
@@ -314,13 +346,24 @@ public class AeroMapper implements IAeroMapper {
         Key key = new Key(entry.getNamespace(), entry.getSetName(), Value.get(entry.getKey(object)));
 
         if (writePolicy == null) {
-            writePolicy = entry.getWritePolicy();
-            if (entry.getDurableDelete() != null) {
-                writePolicy = new WritePolicy(writePolicy);
-                writePolicy.durableDelete = entry.getDurableDelete();
-            }
+            writePolicy = entry.getDeletePolicy();
+        }
+        return timedDelete(writePolicy, object.getClass(), key);
+    }
+
+    private boolean timedDelete(WritePolicy writePolicy, Class<?> clazz, Key key) {
+        ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.DELETE, clazz, key, null);
+        long start = System.nanoTime();
+        try {
+            return mClient.delete(writePolicy, key);
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+            long elapsed = System.nanoTime() - start;
+            foregroundLatency.record(elapsed);
+            mappingConverter.getMetrics().recordLatency(clazz, OperationType.DELETE, Phase.NETWORK, elapsed);
         }
-        return mClient.delete(writePolicy, key);
     }
 
     @Override
@@ -332,6 +375,7 @@ public class AeroMapper implements IAeroMapper {
         statement.setSetName(entry.getSetName());
 
         RecordSet recordSet = null;
+        ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.QUERY, clazz, 0, 0, null);
         try {
             // TODO: set the policy (If this statement is thought to be useful, which is dubious)
             recordSet = mClient.query(null, statement);
@@ -344,11 +388,14 @@ public class AeroMapper implements IAeroMapper {
                 }
             }
         } catch (ReflectiveOperationException e) {
-            throw new AerospikeException(e);
+            throw ClientCall.failed(call, new AerospikeException(e));
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
         } finally {
             if (recordSet != null) {
                 recordSet.close();
             }
+            ClientCall.end(call);
         }
     }
 
@@ -383,6 +430,7 @@ public class AeroMapper implements IAeroMapper {
         String setName = entry.getSetName();
 
         AtomicBoolean userTerminated = new AtomicBoolean(false);
+        ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.SCAN, clazz, 0, 0, null);
         try {
             mClient.scanAll(policy, namespace, setName, (key, record) -> {
                 T object = this.getMappingConverter().convertToObject(clazz, key, record);
@@ -393,11 +441,76 @@ public class AeroMapper implements IAeroMapper {
             });
         } catch (ScanTerminated st) {
             if (!userTerminated.get()) {
-                throw st;
+                throw ClientCall.failed(call, st);
+            }
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+        }
+    }
+
+    @Override
+    public <T> void scan(@NotNull Class<T> clazz, @NotNull Processor<T> processor, @NotNull AdaptiveThrottle throttle) {
+        scan(null, clazz, processor, throttle);
+    }
+
+    @Override
+    public <T> void scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Processor<T> processor,
+            @NotNull AdaptiveThrottle throttle) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        if (policy == null) {
+            policy = entry.getScanPolicy();
+        }
+        String namespace = entry.getNamespace();
+        String setName = entry.getSetName();
+
+        // Scan in chunks, resuming from the partition cursor, so the rate can be changed between chunks
+        PartitionFilter cursor = PartitionFilter.all();
+        AtomicBoolean userTerminated = new AtomicBoolean(false);
+        while (!cursor.isDone() && !userTerminated.get()) {
+            int rate = throttle.adjust(foregroundLatency);
+            ScanPolicy chunkPolicy = new ScanPolicy(policy);
+            chunkPolicy.recordsPerSecond = rate;
+            chunkPolicy.maxRecords = throttle.getChunkSize(rate, mClient.getNodes().length);
+            ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.SCAN, clazz, 0, 0, null);
+            try {
+                mClient.scanPartitions(chunkPolicy, cursor, namespace, setName, (key, record) -> {
+                    T object = this.getMappingConverter().convertToObject(clazz, key, record);
+                    if (!processor.process(object)) {
+                        userTerminated.set(true);
+                        throw new AerospikeException.ScanTerminated();
+                    }
+                });
+            } catch (ScanTerminated st) {
+                if (!userTerminated.get()) {
+                    throw ClientCall.failed(call, st);
+                }
+            } catch (RuntimeException e) {
+                throw ClientCall.failed(call, e);
+            } finally {
+                ClientCall.end(call);
             }
         }
     }
 
+    @Override
+    public <T> ScanPipelineMetrics scan(@NotNull Class<T> clazz, @NotNull Processor<T> processor,
+            @NotNull ScanPipelineOptions options) {
+        return scan(null, clazz, processor, options);
+    }
+
+    @Override
+    public <T> ScanPipelineMetrics scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Processor<T> processor,
+            @NotNull ScanPipelineOptions options) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        if (policy == null) {
+            policy = entry.getScanPolicy();
+        }
+        ScanPipeline<T> pipeline = new ScanPipeline<>(clazz, this.getMappingConverter(), processor, options);
+        return pipeline.run(mClient, policy, entry.getNamespace(), entry.getSetName());
+    }
+
     @Override
     public <T> List<T> scan(@NotNull Class<T> clazz) {
         return scan(null, clazz);
@@ -416,6 +529,33 @@ public class AeroMapper implements IAeroMapper {
         return result;
     }
 
+    @Override
+    public <T> void scan(@NotNull Class<T> clazz, @NotNull Criteria criteria, @NotNull Processor<T> processor) {
+        scan(null, clazz, criteria, processor);
+    }
+
+    @Override
+    public <T> void scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Criteria criteria,
+            @NotNull Processor<T> processor) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        policy = new ScanPolicy(policy == null ? entry.getScanPolicy() : policy);
+        policy.filterExp = criteria.compile(entry);
+        scan(policy, clazz, processor);
+    }
+
+    @Override
+    public <T> List<T> scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Criteria criteria) {
+        List<T> result = new ArrayList<>();
+        Processor<T> resultProcessor = record -> {
+            synchronized(result) {
+                result.add(record);
+            }
+            return true;
+        };
+        scan(policy, clazz, criteria, resultProcessor);
+        return result;
+    }
+
     @Override
     public <T> void query(@NotNull Class<T> clazz, @NotNull Processor<T> processor, Filter filter) {
         query(null, clazz, processor, filter);
@@ -432,16 +572,23 @@ public class AeroMapper implements IAeroMapper {
         statement.setNamespace(entry.getNamespace());
         statement.setSetName(entry.getSetName());
 
-        RecordSet recordSet = mClient.query(policy, statement);
+        RecordSet recordSet = null;
+        ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.QUERY, clazz, 0, 0, null);
         try {
+            recordSet = mClient.query(policy, statement);
             while (recordSet.next()) {
                 T object = this.getMappingConverter().convertToObject(clazz, recordSet.getKey(), recordSet.getRecord());
                 if (!processor.process(object)) {
                     break;
                 }
             }
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
         } finally {
-            recordSet.close();
+            if (recordSet != null) {
+                recordSet.close();
+            }
+            ClientCall.end(call);
         }
     }
 
@@ -461,6 +608,283 @@ public class AeroMapper implements IAeroMapper {
         return result;
     }
 
+    @Override
+    public <T> void query(QueryPolicy policy, @NotNull Class<T> clazz, @NotNull Processor<T> processor, Filter filter,
+            @NotNull Criteria criteria) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        policy = new QueryPolicy(policy == null ? entry.getQueryPolicy() : policy);
+        policy.filterExp = criteria.compile(entry);
+        query(policy, clazz, processor, filter);
+    }
+
+    @Override
+    public <T> List<T> query(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter, @NotNull Criteria criteria) {
+        List<T> result = new ArrayList<>();
+        Processor<T> resultProcessor = record -> {
+            result.add(record);
+            return true;
+        };
+        query(policy, clazz, resultProcessor, filter, criteria);
+        return result;
+    }
+
+    @Override
+    public <T> void query(@NotNull Class<T> clazz, @NotNull Criteria criteria, @NotNull Processor<T> processor) {
+        query(null, clazz, criteria, processor);
+    }
+
+    @Override
+    public <T> void query(QueryPolicy policy, @NotNull Class<T> clazz, @NotNull Criteria criteria,
+            @NotNull Processor<T> processor) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        QueryPlan plan = criteria.plan(entry);
+        policy = new QueryPolicy(policy == null ? entry.getQueryPolicy() : policy);
+        policy.filterExp = plan.getFilterExpression();
+        query(policy, clazz, processor, plan.getFilter());
+    }
+
+    @Override
+    public <T, R> R aggregate(@NotNull Class<T> clazz, @NotNull Aggregation<T, ?, R> aggregation) {
+        return aggregate(null, clazz, null, aggregation);
+    }
+
+    @Override
+    public <T, R> R aggregate(QueryPolicy policy, @NotNull Class<T> clazz, Criteria criteria,
+            @NotNull Aggregation<T, ?, R> aggregation) {
+        return aggregate(policy, clazz, criteria, aggregation, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public <T, R> R aggregate(QueryPolicy policy, @NotNull Class<T> clazz, Criteria criteria,
+            @NotNull Aggregation<T, ?, R> aggregation, int parallelism) {
+        return runAggregation(policy, clazz, criteria, aggregation, parallelism);
+    }
+
+    private <T, A, R> R runAggregation(QueryPolicy policy, Class<T> clazz, Criteria criteria,
+            Aggregation<T, A, R> aggregation, int parallelism) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        policy = new QueryPolicy(policy == null ? entry.getQueryPolicy() : policy);
+        Filter filter = null;
+        if (criteria != null) {
+            QueryPlan plan = criteria.plan(entry);
+            filter = plan.getFilter();
+            policy.filterExp = plan.getFilterExpression();
+        }
+
+        List<String> binNames = new ArrayList<>();
+        for (String fieldName : aggregation.getFieldNames()) {
+            String binName = entry.getBinNameForField(fieldName);
+            if (binName == null) {
+                throw new AerospikeException(String.format("Field %s is not a mapped field of class %s",
+                        fieldName, clazz.getName()));
+            }
+            binNames.add(binName);
+        }
+        if (!binNames.isEmpty()) {
+            // Needed to construct the right subclass
+            binNames.add(ClassCacheEntry.TYPE_NAME);
+        }
+
+        PartitionAggregator<T, A, R> aggregator = new PartitionAggregator<>(clazz, this.getMappingConverter(),
+                aggregation.collector(entry), binNames.toArray(new String[0]));
+        return aggregator.run(mClient, policy, entry.getNamespace(), entry.getSetName(), filter, parallelism);
+    }
+
+    @Override
+    public <T> QueryPage<T> queryPage(@NotNull Class<T> clazz, Filter filter, long pageSize, PartitionFilter cursor) {
+        return queryPage(null, clazz, filter, pageSize, cursor);
+    }
+
+    @Override
+    public <T> QueryPage<T> queryPage(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter, long pageSize,
+            PartitionFilter cursor) {
+        if (pageSize <= 0) {
+            throw new AerospikeException(String.format("pageSize must be greater than zero, not %d", pageSize));
+        }
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        if (policy == null) {
+            policy = entry.getQueryPolicy();
+        }
+        // The query moves the cursor on, so leave the one which was passed in as it was
+        cursor = cursor == null ? PartitionFilter.all() : QueryPage.copyCursor(cursor);
+        Statement statement = new Statement();
+        statement.setFilter(filter);
+        statement.setNamespace(entry.getNamespace());
+        statement.setSetName(entry.getSetName());
+        statement.setMaxRecords(pageSize);
+
+        List<T> results = new ArrayList<>();
+        RecordSet recordSet = null;
+        ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.QUERY, clazz, 0, 0, null);
+        try {
+            recordSet = mClient.queryPartitions(policy, statement, cursor);
+            while (recordSet.next()) {
+                results.add(this.getMappingConverter().convertToObject(clazz, recordSet.getKey(), recordSet.getRecord()));
+            }
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            if (recordSet != null) {
+                recordSet.close();
+            }
+            ClientCall.end(call);
+        }
+        return new QueryPage<>(results, cursor);
+    }
+
+    @Override
+    public <T> Stream<T> stream(@NotNull Class<T> clazz) {
+        return queryStream(null, clazz, null);
+    }
+
+    @Override
+    public <T> Stream<T> stream(QueryPolicy policy, @NotNull Class<T> clazz) {
+        return queryStream(policy, clazz, null);
+    }
+
+    @Override
+    public <T> Stream<T> queryStream(@NotNull Class<T> clazz, Filter filter) {
+        return queryStream(null, clazz, filter);
+    }
+
+    @Override
+    public <T> Stream<T> queryStream(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        if (policy == null) {
+            policy = entry.getQueryPolicy();
+        }
+        Statement statement = new Statement();
+        statement.setFilter(filter);
+        statement.setNamespace(entry.getNamespace());
+        statement.setSetName(entry.getSetName());
+
+        // The call lasts until the stream is closed
+        ClientCall call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.QUERY, clazz, 0, 0, null);
+        RecordSet recordSet;
+        try {
+            recordSet = mClient.query(policy, statement);
+        } catch (RuntimeException e) {
+            ClientCall.failed(call, e);
+            ClientCall.end(call);
+            throw e;
+        }
+        Iterator<T> iterator = new Iterator<T>() {
+            private boolean advanced = false;
+            private boolean hasNext = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    try {
+                        hasNext = recordSet.next();
+                    } catch (RuntimeException e) {
+                        throw ClientCall.failed(call, e);
+                    }
+                    advanced = true;
+                }
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+                return getMappingConverter().convertToObject(clazz, recordSet.getKey(), recordSet.getRecord());
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        recordSet.close();
+                    } finally {
+                        ClientCall.end(call);
+                    }
+                });
+    }
+
+    @Override
+    public <T> Stream<T> stream(QueryPolicy policy, @NotNull Class<T> clazz, @NotNull AdaptiveThrottle throttle) {
+        return queryStream(policy, clazz, null, throttle);
+    }
+
+    @Override
+    public <T> Stream<T> queryStream(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter,
+            @NotNull AdaptiveThrottle throttle) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        QueryPolicy basePolicy = policy == null ? entry.getQueryPolicy() : policy;
+        Statement statement = new Statement();
+        statement.setFilter(filter);
+        statement.setNamespace(entry.getNamespace());
+        statement.setSetName(entry.getSetName());
+
+        // Read in chunks, resuming from the partition cursor, so the rate can be changed between chunks
+        PartitionFilter cursor = PartitionFilter.all();
+        class ChunkedIterator implements Iterator<T> {
+            private RecordSet recordSet = null;
+            // Each chunk is a separate call, which lasts until the chunk has been read or the stream is closed
+            private ClientCall call = null;
+            private boolean advanced = false;
+            private boolean hasNext = false;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (!advanced) {
+                        if (recordSet != null && recordSet.next()) {
+                            hasNext = true;
+                            advanced = true;
+                        } else {
+                            close();
+                            if (cursor.isDone()) {
+                                hasNext = false;
+                                advanced = true;
+                            } else {
+                                int rate = throttle.adjust(foregroundLatency);
+                                QueryPolicy chunkPolicy = new QueryPolicy(basePolicy);
+                                chunkPolicy.recordsPerSecond = rate;
+                                chunkPolicy.maxRecords = throttle.getChunkSize(rate, mClient.getNodes().length);
+                                call = ClientCall.begin(mappingConverter.getInterceptor(), ClientCall.Type.QUERY, clazz,
+                                        0, 0, null);
+                                recordSet = mClient.queryPartitions(chunkPolicy, statement, cursor);
+                            }
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    ClientCall.failed(call, e);
+                    close();
+                    throw e;
+                }
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                advanced = false;
+                return getMappingConverter().convertToObject(clazz, recordSet.getKey(), recordSet.getRecord());
+            }
+
+            void close() {
+                try {
+                    if (recordSet != null) {
+                        recordSet.close();
+                        recordSet = null;
+                    }
+                } finally {
+                    ClientCall.end(call);
+                    call = null;
+                }
+            }
+        }
+        ChunkedIterator iterator = new ChunkedIterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
     @Override
     public <T> VirtualList<T> asBackedList(@NotNull Object object, @NotNull String binName, Class<T> elementClazz) {
         return new VirtualList<>(this, object, binName, elementClazz);
@@ -472,6 +896,29 @@ public class AeroMapper implements IAeroMapper {
         return new VirtualList<>(this, owningClazz, key, binName, elementClazz);
     }
 
+    @Override
+    public <T> ShardedVirtualList<T> asShardedList(@NotNull Object object, @NotNull String binName, Class<T> elementClazz,
+                                                   @NotNull Sharding sharding) {
+        return new ShardedVirtualList<>(this, object, binName, elementClazz, sharding);
+    }
+
+    @Override
+    public <T> ShardedVirtualList<T> asShardedList(@NotNull Class<?> owningClazz, @NotNull Object key, @NotNull String binName,
+                                                   Class<T> elementClazz, @NotNull Sharding sharding) {
+        return new ShardedVirtualList<>(this, owningClazz, key, binName, elementClazz, sharding);
+    }
+
+    @Override
+    public <T> TimeBucketedVirtualList<T> asTimeBucketedList(@NotNull Class<?> owningClazz, @NotNull Object key,
+                                                             @NotNull String binName, Class<T> elementClazz) {
+        return new TimeBucketedVirtualList<>(this, owningClazz, key, binName, elementClazz);
+    }
+
+    @Override
+    public ForegroundLatencyTracker getForegroundLatency() {
+        return foregroundLatency;
+    }
+
     @Override
     public IAerospikeClient getClient() {
         return this.mClient;
@@ -9,11 +9,13 @@ import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
 import com.aerospike.client.reactor.IAerospikeReactorClient;
 import com.aerospike.mapper.exceptions.NotAnnotatedClass;
+import com.aerospike.mapper.tools.configuration.BinNameDictionary;
 import com.aerospike.mapper.tools.configuration.ClassConfig;
 import com.aerospike.mapper.tools.configuration.Configuration;
 import com.aerospike.mapper.tools.utils.TypeUtils;
 
 import jakarta.validation.constraints.NotNull;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,6 +26,9 @@ public class ClassCache {
     private final Map<String, ClassConfig> classesConfig = new HashMap<>();
     private final Map<PolicyType, Policy> defaultPolicies = new HashMap<>();
     private final Map<String, ClassCacheEntry<?>> storedNameToCacheEntry = new HashMap<>();
+    private final Map<Integer, String> typeIdToClassName = new HashMap<>();
+    private volatile ClassCacheEntry<?>[] typeIdToCacheEntry = new ClassCacheEntry<?>[0];
+    private volatile BinNameDictionary binNameDictionary;
     private final Map<PolicyType, Map<Class<?>, Policy>> childrenPolicies = new HashMap<>();
     private final Map<PolicyType, Map<Class<?>, Policy>> specificPolicies = new HashMap<>();
     private final Object lock = new Object();
@@ -107,6 +112,54 @@ public class ClassCache {
         return storedNameToCacheEntry.get(name);
     }
 
+    // package visibility
+    void setTypeId(@NotNull ClassCacheEntry<?> entry, int typeId) {
+        synchronized (lock) {
+            ClassCacheEntry<?>[] entries = typeIdToCacheEntry;
+            ClassCacheEntry<?> existingEntry = typeId < entries.length ? entries[typeId] : null;
+            if (existingEntry != null && !(existingEntry.getUnderlyingClass().equals(entry.getUnderlyingClass()))) {
+                String errorMessage = String.format("Type id of %d is used for both %s and %s",
+                        typeId, existingEntry.getUnderlyingClass().getName(), entry.getUnderlyingClass().getName());
+                throw new AerospikeException(errorMessage);
+            }
+            if (typeId >= entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(typeId + 1, entries.length * 2));
+            } else {
+                entries = entries.clone();
+            }
+            entries[typeId] = entry;
+            // Publish a new array so readers never need to lock
+            typeIdToCacheEntry = entries;
+        }
+    }
+
+    /**
+     * Return the class with the passed type id, or null if no loaded class has this type id.
+     */
+    public ClassCacheEntry<?> getCacheEntryFromTypeId(int typeId) {
+        ClassCacheEntry<?>[] entries = typeIdToCacheEntry;
+        return typeId >= 0 && typeId < entries.length ? entries[typeId] : null;
+    }
+
+    /**
+     * Return the name of the class configured with the passed type id, or null if no configuration declares it. This
+     * allows a type id to be resolved before the class has been loaded.
+     */
+    public String getClassNameFromTypeId(int typeId) {
+        return typeIdToClassName.get(typeId);
+    }
+
+    void setBinNameDictionary(BinNameDictionary binNameDictionary) {
+        this.binNameDictionary = binNameDictionary;
+    }
+
+    /**
+     * The dictionary of stored bin names used by classes with compact bin names, or null if none has been set.
+     */
+    public BinNameDictionary getBinNameDictionary() {
+        return binNameDictionary;
+    }
+
     void setDefaultPolicies(IAerospikeClient client) {
         if (client != null) {
             this.defaultPolicies.put(PolicyType.READ, client.getReadPolicyDefault());
@@ -168,11 +221,22 @@ public class ClassCache {
         this.classesConfig.clear();
         TypeUtils.clear();
         this.storedNameToCacheEntry.clear();
+        this.typeIdToClassName.clear();
+        this.typeIdToCacheEntry = new ClassCacheEntry<?>[0];
+        this.binNameDictionary = null;
     }
 
     public void addConfiguration(@NotNull Configuration configuration) {
         for (ClassConfig thisConfig : configuration.getClasses()) {
             classesConfig.put(thisConfig.getClassName(), thisConfig);
+            if (thisConfig.getTypeId() != null) {
+                String existingClass = typeIdToClassName.get(thisConfig.getTypeId());
+                if (existingClass != null && !existingClass.equals(thisConfig.getClassName())) {
+                    throw new AerospikeException(String.format("Type id of %d is used for both %s and %s",
+                            thisConfig.getTypeId(), existingClass, thisConfig.getClassName()));
+                }
+                typeIdToClassName.put(thisConfig.getTypeId(), thisConfig.getClassName());
+            }
         }
     }
 
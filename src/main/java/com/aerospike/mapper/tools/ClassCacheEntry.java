@@ -8,12 +8,14 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import jakarta.validation.constraints.NotNull;
 
@@ -26,14 +28,17 @@ import com.aerospike.client.Record;
 import com.aerospike.client.Value;
 import com.aerospike.client.cdt.MapOrder;
 import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.GenerationPolicy;
 import com.aerospike.client.policy.Policy;
 import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.policy.RecordExistsAction;
 import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
 import com.aerospike.mapper.annotations.AerospikeBin;
 import com.aerospike.mapper.annotations.AerospikeConstructor;
 import com.aerospike.mapper.annotations.AerospikeExclude;
 import com.aerospike.mapper.annotations.AerospikeGetter;
+import com.aerospike.mapper.annotations.AerospikeIndex;
 import com.aerospike.mapper.annotations.AerospikeKey;
 import com.aerospike.mapper.annotations.AerospikeOrdinal;
 import com.aerospike.mapper.annotations.AerospikeRecord;
@@ -42,8 +47,12 @@ import com.aerospike.mapper.annotations.ParamFrom;
 import com.aerospike.mapper.annotations.AerospikeGeneration;
 import com.aerospike.mapper.exceptions.NotAnnotatedClass;
 import com.aerospike.mapper.tools.configuration.BinConfig;
+import com.aerospike.mapper.tools.configuration.BinNameDictionary;
 import com.aerospike.mapper.tools.configuration.ClassConfig;
+import com.aerospike.mapper.tools.configuration.IndexConfig;
 import com.aerospike.mapper.tools.configuration.KeyConfig;
+import com.aerospike.mapper.tools.mappers.CompressedMapper;
+import com.aerospike.mapper.tools.query.IndexDefinition;
 import com.aerospike.mapper.tools.utils.ParserUtils;
 import com.aerospike.mapper.tools.utils.TypeUtils;
 import com.aerospike.mapper.tools.utils.TypeUtils.AnnotatedType;
@@ -53,6 +62,9 @@ public class ClassCacheEntry<T> {
     public static final String VERSION_PREFIX = "@V";
     public static final String TYPE_PREFIX = "@T:";
     public static final String TYPE_NAME = ".type";
+    public static final String TYPE_ID_PREFIX = "@#";
+    public static final int MAX_TYPE_ID = 65535;
+    private static final ThreadLocal<Set<ClassCacheEntry<?>>> referenceChecksInProgress = ThreadLocal.withInitial(HashSet::new);
 
     private String namespace;
     private String setName;
@@ -61,6 +73,7 @@ public class ClassCacheEntry<T> {
     private Boolean sendKey = null;
     private Boolean durableDelete = null;
     private int version = 1;
+    private boolean compactBinNames = false;
 
     private final Class<T> clazz;
     private ValueType key;
@@ -68,8 +81,18 @@ public class ClassCacheEntry<T> {
     private boolean keyAsBin = true;
     private ValueType generationField = null;
     private final TreeMap<String, ValueType> values = new TreeMap<>();
+    private final Map<String, String> binNamesByFieldName = new HashMap<>();
+    /**
+     * The names the bins of this class are stored under in the database, by bin name, when the class uses compact bin
+     * names. This is null otherwise, when the bins are stored under their own names.
+     */
+    private Map<String, String> storedBinNames;
+    private final List<IndexConfig> indexConfigs = new ArrayList<>();
+    private final List<String> indexedBinNames = new ArrayList<>();
+    private volatile List<IndexDefinition> indexes;
     private ClassCacheEntry<?> superClazz;
     private int binCount;
+    private volatile Boolean loadsReferences;
     private final IBaseAeroMapper mapper;
     private Map<Integer, String> ordinals = null;
     private Set<String> fieldsWithOrdinals = null;
@@ -79,6 +102,9 @@ public class ClassCacheEntry<T> {
     private final BatchPolicy batchPolicy;
     private final QueryPolicy queryPolicy;
     private final ScanPolicy scanPolicy;
+    private final AtomicReferenceArray<WritePolicy> writePolicyTemplates =
+            new AtomicReferenceArray<>(RecordExistsAction.values().length);
+    private volatile WritePolicy deletePolicy;
     private String[] constructorParamBins;
     private Object[] constructorParamDefaults;
     private Constructor<T> constructor;
@@ -101,6 +127,13 @@ public class ClassCacheEntry<T> {
      * string must be unique for all classes.
      */
     private String shortenedClassName;
+    /**
+     * An optional small number which is stored instead of the shortened class name. Resolving it on read is an array
+     * lookup rather than a string lookup, and it takes far less space in lists with many polymorphic elements.
+     */
+    private int typeId = -1;
+    private Object typeTag;
+    private String listTypeTag;
     private boolean isChildClass = false;
 
     private volatile boolean constructed;
@@ -124,6 +157,10 @@ public class ClassCacheEntry<T> {
                     String.format("Class %s is not augmented by the @AerospikeRecord annotation", clazz.getName()));
         } else if (recordDescription != null) {
             this.setPropertiesFromAerospikeRecord(recordDescription);
+            // The type id is not inherited from interfaces as it must be unique to a class
+            if (recordDescription.typeId() != Integer.MIN_VALUE) {
+                this.typeId = recordDescription.typeId();
+            }
         }
         this.config = config;
     }
@@ -143,6 +180,9 @@ public class ClassCacheEntry<T> {
         }
         this.loadFieldsFromClass();
         this.loadPropertiesFromClass();
+        if (this.compactBinNames) {
+            this.loadStoredBinNames();
+        }
         this.superClazz = ClassCache.getInstance().loadClass(this.clazz.getSuperclass(), this.mapper, !this.mapAll);
         this.binCount = this.values.size() + (superClazz != null ? superClazz.binCount : 0);
         this.formOrdinalsFromValues();
@@ -158,6 +198,18 @@ public class ClassCacheEntry<T> {
             this.shortenedClassName = clazz.getSimpleName();
         }
         ClassCache.getInstance().setStoredName(this, this.shortenedClassName);
+        if (this.typeId != -1 && (this.typeId < 0 || this.typeId > MAX_TYPE_ID)) {
+            throw new AerospikeException(String.format("Type id of %d on class %s must be between 0 and %d",
+                    this.typeId, clazz.getName(), MAX_TYPE_ID));
+        }
+        if (this.typeId >= 0) {
+            ClassCache.getInstance().setTypeId(this, this.typeId);
+            this.typeTag = this.typeId;
+            this.listTypeTag = TYPE_ID_PREFIX + this.typeId;
+        } else {
+            this.typeTag = this.shortenedClassName;
+            this.listTypeTag = TYPE_PREFIX + this.shortenedClassName;
+        }
 
         this.checkRecordSettingsAgainstSuperClasses();
         constructed = true;
@@ -176,6 +228,63 @@ public class ClassCacheEntry<T> {
         return writePolicy;
     }
 
+    /**
+     * Return the policy to write an object of this class with: the write policy of the class with the given record
+     * exists action and the TTL and sendKey of the class applied. If the object has a generation value, a copy is
+     * returned which expects that generation. Otherwise the policy is shared between calls, so it must not be modified.
+     *
+     * @param instance - the object being written.
+     * @param action   - the record exists action to use.
+     * @return the write policy.
+     */
+    public WritePolicy getWritePolicy(Object instance, RecordExistsAction action) {
+        WritePolicy template = writePolicyTemplates.get(action.ordinal());
+        if (template == null) {
+            template = new WritePolicy(writePolicy);
+            template.recordExistsAction = action;
+            // #132 -- Ensure that if an overriding TTL / sendKey is passed in the policy it
+            // is NOT overwritten. Hence, these are only applied to the policies generated here.
+            Integer ttl = getTtl();
+            if (ttl != null) {
+                template.expiration = ttl;
+            }
+            if (sendKey != null) {
+                template.sendKey = sendKey;
+            }
+            // Another thread may have created it at the same time, but they are equivalent so either can be used
+            writePolicyTemplates.set(action.ordinal(), template);
+        }
+
+        // #181 Handle @AerospikeGeneration field for optimistic concurrency control
+        Integer generationValue = getGenerationValue(instance);
+        if (generationValue != null && generationValue > 0) {
+            WritePolicy result = new WritePolicy(template);
+            result.generation = generationValue;
+            result.generationPolicy = GenerationPolicy.EXPECT_GEN_EQUAL;
+            return result;
+        }
+        return template;
+    }
+
+    /**
+     * Return the policy to delete records of this class with: the write policy of the class, with durable delete set if
+     * the class specifies it. The policy is shared between calls, so it must not be modified.
+     */
+    public WritePolicy getDeletePolicy() {
+        WritePolicy result = deletePolicy;
+        if (result == null) {
+            if (durableDelete == null) {
+                result = writePolicy;
+            } else {
+                // Clone the write policy so we're not changing the original one
+                result = new WritePolicy(writePolicy);
+                result.durableDelete = durableDelete;
+            }
+            deletePolicy = result;
+        }
+        return result;
+    }
+
     public BatchPolicy getBatchPolicy() {
         return batchPolicy;
     }
@@ -192,6 +301,40 @@ public class ClassCacheEntry<T> {
         return this.clazz;
     }
 
+    /**
+     * Whether hydrating an object of this class may load other records, because it or an object embedded in it holds a
+     * reference which is not lazy. Subclasses are not considered.
+     */
+    public boolean loadsReferences() {
+        Boolean result = this.loadsReferences;
+        if (result != null) {
+            return result;
+        }
+        Set<ClassCacheEntry<?>> inProgress = referenceChecksInProgress.get();
+        if (!inProgress.add(this)) {
+            // This class embeds itself. Its own fields are being checked further up, so do not check them again
+            return false;
+        }
+        boolean found = false;
+        try {
+            for (ClassCacheEntry<?> thisClass = this; thisClass != null && !found; thisClass = thisClass.superClazz) {
+                for (ValueType value : thisClass.values.values()) {
+                    if (value.getTypeMapper().loadsReferences()) {
+                        found = true;
+                        break;
+                    }
+                }
+            }
+        } finally {
+            inProgress.remove(this);
+        }
+        // Inside a cycle of embedded classes the answer may be incomplete, so only keep an answer worked out from the top
+        if (inProgress.isEmpty()) {
+            this.loadsReferences = found;
+        }
+        return found;
+    }
+
     public ClassConfig getClassConfig() {
         return this.classConfig;
     }
@@ -200,6 +343,124 @@ public class ClassCacheEntry<T> {
         return this.shortenedClassName;
     }
 
+    /**
+     * The type id of this class, or -1 if it does not have one.
+     */
+    public int getTypeId() {
+        return this.typeId;
+    }
+
+    /**
+     * The value stored to identify this class where the type cannot be part of a list, such as the <code>.type</code>
+     * entry of a map or the type of a reference. This is the type id if there is one, otherwise the shortened class name.
+     */
+    public Object getTypeTag() {
+        return this.typeTag;
+    }
+
+    /**
+     * The value stored as the last element of a list to identify this class. This must be a string with a known prefix
+     * so it cannot be confused with the values of the object, even if the class has a type id.
+     */
+    public String getListTypeTag() {
+        return this.listTypeTag;
+    }
+
+    /**
+     * Determine whether the passed value, the last element of a list, is a type tag written by {@link #getListTypeTag()}.
+     * Only <code>@#</code> followed by the digits of a type id is a type id tag, so a string value which merely starts
+     * with <code>@#</code> is not mistaken for one.
+     */
+    public static boolean isListTypeTag(Object value) {
+        if (!(value instanceof String)) {
+            return false;
+        }
+        String tag = (String) value;
+        return tag.startsWith(TYPE_PREFIX) || isTypeIdTag(tag);
+    }
+
+    private static boolean isTypeIdTag(String tag) {
+        int length = tag.length() - TYPE_ID_PREFIX.length();
+        // MAX_TYPE_ID has 5 digits
+        if (!tag.startsWith(TYPE_ID_PREFIX) || length <= 0 || length > 5) {
+            return false;
+        }
+        for (int i = TYPE_ID_PREFIX.length(); i < tag.length(); i++) {
+            if (!Character.isDigit(tag.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the class identified by a type tag which was stored in the database. Numeric type ids and the prefixed list
+     * tags are understood, as are the shortened class names stored by older versions or by classes without a type id.
+     * A tag which does not identify a class is not an error here; the caller decides whether it can carry on with the
+     * declared type.
+     *
+     * @param tag    - the stored type tag.
+     * @param mapper - the mapper used to load the class if it is not already loaded, may be null.
+     * @return the class cache entry, or null if the class cannot be found.
+     */
+    public static ClassCacheEntry<?> fromTypeTag(Object tag, IBaseAeroMapper mapper) {
+        if (tag instanceof Number) {
+            return fromTypeId(((Number) tag).intValue(), mapper);
+        }
+        if (!(tag instanceof String)) {
+            return null;
+        }
+        String name = (String) tag;
+        if (isTypeIdTag(name)) {
+            return fromTypeId(Integer.parseInt(name.substring(TYPE_ID_PREFIX.length())), mapper);
+        }
+        if (name.startsWith(TYPE_PREFIX)) {
+            name = name.substring(TYPE_PREFIX.length());
+        }
+        ClassCacheEntry<?> entry = ClassCache.getInstance().getCacheEntryFromStoredName(name);
+        if (entry == null && mapper != null) {
+            entry = loadByClassName(name, mapper);
+        }
+        return entry;
+    }
+
+    /**
+     * As {@link #fromTypeTag(Object, IBaseAeroMapper)}, but throw an exception if the class cannot be found. This is
+     * used where an object must be built from the stored value, so falling back to the declared type would lose data.
+     */
+    static ClassCacheEntry<?> requireFromTypeTag(Object tag, IBaseAeroMapper mapper) {
+        ClassCacheEntry<?> entry = fromTypeTag(tag, mapper);
+        if (entry == null) {
+            if (tag instanceof Number || (tag instanceof String && isTypeIdTag((String) tag))) {
+                throw new AerospikeException(String.format("Type id tag \"%s\" does not match any loaded or configured "
+                        + "class. Classes which declare a type id in @AerospikeRecord must be loaded before they are read, "
+                        + "for example with preLoadClass on the builder", tag));
+            }
+            throw new AerospikeException(String.format("Type tag \"%s\" does not match any known class", tag));
+        }
+        return entry;
+    }
+
+    private static ClassCacheEntry<?> fromTypeId(int typeId, IBaseAeroMapper mapper) {
+        ClassCacheEntry<?> entry = ClassCache.getInstance().getCacheEntryFromTypeId(typeId);
+        if (entry == null && mapper != null) {
+            // The class may have been declared in the configuration but not loaded yet
+            String className = ClassCache.getInstance().getClassNameFromTypeId(typeId);
+            if (className != null) {
+                entry = loadByClassName(className, mapper);
+            }
+        }
+        return entry;
+    }
+
+    private static ClassCacheEntry<?> loadByClassName(String className, IBaseAeroMapper mapper) {
+        try {
+            return ClassCache.getInstance().loadClass(Class.forName(className), mapper);
+        } catch (ClassNotFoundException cnfe) {
+            return null;
+        }
+    }
+
     private void overrideSettings(ClassConfig config) {
         if (!StringUtils.isBlank(config.getNamespace())) {
             this.namespace = config.getNamespace();
@@ -225,6 +486,12 @@ public class ClassCacheEntry<T> {
         if (config.getShortName() != null) {
             this.shortenedClassName = config.getShortName();
         }
+        if (config.getTypeId() != null) {
+            this.typeId = config.getTypeId();
+        }
+        if (config.getCompactBinNames() != null) {
+            this.compactBinNames = config.getCompactBinNames();
+        }
         if (config.getFactoryMethod() != null) {
             this.factoryMethod = config.getFactoryMethod();
         }
@@ -259,11 +526,49 @@ public class ClassCacheEntry<T> {
         this.version = recordDescription.version();
         this.sendKey = recordDescription.sendKey();
         this.durableDelete = recordDescription.durableDelete();
+        this.compactBinNames = recordDescription.compactBinNames();
         this.shortenedClassName = recordDescription.shortName();
         this.factoryClass = recordDescription.factoryClass();
         this.factoryMethod = recordDescription.factoryMethod();
     }
 
+    private void loadStoredBinNames() {
+        BinNameDictionary dictionary = ClassCache.getInstance().getBinNameDictionary();
+        if (dictionary == null) {
+            throw new AerospikeException(String.format("Class %s uses compact bin names, but no bin name dictionary "
+                    + "has been set with withBinNameDictionary on the mapper builder", clazz.getName()));
+        }
+        List<String> binNames = new ArrayList<>(this.values.size());
+        for (String name : this.values.keySet()) {
+            if (!name.equals(this.keyName) || this.keyAsBin) {
+                binNames.add(name);
+            }
+        }
+        this.storedBinNames = dictionary.getStoredNames(clazz.getName(), binNames);
+    }
+
+    private String storedBinName(String name) {
+        return this.storedBinNames == null ? name : this.storedBinNames.getOrDefault(name, name);
+    }
+
+    /**
+     * Get the name the passed bin is stored under in the database, searching superclasses as needed. This is the bin
+     * name itself unless the class declaring the bin uses compact bin names.
+     *
+     * @param binName - the name of the bin, as declared on the class.
+     * @return The name stored in the database.
+     */
+    public String getStoredBinName(String binName) {
+        ClassCacheEntry<?> thisClass = this;
+        while (thisClass != null) {
+            if (thisClass.values.containsKey(binName)) {
+                return thisClass.storedBinName(binName);
+            }
+            thisClass = thisClass.superClazz;
+        }
+        return binName;
+    }
+
     private void checkRecordSettingsAgainstSuperClasses() {
         if (!StringUtils.isBlank(this.namespace) && !StringUtils.isBlank(this.setName)) {
             // This class defines its own namespace + set, it is only a child class if its
@@ -721,6 +1026,7 @@ public class ClassCacheEntry<T> {
             TypeMapper typeMapper = TypeUtils.getMapper(thisProperty.getType(), annotatedType, this.mapper);
             ValueType value = new ValueType.MethodValue(thisProperty, typeMapper, annotatedType);
             values.put(thisPropertyName, value);
+            binNamesByFieldName.put(thisPropertyName, thisPropertyName);
         }
     }
 
@@ -836,7 +1142,12 @@ public class ClassCacheEntry<T> {
         } else {
             name = binName;
         }
+        boolean compressed = (bin != null && bin.compress()) || (thisBin != null && thisBin.getCompress() != null);
         if (isKey) {
+            if (compressed) {
+                throw new AerospikeException(String.format("Class %s cannot compress the key field %s",
+                        clazz.getName(), thisField.getName()));
+            }
             this.keyName = name;
         }
 
@@ -844,13 +1155,28 @@ public class ClassCacheEntry<T> {
             throw new AerospikeException(
                     String.format("Class %s cannot define the mapped name %s more than once", clazz.getName(), name));
         }
+        binNamesByFieldName.put(thisField.getName(), name);
+        AerospikeIndex indexAnnotation = thisField.getAnnotation(AerospikeIndex.class);
+        if (compressed && ((thisBin != null && thisBin.getIndex() != null) || indexAnnotation != null)) {
+            // The index would hold the compressed blobs, so could never match a query
+            throw new AerospikeException(String.format("Class %s cannot both index and compress the field %s",
+                    clazz.getName(), thisField.getName()));
+        }
+        if (thisBin != null && thisBin.getIndex() != null) {
+            indexConfigs.add(thisBin.getIndex());
+            indexedBinNames.add(name);
+        } else if (indexAnnotation != null) {
+            indexConfigs.add(new IndexConfig(indexAnnotation.name(), indexAnnotation.type(), indexAnnotation.collectionType()));
+            indexedBinNames.add(name);
+        }
         if ((bin != null && bin.useAccessors())
                 || (thisBin != null && thisBin.getUseAccessors() != null && thisBin.getUseAccessors())) {
             validateAccessorsForField(name, thisField);
         } else {
             thisField.setAccessible(true);
             AnnotatedType annotatedType = new AnnotatedType(config, thisField);
-            TypeMapper typeMapper = TypeUtils.getMapper(thisField.getType(), annotatedType, this.mapper);
+            TypeMapper typeMapper = CompressedMapper.forBin(
+                    TypeUtils.getMapper(thisField.getType(), annotatedType, this.mapper), annotatedType);
             ValueType valueType = new ValueType.FieldValue(thisField, typeMapper, annotatedType);
             values.put(name, valueType);
         }
@@ -895,7 +1221,8 @@ public class ClassCacheEntry<T> {
         }
 
         AnnotatedType annotatedType = new AnnotatedType(config, thisField);
-        TypeMapper typeMapper = TypeUtils.getMapper(thisField.getType(), annotatedType, this.mapper);
+        TypeMapper typeMapper = CompressedMapper.forBin(
+                TypeUtils.getMapper(thisField.getType(), annotatedType, this.mapper), annotatedType);
         PropertyDefinition property = new PropertyDefinition(binName, mapper);
         property.setGetter(getter);
         property.setSetter(setter);
@@ -1025,12 +1352,7 @@ public class ClassCacheEntry<T> {
                         Object javaValue = value.get(instance);
                         Object aerospikeValue = value.getTypeMapper().toAerospikeFormat(javaValue);
                         if (aerospikeValue != null || allowNullBins) {
-                            if (aerospikeValue instanceof TreeMap<?, ?>) {
-                                TreeMap<?, ?> treeMap = (TreeMap<?, ?>) aerospikeValue;
-                                bins[index++] = new Bin(name, new ArrayList(treeMap.entrySet()), MapOrder.KEY_ORDERED);
-                            } else {
-                                bins[index++] = new Bin(name, Value.get(aerospikeValue));
-                            }
+                            bins[index++] = toBin(thisClass.storedBinName(name), aerospikeValue);
                         }
                     }
                 }
@@ -1050,7 +1372,7 @@ public class ClassCacheEntry<T> {
             Map<String, Object> results = new HashMap<>();
             ClassCacheEntry<?> thisClass = this;
             if (needsType) {
-                results.put(TYPE_NAME, this.getShortenedClassName());
+                results.put(TYPE_NAME, this.getTypeTag());
             }
             while (thisClass != null) {
                 for (String name : thisClass.values.keySet()) {
@@ -1067,6 +1389,103 @@ public class ClassCacheEntry<T> {
         }
     }
 
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Bin toBin(String storedName, Object aerospikeValue) {
+        if (aerospikeValue instanceof TreeMap<?, ?>) {
+            TreeMap<?, ?> treeMap = (TreeMap<?, ?>) aerospikeValue;
+            return new Bin(storedName, new ArrayList(treeMap.entrySet()), MapOrder.KEY_ORDERED);
+        }
+        return new Bin(storedName, Value.get(aerospikeValue));
+    }
+
+    /**
+     * Get the values of a record in the form returned by {@link #getMap(Object, boolean)}, keyed by the declared bin
+     * names, without building an object. The values are left as they are stored, so references stay as the keys of
+     * the referenced records rather than being read.
+     *
+     * @param key    - the key of the record, which supplies the key field if it is not stored in a bin.
+     * @param record - the record to read the values from.
+     * @return the values of the record by bin name.
+     */
+    public Map<String, Object> getMapFromRecord(Key key, Record record) {
+        Map<String, Object> results = new HashMap<>();
+        ClassCacheEntry<?> thisClass = this;
+        Object typeTag = record.getValue(TYPE_NAME);
+        if (typeTag != null) {
+            thisClass = requireFromTypeTag(typeTag, this.mapper);
+            if (thisClass != this) {
+                results.put(TYPE_NAME, thisClass.getTypeTag());
+            }
+        }
+        while (thisClass != null) {
+            for (String name : thisClass.values.keySet()) {
+                if (name.equals(thisClass.keyName) && !thisClass.keyAsBin) {
+                    if (key.userKey == null) {
+                        throw new AerospikeException(String.format("Key field on class %s was <null> for key %s."
+                                + " Was the record saved passing 'sendKey = true'? ", thisClass.clazz.getName(), key));
+                    }
+                    results.put(name, key.userKey.getObject());
+                } else {
+                    results.put(name, record.getValue(thisClass.storedBinName(name)));
+                }
+            }
+            thisClass = thisClass.superClazz;
+        }
+        return results;
+    }
+
+    /**
+     * Get the class of the values in a map returned by {@link #getMap(Object, boolean)}, which is this class unless
+     * the map holds the type of a subclass.
+     */
+    public ClassCacheEntry<?> getEntryForMap(Map<String, Object> map) {
+        Object typeTag = map.get(TYPE_NAME);
+        return typeTag == null ? this : requireFromTypeTag(typeTag, this.mapper);
+    }
+
+    /**
+     * Get the bins to store for a map returned by {@link #getMap(Object, boolean)}, without building an object. The
+     * values must already be in the form they are stored in, and each is stored under the stored name of its bin. As
+     * with {@link #getBins(Object, boolean, String[])}, null values and the key, unless it is stored as a bin, are
+     * left out. Pass the entry returned by {@link #getEntryForMap(Map)}.
+     *
+     * @param map - the values of the bins, keyed by the declared bin names.
+     * @return the bins to store.
+     */
+    public Bin[] getBinsFromMap(Map<String, Object> map) {
+        List<Bin> bins = new ArrayList<>(this.binCount);
+        ClassCacheEntry<?> thisClass = this;
+        while (thisClass != null) {
+            for (String name : thisClass.values.keySet()) {
+                if (name.equals(thisClass.keyName) && !thisClass.keyAsBin) {
+                    continue;
+                }
+                Object aerospikeValue = map.get(name);
+                if (aerospikeValue != null) {
+                    bins.add(toBin(thisClass.storedBinName(name), aerospikeValue));
+                }
+            }
+            thisClass = thisClass.superClazz;
+        }
+        return bins.toArray(new Bin[0]);
+    }
+
+    /**
+     * Get the key from a map returned by {@link #getMap(Object, boolean)}, in the form used in the Aerospike key.
+     */
+    public Object getKeyFromMap(Map<String, Object> map) {
+        ClassCacheEntry<?> thisClass = this;
+        while (thisClass != null && thisClass.keyName == null) {
+            thisClass = thisClass.superClazz;
+        }
+        Object key = thisClass == null ? null : map.get(thisClass.keyName);
+        if (key == null) {
+            throw new AerospikeException(String.format("No key for class %s was found in %s",
+                    this.clazz.getSimpleName(), map.keySet()));
+        }
+        return key;
+    }
+
     private void addDataFromValueName(String name, Object instance, ClassCacheEntry<?> thisClass, List<Object> results)
             throws ReflectiveOperationException {
         ValueType value = thisClass.values.get(name);
@@ -1109,7 +1528,7 @@ public class ClassCacheEntry<T> {
             }
             results.addAll(versionsToAdd);
             if (needsType) {
-                results.add(TYPE_PREFIX + this.getShortenedClassName());
+                results.add(this.getListTypeTag());
             }
             return results;
         } catch (ReflectiveOperationException ref) {
@@ -1134,13 +1553,9 @@ public class ClassCacheEntry<T> {
             // If the object saved in the list was a subclass of the declared type, it must
             // have the type name in the map
             // Note that there is a performance implication of using subclasses.
-            String className = map == null ? record.getString(TYPE_NAME) : (String) map.get(TYPE_NAME);
-            if (className != null) {
-                thisClass = ClassCache.getInstance().getCacheEntryFromStoredName(className);
-                if (thisClass == null) {
-                    Class<?> typeClazz = Class.forName(className);
-                    thisClass = ClassCache.getInstance().loadClass(typeClazz, this.mapper);
-                }
+            Object typeTag = map == null ? record.getValue(TYPE_NAME) : map.get(TYPE_NAME);
+            if (typeTag != null) {
+                thisClass = requireFromTypeTag(typeTag, this.mapper);
             }
 
             T result = null;
@@ -1155,10 +1570,10 @@ public class ClassCacheEntry<T> {
                             aerospikeValue = key.userKey.getObject();
                         } else {
                             throw new AerospikeException(String.format("Key field on class %s was <null> for key %s."
-                                    + " Was the record saved passing 'sendKey = true'? ", className, key));
+                                    + " Was the record saved passing 'sendKey = true'? ", thisClass.clazz.getName(), key));
                         }
                     } else {
-                        aerospikeValue = record.getValue(name);
+                        aerospikeValue = record.getValue(thisClass.storedBinName(name));
                     }
                     valueMap.put(name, value.getTypeMapper().fromAerospikeFormat(aerospikeValue));
                 }
@@ -1203,7 +1618,7 @@ public class ClassCacheEntry<T> {
             while (thisClass != null) {
                 for (String name : this.values.keySet()) {
                     ValueType value = this.values.get(name);
-                    Object aerospikeValue = record == null ? map.get(name) : record.getValue(name);
+                    Object aerospikeValue = record == null ? map.get(name) : record.getValue(this.storedBinName(name));
                     value.set(instance, value.getTypeMapper().fromAerospikeFormat(aerospikeValue));
                 }
                 thisClass = thisClass.superClazz;
@@ -1307,13 +1722,8 @@ public class ClassCacheEntry<T> {
                 // it must have the type name as the last element of the list.
                 // Note that there is a performance implication of using subclasses.
                 Object obj = list.get(endIndex - 1);
-                if ((obj instanceof String) && ((String) obj).startsWith(TYPE_PREFIX)) {
-                    String className = ((String) obj).substring(TYPE_PREFIX.length());
-                    thisClass = ClassCache.getInstance().getCacheEntryFromStoredName(className);
-                    if (thisClass == null) {
-                        Class<?> typeClazz = Class.forName(className);
-                        thisClass = ClassCache.getInstance().loadClass(typeClazz, this.mapper);
-                    }
+                if (isListTypeTag(obj)) {
+                    thisClass = requireFromTypeTag(obj, this.mapper);
                     endIndex--;
                 }
             }
@@ -1406,6 +1816,70 @@ public class ClassCacheEntry<T> {
         return this.values.get(name);
     }
 
+    /**
+     * Get the secondary indexes declared on this class and its superclasses.
+     */
+    public List<IndexDefinition> getIndexes() {
+        List<IndexDefinition> result = this.indexes;
+        if (result == null) {
+            result = new ArrayList<>();
+            ClassCacheEntry<?> thisClass = this;
+            while (thisClass != null) {
+                for (int i = 0; i < thisClass.indexConfigs.size(); i++) {
+                    IndexConfig indexConfig = thisClass.indexConfigs.get(i);
+                    if (indexConfig.getType() == null) {
+                        throw new AerospikeException(String.format("Index on bin %s of class %s does not specify an index type",
+                                thisClass.indexedBinNames.get(i), clazz.getName()));
+                    }
+                    result.add(new IndexDefinition(this.namespace, this.setName,
+                            thisClass.storedBinName(thisClass.indexedBinNames.get(i)),
+                            indexConfig.getName(), indexConfig.getType(), indexConfig.getCollectionType()));
+                }
+                thisClass = thisClass.superClazz;
+            }
+            result = Collections.unmodifiableList(result);
+            this.indexes = result;
+        }
+        return result;
+    }
+
+    /**
+     * Get the name of the bin which the passed Java field or property is stored in, searching superclasses as needed.
+     * If the class uses compact bin names, this is the name stored in the database.
+     *
+     * @param fieldName - The name of the field (or property) on the Java class.
+     * @return The bin name, or null if the field is not mapped.
+     */
+    public String getBinNameForField(String fieldName) {
+        ClassCacheEntry<?> thisClass = this;
+        while (thisClass != null) {
+            String binName = thisClass.binNamesByFieldName.get(fieldName);
+            if (binName != null) {
+                return thisClass.storedBinName(binName);
+            }
+            thisClass = thisClass.superClazz;
+        }
+        return null;
+    }
+
+    /**
+     * Get the ValueType of the passed Java field or property, searching superclasses as needed.
+     *
+     * @param fieldName - The name of the field (or property) on the Java class.
+     * @return The ValueType, or null if the field is not mapped.
+     */
+    public ValueType getValueFromFieldName(String fieldName) {
+        ClassCacheEntry<?> thisClass = this;
+        while (thisClass != null) {
+            String binName = thisClass.binNamesByFieldName.get(fieldName);
+            if (binName != null) {
+                return thisClass.values.get(binName);
+            }
+            thisClass = thisClass.superClazz;
+        }
+        return null;
+    }
+
     @Override
     public String toString() {
         return String.format("ClassCacheEntry<%s> (ns=%s,set=%s,subclass=%b,shortName=%s)",
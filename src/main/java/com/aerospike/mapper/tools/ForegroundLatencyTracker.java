@@ -0,0 +1,107 @@
+package com.aerospike.mapper.tools;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.aerospike.client.AerospikeException;
+
+/**
+ * Tracks an exponentially weighted moving average of the latency of single record and batch operations. Every mapper
+ * has one, which records the latency of its reads, saves and deletes, and is the default signal used by an
+ * {@link AdaptiveThrottle}.
+ * <p/>
+ * The average also decays with time, halving every idle half-life since the last operation was recorded. Without this,
+ * a spike followed by a quiet period, such as a scan run overnight, would hold the average at the spike and keep the
+ * throttle at its minimum rate although nothing is running in the foreground.
+ */
+public class ForegroundLatencyTracker implements LatencySignal {
+    public static final double DEFAULT_SMOOTHING = 0.1;
+    public static final long DEFAULT_IDLE_HALF_LIFE_MILLIS = 1000;
+
+    private static final Sample NO_VALUE = new Sample(-1.0, 0);
+
+    private static class Sample {
+        final double average;
+        final long nanoTime;
+
+        Sample(double average, long nanoTime) {
+            this.average = average;
+            this.nanoTime = nanoTime;
+        }
+    }
+
+    private final double smoothing;
+    private final long idleHalfLifeNanos;
+    private final AtomicReference<Sample> current = new AtomicReference<>(NO_VALUE);
+
+    public ForegroundLatencyTracker() {
+        this(DEFAULT_SMOOTHING);
+    }
+
+    /**
+     * @param smoothing - the weight given to each new sample, between 0 (exclusive) and 1 (inclusive). Higher values
+     *                  react faster but are noisier.
+     */
+    public ForegroundLatencyTracker(double smoothing) {
+        this(smoothing, DEFAULT_IDLE_HALF_LIFE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param smoothing    - the weight given to each new sample, between 0 (exclusive) and 1 (inclusive). Higher values
+     *                     react faster but are noisier.
+     * @param idleHalfLife - the time after which the average halves if no operation is recorded.
+     * @param unit         - the unit of the idle half-life.
+     */
+    public ForegroundLatencyTracker(double smoothing, long idleHalfLife, TimeUnit unit) {
+        if (!(smoothing > 0 && smoothing <= 1)) {
+            throw new AerospikeException(String.format("smoothing must be greater than 0 and at most 1, not %f", smoothing));
+        }
+        if (unit.toNanos(idleHalfLife) <= 0) {
+            throw new AerospikeException(String.format("idleHalfLife must be greater than zero, not %d %s",
+                    idleHalfLife, unit));
+        }
+        this.smoothing = smoothing;
+        this.idleHalfLifeNanos = unit.toNanos(idleHalfLife);
+    }
+
+    /**
+     * Record the latency of one operation.
+     *
+     * @param nanos - the elapsed time of the operation in nanoseconds.
+     */
+    public void record(long nanos) {
+        double sample = nanos / 1_000_000.0;
+        long now = System.nanoTime();
+        while (true) {
+            Sample last = current.get();
+            double lastValue = decayed(last, now);
+            double newValue = lastValue < 0 ? sample : lastValue + smoothing * (sample - lastValue);
+            if (current.compareAndSet(last, new Sample(newValue, now))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public double getLatencyMillis() {
+        return decayed(current.get(), System.nanoTime());
+    }
+
+    private double decayed(Sample sample, long now) {
+        if (sample.average < 0) {
+            return sample.average;
+        }
+        long idleNanos = now - sample.nanoTime;
+        if (idleNanos <= 0) {
+            return sample.average;
+        }
+        return sample.average * Math.pow(0.5, (double) idleNanos / idleHalfLifeNanos);
+    }
+
+    /**
+     * Forget all the samples recorded so far.
+     */
+    public void reset() {
+        current.set(NO_VALUE);
+    }
+}
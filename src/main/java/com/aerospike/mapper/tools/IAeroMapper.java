@@ -2,6 +2,7 @@ package com.aerospike.mapper.tools;
 
 import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import jakarta.validation.constraints.NotNull;
 
@@ -15,6 +16,13 @@ import com.aerospike.client.policy.QueryPolicy;
 import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
 import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.PartitionFilter;
+import com.aerospike.mapper.tools.aggregation.Aggregation;
+import com.aerospike.mapper.tools.aggregation.Aggregations;
+import com.aerospike.mapper.tools.query.Criteria;
+import com.aerospike.mapper.tools.virtuallist.ShardedVirtualList;
+import com.aerospike.mapper.tools.virtuallist.Sharding;
+import com.aerospike.mapper.tools.virtuallist.TimeBucketedVirtualList;
 import com.aerospike.mapper.tools.virtuallist.VirtualList;
 
 public interface IAeroMapper extends IBaseAeroMapper {
@@ -287,6 +295,67 @@ public interface IAeroMapper extends IBaseAeroMapper {
      */
     <T> void scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Processor<T> processor, int recordsPerSecond);
 
+    /**
+     * Scan every record in the set associated with the passed class, adapting the rate to the foreground latency. The scan
+     * is run in chunks, and before each chunk the throttle raises or lowers the rate between its bounds depending on the
+     * latency of the foreground reads and writes of this mapper, or the signal set on the throttle. Each record will be
+     * converted to the appropriate class then passed to the processor. If the processor returns false, the scan is aborted.
+     *
+     * @param clazz     - the class used to determine which set to scan and to convert the returned records to.
+     * @param processor - the Processor used to process each record
+     * @param throttle  - the throttle controlling the rate of the scan.
+     */
+    <T> void scan(@NotNull Class<T> clazz, @NotNull Processor<T> processor, @NotNull AdaptiveThrottle throttle);
+
+    /**
+     * Scan every record in the set associated with the passed class, adapting the rate to the foreground latency. The scan
+     * is run in chunks, and before each chunk the throttle raises or lowers the rate between its bounds depending on the
+     * latency of the foreground reads and writes of this mapper, or the signal set on the throttle. Each record will be
+     * converted to the appropriate class then passed to the processor. If the processor returns false, the scan is aborted.
+     * <p/>
+     * Depending on the policy passed or set as the ScanPolicy for this class, it is possible for the processor to be called by multiple different
+     * threads concurrently, so the processor should be thread-safe.
+     *
+     * @param policy    - the scan policy to use. If this is null, the default scan policy of the passed class will be used.
+     *                  The recordsPerSecond and maxRecords of the policy are replaced for each chunk.
+     * @param clazz     - the class used to determine which set to scan and to convert the returned records to.
+     * @param processor - the Processor used to process each record
+     * @param throttle  - the throttle controlling the rate of the scan.
+     */
+    <T> void scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Processor<T> processor, @NotNull AdaptiveThrottle throttle);
+
+    /**
+     * Scan every record in the set associated with the passed class using a pipelined scan. The scan callback threads only place
+     * the raw records onto a bounded queue, and a pool of worker threads converts each record to the appropriate class and passes it
+     * to the processor. Slow processing therefore does not stall the network reads, and hydration can use more threads than
+     * the scan. If the processor returns false, the scan is aborted.
+     * <p/>
+     * The scan policy associated with the passed class will be used.
+     *
+     * @param clazz     - the class used to determine which set to scan and to convert the returned records to.
+     * @param processor - the Processor used to process each record. Unless ordered delivery is requested, this will be called concurrently
+     *                  by multiple threads so must be thread-safe.
+     * @param options   - the options for the pipeline such as the number of worker threads and queue capacity.
+     * @return the metrics for the scan, including queue depth and stall statistics.
+     */
+    <T> ScanPipelineMetrics scan(@NotNull Class<T> clazz, @NotNull Processor<T> processor, @NotNull ScanPipelineOptions options);
+
+    /**
+     * Scan every record in the set associated with the passed class using a pipelined scan. The scan callback threads only place
+     * the raw records onto a bounded queue, and a pool of worker threads converts each record to the appropriate class and passes it
+     * to the processor. Slow processing therefore does not stall the network reads, and hydration can use more threads than
+     * the scan. If the processor returns false, the scan is aborted.
+     *
+     * @param policy    - the scan policy to use. If this is null, the default scan policy of the passed class will be used.
+     * @param clazz     - the class used to determine which set to scan and to convert the returned records to.
+     * @param processor - the Processor used to process each record. Unless ordered delivery is requested, this will be called concurrently
+     *                  by multiple threads so must be thread-safe.
+     * @param options   - the options for the pipeline such as the number of worker threads and queue capacity.
+     * @return the metrics for the scan, including queue depth and stall statistics.
+     */
+    <T> ScanPipelineMetrics scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Processor<T> processor,
+                                 @NotNull ScanPipelineOptions options);
+
     /**
      * Scan every record in the set associated with the passed class
      * and returns the list of records converted to the appropriate class.
@@ -304,6 +373,42 @@ public interface IAeroMapper extends IBaseAeroMapper {
      */
     <T> List<T> scan(ScanPolicy policy, @NotNull Class<T> clazz);
 
+    /**
+     * Scan the records in the set associated with the passed class which match the passed criteria. The criteria is compiled
+     * to a filter expression so records which do not match are discarded on the server. Each matching record will be
+     * converted to the appropriate class then passed to the processor. If the processor returns false, the scan is aborted.
+     * <p/>
+     * The scan policy associated with the passed class will be used.
+     *
+     * @param clazz     - the class used to determine which set to scan and to convert the returned records to.
+     * @param criteria  - the criteria the records must match, expressed in terms of the fields of the class.
+     * @param processor - the Processor used to process each record
+     */
+    <T> void scan(@NotNull Class<T> clazz, @NotNull Criteria criteria, @NotNull Processor<T> processor);
+
+    /**
+     * Scan the records in the set associated with the passed class which match the passed criteria. The criteria is compiled
+     * to a filter expression so records which do not match are discarded on the server. Each matching record will be
+     * converted to the appropriate class then passed to the processor. If the processor returns false, the scan is aborted.
+     *
+     * @param policy    - the scan policy to use. If this is null, the default scan policy of the passed class will be used. Any filter
+     *                  expression on the policy is replaced by the criteria; the passed policy itself is not altered.
+     * @param clazz     - the class used to determine which set to scan and to convert the returned records to.
+     * @param criteria  - the criteria the records must match, expressed in terms of the fields of the class.
+     * @param processor - the Processor used to process each record
+     */
+    <T> void scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Criteria criteria, @NotNull Processor<T> processor);
+
+    /**
+     * Scan the records in the set associated with the passed class which match the passed criteria
+     * and returns the list of records converted to the appropriate class.
+     *
+     * @param policy   - the scan policy to use. If this is null, the default scan policy of the passed class will be used.
+     * @param clazz    - the class used to determine which set to scan and to convert the returned records to.
+     * @param criteria - the criteria the records must match, expressed in terms of the fields of the class.
+     */
+    <T> List<T> scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Criteria criteria);
+
     /**
      * Perform a secondary index query with the specified query policy. Each record will be converted
      * to the appropriate class then passed to the processor. If the processor returns false the query is aborted
@@ -356,6 +461,215 @@ public interface IAeroMapper extends IBaseAeroMapper {
      */
     <T> List<T> query(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter);
 
+    /**
+     * Perform a secondary index query, additionally discarding on the server any records which do not match the passed criteria.
+     * Each matching record will be converted to the appropriate class then passed to the processor. If the processor returns
+     * false the query is aborted.
+     *
+     * @param policy    - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used.
+     *                  Any filter expression on the policy is replaced by the criteria; the passed policy itself is not altered.
+     * @param clazz     - the class used to determine which set to query and to convert the returned records to.
+     * @param processor - the Processor used to process each record
+     * @param filter    - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *                  associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @param criteria  - the criteria the records must match, expressed in terms of the fields of the class.
+     */
+    <T> void query(QueryPolicy policy, @NotNull Class<T> clazz, @NotNull Processor<T> processor, Filter filter, @NotNull Criteria criteria);
+
+    /**
+     * Perform a secondary index query, additionally discarding on the server any records which do not match the passed criteria,
+     * and returns the list of records converted to the appropriate class.
+     *
+     * @param policy   - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used.
+     * @param clazz    - the class used to determine which set to query and to convert the returned records to.
+     * @param filter   - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *                 associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @param criteria - the criteria the records must match, expressed in terms of the fields of the class.
+     * @return List of records converted to the appropriate class
+     */
+    <T> List<T> query(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter, @NotNull Criteria criteria);
+
+    /**
+     * Query the records of the passed class which match the passed criteria, using a secondary index where possible. If one of
+     * the conditions which must always be true refers to a field with an index declared through <code>@AerospikeIndex</code> or
+     * the bin configuration, that condition is used as the secondary index filter and the remaining conditions are evaluated on
+     * the server as a filter expression. If no such condition exists, the set is scanned using the criteria as the filter expression.
+     * Each matching record will be converted to the appropriate class then passed to the processor. If the processor returns false
+     * the query is aborted.
+     * <p/>
+     * The query policy used will be the one associated with the passed classtype.
+     *
+     * @param clazz     - the class used to determine which set to query and to convert the returned records to.
+     * @param criteria  - the criteria the records must match, expressed in terms of the fields of the class.
+     * @param processor - the Processor used to process each record
+     */
+    <T> void query(@NotNull Class<T> clazz, @NotNull Criteria criteria, @NotNull Processor<T> processor);
+
+    /**
+     * Query the records of the passed class which match the passed criteria, using a secondary index where possible. If one of
+     * the conditions which must always be true refers to a field with an index declared through <code>@AerospikeIndex</code> or
+     * the bin configuration, that condition is used as the secondary index filter and the remaining conditions are evaluated on
+     * the server as a filter expression. If no such condition exists, the set is scanned using the criteria as the filter expression.
+     * Each matching record will be converted to the appropriate class then passed to the processor. If the processor returns false
+     * the query is aborted.
+     *
+     * @param policy    - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used.
+     *                  Any filter expression on the policy is replaced; the passed policy itself is not altered.
+     * @param clazz     - the class used to determine which set to query and to convert the returned records to.
+     * @param criteria  - the criteria the records must match, expressed in terms of the fields of the class.
+     * @param processor - the Processor used to process each record
+     */
+    <T> void query(QueryPolicy policy, @NotNull Class<T> clazz, @NotNull Criteria criteria, @NotNull Processor<T> processor);
+
+    /**
+     * Aggregate all the records of the passed class on the client. The partitions are split across one worker per
+     * available processor, each of which folds its records into its own accumulator, and the accumulators are merged at
+     * the end. Only the bins of the fields referenced by the aggregation are read. See {@link Aggregations} for the
+     * standard aggregations.
+     *
+     * @param clazz       - the class used to determine which set to scan and to convert the returned records to.
+     * @param aggregation - the aggregation to run.
+     * @return the result of the aggregation.
+     */
+    <T, R> R aggregate(@NotNull Class<T> clazz, @NotNull Aggregation<T, ?, R> aggregation);
+
+    /**
+     * Aggregate the records of the passed class which match the passed criteria on the client. If the criteria can use a
+     * secondary index, only the matching partitions of the index are read, otherwise the set is scanned with the criteria
+     * as the filter expression. The partitions are split across one worker per available processor.
+     *
+     * @param policy      - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used.
+     * @param clazz       - the class used to determine which set to scan and to convert the returned records to.
+     * @param criteria    - the criteria the records must match, or null to aggregate all the records.
+     * @param aggregation - the aggregation to run.
+     * @return the result of the aggregation.
+     */
+    <T, R> R aggregate(QueryPolicy policy, @NotNull Class<T> clazz, Criteria criteria, @NotNull Aggregation<T, ?, R> aggregation);
+
+    /**
+     * Aggregate the records of the passed class which match the passed criteria on the client, using the passed number
+     * of workers. Each worker reads a contiguous range of partitions.
+     *
+     * @param policy      - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used.
+     * @param clazz       - the class used to determine which set to scan and to convert the returned records to.
+     * @param criteria    - the criteria the records must match, or null to aggregate all the records.
+     * @param aggregation - the aggregation to run.
+     * @param parallelism - the number of workers, each with its own thread and accumulator.
+     * @return the result of the aggregation.
+     */
+    <T, R> R aggregate(QueryPolicy policy, @NotNull Class<T> clazz, Criteria criteria, @NotNull Aggregation<T, ?, R> aggregation,
+            int parallelism);
+
+    /**
+     * Perform a secondary index query returning at most <code>pageSize</code> records converted to the appropriate class.
+     * The returned page contains a cursor which can be passed back to this method to retrieve the next page. Only one
+     * page of records is held in memory at a time.
+     * <p/>
+     * The query policy used will be the one associated with the passed classtype.
+     *
+     * @param clazz    - the class used to determine which set to query and to convert the returned records to.
+     * @param filter   - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *                 associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @param pageSize - the maximum number of records to return in this page. Must be greater than zero.
+     * @param cursor   - the cursor returned from the previous page, or null to start from the first page.
+     * @return The page of records, along with the cursor to retrieve the next page.
+     */
+    <T> QueryPage<T> queryPage(@NotNull Class<T> clazz, Filter filter, long pageSize, PartitionFilter cursor);
+
+    /**
+     * Perform a secondary index query returning at most <code>pageSize</code> records converted to the appropriate class.
+     * The returned page contains a cursor which can be passed back to this method to retrieve the next page. Only one
+     * page of records is held in memory at a time.
+     *
+     * @param policy   - The query policy to use. If this parameter is not passed, the query policy associated with the passed classtype will be used
+     * @param clazz    - the class used to determine which set to query and to convert the returned records to.
+     * @param filter   - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *                 associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @param pageSize - the maximum number of records to return in this page. Must be greater than zero.
+     * @param cursor   - the cursor returned from the previous page, or null to start from the first page.
+     * @return The page of records, along with the cursor to retrieve the next page.
+     */
+    <T> QueryPage<T> queryPage(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter, long pageSize, PartitionFilter cursor);
+
+    /**
+     * Scan every record in the set associated with the passed class, returning the records as a lazily populated stream
+     * of objects converted to the appropriate class. Records are buffered in a bounded queue (sized by the
+     * <code>recordQueueSize</code> of the query policy), so memory use does not depend on the size of the set, and the
+     * server is throttled if the consumer of the stream cannot keep up.
+     * <p/>
+     * The returned stream holds server resources and must be closed, typically using a try-with-resources block.
+     * The query policy associated with the passed classtype will be used.
+     *
+     * @param clazz - the class used to determine which set to scan and to convert the returned records to.
+     * @return A stream of records converted to the appropriate class.
+     */
+    <T> Stream<T> stream(@NotNull Class<T> clazz);
+
+    /**
+     * Scan every record in the set associated with the passed class, returning the records as a lazily populated stream
+     * of objects converted to the appropriate class. Records are buffered in a bounded queue (sized by the
+     * <code>recordQueueSize</code> of the query policy), so memory use does not depend on the size of the set, and the
+     * server is throttled if the consumer of the stream cannot keep up.
+     * <p/>
+     * The returned stream holds server resources and must be closed, typically using a try-with-resources block.
+     *
+     * @param policy - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used
+     * @param clazz  - the class used to determine which set to scan and to convert the returned records to.
+     * @return A stream of records converted to the appropriate class.
+     */
+    <T> Stream<T> stream(QueryPolicy policy, @NotNull Class<T> clazz);
+
+    /**
+     * Perform a secondary index query, returning the records as a lazily populated stream of objects converted to the
+     * appropriate class. Records are buffered in a bounded queue, so memory use does not depend on the number of matching
+     * records. The returned stream must be closed.
+     * <p/>
+     * The query policy used will be the one associated with the passed classtype.
+     *
+     * @param clazz  - the class used to determine which set to query and to convert the returned records to.
+     * @param filter - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *               associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @return A stream of records converted to the appropriate class.
+     */
+    <T> Stream<T> queryStream(@NotNull Class<T> clazz, Filter filter);
+
+    /**
+     * Perform a secondary index query, returning the records as a lazily populated stream of objects converted to the
+     * appropriate class. Records are buffered in a bounded queue, so memory use does not depend on the number of matching
+     * records. The returned stream must be closed.
+     *
+     * @param policy - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used
+     * @param clazz  - the class used to determine which set to query and to convert the returned records to.
+     * @param filter - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *               associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @return A stream of records converted to the appropriate class.
+     */
+    <T> Stream<T> queryStream(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter);
+
+    /**
+     * Scan every record in the set associated with the passed class, returning the records as a lazily populated stream,
+     * with the rate adapted to the foreground latency as described in {@link AdaptiveThrottle}. The returned stream must be closed.
+     *
+     * @param policy   - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used
+     * @param clazz    - the class used to determine which set to scan and to convert the returned records to.
+     * @param throttle - the throttle controlling the rate of the scan.
+     * @return A stream of records converted to the appropriate class.
+     */
+    <T> Stream<T> stream(QueryPolicy policy, @NotNull Class<T> clazz, @NotNull AdaptiveThrottle throttle);
+
+    /**
+     * Perform a secondary index query, returning the records as a lazily populated stream, with the rate adapted to the
+     * foreground latency as described in {@link AdaptiveThrottle}. The returned stream must be closed.
+     *
+     * @param policy   - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used
+     * @param clazz    - the class used to determine which set to query and to convert the returned records to.
+     * @param filter   - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *                 associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @param throttle - the throttle controlling the rate of the query.
+     * @return A stream of records converted to the appropriate class.
+     */
+    <T> Stream<T> queryStream(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter, @NotNull AdaptiveThrottle throttle);
+
     /**
      * Create a virtual list against an attribute on a class. The list does all operations to the database and does not affect the underlying
      * class, and is useful for situation when operations are needed to affect the database without having to return all the elements on the
@@ -402,11 +716,61 @@ public interface IAeroMapper extends IBaseAeroMapper {
      */
     <T> VirtualList<T> asBackedList(@NotNull Class<?> owningClazz, @NotNull Object key, @NotNull String binName, Class<T> elementClazz);
 
+    /**
+     * Create a virtual list against an attribute on a class whose elements are spread over several records, so the list
+     * is not limited by the maximum record size. See {@link ShardedVirtualList} for how operations on the whole list
+     * are performed.
+     *
+     * @param <T>          the type of the elements in the list.
+     * @param object       The object that will use as a base for the virtual list.
+     * @param binName      The Aerospike bin name.
+     * @param elementClazz The class of the elements in the list.
+     * @param sharding     How the elements are spread over the records.
+     * @return A sharded virtual list.
+     */
+    <T> ShardedVirtualList<T> asShardedList(@NotNull Object object, @NotNull String binName, Class<T> elementClazz,
+                                            @NotNull Sharding sharding);
+
+    /**
+     * Create a virtual list against an attribute on a class whose elements are spread over several records. As with
+     * {@link #asBackedList(Class, Object, String, Class)}, the object being mapped does not need to exist.
+     *
+     * @param <T>          the type of the elements in the list.
+     * @param owningClazz  Used for the definitions of how to map the list elements.
+     * @param key          The key to map the object to the database.
+     * @param binName      The Aerospike bin name.
+     * @param elementClazz The class of the elements in the list.
+     * @param sharding     How the elements are spread over the records.
+     * @return A sharded virtual list.
+     */
+    <T> ShardedVirtualList<T> asShardedList(@NotNull Class<?> owningClazz, @NotNull Object key, @NotNull String binName,
+                                            Class<T> elementClazz, @NotNull Sharding sharding);
+
+    /**
+     * Create a virtual list for time series against an attribute on a class. Elements are written to a separate record
+     * for each period of time, so old data can be removed by expiry. The object being mapped does not need to exist.
+     *
+     * @param <T>          the type of the elements in the list.
+     * @param owningClazz  Used for the definitions of how to map the list elements.
+     * @param key          The key to map the object to the database.
+     * @param binName      The Aerospike bin name.
+     * @param elementClazz The class of the elements in the list.
+     * @return A time bucketed virtual list, with buckets of {@link TimeBucketedVirtualList#DEFAULT_BUCKET_DURATION}.
+     */
+    <T> TimeBucketedVirtualList<T> asTimeBucketedList(@NotNull Class<?> owningClazz, @NotNull Object key,
+                                                      @NotNull String binName, Class<T> elementClazz);
+
     /**
      * Get the IAerospikeClient which was used to create this mapper.
      * @return the underlying mapper.
      */
     IAerospikeClient getClient();
+
+    /**
+     * Get the moving average of the latency of the single record and batch reads, saves and deletes made by this mapper.
+     * This is the default signal used by an {@link AdaptiveThrottle}.
+     */
+    ForegroundLatencyTracker getForegroundLatency();
     
     /**
      * Get the namespace associated with the passed class
@@ -13,7 +13,9 @@ import com.aerospike.client.policy.QueryPolicy;
 import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
 import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.PartitionFilter;
 import com.aerospike.client.reactor.IAerospikeReactorClient;
+import com.aerospike.mapper.tools.query.Criteria;
 import com.aerospike.mapper.tools.virtuallist.ReactiveVirtualList;
 
 import reactor.core.publisher.Flux;
@@ -265,6 +267,17 @@ public interface IReactiveAeroMapper extends IBaseAeroMapper {
      */
     <T> Flux<T> scan(ScanPolicy policy, @NotNull Class<T> clazz, int recordsPerSecond);
 
+    /**
+     * Scan the records in the set associated with the passed class which match the passed criteria. The criteria is compiled
+     * to a filter expression so records which do not match are discarded on the server. Each record will be converted to the appropriate class.
+     *
+     * @param policy   - the scan policy to use. If this is null, the default scan policy of the passed class will be used. Any filter
+     *                 expression on the policy is replaced by the criteria; the passed policy itself is not altered.
+     * @param clazz    - the class used to determine which set to scan and to convert the returned records to.
+     * @param criteria - the criteria the records must match, expressed in terms of the fields of the class.
+     */
+    <T> Flux<T> scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Criteria criteria);
+
     /**
      * Perform a secondary index query with the specified query policy. Each record will be converted
      * to the appropriate class then passed to the processor. If the processor returns false the query is aborted
@@ -290,6 +303,46 @@ public interface IReactiveAeroMapper extends IBaseAeroMapper {
      */
     <T> Flux<T> query(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter);
 
+    /**
+     * Perform a secondary index query, additionally discarding on the server any records which do not match the passed criteria.
+     * Each record will be converted to the appropriate class.
+     *
+     * @param policy   - The query policy to use. If this parameter is null, the query policy associated with the passed classtype will be used.
+     *                 Any filter expression on the policy is replaced by the criteria; the passed policy itself is not altered.
+     * @param clazz    - the class used to determine which set to query and to convert the returned records to.
+     * @param filter   - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *                 associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @param criteria - the criteria the records must match, expressed in terms of the fields of the class.
+     */
+    <T> Flux<T> query(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter, @NotNull Criteria criteria);
+
+    /**
+     * Perform a secondary index query returning at most <code>pageSize</code> records converted to the appropriate class.
+     * The returned page contains a cursor which can be passed back to this method to retrieve the next page.
+     * <p/>
+     * The query policy used will be the one associated with the passed classtype.
+     *
+     * @param clazz    - the class used to determine which set to query and to convert the returned records to.
+     * @param filter   - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *                 associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @param pageSize - the maximum number of records to return in this page. Must be greater than zero.
+     * @param cursor   - the cursor returned from the previous page, or null to start from the first page.
+     */
+    <T> Mono<QueryPage<T>> queryPage(@NotNull Class<T> clazz, Filter filter, long pageSize, PartitionFilter cursor);
+
+    /**
+     * Perform a secondary index query returning at most <code>pageSize</code> records converted to the appropriate class.
+     * The returned page contains a cursor which can be passed back to this method to retrieve the next page.
+     *
+     * @param policy   - The query policy to use. If this parameter is not passed, the query policy associated with the passed classtype will be used
+     * @param clazz    - the class used to determine which set to query and to convert the returned records to.
+     * @param filter   - the filter used to determine which secondary index to use. If this filter is null, every record in the set
+     *                 associated with the passed classtype will be scanned, effectively turning the query into a scan
+     * @param pageSize - the maximum number of records to return in this page. Must be greater than zero.
+     * @param cursor   - the cursor returned from the previous page, or null to start from the first page.
+     */
+    <T> Mono<QueryPage<T>> queryPage(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter, long pageSize, PartitionFilter cursor);
+
     /**
      * Create a reactive virtual list against an attribute on a class. The list does all operations to the database and does not affect the underlying
      * class, and is useful for situation when operations are needed to affect the database without having to return all the elements on the
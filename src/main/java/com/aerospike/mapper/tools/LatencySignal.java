@@ -0,0 +1,13 @@
+package com.aerospike.mapper.tools;
+
+/**
+ * A source of the latency currently seen by foreground work, used by an {@link AdaptiveThrottle} to decide whether
+ * background scans should slow down or speed up.
+ */
+@FunctionalInterface
+public interface LatencySignal {
+    /**
+     * The current foreground latency in milliseconds, or a negative number if no latency has been observed yet.
+     */
+    double getLatencyMillis();
+}
@@ -0,0 +1,137 @@
+package com.aerospike.mapper.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.Collector;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.PartitionFilter;
+import com.aerospike.client.query.RecordSet;
+import com.aerospike.client.query.Statement;
+import com.aerospike.mapper.tools.converters.MappingConverter;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+
+/**
+ * Runs an aggregation by splitting the partitions into contiguous ranges, one per worker. Each worker consumes its own
+ * partition query on its own thread and folds the records into its own accumulator, so no locking is needed. The
+ * accumulators are merged in partition order once all the workers have finished.
+ */
+class PartitionAggregator<T, A, R> {
+    private static final int PARTITIONS = 4096;
+    private static final AtomicInteger aggregationCounter = new AtomicInteger();
+
+    private final Class<T> clazz;
+    private final MappingConverter converter;
+    private final Collector<T, A, R> collector;
+    private final String[] binNames;
+    private final AtomicBoolean aborted = new AtomicBoolean(false);
+
+    /**
+     * @param binNames - the bins to read, or an empty array to read no bin data and pass null to the collector.
+     */
+    PartitionAggregator(Class<T> clazz, MappingConverter converter, Collector<T, A, R> collector, String[] binNames) {
+        this.clazz = clazz;
+        this.converter = converter;
+        this.collector = collector;
+        this.binNames = binNames;
+    }
+
+    R run(IAerospikeClient client, QueryPolicy policy, String namespace, String setName, Filter filter, int parallelism) {
+        int workers = Math.max(1, Math.min(parallelism, PARTITIONS));
+        if (binNames.length == 0) {
+            policy = new QueryPolicy(policy);
+            policy.includeBinData = false;
+        }
+        int aggregationId = aggregationCounter.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable,
+                    String.format("aerospike-mapper-aggregate-%d-%d", aggregationId, threadCounter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<A>> futures = new ArrayList<>(workers);
+            int begin = 0;
+            for (int i = 0; i < workers; i++) {
+                int count = PARTITIONS / workers + (i < PARTITIONS % workers ? 1 : 0);
+                PartitionFilter partitionFilter = PartitionFilter.range(begin, count);
+                QueryPolicy queryPolicy = policy;
+                futures.add(executor.submit(() ->
+                        accumulate(client, queryPolicy, createStatement(namespace, setName, filter), partitionFilter)));
+                begin += count;
+            }
+            A result = null;
+            for (Future<A> future : futures) {
+                A partial = get(future);
+                result = result == null ? partial : collector.combiner().apply(result, partial);
+            }
+            return collector.finisher().apply(result);
+        } finally {
+            aborted.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    private Statement createStatement(String namespace, String setName, Filter filter) {
+        Statement statement = new Statement();
+        statement.setNamespace(namespace);
+        statement.setSetName(setName);
+        statement.setFilter(filter);
+        if (binNames.length > 0) {
+            statement.setBinNames(binNames);
+        }
+        return statement;
+    }
+
+    private A accumulate(IAerospikeClient client, QueryPolicy policy, Statement statement, PartitionFilter partitionFilter) {
+        A accumulator = collector.supplier().get();
+        BiConsumer<A, T> accumulatorFunction = collector.accumulator();
+        boolean hydrate = binNames.length > 0;
+        RecordSet recordSet = null;
+        // Each worker's query is a separate call
+        ClientCall call = ClientCall.begin(converter.getInterceptor(), ClientCall.Type.QUERY, clazz, 0, 0,
+                hydrate ? binNames : null);
+        try {
+            recordSet = client.queryPartitions(policy, statement, partitionFilter);
+            while (!aborted.get() && recordSet.next()) {
+                T object = hydrate ? converter.convertToObject(clazz, recordSet.getKey(), recordSet.getRecord()) : null;
+                accumulatorFunction.accept(accumulator, object);
+            }
+        } catch (RuntimeException e) {
+            aborted.set(true);
+            throw ClientCall.failed(call, e);
+        } finally {
+            if (recordSet != null) {
+                recordSet.close();
+            }
+            ClientCall.end(call);
+        }
+        return accumulator;
+    }
+
+    private A get(Future<A> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AerospikeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AerospikeException) {
+                throw (AerospikeException) cause;
+            }
+            throw new AerospikeException(cause);
+        }
+    }
+}
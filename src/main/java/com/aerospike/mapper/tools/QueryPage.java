@@ -0,0 +1,79 @@
+package com.aerospike.mapper.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.query.PartitionFilter;
+
+/**
+ * A single page of results returned from a paginated query, together with the cursor needed to fetch the
+ * next page. The cursor is a <code>PartitionFilter</code> which records how far through each partition the
+ * query has progressed, so it can be passed back to <code>queryPage</code> to resume where this page finished.
+ * <p/>
+ * The cursor is <code>Serializable</code> so it can be held between requests, for example in a web session. The
+ * query advances a copy of the cursor it was passed, so each page has its own cursor and an earlier one can be
+ * passed again to read on from the same point.
+ *
+ * @param <T> the type of the objects in the page.
+ */
+public class QueryPage<T> {
+    private final List<T> results;
+    private final PartitionFilter cursor;
+
+    public QueryPage(List<T> results, PartitionFilter cursor) {
+        this.results = results == null ? Collections.emptyList() : Collections.unmodifiableList(results);
+        this.cursor = cursor;
+    }
+
+    /**
+     * Get the objects returned in this page. This may contain fewer elements than the requested page size,
+     * including none, even if the query has not yet finished.
+     */
+    public List<T> getResults() {
+        return results;
+    }
+
+    /**
+     * Get the cursor to pass to the next call to <code>queryPage</code> to retrieve the following page.
+     */
+    public PartitionFilter getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Determine whether there are any more records to retrieve. If this returns true, there are no more pages.
+     */
+    public boolean isDone() {
+        return cursor == null || cursor.isDone();
+    }
+
+    /**
+     * Copy a cursor, including how far through each partition it has got, so that the query can advance the copy
+     * without changing the cursor the caller passed in. <code>PartitionFilter</code> has no copy constructor, so the
+     * copy is made by serializing it.
+     */
+    static PartitionFilter copyCursor(PartitionFilter cursor) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(cursor);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (PartitionFilter) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new AerospikeException(String.format("Cannot copy the query cursor: %s", e.getMessage()));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QueryPage[results=%d, done=%b]", results.size(), isDone());
+    }
+}
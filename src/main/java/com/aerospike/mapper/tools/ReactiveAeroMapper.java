@@ -6,17 +6,22 @@ import com.aerospike.client.Key;
 import com.aerospike.client.Operation;
 import com.aerospike.client.Value;
 import com.aerospike.client.policy.BatchPolicy;
-import com.aerospike.client.policy.GenerationPolicy;
 import com.aerospike.client.policy.Policy;
 import com.aerospike.client.policy.QueryPolicy;
 import com.aerospike.client.policy.RecordExistsAction;
 import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
 import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.PartitionFilter;
 import com.aerospike.client.query.KeyRecord;
 import com.aerospike.client.query.Statement;
 import com.aerospike.client.reactor.IAerospikeReactorClient;
 import com.aerospike.mapper.tools.converters.MappingConverter;
+import com.aerospike.mapper.tools.metrics.MapperMetrics.OperationType;
+import com.aerospike.mapper.tools.metrics.MapperMetrics.Phase;
+import com.aerospike.mapper.tools.query.Criteria;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+import com.aerospike.mapper.tools.tracing.MapperInterceptor;
 import com.aerospike.mapper.tools.utils.MapperUtils;
 import com.aerospike.mapper.tools.virtuallist.ReactiveVirtualList;
 import reactor.core.publisher.Flux;
@@ -47,9 +52,7 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
 
     @Override
     public <T> Mono<T> save(@NotNull T object, String... binNames) {
-        WritePolicy writePolicy = generateWritePolicyFromObject(object);
-        writePolicy.recordExistsAction = RecordExistsAction.REPLACE;
-        return save(writePolicy, object, binNames);
+        return save(RecordExistsAction.REPLACE, object, binNames);
     }
 
     @SuppressWarnings("unchecked")
@@ -59,9 +62,23 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
         ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
 
         if (writePolicy == null) {
-            writePolicy = generateWritePolicyFromObject(object);
+            writePolicy = entry.getWritePolicy(object, entry.getWritePolicy().recordExistsAction);
         }
+        return save(writePolicy, entry, clazz, object, binNames);
+    }
+
+    /**
+     * Save the object with the policy of its class for the given record exists action, resolving the class only once.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> save(RecordExistsAction action, @NotNull T object, String[] binNames) {
+        Class<T> clazz = (Class<T>) object.getClass();
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        return save(entry.getWritePolicy(object, action), entry, clazz, object, binNames);
+    }
 
+    private <T> Mono<T> save(WritePolicy writePolicy, ClassCacheEntry<T> entry, Class<T> clazz, T object,
+                             String[] binNames) {
         String set = entry.getSetName();
         if ("".equals(set)) {
             // Use the null set
@@ -69,54 +86,21 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
         }
         Key key = new Key(entry.getNamespace(), set, Value.get(entry.getKey(object)));
 
+        long start = System.nanoTime();
         Bin[] bins = entry.getBins(object, writePolicy.recordExistsAction != RecordExistsAction.REPLACE, binNames);
-
-        return reactorClient
-                .put(writePolicy, key, bins)
+        mappingConverter.getMetrics().recordLatency(clazz, OperationType.SAVE, Phase.SERIALIZE, System.nanoTime() - start);
+        return traced(reactorClient.put(writePolicy, key, bins), ClientCall.Type.PUT, clazz, key, bins)
                 .map(docKey -> object);
     }
 
     @Override
     public <T> Mono<T> insert(@NotNull T object, String... binNames) {
-        WritePolicy writePolicy = generateWritePolicyFromObject(object);
-        writePolicy.recordExistsAction = RecordExistsAction.CREATE_ONLY;
-        return save(writePolicy, object, binNames);
+        return save(RecordExistsAction.CREATE_ONLY, object, binNames);
     }
 
     @Override
     public <T> Mono<T> update(@NotNull T object, String... binNames) {
-        WritePolicy writePolicy = generateWritePolicyFromObject(object);
-        writePolicy.recordExistsAction = RecordExistsAction.UPDATE;
-        return save(writePolicy, object, binNames);
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> WritePolicy generateWritePolicyFromObject(T object) {
-        Class<T> clazz = (Class<T>) object.getClass();
-        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
-
-        WritePolicy writePolicy = new WritePolicy(entry.getWritePolicy());
-
-        // #132 -- Ensure that if an overriding TTL / sendKey is passed in the policy it
-        // is NOT overwritten. Hence, only if the policy is null do we override these settings.
-        Integer ttl = entry.getTtl();
-        Boolean sendKey = entry.getSendKey();
-
-        if (ttl != null) {
-            writePolicy.expiration = ttl;
-        }
-        if (sendKey != null) {
-            writePolicy.sendKey = sendKey;
-        }
-
-        // #181 Handle @AerospikeGeneration field for optimistic concurrency control
-        Integer generationValue = entry.getGenerationValue(object);
-        if (generationValue != null && generationValue > 0) {
-            writePolicy.generation = generationValue;
-            writePolicy.generationPolicy = GenerationPolicy.EXPECT_GEN_EQUAL;
-        }
-
-        return writePolicy;
+        return save(RecordExistsAction.UPDATE, object, binNames);
     }
 
     @Override
@@ -213,13 +197,13 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
             readPolicy = entry.getReadPolicy();
         }
 
-        return reactorClient
-                .get(readPolicy, key)
+        return traced(reactorClient.get(readPolicy, key), ClientCall.Type.GET, clazz, key, null)
                 .filter(keyRecord -> Objects.nonNull(keyRecord.record))
                 .map(keyRecord -> {
                     try {
                         ThreadLocalKeySaver.save(key);
-                        return mappingConverter.convertToObject(clazz, key, keyRecord.record, entry, resolveDependencies);
+                        return mappingConverter.convertToObject(clazz, key, keyRecord.record, entry, resolveDependencies,
+                                OperationType.READ);
                     } finally {
                         ThreadLocalKeySaver.clear();
                     }
@@ -232,6 +216,7 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
             batchPolicy = entry.getBatchPolicy();
         }
 
+        mappingConverter.getMetrics().recordBatchSize(clazz, OperationType.BATCH_READ, keys.length);
         Flux<KeyRecord> keyRecordFlux;
 
         if (operations != null && operations.length > 0) {
@@ -242,11 +227,12 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
                     .getFlux(batchPolicy, keys);
         }
 
-        return keyRecordFlux.filter(keyRecord -> Objects.nonNull(keyRecord.record))
+        return traced(keyRecordFlux, ClientCall.Type.BATCH_GET, clazz, keys).filter(keyRecord -> Objects.nonNull(keyRecord.record))
                 .map(keyRecord -> {
                     try {
                         ThreadLocalKeySaver.save(keyRecord.key);
-                        return mappingConverter.convertToObject(clazz, keyRecord.key, keyRecord.record, entry, true);
+                        return mappingConverter.convertToObject(clazz, keyRecord.key, keyRecord.record, entry, true,
+                                OperationType.BATCH_READ);
                     } finally {
                         ThreadLocalKeySaver.clear();
                     }
@@ -264,17 +250,11 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
         Object asKey = entry.translateKeyToAerospikeKey(userKey);
 
         if (writePolicy == null) {
-            writePolicy = entry.getWritePolicy();
-            if (entry.getDurableDelete() != null) {
-                // Clone the write policy, so we're not changing the original one
-                writePolicy = new WritePolicy(writePolicy);
-                writePolicy.durableDelete = entry.getDurableDelete();
-            }
+            writePolicy = entry.getDeletePolicy();
         }
         Key key = new Key(entry.getNamespace(), entry.getSetName(), Value.get(asKey));
 
-        return reactorClient
-                .delete(writePolicy, key)
+        return traced(reactorClient.delete(writePolicy, key), ClientCall.Type.DELETE, clazz, key, null)
                 .map(k -> true);
     }
 
@@ -289,14 +269,9 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
         Key key = new Key(entry.getNamespace(), entry.getSetName(), Value.get(entry.getKey(object)));
 
         if (writePolicy == null) {
-            writePolicy = entry.getWritePolicy();
-            if (entry.getDurableDelete() != null) {
-                writePolicy = new WritePolicy(writePolicy);
-                writePolicy.durableDelete = entry.getDurableDelete();
-            }
+            writePolicy = entry.getDeletePolicy();
         }
-        return reactorClient
-                .delete(writePolicy, key)
+        return traced(reactorClient.delete(writePolicy, key), ClientCall.Type.DELETE, object.getClass(), key, null)
                 .map(k -> true);
     }
 
@@ -338,10 +313,18 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
         String namespace = entry.getNamespace();
         String setName = entry.getSetName();
 
-        return reactorClient.scanAll(policy, namespace, setName)
+        return traced(reactorClient.scanAll(policy, namespace, setName), ClientCall.Type.SCAN, clazz, null)
                 .map(keyRecord -> getMappingConverter().convertToObject(clazz, keyRecord.key, keyRecord.record));
     }
 
+    @Override
+    public <T> Flux<T> scan(ScanPolicy policy, @NotNull Class<T> clazz, @NotNull Criteria criteria) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        policy = new ScanPolicy(policy == null ? entry.getScanPolicy() : policy);
+        policy.filterExp = criteria.compile(entry);
+        return scan(policy, clazz, -1);
+    }
+
     @Override
     public <T> Flux<T> query(@NotNull Class<T> clazz, Filter filter) {
         return query(null, clazz, filter);
@@ -358,10 +341,51 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
         statement.setNamespace(entry.getNamespace());
         statement.setSetName(entry.getSetName());
 
-        return reactorClient.query(policy, statement)
+        return traced(reactorClient.query(policy, statement), ClientCall.Type.QUERY, clazz, null)
                 .map(keyRecord -> getMappingConverter().convertToObject(clazz, keyRecord.key, keyRecord.record));
     }
 
+    @Override
+    public <T> Flux<T> query(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter, @NotNull Criteria criteria) {
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        policy = new QueryPolicy(policy == null ? entry.getQueryPolicy() : policy);
+        policy.filterExp = criteria.compile(entry);
+        return query(policy, clazz, filter);
+    }
+
+    @Override
+    public <T> Mono<QueryPage<T>> queryPage(@NotNull Class<T> clazz, Filter filter, long pageSize, PartitionFilter cursor) {
+        return queryPage(null, clazz, filter, pageSize, cursor);
+    }
+
+    @Override
+    public <T> Mono<QueryPage<T>> queryPage(QueryPolicy policy, @NotNull Class<T> clazz, Filter filter, long pageSize,
+                                            PartitionFilter cursor) {
+        if (pageSize <= 0) {
+            return Mono.error(new AerospikeException(String.format("pageSize must be greater than zero, not %d", pageSize)));
+        }
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, this);
+        if (policy == null) {
+            policy = entry.getQueryPolicy();
+        }
+        QueryPolicy queryPolicy = policy;
+        Statement statement = new Statement();
+        statement.setFilter(filter);
+        statement.setNamespace(entry.getNamespace());
+        statement.setSetName(entry.getSetName());
+        statement.setMaxRecords(pageSize);
+
+        // The query moves the cursor on, so each subscription advances its own copy of the one which was passed in
+        return Mono.defer(() -> {
+            PartitionFilter partitionFilter = cursor == null ? PartitionFilter.all() : QueryPage.copyCursor(cursor);
+            return traced(reactorClient.queryPartitions(queryPolicy, statement, partitionFilter), ClientCall.Type.QUERY,
+                    clazz, null)
+                    .map(keyRecord -> getMappingConverter().convertToObject(clazz, keyRecord.key, keyRecord.record))
+                    .collectList()
+                    .map(results -> new QueryPage<>(results, partitionFilter));
+        });
+    }
+
     @Override
     public <T> ReactiveVirtualList<T> asBackedList(@NotNull Object object, @NotNull String binName, Class<T> elementClazz) {
         return new ReactiveVirtualList<>(this, object, binName, elementClazz);
@@ -413,6 +437,32 @@ public class ReactiveAeroMapper implements IReactiveAeroMapper {
         return (QueryPolicy) getPolicyByClassAndType(clazz, ClassCache.PolicyType.QUERY);
     }
 
+    /**
+     * Notify the interceptor, if there is one, when the call is subscribed to and when it completes.
+     */
+    private <R> Mono<R> traced(Mono<R> mono, ClientCall.Type type, Class<?> clazz, Key key, Bin[] bins) {
+        MapperInterceptor interceptor = mappingConverter.getInterceptor();
+        if (interceptor == null) {
+            return mono;
+        }
+        return Mono.defer(() -> {
+            ClientCall call = ClientCall.begin(interceptor, type, clazz, key, bins);
+            return mono.doOnError(e -> ClientCall.failed(call, e)).doFinally(signal -> ClientCall.end(call));
+        });
+    }
+
+    private <R> Flux<R> traced(Flux<R> flux, ClientCall.Type type, Class<?> clazz, Key[] keys) {
+        MapperInterceptor interceptor = mappingConverter.getInterceptor();
+        if (interceptor == null) {
+            return flux;
+        }
+        return Flux.defer(() -> {
+            ClientCall call = keys == null ? ClientCall.begin(interceptor, type, clazz, 0, 0, null)
+                    : ClientCall.begin(interceptor, type, clazz, keys, null, null, 0);
+            return flux.doOnError(e -> ClientCall.failed(call, e)).doFinally(signal -> ClientCall.end(call));
+        });
+    }
+
     private Policy getPolicyByClassAndType(Class<?> clazz, ClassCache.PolicyType policyType) {
         ClassCacheEntry<?> entry = ClassCache.getInstance().loadClass(clazz, this);
 
@@ -0,0 +1,271 @@
+package com.aerospike.mapper.tools;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.AerospikeException.ScanTerminated;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.policy.ScanPolicy;
+import com.aerospike.mapper.tools.converters.MappingConverter;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+
+/**
+ * Runs a scan where the client callback threads only enqueue the raw records, and a pool of worker threads converts
+ * and processes them. See {@link ScanPipelineOptions}.
+ */
+class ScanPipeline<T> {
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static class Slot<T> {
+        final Key key;
+        final Record record;
+        final CompletableFuture<T> result;
+
+        Slot(Key key, Record record, boolean ordered) {
+            this.key = key;
+            this.record = record;
+            this.result = ordered ? new CompletableFuture<>() : null;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final Slot END = new Slot<>(null, null, false);
+
+    private static final AtomicInteger pipelineCounter = new AtomicInteger();
+
+    private final Class<T> clazz;
+    private final MappingConverter converter;
+    private final Processor<T> processor;
+    private final ScanPipelineOptions options;
+    private final ScanPipelineMetrics metrics;
+    private final BlockingQueue<Slot<T>> workQueue;
+    private final BlockingQueue<Slot<T>> deliveryQueue;
+    private final Object deliveryLock = new Object();
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    ScanPipeline(Class<T> clazz, MappingConverter converter, Processor<T> processor, ScanPipelineOptions options) {
+        this.clazz = clazz;
+        this.converter = converter;
+        this.processor = processor;
+        this.options = options;
+        this.metrics = options.getMetrics() == null ? new ScanPipelineMetrics() : options.getMetrics();
+        this.workQueue = new ArrayBlockingQueue<>(options.getQueueCapacity());
+        this.deliveryQueue = options.isOrderedDelivery() ? new ArrayBlockingQueue<>(options.getQueueCapacity()) : null;
+        this.metrics.attach(workQueue, options.getQueueCapacity());
+    }
+
+    ScanPipelineMetrics run(IAerospikeClient client, ScanPolicy policy, String namespace, String setName) {
+        int pipelineId = pipelineCounter.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        int threadCount = options.getWorkerThreads() + (options.isOrderedDelivery() ? 1 : 0);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable,
+                    String.format("aerospike-mapper-scan-%d-%d", pipelineId, threadCounter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < options.getWorkerThreads(); i++) {
+                executor.execute(this::work);
+            }
+            if (options.isOrderedDelivery()) {
+                executor.execute(this::deliver);
+            }
+            ClientCall call = ClientCall.begin(converter.getInterceptor(), ClientCall.Type.SCAN, clazz, 0, 0, null);
+            try {
+                client.scanAll(policy, namespace, setName, this::enqueue);
+            } catch (ScanTerminated st) {
+                if (!stopped.get()) {
+                    throw ClientCall.failed(call, st);
+                }
+            } catch (RuntimeException e) {
+                stopped.set(true);
+                throw ClientCall.failed(call, e);
+            } finally {
+                ClientCall.end(call);
+                putUninterruptibly(workQueue, end());
+                if (deliveryQueue != null) {
+                    putUninterruptibly(deliveryQueue, end());
+                }
+            }
+        } finally {
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof AerospikeException) {
+            throw (AerospikeException) t;
+        } else if (t != null) {
+            throw new AerospikeException(t);
+        }
+        return metrics;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Slot<T> end() {
+        return (Slot<T>) END;
+    }
+
+    private void enqueue(Key key, Record record) {
+        if (stopped.get()) {
+            throw new AerospikeException.ScanTerminated();
+        }
+        metrics.recordReceived();
+        Slot<T> slot = new Slot<>(key, record, deliveryQueue != null);
+        if (deliveryQueue != null) {
+            // The delivery order must match the order the slots are accepted, so serialize the callback threads here
+            synchronized (deliveryLock) {
+                offer(deliveryQueue, slot);
+            }
+        }
+        try {
+            offer(workQueue, slot);
+        } catch (RuntimeException e) {
+            if (slot.result != null) {
+                // Already queued for delivery, so make sure the delivery thread does not wait on it forever
+                slot.result.complete(null);
+            }
+            throw e;
+        }
+    }
+
+    private void offer(BlockingQueue<Slot<T>> queue, Slot<T> slot) {
+        if (queue.offer(slot)) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            while (!queue.offer(slot, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                if (stopped.get()) {
+                    throw new AerospikeException.ScanTerminated();
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            stopped.set(true);
+            throw new AerospikeException.ScanTerminated(ie);
+        } finally {
+            metrics.stall(System.nanoTime() - start);
+        }
+    }
+
+    private void work() {
+        try {
+            while (true) {
+                Slot<T> slot = workQueue.take();
+                if (slot == END) {
+                    // Let the other workers see the end marker too
+                    workQueue.put(slot);
+                    return;
+                }
+                if (slot.result != null) {
+                    hydrate(slot);
+                } else if (!stopped.get()) {
+                    try {
+                        process(converter.convertToObject(clazz, slot.key, slot.record));
+                    } catch (Throwable t) {
+                        fail(t);
+                    }
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void hydrate(Slot<T> slot) {
+        if (stopped.get()) {
+            slot.result.complete(null);
+            return;
+        }
+        try {
+            slot.result.complete(converter.convertToObject(clazz, slot.key, slot.record));
+        } catch (Throwable t) {
+            slot.result.completeExceptionally(t);
+        }
+    }
+
+    private void deliver() {
+        try {
+            while (true) {
+                Slot<T> slot = deliveryQueue.take();
+                if (slot == END) {
+                    return;
+                }
+                T object;
+                try {
+                    object = slot.result.get();
+                } catch (ExecutionException ee) {
+                    fail(ee.getCause());
+                    continue;
+                }
+                if (!stopped.get()) {
+                    try {
+                        process(object);
+                    } catch (Throwable t) {
+                        fail(t);
+                    }
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(T object) {
+        metrics.recordProcessed();
+        if (!processor.process(object)) {
+            stopped.set(true);
+        }
+    }
+
+    private void fail(Throwable t) {
+        failure.compareAndSet(null, t);
+        stopped.set(true);
+    }
+
+    private static <E> void putUninterruptibly(BlockingQueue<E> queue, E element) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(element);
+                break;
+            } catch (InterruptedException ie) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException ie) {
+                interrupted = true;
+                executor.shutdownNow();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.aerospike.mapper.tools;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics for a pipelined scan. The values are updated while the scan is running so they can be polled from another
+ * thread to observe the progress of the scan.
+ * <p/>
+ * A stall occurs when a scan callback thread finds the queue full and has to wait for a worker thread. A high stall count
+ * means the workers cannot keep up with the server, and either more worker threads or a faster processor is needed.
+ */
+public class ScanPipelineMetrics {
+    private final LongAdder recordsReceived = new LongAdder();
+    private final LongAdder recordsProcessed = new LongAdder();
+    private final LongAdder stallCount = new LongAdder();
+    private final LongAdder stallNanos = new LongAdder();
+    private volatile BlockingQueue<?> queue;
+    private volatile int queueCapacity;
+
+    void attach(BlockingQueue<?> queue, int queueCapacity) {
+        this.queue = queue;
+        this.queueCapacity = queueCapacity;
+    }
+
+    void recordReceived() {
+        recordsReceived.increment();
+    }
+
+    void recordProcessed() {
+        recordsProcessed.increment();
+    }
+
+    void stall(long nanos) {
+        stallCount.increment();
+        stallNanos.add(nanos);
+    }
+
+    /**
+     * The number of records received from the server.
+     */
+    public long getRecordsReceived() {
+        return recordsReceived.sum();
+    }
+
+    /**
+     * The number of records which have been passed to the processor.
+     */
+    public long getRecordsProcessed() {
+        return recordsProcessed.sum();
+    }
+
+    /**
+     * The number of times a scan callback thread had to wait because the queue was full.
+     */
+    public long getStallCount() {
+        return stallCount.sum();
+    }
+
+    /**
+     * The total time scan callback threads spent waiting for space on the queue.
+     */
+    public long getStallTime(TimeUnit unit) {
+        return unit.convert(stallNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of records currently waiting for a worker thread.
+     */
+    public int getQueueDepth() {
+        BlockingQueue<?> current = queue;
+        return current == null ? 0 : current.size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("received=%d, processed=%d, queueDepth=%d/%d, stalls=%d, stallTime=%dms",
+                getRecordsReceived(), getRecordsProcessed(), getQueueDepth(), getQueueCapacity(), getStallCount(),
+                getStallTime(TimeUnit.MILLISECONDS));
+    }
+}
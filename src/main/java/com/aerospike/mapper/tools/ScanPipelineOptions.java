@@ -0,0 +1,79 @@
+package com.aerospike.mapper.tools;
+
+import com.aerospike.client.AerospikeException;
+
+/**
+ * Options controlling a pipelined scan. In a pipelined scan the client's scan callback threads only place the raw records
+ * onto a bounded queue; a separate pool of worker threads converts the records to objects and passes them to the
+ * <code>Processor</code>. This stops slow processing from stalling the network reads, and allows hydration to run on more
+ * threads than the scan has nodes.
+ * <p/>
+ * When delivery is unordered, the processor is called concurrently from all the worker threads and must be thread-safe.
+ * When delivery is ordered, records are still converted in parallel, but the processor is called from a single thread
+ * in the order the records were received from the server.
+ */
+public class ScanPipelineOptions {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private int workerThreads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+    private boolean orderedDelivery = false;
+    private ScanPipelineMetrics metrics = null;
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public boolean isOrderedDelivery() {
+        return orderedDelivery;
+    }
+
+    public ScanPipelineMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the number of threads used to convert records and invoke the processor. Defaults to the number of processors.
+     */
+    public ScanPipelineOptions withWorkerThreads(int workerThreads) {
+        if (workerThreads <= 0) {
+            throw new AerospikeException(String.format("workerThreads must be greater than zero, not %d", workerThreads));
+        }
+        this.workerThreads = workerThreads;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of raw records which can be waiting for a worker thread. When the queue is full, the scan
+     * callback blocks until space is available, which applies backpressure to the server.
+     */
+    public ScanPipelineOptions withQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new AerospikeException(String.format("queueCapacity must be greater than zero, not %d", queueCapacity));
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * If true, the processor is invoked on a single thread in the order the records were received. Otherwise the processor
+     * is invoked concurrently by the worker threads.
+     */
+    public ScanPipelineOptions withOrderedDelivery(boolean orderedDelivery) {
+        this.orderedDelivery = orderedDelivery;
+        return this;
+    }
+
+    /**
+     * Use the passed metrics object for the scan. This allows the metrics to be observed while the scan is in progress.
+     * If this is not set, a new metrics object is created for each scan.
+     */
+    public ScanPipelineOptions withMetrics(ScanPipelineMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+}
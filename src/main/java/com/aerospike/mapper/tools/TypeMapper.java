@@ -11,4 +11,13 @@ public abstract class TypeMapper {
     public Object toAerospikeFormat(Object value, boolean isUnknownType, boolean isSubclassOfKnownType) {
         return toAerospikeFormat(value);
     }
+
+    /**
+     * Whether converting a value from Aerospike format may load other records, either straight away or by leaving
+     * references to be loaded later by <code>resolveDependencies</code>. Mappers of collections and embedded objects
+     * answer for what they contain. If in doubt, a mapper should return true.
+     */
+    public boolean loadsReferences() {
+        return false;
+    }
 }
@@ -0,0 +1,37 @@
+package com.aerospike.mapper.tools.aggregation;
+
+import java.util.Set;
+import java.util.stream.Collector;
+
+import com.aerospike.mapper.tools.ClassCacheEntry;
+
+/**
+ * A client-side aggregation over the records of a mapped class, run by <code>IAeroMapper.aggregate</code>. The records
+ * are split across several workers, each of which folds its records into its own accumulator without locking. The
+ * accumulators are merged once all the workers have finished.
+ * <p/>
+ * Only the bins of the fields returned by {@link #getFieldNames()} are read from the server, so the objects passed to
+ * the collector have only those fields populated. If no field names are returned, no bins are read and the collector
+ * is passed <code>null</code> for each record.
+ * <p/>
+ * See {@link Aggregations} for the standard aggregations.
+ *
+ * @param <T> the mapped class being aggregated.
+ * @param <A> the type of the accumulator.
+ * @param <R> the type of the result.
+ */
+public interface Aggregation<T, A, R> {
+    /**
+     * The names of the Java fields this aggregation reads.
+     */
+    Set<String> getFieldNames();
+
+    /**
+     * Create the collector used to run this aggregation against the passed class. Each worker calls the supplier to
+     * create its own accumulator, and the accumulators are merged with the combiner, so the collector does not need to
+     * be thread-safe.
+     *
+     * @param entry - the class cache entry of the class being aggregated, used to read the fields of the objects.
+     */
+    Collector<T, A, R> collector(ClassCacheEntry<T> entry);
+}
@@ -0,0 +1,294 @@
+package com.aerospike.mapper.tools.aggregation;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import jakarta.validation.constraints.NotNull;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.ValueType;
+
+/**
+ * Factory methods for the standard aggregations. Fields are referred to by their Java names, and the values passed to
+ * the aggregations are the Java values, so enums, dates and custom converters behave as they do on the mapped class.
+ * Records where the field is null are ignored by all aggregations except <code>count</code> and <code>groupBy</code>.
+ * For example:
+ * <pre>
+ * Map&lt;String, Number&gt; balanceByTenant = mapper.aggregate(Account.class,
+ *         Aggregations.groupBy("tenant", Aggregations.sum("balance")));
+ * </pre>
+ */
+public class Aggregations {
+    private Aggregations() {
+    }
+
+    private static class CollectorAggregation<T, A, R> implements Aggregation<T, A, R> {
+        private final Set<String> fieldNames;
+        private final Function<ClassCacheEntry<T>, Collector<T, A, R>> factory;
+
+        CollectorAggregation(Set<String> fieldNames, Function<ClassCacheEntry<T>, Collector<T, A, R>> factory) {
+            this.fieldNames = Collections.unmodifiableSet(fieldNames);
+            this.factory = factory;
+        }
+
+        @Override
+        public Set<String> getFieldNames() {
+            return fieldNames;
+        }
+
+        @Override
+        public Collector<T, A, R> collector(ClassCacheEntry<T> entry) {
+            return factory.apply(entry);
+        }
+    }
+
+    private static class Sum {
+        long longSum;
+        double doubleSum;
+        boolean floating;
+
+        void add(Object value) {
+            if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+                doubleSum += ((Number) value).doubleValue();
+                floating = true;
+            } else if (value instanceof Number) {
+                longSum += ((Number) value).longValue();
+            } else if (value != null) {
+                throw new AerospikeException(String.format("Cannot sum a value of type %s", value.getClass().getName()));
+            }
+        }
+
+        Sum merge(Sum other) {
+            longSum += other.longSum;
+            doubleSum += other.doubleSum;
+            floating |= other.floating;
+            return this;
+        }
+
+        Number result() {
+            if (floating) {
+                return doubleSum + longSum;
+            }
+            return longSum;
+        }
+    }
+
+    private static class Extreme {
+        Object value;
+    }
+
+    private static Set<String> fields(String... fieldNames) {
+        return new LinkedHashSet<>(Arrays.asList(fieldNames));
+    }
+
+    private static <T> Function<T, Object> reader(ClassCacheEntry<T> entry, String fieldName) {
+        ValueType valueType = entry.getValueFromFieldName(fieldName);
+        if (valueType == null) {
+            throw new AerospikeException(String.format("Field %s is not a mapped field of class %s",
+                    fieldName, entry.getUnderlyingClass().getName()));
+        }
+        return object -> {
+            try {
+                return valueType.get(object);
+            } catch (ReflectiveOperationException e) {
+                throw new AerospikeException(e);
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object a, Object b) {
+        return ((Comparable) a).compareTo(b);
+    }
+
+    /**
+     * Wrap an arbitrary collector as an aggregation. The collector is passed objects which have only the named
+     * fields populated.
+     *
+     * @param collector  - the collector used to aggregate the objects.
+     * @param fieldNames - the names of the Java fields the collector reads.
+     */
+    public static <T, A, R> Aggregation<T, A, R> of(@NotNull Collector<T, A, R> collector, String... fieldNames) {
+        return new CollectorAggregation<>(fields(fieldNames), entry -> collector);
+    }
+
+    /**
+     * Count the records. No bins are read.
+     */
+    public static <T> Aggregation<T, ?, Long> count() {
+        return new CollectorAggregation<T, Object, Long>(fields(), entry -> {
+            Collector<T, ?, Long> counting = Collectors.counting();
+            @SuppressWarnings("unchecked")
+            Collector<T, Object, Long> result = (Collector<T, Object, Long>) counting;
+            return result;
+        });
+    }
+
+    /**
+     * Sum the values of a numeric field. The result is a <code>Long</code> if all the values were integral, otherwise
+     * a <code>Double</code>.
+     *
+     * @param fieldName - the name of the Java field to sum.
+     */
+    public static <T> Aggregation<T, ?, Number> sum(@NotNull String fieldName) {
+        return new CollectorAggregation<T, Sum, Number>(fields(fieldName), entry -> {
+            Function<T, Object> reader = reader(entry, fieldName);
+            return Collector.of(Sum::new, (sum, object) -> sum.add(reader.apply(object)), Sum::merge, Sum::result);
+        });
+    }
+
+    /**
+     * The smallest value of a field, or null if no record has a value for the field.
+     *
+     * @param fieldName - the name of the Java field, which must hold Comparable values.
+     */
+    public static <T, V extends Comparable<? super V>> Aggregation<T, ?, V> min(@NotNull String fieldName) {
+        return extreme(fieldName, -1);
+    }
+
+    /**
+     * The largest value of a field, or null if no record has a value for the field.
+     *
+     * @param fieldName - the name of the Java field, which must hold Comparable values.
+     */
+    public static <T, V extends Comparable<? super V>> Aggregation<T, ?, V> max(@NotNull String fieldName) {
+        return extreme(fieldName, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, V> Aggregation<T, ?, V> extreme(String fieldName, int direction) {
+        return new CollectorAggregation<T, Extreme, V>(fields(fieldName), entry -> {
+            Function<T, Object> reader = reader(entry, fieldName);
+            return Collector.of(Extreme::new,
+                    (extreme, object) -> {
+                        Object value = reader.apply(object);
+                        if (value != null && (extreme.value == null || compare(value, extreme.value) * direction > 0)) {
+                            extreme.value = value;
+                        }
+                    },
+                    (a, b) -> {
+                        if (a.value == null || (b.value != null && compare(b.value, a.value) * direction > 0)) {
+                            return b;
+                        }
+                        return a;
+                    },
+                    extreme -> (V) extreme.value);
+        });
+    }
+
+    /**
+     * Group the records by the value of a field and run the downstream aggregation on each group. Records where the
+     * field is null are grouped under the <code>null</code> key.
+     *
+     * @param fieldName  - the name of the Java field to group by.
+     * @param downstream - the aggregation to run on each group.
+     */
+    public static <T, K, R> Aggregation<T, ?, Map<K, R>> groupBy(@NotNull String fieldName,
+                                                             @NotNull Aggregation<T, ?, R> downstream) {
+        Set<String> fieldNames = fields(fieldName);
+        fieldNames.addAll(downstream.getFieldNames());
+        return new CollectorAggregation<T, Map<K, Object>, Map<K, R>>(fieldNames,
+                entry -> grouping(reader(entry, fieldName), downstream.collector(entry)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, K, A, R> Collector<T, Map<K, Object>, Map<K, R>> grouping(Function<T, Object> reader,
+                                                                                 Collector<T, A, R> downstream) {
+        return Collector.of(HashMap::new,
+                (map, object) -> {
+                    A container = (A) map.computeIfAbsent((K) reader.apply(object), k -> downstream.supplier().get());
+                    downstream.accumulator().accept(container, object);
+                },
+                (left, right) -> {
+                    for (Map.Entry<K, Object> group : right.entrySet()) {
+                        left.merge(group.getKey(), group.getValue(),
+                                (a, b) -> downstream.combiner().apply((A) a, (A) b));
+                    }
+                    return left;
+                },
+                map -> {
+                    Map<K, R> result = new HashMap<>();
+                    for (Map.Entry<K, Object> group : map.entrySet()) {
+                        result.put(group.getKey(), downstream.finisher().apply((A) group.getValue()));
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * The <code>n</code> objects with the largest values of a field, largest first. Each worker keeps a bounded heap,
+     * so memory use is proportional to <code>n</code> rather than to the number of records. The returned objects have
+     * only the named fields populated.
+     *
+     * @param fieldName            - the name of the Java field to order by, which must hold Comparable values.
+     * @param n                    - the maximum number of objects to return.
+     * @param additionalFieldNames - the names of any other Java fields to populate on the returned objects.
+     */
+    public static <T> Aggregation<T, ?, List<T>> topN(@NotNull String fieldName, int n, String... additionalFieldNames) {
+        return bounded(fieldName, n, 1, additionalFieldNames);
+    }
+
+    /**
+     * The <code>n</code> objects with the smallest values of a field, smallest first. See {@link #topN}.
+     *
+     * @param fieldName            - the name of the Java field to order by, which must hold Comparable values.
+     * @param n                    - the maximum number of objects to return.
+     * @param additionalFieldNames - the names of any other Java fields to populate on the returned objects.
+     */
+    public static <T> Aggregation<T, ?, List<T>> bottomN(@NotNull String fieldName, int n, String... additionalFieldNames) {
+        return bounded(fieldName, n, -1, additionalFieldNames);
+    }
+
+    private static <T> Aggregation<T, ?, List<T>> bounded(String fieldName, int n, int direction,
+                                                           String... additionalFieldNames) {
+        if (n <= 0) {
+            throw new AerospikeException(String.format("The number of objects to return must be positive, not %d", n));
+        }
+        Set<String> fieldNames = fields(fieldName);
+        fieldNames.addAll(Arrays.asList(additionalFieldNames));
+        return new CollectorAggregation<T, PriorityQueue<T>, List<T>>(fieldNames, entry -> {
+            Function<T, Object> reader = reader(entry, fieldName);
+            // The head of the heap is the object which would be discarded first
+            Comparator<T> order = (a, b) -> compare(reader.apply(a), reader.apply(b)) * direction;
+            return Collector.of(() -> new PriorityQueue<>(n + 1, order),
+                    (heap, object) -> {
+                        if (reader.apply(object) != null) {
+                            offer(heap, object, n, order);
+                        }
+                    },
+                    (left, right) -> {
+                        for (T object : right) {
+                            offer(left, object, n, order);
+                        }
+                        return left;
+                    },
+                    heap -> {
+                        List<T> result = new ArrayList<>(heap);
+                        result.sort(order.reversed());
+                        return result;
+                    });
+        });
+    }
+
+    private static <T> void offer(PriorityQueue<T> heap, T object, int n, Comparator<T> order) {
+        if (heap.size() < n) {
+            heap.add(object);
+        } else if (order.compare(object, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(object);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.aerospike.mapper.tools.bulk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.aerospike.client.AerospikeException;
+
+/**
+ * The {@link BulkFormat#BINARY} format: a header of the magic bytes and a version, followed by one tagged map per record.
+ */
+class BinaryCodec {
+    private static final byte[] MAGIC = {'A', 'M', 'B', 'K'};
+    private static final int VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int LONG = 1;
+    private static final int DOUBLE = 2;
+    private static final int STRING = 3;
+    private static final int BOOLEAN = 4;
+    private static final int BYTES = 5;
+    private static final int LIST = 6;
+    private static final int MAP = 7;
+    private static final int SORTED_MAP = 8;
+
+    private BinaryCodec() {
+    }
+
+    static class Writer implements BulkRecordWriter {
+        private final DataOutputStream out;
+
+        Writer(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.out.write(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        @Override
+        public void write(Map<String, Object> record) throws IOException {
+            writeValue(record);
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                out.writeByte(LONG);
+                out.writeLong(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                out.writeByte(DOUBLE);
+                out.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof String) {
+                out.writeByte(STRING);
+                writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof byte[]) {
+                out.writeByte(BYTES);
+                writeBytes((byte[]) value);
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                out.writeByte(LIST);
+                out.writeInt(list.size());
+                for (Object item : list) {
+                    writeValue(item);
+                }
+            } else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+                out.writeByte(value instanceof SortedMap ? SORTED_MAP : MAP);
+                out.writeInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(entry.getKey());
+                    writeValue(entry.getValue());
+                }
+            } else {
+                throw new AerospikeException(String.format("Cannot export a value of type %s", value.getClass().getName()));
+            }
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    static class Reader implements BulkRecordReader {
+        private final DataInputStream in;
+
+        Reader(InputStream in) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(in));
+            byte[] magic = new byte[MAGIC.length];
+            this.in.readFully(magic);
+            int version = this.in.readByte();
+            if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+                throw new IOException("Not a bulk export file, or an unsupported version");
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> read() throws IOException {
+            int tag = in.read();
+            if (tag < 0) {
+                return null;
+            }
+            if (tag != MAP && tag != SORTED_MAP) {
+                throw new IOException(String.format("Expected a record but found type %d", tag));
+            }
+            return (Map<String, Object>) readMap(new HashMap<>());
+        }
+
+        private Object readValue() throws IOException {
+            int tag = in.read();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case LONG:
+                    return in.readLong();
+                case DOUBLE:
+                    return in.readDouble();
+                case STRING:
+                    return new String(readBytes(), StandardCharsets.UTF_8);
+                case BOOLEAN:
+                    return in.readBoolean();
+                case BYTES:
+                    return readBytes();
+                case LIST: {
+                    int size = in.readInt();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+                    return list;
+                }
+                case MAP:
+                    return readMap(new HashMap<>());
+                case SORTED_MAP:
+                    return readMap(new TreeMap<>());
+                case -1:
+                    throw new EOFException("Unexpected end of file");
+                default:
+                    throw new IOException(String.format("Unknown type %d", tag));
+            }
+        }
+
+        private Map<Object, Object> readMap(Map<Object, Object> map) throws IOException {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                Object key = readValue();
+                map.put(key, readValue());
+            }
+            return map;
+        }
+
+        private byte[] readBytes() throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
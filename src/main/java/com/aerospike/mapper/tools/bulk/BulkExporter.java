@@ -0,0 +1,206 @@
+package com.aerospike.mapper.tools.bulk;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.validation.constraints.NotNull;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.ScanPolicy;
+import com.aerospike.client.query.PartitionFilter;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.IAeroMapper;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+import com.aerospike.mapper.tools.utils.MapperUtils;
+
+/**
+ * Exports the records of a mapped class to local files. The partitions are split into contiguous ranges, and each range
+ * is scanned in parallel into its own file, named <code>&lt;set&gt;-&lt;range&gt;.&lt;extension&gt;</code>. Files of an
+ * earlier export of the same set are removed first, so a directory never holds a mix of two exports. Each record
+ * is written in the form of the map returned by <code>ClassCacheEntry.getMap</code>, keyed by the declared bin names,
+ * so only the mapped bins are exported and the files can be read back with {@link BulkImporter}. The values are taken
+ * as they are stored rather than converted to objects, so references are exported as keys without being read.
+ * <pre>
+ * BulkResult result = new BulkExporter(mapper)
+ *         .withFormat(BulkFormat.BINARY)
+ *         .withParallelism(8)
+ *         .export(Customer.class, new File("/tmp/customers"));
+ * </pre>
+ */
+public class BulkExporter {
+    private static final int PARTITIONS = 4096;
+    private static final AtomicInteger exportCounter = new AtomicInteger();
+
+    private final IAeroMapper mapper;
+    private BulkFormat format = BulkFormat.NDJSON;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ScanPolicy scanPolicy = null;
+
+    public BulkExporter(@NotNull IAeroMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Set the format of the files. Defaults to {@link BulkFormat#NDJSON}.
+     */
+    public BulkExporter withFormat(@NotNull BulkFormat format) {
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * Set the number of partition ranges, which is both the number of files and the number of concurrent scans.
+     * Defaults to the number of processors.
+     */
+    public BulkExporter withParallelism(int parallelism) {
+        if (parallelism <= 0 || parallelism > PARTITIONS) {
+            throw new AerospikeException(String.format("parallelism must be between 1 and %d, not %d", PARTITIONS, parallelism));
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Set the scan policy. If this is not set, the scan policy of the exported class is used.
+     */
+    public BulkExporter withScanPolicy(ScanPolicy scanPolicy) {
+        this.scanPolicy = scanPolicy;
+        return this;
+    }
+
+    /**
+     * Export every record of the passed class into the passed directory, which is created if needed. The files of any
+     * earlier export of the same set are deleted, whatever their format and number, so that importing the directory
+     * only reads this export.
+     *
+     * @param clazz     - the mapped class to export.
+     * @param directory - the directory to write the files to.
+     * @return the files written and the number of records exported.
+     */
+    public <T> BulkResult export(@NotNull Class<T> clazz, @NotNull File directory) {
+        long start = System.currentTimeMillis();
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, mapper);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new AerospikeException(String.format("Could not create directory %s", directory));
+        }
+        ScanPolicy policy = scanPolicy == null ? entry.getScanPolicy() : scanPolicy;
+        String prefix = getFilePrefix(entry);
+        File[] staleFiles = directory.listFiles(file -> isExportFile(file, prefix));
+        if (staleFiles != null) {
+            for (File staleFile : staleFiles) {
+                if (!staleFile.delete()) {
+                    throw new AerospikeException(String.format("Could not delete %s left by an earlier export", staleFile));
+                }
+            }
+        }
+
+        int exportId = exportCounter.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable,
+                    String.format("aerospike-mapper-export-%d-%d", exportId, threadCounter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<File> files = new ArrayList<>(parallelism);
+        AtomicLong recordCount = new AtomicLong();
+        try {
+            List<Future<?>> futures = new ArrayList<>(parallelism);
+            int begin = 0;
+            for (int i = 0; i < parallelism; i++) {
+                int count = PARTITIONS / parallelism + (i < PARTITIONS % parallelism ? 1 : 0);
+                File file = new File(directory, String.format("%s-%04d.%s", prefix, i, format.getExtension()));
+                PartitionFilter partitionFilter = PartitionFilter.range(begin, count);
+                files.add(file);
+                futures.add(executor.submit(() -> exportRange(clazz, entry, policy, partitionFilter, file, recordCount)));
+                begin += count;
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AerospikeException(e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof AerospikeException) {
+                        throw (AerospikeException) e.getCause();
+                    }
+                    throw new AerospikeException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new BulkResult(files, recordCount.get(), 0, null, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * The prefix of the names of the files exported for a class: its set, or its namespace if it uses the null set.
+     */
+    static String getFilePrefix(ClassCacheEntry<?> entry) {
+        return entry.getSetName() == null || entry.getSetName().isEmpty() ? entry.getNamespace() : entry.getSetName();
+    }
+
+    /**
+     * Determine whether a file has the name of a file exported with the passed prefix, in any format.
+     */
+    static boolean isExportFile(File file, String prefix) {
+        String name = file.getName();
+        BulkFormat fileFormat = BulkFormat.fromFile(file);
+        if (!file.isFile() || fileFormat == null || !name.startsWith(prefix + "-")) {
+            return false;
+        }
+        String range = name.substring(prefix.length() + 1, name.length() - fileFormat.getExtension().length() - 1);
+        if (range.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < range.length(); i++) {
+            if (!Character.isDigit(range.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private <T> void exportRange(Class<T> clazz, ClassCacheEntry<T> entry, ScanPolicy policy,
+                                 PartitionFilter partitionFilter, File file, AtomicLong recordCount) {
+        IAerospikeClient client = mapper.getClient();
+        ClientCall call = ClientCall.begin(mapper.getMappingConverter().getInterceptor(), ClientCall.Type.SCAN, clazz,
+                0, 0, null);
+        try (OutputStream out = new FileOutputStream(file); BulkRecordWriter writer = format.openWriter(out)) {
+            client.scanPartitions(policy, partitionFilter, entry.getNamespace(), entry.getSetName(), (key, record) -> {
+                // Take the values straight from the record, so references are written as the keys they are stored
+                // as without reading the referenced records
+                Map<String, Object> map = entry.getMapFromRecord(key, record);
+                try {
+                    // The scan callback can be invoked concurrently for different nodes
+                    synchronized (writer) {
+                        writer.write(map);
+                    }
+                } catch (IOException e) {
+                    throw new AerospikeException(String.format("Failed writing to %s: %s", file, e.getMessage()), e);
+                }
+                recordCount.incrementAndGet();
+            });
+        } catch (IOException e) {
+            throw ClientCall.failed(call,
+                    new AerospikeException(String.format("Failed writing to %s: %s", file, e.getMessage()), e));
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.aerospike.mapper.tools.bulk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The file formats written by {@link BulkExporter} and read by {@link BulkImporter}. Both formats hold one record per
+ * entry, as the map of bin names to values returned by <code>ClassCacheEntry.getMap</code>, and both preserve the
+ * Aerospike types of the values.
+ */
+public enum BulkFormat {
+    /**
+     * Newline delimited JSON, one record per line. Values which JSON cannot represent directly, such as byte arrays,
+     * maps with non-string keys and sorted maps, are written as single-entry objects whose key starts with <code>$</code>.
+     */
+    NDJSON("ndjson"),
+    /**
+     * A compact binary form, with a one byte type tag before each value.
+     */
+    BINARY("bin");
+
+    private final String extension;
+
+    BulkFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Determine the format of a file from its extension, returning null if the extension is not recognized.
+     */
+    public static BulkFormat fromFile(File file) {
+        String name = file.getName();
+        for (BulkFormat format : values()) {
+            if (name.endsWith("." + format.extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    BulkRecordWriter openWriter(OutputStream out) throws IOException {
+        return this == NDJSON ? new NdjsonCodec.Writer(out) : new BinaryCodec.Writer(out);
+    }
+
+    BulkRecordReader openReader(InputStream in) throws IOException {
+        return this == NDJSON ? new NdjsonCodec.Reader(in) : new BinaryCodec.Reader(in);
+    }
+}
@@ -0,0 +1,341 @@
+package com.aerospike.mapper.tools.bulk;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.validation.constraints.NotNull;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.BatchRecord;
+import com.aerospike.client.BatchWrite;
+import com.aerospike.client.Bin;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.Value;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.BatchWritePolicy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.IAeroMapper;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+import com.aerospike.mapper.tools.tracing.MapperInterceptor;
+import com.aerospike.mapper.tools.utils.MapperUtils;
+
+/**
+ * Loads files written by {@link BulkExporter} back into the database. The files are read in parallel. The records are
+ * grouped into batches, and the batch writes are issued on a separate pool so that reading carries on while batches are
+ * in flight. The number of batches in flight is bounded, so a slow cluster slows the readers down rather than building up
+ * an unbounded backlog.
+ * <p/>
+ * Each record is written with the same bins as <code>save</code> would write, under the stored names of the bins. The
+ * values are written as they were exported rather than converted back to objects, so references are kept without
+ * reading the records they refer to. By default existing records are replaced.
+ * <pre>
+ * BulkResult result = new BulkImporter(mapper)
+ *         .withBatchSize(500)
+ *         .withMaxInFlight(16)
+ *         .importDirectory(Customer.class, new File("/tmp/customers"));
+ * </pre>
+ */
+public class BulkImporter {
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 8;
+
+    private static final AtomicInteger importCounter = new AtomicInteger();
+
+    private final IAeroMapper mapper;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private BatchPolicy batchPolicy = null;
+    private BatchWritePolicy batchWritePolicy = null;
+
+    public BulkImporter(@NotNull IAeroMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Set the number of records in each batch write.
+     */
+    public BulkImporter withBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new AerospikeException(String.format("batchSize must be greater than zero, not %d", batchSize));
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of batch writes which can be in progress at once.
+     */
+    public BulkImporter withMaxInFlight(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new AerospikeException(String.format("maxInFlight must be greater than zero, not %d", maxInFlight));
+        }
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of files read at once. Defaults to the number of processors.
+     */
+    public BulkImporter withParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new AerospikeException(String.format("parallelism must be greater than zero, not %d", parallelism));
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Set the policy of the batch writes. If this is not set, the client's default batch write policy is used.
+     */
+    public BulkImporter withBatchPolicy(BatchPolicy batchPolicy) {
+        this.batchPolicy = batchPolicy;
+        return this;
+    }
+
+    /**
+     * Set the policy of each record write. If this is not set, existing records are replaced and the key is sent if the
+     * write policy of the class sends it.
+     */
+    public BulkImporter withBatchWritePolicy(BatchWritePolicy batchWritePolicy) {
+        this.batchWritePolicy = batchWritePolicy;
+        return this;
+    }
+
+    /**
+     * Import every file in the passed directory which {@link BulkExporter} writes for the passed class, that is files
+     * named <code>&lt;set&gt;-&lt;range&gt;.&lt;extension&gt;</code>. Other files, such as exports of other sets, are
+     * ignored.
+     *
+     * @param clazz     - the mapped class the files were exported from.
+     * @param directory - the directory containing the files.
+     * @return the files read and the number of records imported and failed.
+     */
+    public <T> BulkResult importDirectory(@NotNull Class<T> clazz, @NotNull File directory) {
+        String prefix = BulkExporter.getFilePrefix(MapperUtils.getEntryAndValidateNamespace(clazz, mapper));
+        File[] files = directory.listFiles(file -> BulkExporter.isExportFile(file, prefix));
+        if (files == null) {
+            throw new AerospikeException(String.format("%s is not a directory", directory));
+        }
+        Arrays.sort(files);
+        return importFiles(clazz, files);
+    }
+
+    /**
+     * Import the passed files. The format of each file is determined from its extension.
+     *
+     * @param clazz - the mapped class the files were exported from.
+     * @param files - the files to import.
+     * @return the files read and the number of records imported and failed.
+     */
+    public <T> BulkResult importFiles(@NotNull Class<T> clazz, @NotNull File... files) {
+        long start = System.currentTimeMillis();
+        ClassCacheEntry<T> entry = MapperUtils.getEntryAndValidateNamespace(clazz, mapper);
+        for (File file : files) {
+            if (BulkFormat.fromFile(file) == null) {
+                throw new AerospikeException(String.format("Cannot determine the format of %s", file));
+            }
+        }
+        IAerospikeClient client = mapper.getClient();
+        BatchPolicy policy = batchPolicy == null ? client.getBatchParentPolicyWriteDefault() : batchPolicy;
+        BatchWritePolicy writePolicy = batchWritePolicy;
+        if (writePolicy == null) {
+            writePolicy = new BatchWritePolicy();
+            writePolicy.recordExistsAction = RecordExistsAction.REPLACE;
+            writePolicy.sendKey = entry.getWritePolicy().sendKey;
+        }
+
+        int importId = importCounter.incrementAndGet();
+        ExecutorService readers = createPool(Math.min(parallelism, Math.max(1, files.length)), "read", importId);
+        ExecutorService writers = createPool(maxInFlight, "write", importId);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicLong recordCount = new AtomicLong();
+        AtomicLong failedCount = new AtomicLong();
+        AtomicReference<AerospikeException> firstError = new AtomicReference<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>(files.length);
+            for (File file : files) {
+                BatchWritePolicy thisWritePolicy = writePolicy;
+                futures.add(readers.submit(() -> {
+                    importFile(entry, file, thisWritePolicy, batch ->
+                            submit(client, policy, clazz, batch, writers, inFlight, recordCount, failedCount,
+                                    firstError));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                await(future);
+            }
+            // Wait for the last batches to complete
+            inFlight.acquireUninterruptibly(maxInFlight);
+        } finally {
+            readers.shutdownNow();
+            writers.shutdown();
+        }
+        return new BulkResult(Arrays.asList(files), recordCount.get(), failedCount.get(), firstError.get(),
+                System.currentTimeMillis() - start);
+    }
+
+    private interface BatchSink {
+        void accept(Batch batch);
+    }
+
+    /**
+     * The records of one batch, with the bins and class of each record so they can be passed to the interceptor.
+     */
+    private static class Batch {
+        private final List<BatchRecord> records;
+        private final List<Bin[]> bins;
+        private final List<Class<?>> classes;
+
+        Batch(int capacity) {
+            records = new ArrayList<>(capacity);
+            bins = new ArrayList<>(capacity);
+            classes = new ArrayList<>(capacity);
+        }
+
+        void add(BatchRecord record, Bin[] recordBins, Class<?> clazz) {
+            records.add(record);
+            bins.add(recordBins);
+            classes.add(clazz);
+        }
+
+        int size() {
+            return records.size();
+        }
+
+        ClientCall begin(MapperInterceptor interceptor, Class<?> clazz) {
+            if (interceptor == null) {
+                return null;
+            }
+            Key[] keys = new Key[records.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = records.get(i).key;
+            }
+            return ClientCall.begin(interceptor, ClientCall.Type.BATCH_WRITE, clazz, keys,
+                    classes.toArray(new Class<?>[0]), bins.toArray(new Bin[0][]), 0);
+        }
+    }
+
+    private void importFile(ClassCacheEntry<?> entry, File file, BatchWritePolicy writePolicy, BatchSink sink)
+            throws IOException {
+        BulkFormat format = BulkFormat.fromFile(file);
+        // Use the null set, as save does
+        String setName = "".equals(entry.getSetName()) ? null : entry.getSetName();
+        Batch batch = new Batch(batchSize);
+        try (InputStream in = new FileInputStream(file); BulkRecordReader reader = format.openReader(in)) {
+            Map<String, Object> map;
+            while ((map = reader.read()) != null) {
+                // The values are already in stored form, so are written as they are rather than through an object,
+                // which would try to read referenced records
+                ClassCacheEntry<?> objectEntry = entry.getEntryForMap(map);
+                Bin[] bins = objectEntry.getBinsFromMap(map);
+                if (bins.length == 0) {
+                    // A record without bins cannot be stored, just as with save
+                    continue;
+                }
+                Operation[] operations = new Operation[bins.length];
+                for (int i = 0; i < bins.length; i++) {
+                    operations[i] = Operation.put(bins[i]);
+                }
+                Key key = new Key(entry.getNamespace(), setName, Value.get(objectEntry.getKeyFromMap(map)));
+                batch.add(new BatchWrite(writePolicy, key, operations), bins, objectEntry.getUnderlyingClass());
+                if (batch.size() >= batchSize) {
+                    sink.accept(batch);
+                    batch = new Batch(batchSize);
+                }
+            }
+        }
+        if (batch.size() > 0) {
+            sink.accept(batch);
+        }
+    }
+
+    private void submit(IAerospikeClient client, BatchPolicy policy, Class<?> clazz, Batch batch,
+                        ExecutorService writers, Semaphore inFlight, AtomicLong recordCount, AtomicLong failedCount,
+                        AtomicReference<AerospikeException> firstError) {
+        inFlight.acquireUninterruptibly();
+        try {
+            writers.execute(() -> {
+                try {
+                    ClientCall call = batch.begin(mapper.getMappingConverter().getInterceptor(), clazz);
+                    try {
+                        client.operate(policy, batch.records);
+                    } catch (AerospikeException e) {
+                        // Some records may have been written before the batch failed, and their result codes say so
+                        firstError.compareAndSet(null, ClientCall.failed(call, e));
+                    } finally {
+                        ClientCall.end(call);
+                    }
+                } finally {
+                    try {
+                        countResults(batch.records, recordCount, failedCount, firstError);
+                    } finally {
+                        inFlight.release();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void countResults(List<BatchRecord> batch, AtomicLong recordCount, AtomicLong failedCount,
+                              AtomicReference<AerospikeException> firstError) {
+        for (BatchRecord record : batch) {
+            if (record.resultCode == ResultCode.OK) {
+                recordCount.incrementAndGet();
+            } else {
+                failedCount.incrementAndGet();
+                if (firstError.get() == null) {
+                    firstError.compareAndSet(null, new AerospikeException(record.resultCode,
+                            String.format("Failed to import record %s", record.key)));
+                }
+            }
+        }
+    }
+
+    private void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AerospikeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AerospikeException) {
+                throw (AerospikeException) cause;
+            }
+            throw new AerospikeException(String.format("Import failed: %s", cause.getMessage()), cause);
+        }
+    }
+
+    private static ExecutorService createPool(int threads, String role, int importId) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable,
+                    String.format("aerospike-mapper-import-%d-%s-%d", importId, role, threadCounter.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
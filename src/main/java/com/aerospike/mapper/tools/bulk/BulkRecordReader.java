@@ -0,0 +1,12 @@
+package com.aerospike.mapper.tools.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+interface BulkRecordReader extends Closeable {
+    /**
+     * Read the next record, returning null at the end of the file.
+     */
+    Map<String, Object> read() throws IOException;
+}
@@ -0,0 +1,9 @@
+package com.aerospike.mapper.tools.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+interface BulkRecordWriter extends Closeable {
+    void write(Map<String, Object> record) throws IOException;
+}
@@ -0,0 +1,66 @@
+package com.aerospike.mapper.tools.bulk;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import com.aerospike.client.AerospikeException;
+
+/**
+ * The outcome of a bulk export or import.
+ */
+public class BulkResult {
+    private final List<File> files;
+    private final long recordCount;
+    private final long failedCount;
+    private final AerospikeException firstError;
+    private final long elapsedMillis;
+
+    BulkResult(List<File> files, long recordCount, long failedCount, AerospikeException firstError, long elapsedMillis) {
+        this.files = Collections.unmodifiableList(files);
+        this.recordCount = recordCount;
+        this.failedCount = failedCount;
+        this.firstError = firstError;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * The files written by an export, or read by an import.
+     */
+    public List<File> getFiles() {
+        return files;
+    }
+
+    /**
+     * The number of records successfully exported or imported.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * The number of records which could not be written by an import. This is always zero for an export, which fails
+     * with an exception instead.
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * The first error met by an import: either the exception thrown by a failed batch write, or an exception holding
+     * the result code of the first record which could not be written. This is null if every record was imported.
+     */
+    public AerospikeException getFirstError() {
+        return firstError;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkResult(files=%d, records=%d, failed=%d, elapsed=%dms%s)", files.size(), recordCount,
+                failedCount, elapsedMillis, firstError == null ? "" : ", firstError=" + firstError.getMessage());
+    }
+}
@@ -0,0 +1,396 @@
+package com.aerospike.mapper.tools.bulk;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.aerospike.client.AerospikeException;
+
+/**
+ * The {@link BulkFormat#NDJSON} format. Plain JSON is used wherever it is lossless. Other values are written as an
+ * object with a single tagged key:
+ * <ul>
+ * <li><code>{"$bytes": "&lt;base64&gt;"}</code> for byte arrays</li>
+ * <li><code>{"$double": "NaN"}</code> for doubles which are not finite</li>
+ * <li><code>{"$map": [[key, value], ...]}</code> for maps with keys which are not strings, or which start with <code>$</code></li>
+ * <li><code>{"$sortedMap": [[key, value], ...]}</code> for sorted maps</li>
+ * </ul>
+ */
+class NdjsonCodec {
+    private static final String BYTES = "$bytes";
+    private static final String DOUBLE = "$double";
+    private static final String MAP = "$map";
+    private static final String SORTED_MAP = "$sortedMap";
+
+    private NdjsonCodec() {
+    }
+
+    static class Writer implements BulkRecordWriter {
+        private final BufferedWriter out;
+        private final StringBuilder buffer = new StringBuilder();
+
+        Writer(OutputStream out) {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void write(Map<String, Object> record) throws IOException {
+            buffer.setLength(0);
+            writeValue(record);
+            buffer.append('\n');
+            out.write(buffer.toString());
+        }
+
+        private void writeValue(Object value) {
+            if (value == null) {
+                buffer.append("null");
+            } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                buffer.append(((Number) value).longValue());
+            } else if (value instanceof Double || value instanceof Float) {
+                double d = ((Number) value).doubleValue();
+                if (Double.isNaN(d) || Double.isInfinite(d)) {
+                    buffer.append("{\"").append(DOUBLE).append("\":\"").append(d).append("\"}");
+                } else {
+                    // Double.toString always includes a '.' or an exponent, so it is read back as a double
+                    buffer.append(d);
+                }
+            } else if (value instanceof String) {
+                writeString((String) value);
+            } else if (value instanceof Boolean) {
+                buffer.append(value);
+            } else if (value instanceof byte[]) {
+                buffer.append("{\"").append(BYTES).append("\":\"")
+                        .append(Base64.getEncoder().encodeToString((byte[]) value)).append("\"}");
+            } else if (value instanceof List) {
+                buffer.append('[');
+                boolean first = true;
+                for (Object item : (List<?>) value) {
+                    if (!first) {
+                        buffer.append(',');
+                    }
+                    first = false;
+                    writeValue(item);
+                }
+                buffer.append(']');
+            } else if (value instanceof Map) {
+                writeMap((Map<?, ?>) value);
+            } else {
+                throw new AerospikeException(String.format("Cannot export a value of type %s", value.getClass().getName()));
+            }
+        }
+
+        private void writeMap(Map<?, ?> map) {
+            boolean plain = !(map instanceof SortedMap);
+            for (Object key : map.keySet()) {
+                if (!(key instanceof String) || ((String) key).startsWith("$")) {
+                    plain = false;
+                    break;
+                }
+            }
+            boolean first = true;
+            if (plain) {
+                buffer.append('{');
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (!first) {
+                        buffer.append(',');
+                    }
+                    first = false;
+                    writeString((String) entry.getKey());
+                    buffer.append(':');
+                    writeValue(entry.getValue());
+                }
+                buffer.append('}');
+            } else {
+                buffer.append("{\"").append(map instanceof SortedMap ? SORTED_MAP : MAP).append("\":[");
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (!first) {
+                        buffer.append(',');
+                    }
+                    first = false;
+                    buffer.append('[');
+                    writeValue(entry.getKey());
+                    buffer.append(',');
+                    writeValue(entry.getValue());
+                    buffer.append(']');
+                }
+                buffer.append("]}");
+            }
+        }
+
+        private void writeString(String value) {
+            buffer.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        buffer.append("\\\"");
+                        break;
+                    case '\\':
+                        buffer.append("\\\\");
+                        break;
+                    case '\n':
+                        buffer.append("\\n");
+                        break;
+                    case '\r':
+                        buffer.append("\\r");
+                        break;
+                    case '\t':
+                        buffer.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            buffer.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            buffer.append(c);
+                        }
+                }
+            }
+            buffer.append('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    static class Reader implements BulkRecordReader {
+        private final BufferedReader in;
+        private String line;
+        private int pos;
+        private int lineNumber = 0;
+
+        Reader(InputStream in) {
+            this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> read() throws IOException {
+            do {
+                line = in.readLine();
+                lineNumber++;
+                if (line == null) {
+                    return null;
+                }
+            } while (line.trim().isEmpty());
+            pos = 0;
+            Object value = readValue();
+            skipWhitespace();
+            if (!(value instanceof Map) || pos != line.length()) {
+                throw error("Expected a single JSON object");
+            }
+            return (Map<String, Object>) value;
+        }
+
+        private IOException error(String message) {
+            return new IOException(String.format("%s at line %d, column %d", message, lineNumber, pos + 1));
+        }
+
+        private void skipWhitespace() {
+            while (pos < line.length() && Character.isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() throws IOException {
+            skipWhitespace();
+            if (pos >= line.length()) {
+                throw error("Unexpected end of line");
+            }
+            return line.charAt(pos);
+        }
+
+        private void expect(char c) throws IOException {
+            if (peek() != c) {
+                throw error("Expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        private Object readValue() throws IOException {
+            char c = peek();
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                case 't':
+                    return readLiteral("true", Boolean.TRUE);
+                case 'f':
+                    return readLiteral("false", Boolean.FALSE);
+                case 'n':
+                    return readLiteral("null", null);
+                default:
+                    return readNumber();
+            }
+        }
+
+        private Object readLiteral(String literal, Object value) throws IOException {
+            if (!line.startsWith(literal, pos)) {
+                throw error("Unexpected token");
+            }
+            pos += literal.length();
+            return value;
+        }
+
+        private Object readNumber() throws IOException {
+            int start = pos;
+            boolean floating = false;
+            while (pos < line.length()) {
+                char c = line.charAt(pos);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    floating = true;
+                } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                    break;
+                }
+                pos++;
+            }
+            String number = line.substring(start, pos);
+            try {
+                return floating ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("Invalid number '" + number + "'");
+            }
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            StringBuilder result = new StringBuilder();
+            while (pos < line.length()) {
+                char c = line.charAt(pos++);
+                if (c == '"') {
+                    return result.toString();
+                } else if (c == '\\') {
+                    if (pos >= line.length()) {
+                        break;
+                    }
+                    char escaped = line.charAt(pos++);
+                    switch (escaped) {
+                        case 'n':
+                            result.append('\n');
+                            break;
+                        case 'r':
+                            result.append('\r');
+                            break;
+                        case 't':
+                            result.append('\t');
+                            break;
+                        case 'b':
+                            result.append('\b');
+                            break;
+                        case 'f':
+                            result.append('\f');
+                            break;
+                        case 'u':
+                            if (pos + 4 > line.length()) {
+                                throw error("Invalid unicode escape");
+                            }
+                            result.append((char) Integer.parseInt(line.substring(pos, pos + 4), 16));
+                            pos += 4;
+                            break;
+                        default:
+                            result.append(escaped);
+                    }
+                } else {
+                    result.append(c);
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private List<Object> readArray() throws IOException {
+            expect('[');
+            List<Object> result = new ArrayList<>();
+            if (peek() == ']') {
+                pos++;
+                return result;
+            }
+            while (true) {
+                result.add(readValue());
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return result;
+                }
+            }
+        }
+
+        private Object readObject() throws IOException {
+            expect('{');
+            Map<Object, Object> result = new HashMap<>();
+            if (peek() == '}') {
+                pos++;
+                return result;
+            }
+            while (true) {
+                String key = readString();
+                expect(':');
+                result.put(key, readValue());
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    break;
+                }
+            }
+            if (result.size() == 1) {
+                String key = (String) result.keySet().iterator().next();
+                if (key.startsWith("$")) {
+                    return decodeTagged(key, result.get(key));
+                }
+            }
+            return result;
+        }
+
+        private Object decodeTagged(String tag, Object value) throws IOException {
+            switch (tag) {
+                case BYTES:
+                    return Base64.getDecoder().decode((String) value);
+                case DOUBLE:
+                    return Double.parseDouble((String) value);
+                case MAP:
+                    return decodeEntries(value, new HashMap<>());
+                case SORTED_MAP:
+                    return decodeEntries(value, new TreeMap<>());
+                default:
+                    throw error("Unknown tag " + tag);
+            }
+        }
+
+        private Map<Object, Object> decodeEntries(Object value, Map<Object, Object> map) throws IOException {
+            if (!(value instanceof List)) {
+                throw error("Expected a list of map entries");
+            }
+            for (Object entry : (List<?>) value) {
+                if (!(entry instanceof List) || ((List<?>) entry).size() != 2) {
+                    throw error("Expected a [key, value] pair");
+                }
+                List<?> pair = (List<?>) entry;
+                map.put(pair.get(0), pair.get(1));
+            }
+            return map;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
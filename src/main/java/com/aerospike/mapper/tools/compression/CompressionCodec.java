@@ -0,0 +1,37 @@
+package com.aerospike.mapper.tools.compression;
+
+/**
+ * A compression algorithm for the values of compressed bins. Implementations must be thread safe, and are registered
+ * with {@link CompressionCodecs#register(CompressionCodec)}. For example, an LZ4 or Zstd codec can be plugged in by
+ * wrapping the library of choice in this interface.
+ */
+public interface CompressionCodec {
+    /**
+     * The name used to select this codec, such as in the <code>compressCodec</code> of <code>@AerospikeBin</code>.
+     */
+    String getName();
+
+    /**
+     * The id stored with every value compressed by this codec, so it can be decompressed even if a different codec is
+     * now used for the bin. It must be between 1 and 255, as 0 is reserved for
+     * blobs which are stored without compression, and must never change once values have been written.
+     */
+    int getId();
+
+    /**
+     * Compress the data.
+     *
+     * @param data - the bytes to compress.
+     * @return the compressed bytes.
+     */
+    byte[] compress(byte[] data);
+
+    /**
+     * Decompress data compressed by {@link #compress(byte[])}.
+     *
+     * @param data   - the compressed bytes.
+     * @param length - the number of bytes the data was compressed from.
+     * @return the original bytes.
+     */
+    byte[] decompress(byte[] data, int length);
+}
@@ -0,0 +1,69 @@
+package com.aerospike.mapper.tools.compression;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.aerospike.client.AerospikeException;
+
+/**
+ * The registry of compression codecs, by name for compressing and by id for decompressing. The {@link DeflateCodec} is
+ * always registered.
+ */
+public final class CompressionCodecs {
+    private static final Map<String, CompressionCodec> codecsByName = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<CompressionCodec> codecsById = new AtomicReferenceArray<>(256);
+
+    static {
+        register(new DeflateCodec());
+    }
+
+    private CompressionCodecs() {
+    }
+
+    /**
+     * Register a codec, replacing any codec with the same name and id. This must be done before any class which uses
+     * the codec is loaded, and before any value compressed with it is read.
+     *
+     * @param codec - the codec to register.
+     */
+    public static synchronized void register(CompressionCodec codec) {
+        int id = codec.getId();
+        if (id < 1 || id > 255) {
+            throw new AerospikeException(String.format("The id of compression codec %s must be between 1 and 255, not %d",
+                    codec.getName(), id));
+        }
+        CompressionCodec existing = codecsById.get(id);
+        if (existing != null && !existing.getName().equals(codec.getName())) {
+            throw new AerospikeException(String.format("Compression codec id %d is used for both %s and %s",
+                    id, existing.getName(), codec.getName()));
+        }
+        existing = codecsByName.get(codec.getName());
+        if (existing != null && existing.getId() != id) {
+            throw new AerospikeException(String.format("Compression codec %s is registered with both id %d and %d",
+                    codec.getName(), existing.getId(), id));
+        }
+        codecsById.set(id, codec);
+        codecsByName.put(codec.getName(), codec);
+    }
+
+    /**
+     * Return the codec with the passed name.
+     *
+     * @throws AerospikeException if no codec with the name has been registered.
+     */
+    public static CompressionCodec get(String name) {
+        CompressionCodec codec = codecsByName.get(name);
+        if (codec == null) {
+            throw new AerospikeException(String.format("No compression codec named %s has been registered", name));
+        }
+        return codec;
+    }
+
+    /**
+     * Return the codec with the passed id, or null if no codec with the id has been registered.
+     */
+    public static CompressionCodec get(int id) {
+        return id < 0 || id >= codecsById.length() ? null : codecsById.get(id);
+    }
+}
@@ -0,0 +1,83 @@
+package com.aerospike.mapper.tools.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.aerospike.client.AerospikeException;
+
+/**
+ * Compresses with the Deflate algorithm of <code>java.util.zip</code>, so needs no other libraries.
+ */
+public class DeflateCodec implements CompressionCodec {
+    public static final String NAME = "deflate";
+    public static final int ID = 1;
+
+    private final int level;
+
+    public DeflateCodec() {
+        this(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param level - the compression level, from 1 (fastest) to 9 (smallest).
+     */
+    public DeflateCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] result = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                int count = inflater.inflate(result, offset, length - offset);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != length || !inflater.finished()) {
+                throw new AerospikeException(String.format(
+                        "Compressed value is corrupt, expected %d bytes but found %d", length, offset));
+            }
+            return result;
+        } catch (DataFormatException dfe) {
+            throw new AerospikeException("Compressed value is corrupt: " + dfe.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+}
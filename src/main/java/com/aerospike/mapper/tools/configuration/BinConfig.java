@@ -15,6 +15,8 @@ public class BinConfig {
     private EmbedConfig embed;
     private ReferenceConfig reference;
     private Boolean generation;
+    private IndexConfig index;
+    private CompressConfig compress;
 
     public String getName() {
         return name;
@@ -56,6 +58,14 @@ public class BinConfig {
         return generation;
     }
 
+    public IndexConfig getIndex() {
+        return index;
+    }
+
+    public CompressConfig getCompress() {
+        return compress;
+    }
+
     public void setName(String name) {
         this.name = name;
     }
@@ -96,6 +106,14 @@ public class BinConfig {
         this.generation = generation;
     }
 
+    public void setIndex(IndexConfig index) {
+        this.index = index;
+    }
+
+    public void setCompress(CompressConfig compress) {
+        this.compress = compress;
+    }
+
     public void validate(String className) {
         if (StringUtils.isBlank(this.name) && StringUtils.isBlank(this.field)) {
             throw new AerospikeException("Configuration for class " + className + " defines a bin which contains neither a name nor a field");
@@ -140,6 +158,12 @@ public class BinConfig {
         if (this.generation == null && other.generation != null) {
             this.generation = other.generation;
         }
+        if (this.index == null && other.index != null) {
+            this.index = other.index;
+        }
+        if (this.compress == null && other.compress != null) {
+            this.compress = other.compress;
+        }
         return this;
     }
 }
@@ -0,0 +1,349 @@
+package com.aerospike.mapper.tools.configuration;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.policy.GenerationPolicy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+
+/**
+ * Holds the short bin names given to the bins of classes which use compact bin names, so the bins of these classes can
+ * be stored under names of one to three characters while the fields keep their readable names. The dictionary is set on
+ * the mapper builder, and the classes opt in with <code>compactBinNames</code> on <code>@AerospikeRecord</code> or in
+ * the configuration:
+ * <pre>
+ * AeroMapper mapper = new AeroMapper.Builder(client)
+ *         .withBinNameDictionary(BinNameDictionary.inFile(new File("binNames.yml")))
+ *         .build();
+ * </pre>
+ * Names are only ever added to the dictionary, never changed or removed, so records written with any version of the
+ * dictionary remain readable. Each addition increments the version of the dictionary and is saved to the store before
+ * the names are used. A store only saves if nobody else has saved since it was loaded, so several processes sharing a
+ * dictionary record never hand out the same name twice.
+ * <p/>
+ * The names are unique across all the classes in the dictionary, so subclasses stored in the same record as their
+ * superclass cannot clash with it. They always start with a digit, so they never clash with the bin names of fields
+ * which are not renamed either.
+ */
+public class BinNameDictionary {
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final int MAX_ATTEMPTS = 10;
+    private static final String VERSION = "version";
+    private static final String CLASSES = "classes";
+
+    /**
+     * A version of the dictionary: a map of class name to a map of bin name to stored bin name.
+     */
+    public static class Contents {
+        private final int version;
+        private final Map<String, Map<String, String>> classes;
+
+        public Contents(int version, Map<String, Map<String, String>> classes) {
+            this.version = version;
+            this.classes = classes;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public Map<String, Map<String, String>> getClasses() {
+            return classes;
+        }
+    }
+
+    /**
+     * Where the dictionary is kept between runs.
+     */
+    public interface Store {
+        /**
+         * Load the latest version of the dictionary.
+         *
+         * @return the contents, or null if nothing has been saved yet.
+         */
+        Contents load();
+
+        /**
+         * Save a new version of the dictionary, unless the stored dictionary has changed since it was last loaded.
+         *
+         * @param contents        - the new version.
+         * @param expectedVersion - the version the new one was derived from, 0 if nothing had been saved.
+         * @return true if it was saved, false if the stored dictionary has changed and must be loaded again.
+         */
+        boolean save(Contents contents, int expectedVersion);
+    }
+
+    /**
+     * Keeps the dictionary in a YAML file, which can be checked in with the code. Other processes must not change the
+     * file while it is being saved.
+     */
+    public static class FileStore implements Store {
+        private final File file;
+
+        public FileStore(File file) {
+            this.file = file;
+        }
+
+        @Override
+        public Contents load() {
+            if (!file.exists()) {
+                return null;
+            }
+            try (InputStream in = new FileInputStream(file)) {
+                Map<?, ?> data = new Yaml().load(in);
+                if (data == null) {
+                    return null;
+                }
+                Object version = data.get(VERSION);
+                return new Contents(version == null ? 0 : ((Number) version).intValue(), toNames(data.get(CLASSES)));
+            } catch (IOException | ClassCastException e) {
+                throw new AerospikeException(String.format("Cannot read the bin name dictionary %s: %s", file, e.getMessage()));
+            }
+        }
+
+        @Override
+        public boolean save(Contents contents, int expectedVersion) {
+            Contents current = load();
+            if ((current == null ? 0 : current.getVersion()) != expectedVersion) {
+                return false;
+            }
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put(VERSION, contents.getVersion());
+            data.put(CLASSES, contents.getClasses());
+            DumperOptions options = new DumperOptions();
+            options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+            try {
+                File parent = file.getAbsoluteFile().getParentFile();
+                Path temp = Files.createTempFile(parent.toPath(), file.getName(), ".tmp");
+                try (Writer writer = new OutputStreamWriter(Files.newOutputStream(temp), StandardCharsets.UTF_8)) {
+                    new Yaml(options).dump(data, writer);
+                }
+                // Replace the file in one step so a reader never sees half a dictionary
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return true;
+            } catch (IOException e) {
+                throw new AerospikeException(String.format("Cannot save the bin name dictionary %s: %s", file, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Keeps the dictionary in a metadata record in the database, so all the processes using the database share it.
+     * Saves are checked against the generation of the record.
+     */
+    public static class RecordStore implements Store {
+        private final IAerospikeClient client;
+        private final Key key;
+        private int generation;
+
+        public RecordStore(IAerospikeClient client, Key key) {
+            this.client = client;
+            this.key = key;
+        }
+
+        @Override
+        public Contents load() {
+            Record record = client.get(null, key);
+            if (record == null) {
+                generation = 0;
+                return null;
+            }
+            generation = record.generation;
+            return new Contents(record.getInt(VERSION), toNames(record.getMap(CLASSES)));
+        }
+
+        @Override
+        public boolean save(Contents contents, int expectedVersion) {
+            WritePolicy writePolicy = new WritePolicy();
+            writePolicy.sendKey = true;
+            if (expectedVersion == 0) {
+                writePolicy.recordExistsAction = RecordExistsAction.CREATE_ONLY;
+            } else {
+                writePolicy.generationPolicy = GenerationPolicy.EXPECT_GEN_EQUAL;
+                writePolicy.generation = generation;
+            }
+            try {
+                client.put(writePolicy, key, new Bin(VERSION, contents.getVersion()),
+                        new Bin(CLASSES, contents.getClasses()));
+            } catch (AerospikeException ae) {
+                if (ae.getResultCode() == ResultCode.GENERATION_ERROR || ae.getResultCode() == ResultCode.KEY_EXISTS_ERROR) {
+                    return false;
+                }
+                throw ae;
+            }
+            generation = client.getHeader(null, key).generation;
+            return true;
+        }
+    }
+
+    private final Store store;
+    private Contents contents;
+
+    public BinNameDictionary(Store store) {
+        this.store = store;
+    }
+
+    /**
+     * Create a dictionary kept in a YAML file. The file is created when the first names are added.
+     */
+    public static BinNameDictionary inFile(File file) {
+        return new BinNameDictionary(new FileStore(file));
+    }
+
+    /**
+     * Create a dictionary kept in a record in the database. The record is created when the first names are added.
+     */
+    public static BinNameDictionary inRecord(IAerospikeClient client, Key key) {
+        return new BinNameDictionary(new RecordStore(client, key));
+    }
+
+    /**
+     * Return the stored bin names of the passed bins of a class. Any bins which are not yet in the dictionary are given
+     * new names, and the new version of the dictionary is saved before this returns.
+     *
+     * @param className - the name of the class.
+     * @param binNames  - the bin names of the class, as they would be without compact bin names.
+     * @return a map of bin name to stored bin name.
+     */
+    public synchronized Map<String, String> getStoredNames(String className, Collection<String> binNames) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Contents current = getContents();
+            Map<String, String> names = current.getClasses().get(className);
+            if (names != null && names.keySet().containsAll(binNames)) {
+                return select(names, binNames);
+            }
+
+            Map<String, Map<String, String>> classes = new TreeMap<>();
+            Set<String> usedNames = new HashSet<>();
+            for (Map.Entry<String, Map<String, String>> entry : current.getClasses().entrySet()) {
+                classes.put(entry.getKey(), new TreeMap<>(entry.getValue()));
+                usedNames.addAll(entry.getValue().values());
+            }
+            Map<String, String> classNames = classes.computeIfAbsent(className, name -> new TreeMap<>());
+            int index = usedNames.size();
+            for (String binName : binNames) {
+                if (!classNames.containsKey(binName)) {
+                    String storedName;
+                    do {
+                        storedName = generateName(index++);
+                    } while (usedNames.contains(storedName));
+                    classNames.put(binName, storedName);
+                }
+            }
+            Contents updated = new Contents(current.getVersion() + 1, classes);
+            if (store.save(updated, current.getVersion())) {
+                this.contents = updated;
+                return select(classNames, binNames);
+            }
+            // Another process has added names, so load its version and try again
+            this.contents = null;
+        }
+        throw new AerospikeException(String.format("Unable to add the bins of %s to the bin name dictionary after %d attempts",
+                className, MAX_ATTEMPTS));
+    }
+
+    /**
+     * The version of the dictionary, which is 0 if no names have been added.
+     */
+    public synchronized int getVersion() {
+        return getContents().getVersion();
+    }
+
+    /**
+     * The stored bin names of every class in the dictionary, as a map of class name to a map of bin name to stored name.
+     */
+    public synchronized Map<String, Map<String, String>> getClasses() {
+        return Collections.unmodifiableMap(getContents().getClasses());
+    }
+
+    /**
+     * Forget the loaded dictionary, so it is loaded from the store again when it is next needed.
+     */
+    public synchronized void reload() {
+        this.contents = null;
+    }
+
+    /**
+     * Generate the stored name for an index. The first character is a digit and the rest are the remaining value in base
+     * 62, so there are 10 names of one character, 620 of two and 38,440 of three.
+     */
+    static String generateName(int index) {
+        StringBuilder sb = new StringBuilder().append(DIGITS.charAt(index % 10));
+        for (int rest = index / 10; rest > 0; rest /= DIGITS.length()) {
+            sb.append(DIGITS.charAt(rest % DIGITS.length()));
+        }
+        return sb.toString();
+    }
+
+    private Contents getContents() {
+        if (contents == null) {
+            Contents loaded = store.load();
+            contents = loaded == null ? new Contents(0, new TreeMap<>()) : validate(loaded);
+        }
+        return contents;
+    }
+
+    private static Contents validate(Contents contents) {
+        Map<String, String> owners = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> classEntry : contents.getClasses().entrySet()) {
+            for (Map.Entry<String, String> binEntry : classEntry.getValue().entrySet()) {
+                String owner = classEntry.getKey() + "." + binEntry.getKey();
+                String existing = owners.put(binEntry.getValue(), owner);
+                if (existing != null) {
+                    throw new AerospikeException(String.format("Stored bin name \"%s\" is used for both %s and %s in the bin name dictionary",
+                            binEntry.getValue(), existing, owner));
+                }
+            }
+        }
+        return contents;
+    }
+
+    private static Map<String, String> select(Map<String, String> names, Collection<String> binNames) {
+        Map<String, String> result = new HashMap<>();
+        for (String binName : binNames) {
+            result.put(binName, names.get(binName));
+        }
+        return result;
+    }
+
+    private static Map<String, Map<String, String>> toNames(Object data) {
+        Map<String, Map<String, String>> classes = new TreeMap<>();
+        if (data != null) {
+            for (Map.Entry<?, ?> classEntry : ((Map<?, ?>) data).entrySet()) {
+                Map<String, String> names = new TreeMap<>();
+                for (Map.Entry<?, ?> binEntry : ((Map<?, ?>) classEntry.getValue()).entrySet()) {
+                    // Names such as 0 are read back from YAML as numbers unless they are quoted
+                    names.put(String.valueOf(binEntry.getKey()), String.valueOf(binEntry.getValue()));
+                }
+                classes.put(String.valueOf(classEntry.getKey()), names);
+            }
+        }
+        return classes;
+    }
+}
@@ -6,6 +6,8 @@ import java.util.List;
 import jakarta.validation.constraints.NotNull;
 
 import com.aerospike.client.AerospikeException;
+import com.aerospike.client.query.IndexCollectionType;
+import com.aerospike.client.query.IndexType;
 import com.aerospike.mapper.annotations.AerospikeEmbed;
 import com.aerospike.mapper.annotations.AerospikeReference;
 import com.aerospike.mapper.tools.ConfigurationUtils;
@@ -21,6 +23,8 @@ public class ClassConfig {
     private Boolean durableDelete;
     private KeyConfig key;
     private String shortName;
+    private Integer typeId;
+    private Boolean compactBinNames;
     private String factoryClass;
     private String factoryMethod;
     private final List<BinConfig> bins;
@@ -65,6 +69,14 @@ public class ClassConfig {
         return shortName;
     }
 
+    public Integer getTypeId() {
+        return typeId;
+    }
+
+    public Boolean getCompactBinNames() {
+        return compactBinNames;
+    }
+
     public KeyConfig getKey() {
         return key;
     }
@@ -161,6 +173,14 @@ public class ClassConfig {
     public void setShortName(String shortName) {
         this.shortName = shortName;
     }
+
+    public void setTypeId(Integer typeId) {
+        this.typeId = typeId;
+    }
+
+    public void setCompactBinNames(Boolean compactBinNames) {
+        this.compactBinNames = compactBinNames;
+    }
     
     public static class Builder {
         private final Class<?> clazz;
@@ -187,6 +207,16 @@ public class ClassConfig {
             return this;
         }
 
+        public Builder withTypeId(int typeId) {
+            this.classConfig.setTypeId(typeId);
+            return this;
+        }
+
+        public Builder withCompactBinNames(boolean compactBinNames) {
+            this.classConfig.setCompactBinNames(compactBinNames);
+            return this;
+        }
+
         public Builder withSet(String setName) {
             this.classConfig.setSet(setName);
             return this;
@@ -319,6 +349,26 @@ public class ClassConfig {
             return this.end();
         }
 
+        public Builder beingIndexedAs(IndexType type) {
+            this.binConfig.setIndex(new IndexConfig(null, type, null));
+            return this.end();
+        }
+
+        public Builder beingIndexedAs(String indexName, IndexType type, IndexCollectionType collectionType) {
+            this.binConfig.setIndex(new IndexConfig(indexName, type, collectionType));
+            return this.end();
+        }
+
+        public Builder beingCompressed() {
+            this.binConfig.setCompress(new CompressConfig());
+            return this.end();
+        }
+
+        public Builder beingCompressed(int threshold, String codec) {
+            this.binConfig.setCompress(new CompressConfig(threshold, codec));
+            return this.end();
+        }
+
         public Builder asGenerationField() {
             this.binConfig.setGeneration(true);
             return this.end();
@@ -0,0 +1,30 @@
+package com.aerospike.mapper.tools.configuration;
+
+public class CompressConfig {
+    private Integer threshold;
+    private String codec;
+
+    public CompressConfig() {
+    }
+
+    public CompressConfig(Integer threshold, String codec) {
+        this.threshold = threshold;
+        this.codec = codec;
+    }
+
+    public Integer getThreshold() {
+        return threshold;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public void setThreshold(Integer threshold) {
+        this.threshold = threshold;
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+}
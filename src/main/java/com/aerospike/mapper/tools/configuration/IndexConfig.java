@@ -0,0 +1,43 @@
+package com.aerospike.mapper.tools.configuration;
+
+import com.aerospike.client.query.IndexCollectionType;
+import com.aerospike.client.query.IndexType;
+
+public class IndexConfig {
+    private String name;
+    private IndexType type;
+    private IndexCollectionType collectionType;
+
+    public IndexConfig() {
+    }
+
+    public IndexConfig(String name, IndexType type, IndexCollectionType collectionType) {
+        this.name = name;
+        this.type = type;
+        this.collectionType = collectionType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public IndexType getType() {
+        return type;
+    }
+
+    public IndexCollectionType getCollectionType() {
+        return collectionType;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setType(IndexType type) {
+        this.type = type;
+    }
+
+    public void setCollectionType(IndexCollectionType collectionType) {
+        this.collectionType = collectionType;
+    }
+}
@@ -14,6 +14,12 @@ import com.aerospike.mapper.tools.IBaseAeroMapper;
 import com.aerospike.mapper.tools.LoadedObjectResolver;
 import com.aerospike.mapper.tools.ThreadLocalKeySaver;
 import com.aerospike.mapper.tools.TypeMapper;
+import com.aerospike.mapper.tools.metrics.MapperMetrics;
+import com.aerospike.mapper.tools.metrics.MapperMetrics.OperationType;
+import com.aerospike.mapper.tools.metrics.MapperMetrics.Phase;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+import com.aerospike.mapper.tools.tracing.CompositeInterceptor;
+import com.aerospike.mapper.tools.tracing.MapperInterceptor;
 import com.aerospike.mapper.tools.utils.MapperUtils;
 import com.aerospike.mapper.tools.utils.TypeUtils;
 
@@ -27,12 +33,57 @@ public class MappingConverter {
 
     private final IBaseAeroMapper mapper;
     private final IAerospikeClient aerospikeClient;
+    private volatile MapperMetrics metrics = MapperMetrics.NONE;
+    private volatile MapperInterceptor interceptor;
 
     public MappingConverter(IBaseAeroMapper mapper, IAerospikeClient aerospikeClient) {
         this.mapper = mapper;
         this.aerospikeClient = aerospikeClient;
     }
 
+    /**
+     * The metrics which the mapper and this converter report timings to. This is never null.
+     */
+    public MapperMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the metrics which the mapper and this converter report timings to.
+     *
+     * @param metrics - the metrics, or null to discard the timings.
+     */
+    public void setMetrics(MapperMetrics metrics) {
+        this.metrics = metrics == null ? MapperMetrics.NONE : metrics;
+    }
+
+    /**
+     * The interceptor which the mapper and this converter notify around each client call, or null if there is none.
+     */
+    public MapperInterceptor getInterceptor() {
+        return interceptor;
+    }
+
+    /**
+     * Set the interceptor which the mapper and this converter notify around each client call, replacing any which
+     * have been added.
+     *
+     * @param interceptor - the interceptor, or null for none.
+     */
+    public synchronized void setInterceptor(MapperInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    /**
+     * Add an interceptor to those which the mapper and this converter notify around each client call. The interceptors
+     * are notified in the order they were added.
+     *
+     * @param interceptor - the interceptor to add.
+     */
+    public synchronized void addInterceptor(MapperInterceptor interceptor) {
+        this.interceptor = CompositeInterceptor.combine(this.interceptor, interceptor);
+    }
+
     /**
      * Translate a Java object to an Aerospike format object. Note that this could potentially have performance issues as
      * the type information of the passed object must be determined on every call.
@@ -97,12 +148,22 @@ public class MappingConverter {
      * This method should not be used, it is public only to allow mappers to see it.
      */
     public <T> T convertToObject(Class<T> clazz, Key key, Record record, ClassCacheEntry<T> entry, boolean resolveDependencies) {
+        return this.convertToObject(clazz, key, record, entry, resolveDependencies, OperationType.READ);
+    }
+
+    /**
+     * This method should not be used, it is public only to allow mappers to see it.
+     */
+    public <T> T convertToObject(Class<T> clazz, Key key, Record record, ClassCacheEntry<T> entry,
+                                 boolean resolveDependencies, OperationType operation) {
         if (entry == null) {
             entry = ClassCache.getInstance().loadClass(clazz, mapper);
         }
+        long start = System.nanoTime();
         T result = entry.constructAndHydrate(key, record);
+        metrics.recordLatency(clazz, operation, Phase.HYDRATE, System.nanoTime() - start);
         if (resolveDependencies) {
-            resolveDependencies(entry);
+            resolveDependencies(entry, operation);
         }
         return result;
     }
@@ -195,18 +256,32 @@ public class MappingConverter {
      * the list of deferred objects is empty. The deferred objects are stored in a <pre>ThreadLocalData<pre> list, so are thread safe
      * @param parentEntity - the ClassCacheEntry of the parent entity. This is used to get the batch policy to use.
      */
-    @SuppressWarnings("unchecked")
     public void resolveDependencies(ClassCacheEntry<?> parentEntity) {
+        resolveDependencies(parentEntity, OperationType.READ);
+    }
+
+    /**
+     * Resolve the deferred objects as {@link #resolveDependencies(ClassCacheEntry)} does, reporting the time and fan-out
+     * of each level of references to the metrics against the given operation.
+     * @param parentEntity - the ClassCacheEntry of the parent entity. This is used to get the batch policy to use.
+     * @param operation - the operation which read the parent entity.
+     */
+    @SuppressWarnings("unchecked")
+    public void resolveDependencies(ClassCacheEntry<?> parentEntity, OperationType operation) {
         List<DeferredObjectLoader.DeferredObjectSetter> deferredObjects = DeferredObjectLoader.getAndClear();
 
         if (deferredObjects.isEmpty()) {
             return;
         }
 
+        Class<?> parentClass = parentEntity == null ? Object.class : parentEntity.getUnderlyingClass();
+        int level = 0;
         BatchPolicy batchPolicy = parentEntity == null ? aerospikeClient.getBatchPolicyDefault() : parentEntity.getBatchPolicy();
         BatchPolicy batchPolicyClone = new BatchPolicy(batchPolicy);
 
         while (!deferredObjects.isEmpty()) {
+            long levelStart = System.nanoTime();
+            int references = deferredObjects.size();
             List<Key> keyList = new ArrayList<>();
             List<ClassCacheEntry<?>> classCacheEntryList = new ArrayList<>();
 
@@ -239,7 +314,24 @@ public class MappingConverter {
                 } else {
                     batchPolicyClone.maxConcurrentThreads = batchPolicy.maxConcurrentThreads;
                 }
-                Record[] records = aerospikeClient.get(batchPolicyClone, keys);
+                Record[] records;
+                MapperInterceptor interceptor = this.interceptor;
+                ClientCall call = null;
+                if (interceptor != null) {
+                    Class<?>[] keyClasses = new Class<?>[size];
+                    for (int i = 0; i < size; i++) {
+                        keyClasses[i] = classCacheEntryList.get(i).getUnderlyingClass();
+                    }
+                    call = ClientCall.begin(interceptor, ClientCall.Type.BATCH_GET, parentClass, keys, keyClasses,
+                            null, level + 1);
+                }
+                try {
+                    records = aerospikeClient.get(batchPolicyClone, keys);
+                } catch (RuntimeException e) {
+                    throw ClientCall.failed(call, e);
+                } finally {
+                    ClientCall.end(call);
+                }
 
                 for (int i = 0; i < size; i++) {
                     DeferredObjectLoader.DeferredObjectSetter thisObjectSetter = deferredObjects.get(i);
@@ -250,7 +342,8 @@ public class MappingConverter {
                                 keys[i],
                                 records[i],
                                 (ClassCacheEntry<Object>) classCacheEntryList.get(i),
-                                false);
+                                false,
+                                operation);
                         Object result = records[i] == null ? null : obj;
                         thisObjectSetter.getSetter().setValue(result);
                     } finally {
@@ -258,6 +351,7 @@ public class MappingConverter {
                     }
                 }
             }
+            metrics.recordDependencyLevel(parentClass, operation, level++, references, System.nanoTime() - levelStart);
             deferredObjects = DeferredObjectLoader.getAndClear();
         }
     }
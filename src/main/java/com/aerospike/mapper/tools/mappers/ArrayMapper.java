@@ -25,6 +25,11 @@ public class ArrayMapper extends TypeMapper {
         this.allowBatch = allowBatch;
     }
 
+    @Override
+    public boolean loadsReferences() {
+        return !supportedWithoutTranslation && (instanceClassMapper == null || instanceClassMapper.loadsReferences());
+    }
+
     @Override
     public Object toAerospikeFormat(Object value) {
         if (value == null) {
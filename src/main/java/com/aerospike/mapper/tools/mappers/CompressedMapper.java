@@ -0,0 +1,290 @@
+package com.aerospike.mapper.tools.mappers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.mapper.annotations.AerospikeBin;
+import com.aerospike.mapper.tools.TypeMapper;
+import com.aerospike.mapper.tools.compression.CompressionCodec;
+import com.aerospike.mapper.tools.compression.CompressionCodecs;
+import com.aerospike.mapper.tools.compression.DeflateCodec;
+import com.aerospike.mapper.tools.configuration.BinConfig;
+import com.aerospike.mapper.tools.configuration.CompressConfig;
+import com.aerospike.mapper.tools.utils.TypeUtils.AnnotatedType;
+
+/**
+ * Compresses the value of a bin after it has been converted by the mapper of the bin, and decompresses it before it is
+ * converted back. The converted value is serialized and compressed into a blob of:
+ * <pre>
+ * magic (4 bytes) | codec id (1 byte) | serialized length (4 bytes) | compressed data
+ * </pre>
+ * Values smaller than the threshold, or which do not get smaller, are stored as they are. On read, anything which is
+ * not a compressed blob is passed straight to the mapper of the bin, so data written before compression was turned on
+ * can still be read. A blob which is stored as it is but happens to start with the magic bytes is wrapped in the header
+ * with the reserved codec id 0, meaning stored, so that it is not mistaken for a compressed value when it is read.
+ */
+public class CompressedMapper extends TypeMapper {
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    private static final byte[] MAGIC = {(byte) 0xC5, 'A', 'M', 'Z'};
+    private static final int HEADER_SIZE = MAGIC.length + 1 + 4;
+    /** The codec id of a blob which is held in the header as it is, without compression. */
+    private static final int STORED = 0;
+
+    private static final int NULL = 0;
+    private static final int LONG = 1;
+    private static final int DOUBLE = 2;
+    private static final int STRING = 3;
+    private static final int BOOLEAN = 4;
+    private static final int BYTES = 5;
+    private static final int LIST = 6;
+    private static final int MAP = 7;
+    private static final int SORTED_MAP = 8;
+
+    private final TypeMapper delegate;
+    private final int threshold;
+    private final CompressionCodec codec;
+
+    public CompressedMapper(TypeMapper delegate, int threshold, CompressionCodec codec) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+        this.codec = codec;
+    }
+
+    /**
+     * Wrap the mapper of a bin in a <code>CompressedMapper</code> if the bin configuration or the
+     * <code>@AerospikeBin</code> annotation asks for compression. The configuration takes precedence.
+     *
+     * @param typeMapper    - the mapper of the bin.
+     * @param annotatedType - the annotations and configuration of the bin.
+     * @return the mapper to use for the bin.
+     */
+    public static TypeMapper forBin(TypeMapper typeMapper, AnnotatedType annotatedType) {
+        BinConfig binConfig = annotatedType.getBinConfig();
+        if (binConfig != null && binConfig.getCompress() != null) {
+            CompressConfig compress = binConfig.getCompress();
+            return new CompressedMapper(typeMapper,
+                    compress.getThreshold() == null ? DEFAULT_THRESHOLD : compress.getThreshold(),
+                    CompressionCodecs.get(compress.getCodec() == null ? DeflateCodec.NAME : compress.getCodec()));
+        }
+        AerospikeBin bin = annotatedType.getAnnotation(AerospikeBin.class);
+        if (bin != null && bin.compress()) {
+            return new CompressedMapper(typeMapper, bin.compressThreshold(), CompressionCodecs.get(bin.compressCodec()));
+        }
+        return typeMapper;
+    }
+
+    public TypeMapper getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Object toAerospikeFormat(Object value) {
+        return compress(delegate.toAerospikeFormat(value));
+    }
+
+    @Override
+    public Object toAerospikeFormat(Object value, boolean isUnknownType, boolean isSubclassOfKnownType) {
+        return compress(delegate.toAerospikeFormat(value, isUnknownType, isSubclassOfKnownType));
+    }
+
+    @Override
+    public boolean loadsReferences() {
+        return delegate.loadsReferences();
+    }
+
+    @Override
+    public Object fromAerospikeFormat(Object value) {
+        if (isCompressed(value)) {
+            value = decompress((byte[]) value);
+        }
+        return delegate.fromAerospikeFormat(value);
+    }
+
+    /**
+     * Determine whether a stored value is a blob written by this mapper.
+     */
+    public static boolean isCompressed(Object value) {
+        if (!(value instanceof byte[]) || ((byte[]) value).length < HEADER_SIZE) {
+            return false;
+        }
+        byte[] bytes = (byte[]) value;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object compress(Object value) {
+        if (value == null) {
+            return null;
+        }
+        Object result = compressIfSmaller(value);
+        if (result == value && isCompressed(value)) {
+            return wrap(STORED, ((byte[]) value).length, (byte[]) value);
+        }
+        return result;
+    }
+
+    private Object compressIfSmaller(Object value) {
+        // Strings and blobs which cannot reach the threshold are common, so skip serializing them
+        if ((value instanceof String && ((String) value).length() * 3 < threshold)
+                || (value instanceof byte[] && ((byte[]) value).length < threshold)) {
+            return value;
+        }
+        byte[] data = serialize(value);
+        if (data.length < threshold) {
+            return value;
+        }
+        byte[] compressed = codec.compress(data);
+        if (HEADER_SIZE + compressed.length >= data.length) {
+            return value;
+        }
+        return wrap(codec.getId(), data.length, compressed);
+    }
+
+    private static byte[] wrap(int codecId, int length, byte[] data) {
+        return ByteBuffer.allocate(HEADER_SIZE + data.length)
+                .put(MAGIC)
+                .put((byte) codecId)
+                .putInt(length)
+                .put(data)
+                .array();
+    }
+
+    private static Object decompress(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, MAGIC.length, bytes.length - MAGIC.length);
+        int id = buffer.get() & 0xff;
+        int length = buffer.getInt();
+        if (id == STORED) {
+            byte[] stored = new byte[buffer.remaining()];
+            buffer.get(stored);
+            return stored;
+        }
+        CompressionCodec codec = CompressionCodecs.get(id);
+        if (codec == null) {
+            throw new AerospikeException(String.format("Value was compressed with codec id %d, which has not been "
+                    + "registered with CompressionCodecs.register", id));
+        }
+        byte[] compressed = new byte[buffer.remaining()];
+        buffer.get(compressed);
+        try {
+            return deserialize(ByteBuffer.wrap(codec.decompress(compressed, length)));
+        } catch (BufferUnderflowException bue) {
+            throw new AerospikeException(String.format("Value compressed with codec %s is corrupt", codec.getName()));
+        }
+    }
+
+    private static byte[] serialize(Object value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeValue(out, value);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ioe) {
+            // Cannot happen writing to memory
+            throw new AerospikeException(ioe);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(LONG);
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            writeBytes(out, (byte[]) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(value instanceof SortedMap ? SORTED_MAP : MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new AerospikeException(String.format("Cannot compress a value of type %s", value.getClass().getName()));
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Object deserialize(ByteBuffer buffer) {
+        int tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case STRING:
+                return new String(readBytes(buffer), StandardCharsets.UTF_8);
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case BYTES:
+                return readBytes(buffer);
+            case LIST: {
+                int size = buffer.getInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(deserialize(buffer));
+                }
+                return list;
+            }
+            case MAP:
+            case SORTED_MAP: {
+                int size = buffer.getInt();
+                Map<Object, Object> map = tag == SORTED_MAP ? new TreeMap<>() : new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    Object key = deserialize(buffer);
+                    map.put(key, deserialize(buffer));
+                }
+                return map;
+            }
+            default:
+                throw new AerospikeException(String.format("Compressed value contains an unknown type %d", tag));
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
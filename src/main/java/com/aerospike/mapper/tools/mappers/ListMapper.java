@@ -118,20 +118,25 @@ public class ListMapper extends TypeMapper {
         if (List.class.isAssignableFrom(obj.getClass())) {
             List<Object> list = (List<Object>) obj;
             int lastElementIndex = list.size() - 1;
-            if ((!list.isEmpty()) && (list.get(lastElementIndex) instanceof String)) {
-                String lastElement = (String) list.get(lastElementIndex);
-                if (lastElement.startsWith(ClassCacheEntry.TYPE_PREFIX)) {
-                    String className = lastElement.substring(ClassCacheEntry.TYPE_PREFIX.length());
-                    ClassCacheEntry<?> thisClass = ClassCache.getInstance().getCacheEntryFromStoredName(className);
-                    if (thisClass != null) {
-                        return thisClass.getUnderlyingClass();
-                    }
+            if ((!list.isEmpty()) && ClassCacheEntry.isListTypeTag(list.get(lastElementIndex))) {
+                ClassCacheEntry<?> thisClass = ClassCacheEntry.fromTypeTag(list.get(lastElementIndex), mapper);
+                if (thisClass != null) {
+                    return thisClass.getUnderlyingClass();
                 }
             }
         }
         return obj.getClass();
     }
 
+    @Override
+    public boolean loadsReferences() {
+        if (supportedWithoutTranslation) {
+            return false;
+        }
+        // Without an element class, each element is mapped by its own type, which may be a reference
+        return instanceClassMapper == null || instanceClassMapper.loadsReferences();
+    }
+
     public Object fromAerospikeInstanceFormat(Object obj) {
         if (embedType == null || embedType == EmbedType.LIST) {
             if (instanceClass == null) {
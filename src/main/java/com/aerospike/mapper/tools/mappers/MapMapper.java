@@ -34,6 +34,14 @@ public class MapMapper extends TypeMapper {
         this.supportedWithoutTranslation = TypeUtils.isAerospikeNativeType(itemClass) && TypeUtils.isAerospikeNativeType(keyClass);
     }
 
+    @Override
+    public boolean loadsReferences() {
+        if (supportedWithoutTranslation) {
+            return false;
+        }
+        return keyMapper == null || itemMapper == null || keyMapper.loadsReferences() || itemMapper.loadsReferences();
+    }
+
     @Override
     public Object toAerospikeFormat(Object value) {
         if (value == null) {
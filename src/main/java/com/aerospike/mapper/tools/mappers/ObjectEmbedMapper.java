@@ -47,6 +47,11 @@ public class ObjectEmbedMapper extends ObjectMapper {
         }
     }
 
+    @Override
+    public boolean loadsReferences() {
+        return ClassCache.getInstance().loadClass(referencedClass, mapper).loadsReferences();
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Object fromAerospikeFormat(Object value) {
@@ -63,15 +63,21 @@ public class ObjectReferenceMapper extends ObjectMapper {
             keyParts.add(key);
             if (isUnknownType) {
                 // Must put in an identifier to mark this as an unknown type
-                keyParts.add(ClassCacheEntry.TYPE_PREFIX + classToUse.getShortenedClassName());
+                keyParts.add(classToUse.getListTypeTag());
             } else {
-                keyParts.add(classToUse.getShortenedClassName());
+                keyParts.add(classToUse.getTypeTag());
             }
             return keyParts;
         }
         return key;
     }
 
+    @Override
+    public boolean loadsReferences() {
+        // Lazy references only create a placeholder holding the key
+        return !lazy;
+    }
+
     @Override
     public Object fromAerospikeFormat(Object value) {
         // The object should be the primary key of the referencing object
@@ -84,11 +90,10 @@ public class ObjectReferenceMapper extends ObjectMapper {
         if (value instanceof List) {
             List<?> list = (List<?>) value;
             key = list.get(0);
-            String typeName = (String) list.get(1);
-            if (typeName.startsWith(ClassCacheEntry.TYPE_PREFIX)) {
-                typeName = typeName.substring(ClassCacheEntry.TYPE_PREFIX.length());
+            ClassCacheEntry<?> taggedClass = ClassCacheEntry.fromTypeTag(list.get(1), mapper);
+            if (taggedClass != null) {
+                classToUse = taggedClass;
             }
-            classToUse = ClassCache.getInstance().getCacheEntryFromStoredName(typeName);
         } else {
             key = value;
         }
@@ -0,0 +1,156 @@
+package com.aerospike.mapper.tools.metrics;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link MapperMetrics} which keeps a {@link Histogram} of every value it is given, per class and operation. The
+ * histograms are created the first time a value is recorded for them, and can be read at any time while the mapper is
+ * in use:
+ * <pre>
+ * HistogramMapperMetrics metrics = new HistogramMapperMetrics();
+ * AeroMapper mapper = new AeroMapper.Builder(client).withMetrics(metrics).build();
+ * ...
+ * Histogram hydration = metrics.getLatency(Customer.class, OperationType.READ, Phase.HYDRATE);
+ * System.out.println(hydration.getValueAtPercentile(99));
+ * </pre>
+ * Latencies are recorded in nanoseconds. Dependency levels deeper than {@link #MAX_DEPENDENCY_LEVELS} are recorded
+ * against the deepest level.
+ */
+public class HistogramMapperMetrics implements MapperMetrics {
+    public static final int MAX_DEPENDENCY_LEVELS = 8;
+
+    private static final int OPERATIONS = OperationType.values().length;
+    private static final int PHASES = Phase.values().length;
+
+    private final ConcurrentHashMap<Class<?>, ClassMetrics> classes = new ConcurrentHashMap<>();
+
+    private static class ClassMetrics {
+        private final AtomicReferenceArray<Histogram> latencies = new AtomicReferenceArray<>(OPERATIONS * PHASES);
+        private final AtomicReferenceArray<Histogram> batchSizes = new AtomicReferenceArray<>(OPERATIONS);
+        private final AtomicReferenceArray<Histogram> levelLatencies = new AtomicReferenceArray<>(OPERATIONS * MAX_DEPENDENCY_LEVELS);
+        private final AtomicReferenceArray<Histogram> levelFanOuts = new AtomicReferenceArray<>(OPERATIONS * MAX_DEPENDENCY_LEVELS);
+
+        private static Histogram getOrCreate(AtomicReferenceArray<Histogram> histograms, int index) {
+            Histogram histogram = histograms.get(index);
+            if (histogram == null) {
+                histograms.compareAndSet(index, null, new Histogram());
+                histogram = histograms.get(index);
+            }
+            return histogram;
+        }
+    }
+
+    private ClassMetrics forClass(Class<?> clazz) {
+        ClassMetrics metrics = classes.get(clazz);
+        return metrics != null ? metrics : classes.computeIfAbsent(clazz, c -> new ClassMetrics());
+    }
+
+    private static int levelIndex(OperationType operation, int level) {
+        return operation.ordinal() * MAX_DEPENDENCY_LEVELS + Math.min(Math.max(level, 0), MAX_DEPENDENCY_LEVELS - 1);
+    }
+
+    @Override
+    public void recordLatency(Class<?> clazz, OperationType operation, Phase phase, long nanos) {
+        ClassMetrics.getOrCreate(forClass(clazz).latencies, operation.ordinal() * PHASES + phase.ordinal()).record(nanos);
+    }
+
+    @Override
+    public void recordBatchSize(Class<?> clazz, OperationType operation, int size) {
+        ClassMetrics.getOrCreate(forClass(clazz).batchSizes, operation.ordinal()).record(size);
+    }
+
+    @Override
+    public void recordDependencyLevel(Class<?> clazz, OperationType operation, int level, int references, long nanos) {
+        ClassMetrics metrics = forClass(clazz);
+        int index = levelIndex(operation, level);
+        ClassMetrics.getOrCreate(metrics.levelLatencies, index).record(nanos);
+        ClassMetrics.getOrCreate(metrics.levelFanOuts, index).record(references);
+    }
+
+    /**
+     * The classes which have had at least one value recorded.
+     */
+    public Set<Class<?>> getClasses() {
+        return Collections.unmodifiableSet(classes.keySet());
+    }
+
+    /**
+     * The latencies in nanoseconds of a phase of an operation on a class, or null if none have been recorded.
+     */
+    public Histogram getLatency(Class<?> clazz, OperationType operation, Phase phase) {
+        ClassMetrics metrics = classes.get(clazz);
+        return metrics == null ? null : metrics.latencies.get(operation.ordinal() * PHASES + phase.ordinal());
+    }
+
+    /**
+     * The number of keys in each batch operation on a class, or null if none have been recorded.
+     */
+    public Histogram getBatchSizes(Class<?> clazz, OperationType operation) {
+        ClassMetrics metrics = classes.get(clazz);
+        return metrics == null ? null : metrics.batchSizes.get(operation.ordinal());
+    }
+
+    /**
+     * The time in nanoseconds taken to resolve one level of references from objects of a class, or null if none have
+     * been recorded.
+     */
+    public Histogram getDependencyLatency(Class<?> clazz, OperationType operation, int level) {
+        ClassMetrics metrics = classes.get(clazz);
+        return metrics == null ? null : metrics.levelLatencies.get(levelIndex(operation, level));
+    }
+
+    /**
+     * The number of references resolved at one level from objects of a class, or null if none have been recorded.
+     */
+    public Histogram getDependencyFanOut(Class<?> clazz, OperationType operation, int level) {
+        ClassMetrics metrics = classes.get(clazz);
+        return metrics == null ? null : metrics.levelFanOuts.get(levelIndex(operation, level));
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public void reset() {
+        classes.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Class<?> clazz : classes.keySet()) {
+            for (OperationType operation : OperationType.values()) {
+                for (Phase phase : Phase.values()) {
+                    append(sb, clazz, operation, phase.name(), getLatency(clazz, operation, phase), true);
+                }
+                append(sb, clazz, operation, "BATCH_SIZE", getBatchSizes(clazz, operation), false);
+                for (int level = 0; level < MAX_DEPENDENCY_LEVELS; level++) {
+                    append(sb, clazz, operation, "DEPENDENCIES[" + level + "]",
+                            getDependencyLatency(clazz, operation, level), true);
+                    append(sb, clazz, operation, "FAN_OUT[" + level + "]",
+                            getDependencyFanOut(clazz, operation, level), false);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, Class<?> clazz, OperationType operation, String name,
+                               Histogram histogram, boolean latency) {
+        if (histogram == null) {
+            return;
+        }
+        if (latency) {
+            sb.append(String.format("%s.%s.%s: count=%d, p50=%dus, p99=%dus, max=%dus%n", clazz.getSimpleName(),
+                    operation, name, histogram.getCount(),
+                    TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(50)),
+                    TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(99)),
+                    TimeUnit.NANOSECONDS.toMicros(histogram.getMax())));
+        } else {
+            sb.append(String.format("%s.%s.%s: %s%n", clazz.getSimpleName(), operation, name, histogram));
+        }
+    }
+}
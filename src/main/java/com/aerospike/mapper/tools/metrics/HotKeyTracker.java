@@ -0,0 +1,394 @@
+package com.aerospike.mapper.tools.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Key;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+import com.aerospike.mapper.tools.tracing.MapperInterceptor;
+
+/**
+ * Finds the keys which are read or written most often, per class, so hot keys can be fixed before the server rejects
+ * them. A tracker is an interceptor, registered with <code>withHotKeyTracker</code> (or <code>withInterceptor</code>) on
+ * the mapper builder, and then sees the key of every read, batch read, reference load, save and delete:
+ * <pre>
+ * HotKeyTracker tracker = new HotKeyTracker().withSampleRate(20);
+ * AeroMapper mapper = new AeroMapper.Builder(client).withHotKeyTracker(tracker).build();
+ * ...
+ * for (HotKeyTracker.HotKey hotKey : tracker.getTopKeys(Customer.class, Access.WRITE, 10)) {
+ *     System.out.println(hotKey);
+ * }
+ * </pre>
+ * The keys of each class and access type are counted with the Space-Saving algorithm, which keeps a fixed number of
+ * counters. Any key accessed more than 1/capacity of the time is guaranteed to be held, and the count of a key is over
+ * estimated by at most the error reported with it. Only a random sample of the accesses is counted, one in ten by
+ * default, and the counts are scaled up accordingly.
+ */
+public class HotKeyTracker implements MapperInterceptor {
+    public static final int DEFAULT_CAPACITY = 64;
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+    /**
+     * The number of independently locked parts of each sketch. This must be a power of two.
+     */
+    private static final int STRIPES = 8;
+
+    /**
+     * Whether a key was read or written.
+     */
+    public enum Access {
+        READ,
+        WRITE
+    }
+
+    /**
+     * A key and an estimate of how often it was accessed.
+     */
+    public static class HotKey {
+        private final Key key;
+        private final long count;
+        private final long error;
+        private final double rate;
+
+        HotKey(Key key, long count, long error, double rate) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.rate = rate;
+        }
+
+        public Key getKey() {
+            return key;
+        }
+
+        /**
+         * The estimated number of accesses to the key. This is never less than the true number, ignoring sampling.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * The maximum amount by which the count may exceed the true number of accesses.
+         */
+        public long getError() {
+            return error;
+        }
+
+        /**
+         * The estimated number of accesses per second since the tracker was created or reset.
+         */
+        public double getRate() {
+            return rate;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: count=%d (+/-%d), rate=%.1f/s", key, count, error, rate);
+        }
+    }
+
+    /**
+     * The counter of one key. Counters with the same count share a bucket, and are linked together within it.
+     */
+    private static class Counter {
+        private Key key;
+        private long error;
+        private Bucket bucket;
+        private Counter prev;
+        private Counter next;
+    }
+
+    /**
+     * The counters with one count. The buckets are linked in increasing order of count.
+     */
+    private static class Bucket {
+        private final long count;
+        private Counter head;
+        private Bucket prev;
+        private Bucket next;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+
+    /**
+     * One stripe of the Space-Saving sketch of a class and access type, held as a Stream-Summary: the counters are kept
+     * in buckets ordered by count, so both counting a key and replacing the least counted key take constant time.
+     */
+    private static class Stripe {
+        private final int capacity;
+        private final Map<Key, Counter> counters;
+        private Bucket min;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            this.counters = new HashMap<>(capacity * 2);
+        }
+
+        synchronized void add(Key key) {
+            Counter counter = counters.get(key);
+            if (counter != null) {
+                increment(counter);
+            } else if (counters.size() < capacity) {
+                counter = new Counter();
+                counter.key = key;
+                if (min == null || min.count != 1) {
+                    Bucket bucket = new Bucket(1);
+                    bucket.next = min;
+                    if (min != null) {
+                        min.prev = bucket;
+                    }
+                    min = bucket;
+                }
+                link(counter, min);
+                counters.put(key, counter);
+            } else {
+                // Replace a key with the lowest count, which the new key inherits as its error
+                counter = min.head;
+                counters.remove(counter.key);
+                counter.key = key;
+                counter.error = min.count;
+                counters.put(key, counter);
+                increment(counter);
+            }
+        }
+
+        private void increment(Counter counter) {
+            Bucket bucket = counter.bucket;
+            Bucket next = bucket.next;
+            long count = bucket.count + 1;
+            if (next == null || next.count != count) {
+                next = new Bucket(count);
+                next.prev = bucket;
+                next.next = bucket.next;
+                if (bucket.next != null) {
+                    bucket.next.prev = next;
+                }
+                bucket.next = next;
+            }
+            unlink(counter);
+            link(counter, next);
+        }
+
+        private static void link(Counter counter, Bucket bucket) {
+            counter.bucket = bucket;
+            counter.prev = null;
+            counter.next = bucket.head;
+            if (bucket.head != null) {
+                bucket.head.prev = counter;
+            }
+            bucket.head = counter;
+        }
+
+        private void unlink(Counter counter) {
+            Bucket bucket = counter.bucket;
+            if (counter.prev != null) {
+                counter.prev.next = counter.next;
+            } else {
+                bucket.head = counter.next;
+            }
+            if (counter.next != null) {
+                counter.next.prev = counter.prev;
+            }
+            if (bucket.head == null) {
+                // Drop the empty bucket
+                if (bucket.prev != null) {
+                    bucket.prev.next = bucket.next;
+                } else {
+                    min = bucket.next;
+                }
+                if (bucket.next != null) {
+                    bucket.next.prev = bucket.prev;
+                }
+            }
+        }
+
+        synchronized void collect(List<HotKey> results, int sampleRate, double seconds) {
+            for (Bucket bucket = min; bucket != null; bucket = bucket.next) {
+                long count = bucket.count * sampleRate;
+                for (Counter counter = bucket.head; counter != null; counter = counter.next) {
+                    results.add(new HotKey(counter.key, count, counter.error * sampleRate,
+                            seconds > 0 ? count / seconds : 0));
+                }
+            }
+        }
+    }
+
+    /**
+     * The sketch of one class and access type. Keys are spread over several independently locked stripes by their
+     * digest, so threads recording different keys rarely contend. A key always goes to the same stripe, and each
+     * stripe has the full capacity, so a key which is hot overall is at least as hot within its stripe and is still
+     * guaranteed to be found.
+     */
+    private static class Sketch {
+        private final Stripe[] stripes;
+
+        Sketch(int capacity) {
+            stripes = new Stripe[STRIPES];
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(capacity);
+            }
+        }
+
+        void add(Key key) {
+            int hash = key.hashCode();
+            stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)].add(key);
+        }
+
+        List<HotKey> top(int k, int sampleRate, double seconds) {
+            List<HotKey> results = new ArrayList<>();
+            for (Stripe stripe : stripes) {
+                stripe.collect(results, sampleRate, seconds);
+            }
+            results.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+            return results.size() > k ? new ArrayList<>(results.subList(0, k)) : results;
+        }
+    }
+
+    private volatile int capacity = DEFAULT_CAPACITY;
+    private volatile int sampleRate = DEFAULT_SAMPLE_RATE;
+    private volatile long startNanos = System.nanoTime();
+    private final ConcurrentHashMap<Class<?>, Sketch[]> classes = new ConcurrentHashMap<>();
+
+    /**
+     * Set the number of keys counted per class and access type. Larger capacities find less frequent hot keys, at the
+     * cost of memory. This only affects classes first seen after it is called. The default is {@link #DEFAULT_CAPACITY}.
+     *
+     * @param capacity - the number of keys to count.
+     * @return this object
+     */
+    public HotKeyTracker withCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new AerospikeException(String.format("capacity must be at least 1, not %d", capacity));
+        }
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Count one in every <code>sampleRate</code> accesses, chosen at random. The default is {@link #DEFAULT_SAMPLE_RATE},
+     * so that tracking adds little to each call; a rate of 1 counts every access.
+     *
+     * @param sampleRate - the average number of accesses per access counted.
+     * @return this object
+     */
+    public HotKeyTracker withSampleRate(int sampleRate) {
+        if (sampleRate < 1) {
+            throw new AerospikeException(String.format("sampleRate must be at least 1, not %d", sampleRate));
+        }
+        this.sampleRate = sampleRate;
+        return this;
+    }
+
+    /**
+     * Record an access to a key, if it is chosen by the sample rate.
+     *
+     * @param clazz  - the class of the object stored in the record.
+     * @param access - whether the record is being read or written.
+     * @param key    - the key of the record.
+     */
+    public void record(Class<?> clazz, Access access, Key key) {
+        int rate = sampleRate;
+        if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0) {
+            return;
+        }
+        Sketch[] sketches = classes.get(clazz);
+        if (sketches == null) {
+            sketches = classes.computeIfAbsent(clazz, c -> new Sketch[]{new Sketch(capacity), new Sketch(capacity)});
+        }
+        sketches[access.ordinal()].add(key);
+    }
+
+    /**
+     * Record an access to each of the keys.
+     */
+    public void record(Class<?> clazz, Access access, Key[] keys) {
+        for (Key key : keys) {
+            record(clazz, access, key);
+        }
+    }
+
+    /**
+     * Record the keys of a call the mapper is about to make. Calls which are not made on keys, such as scans, are not
+     * counted.
+     */
+    @Override
+    public Object beforeCall(ClientCall call) {
+        Key[] keys = call.getKeys();
+        if (keys != null) {
+            for (int i = 0; i < keys.length; i++) {
+                record(call.getKeyClass(i), call.isWrite(i) ? Access.WRITE : Access.READ, keys[i]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void afterCall(ClientCall call, Object context, Throwable error) {
+    }
+
+    /**
+     * The classes which have had at least one access recorded.
+     */
+    public Set<Class<?>> getClasses() {
+        return Collections.unmodifiableSet(classes.keySet());
+    }
+
+    /**
+     * Return the keys of a class which have been accessed most often, most often first.
+     *
+     * @param clazz  - the class.
+     * @param access - whether to return the most read or most written keys.
+     * @param k      - the maximum number of keys to return.
+     * @return the keys, which is empty if no accesses have been recorded.
+     */
+    public List<HotKey> getTopKeys(Class<?> clazz, Access access, int k) {
+        Sketch[] sketches = classes.get(clazz);
+        if (sketches == null) {
+            return Collections.emptyList();
+        }
+        double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        return sketches[access.ordinal()].top(k, sampleRate, seconds);
+    }
+
+    /**
+     * Forget all the accesses recorded so far, and restart the time the rates are measured over.
+     */
+    public void reset() {
+        classes.clear();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Describe the <code>k</code> most often read and written keys of each class.
+     */
+    public String report(int k) {
+        StringBuilder sb = new StringBuilder();
+        for (Class<?> clazz : classes.keySet()) {
+            for (Access access : Access.values()) {
+                List<HotKey> hotKeys = getTopKeys(clazz, access, k);
+                if (!hotKeys.isEmpty()) {
+                    sb.append(String.format("%s %s:%n", clazz.getSimpleName(), access));
+                    for (HotKey hotKey : hotKeys) {
+                        sb.append("    ").append(hotKey).append(System.lineSeparator());
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report(10);
+    }
+}
@@ -0,0 +1,85 @@
+package com.aerospike.mapper.tools.metrics;
+
+/**
+ * Receives timings and counts from the mapper, broken down by the mapped class and the operation being performed. An
+ * implementation is registered with <code>withMetrics</code> on the mapper builder; by default the mapper uses
+ * {@link #NONE}, which discards everything.
+ * <p/>
+ * The methods are called on the thread performing the operation, in the middle of the operation, so they must be
+ * thread safe and cheap. They should not block or allocate. {@link HistogramMapperMetrics} is a built-in
+ * implementation which keeps a histogram of each value.
+ */
+public interface MapperMetrics {
+
+    /**
+     * The mapper operation a value was recorded for.
+     */
+    enum OperationType {
+        SAVE,
+        READ,
+        BATCH_READ,
+        DELETE
+    }
+
+    /**
+     * The part of an operation a latency was recorded for.
+     */
+    enum Phase {
+        /** Converting the object to bins (<code>getBins</code>). */
+        SERIALIZE,
+        /** The call to the database. Only measured by the synchronous mapper. */
+        NETWORK,
+        /** Constructing the object and populating it from the record (<code>convertToObject</code>). */
+        HYDRATE
+    }
+
+    /**
+     * An implementation which discards everything it is given.
+     */
+    MapperMetrics NONE = new MapperMetrics() {
+        @Override
+        public void recordLatency(Class<?> clazz, OperationType operation, Phase phase, long nanos) {
+        }
+
+        @Override
+        public void recordBatchSize(Class<?> clazz, OperationType operation, int size) {
+        }
+
+        @Override
+        public void recordDependencyLevel(Class<?> clazz, OperationType operation, int level, int references, long nanos) {
+        }
+    };
+
+    /**
+     * Record the time taken by one phase of an operation.
+     *
+     * @param clazz     - the mapped class the operation was performed on.
+     * @param operation - the operation.
+     * @param phase     - the phase of the operation which was timed.
+     * @param nanos     - the elapsed time in nanoseconds.
+     */
+    void recordLatency(Class<?> clazz, OperationType operation, Phase phase, long nanos);
+
+    /**
+     * Record the number of keys passed to a batch operation.
+     *
+     * @param clazz     - the mapped class the operation was performed on.
+     * @param operation - the operation.
+     * @param size      - the number of keys in the batch.
+     */
+    void recordBatchSize(Class<?> clazz, OperationType operation, int size);
+
+    /**
+     * Record one level of resolving the references of objects which have been read. Level 0 holds the references
+     * found in the objects which were read, level 1 the references found in the objects loaded by level 0, and so on.
+     *
+     * @param clazz      - the class of the objects which were read, or <code>Object.class</code> if the references were
+     *                   found converting a value which is not a mapped class.
+     * @param operation  - the operation which read the objects.
+     * @param level      - the depth of the references, starting at 0.
+     * @param references - the number of references resolved at this level (the fan-out).
+     * @param nanos      - the time taken to resolve the level in nanoseconds, including loading and converting the
+     *                   referenced objects.
+     */
+    void recordDependencyLevel(Class<?> clazz, OperationType operation, int level, int references, long nanos);
+}
@@ -0,0 +1,194 @@
+package com.aerospike.mapper.tools.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.command.Buffer;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+import com.aerospike.mapper.tools.tracing.MapperInterceptor;
+
+/**
+ * Measures the size of the records the mapper writes, per class and per bin, to find the fields which make records
+ * large. A profiler is an interceptor, registered with <code>withRecordSizeProfiler</code> (or
+ * <code>withInterceptor</code>) on the mapper builder, and then sees the bins of every save and bulk import:
+ * <pre>
+ * RecordSizeProfiler profiler = new RecordSizeProfiler().withSampleRate(100);
+ * AeroMapper mapper = new AeroMapper.Builder(client).withRecordSizeProfiler(profiler).build();
+ * ...
+ * System.out.println(profiler.report());
+ * </pre>
+ * The size of each bin is estimated with the client's particle sizing, so it is the size of the bin on the wire. The
+ * record size adds the message header and the namespace, set and digest fields. Embedded objects are part of the bin
+ * which holds them. Sizing a list or map bin packs it, so on a busy mapper only a sample of the writes should be
+ * profiled.
+ */
+public class RecordSizeProfiler implements MapperInterceptor {
+    private static final int MESSAGE_HEADER_SIZE = 30;
+    private static final int FIELD_HEADER_SIZE = 5;
+    private static final int OPERATION_HEADER_SIZE = 8;
+    private static final int DIGEST_SIZE = 20;
+
+    private volatile int sampleRate = 1;
+    private final ConcurrentHashMap<Class<?>, ClassProfile> classes = new ConcurrentHashMap<>();
+
+    private static class ClassProfile {
+        private final Histogram recordSizes = new Histogram();
+        private final ConcurrentHashMap<String, Histogram> binSizes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Profile one in every <code>sampleRate</code> writes, chosen at random. The default is 1, which profiles every write.
+     *
+     * @param sampleRate - the average number of writes per write profiled.
+     * @return this object
+     */
+    public RecordSizeProfiler withSampleRate(int sampleRate) {
+        if (sampleRate < 1) {
+            throw new AerospikeException(String.format("sampleRate must be at least 1, not %d", sampleRate));
+        }
+        this.sampleRate = sampleRate;
+        return this;
+    }
+
+    /**
+     * Profile the bins of a record which is about to be written, if it is chosen by the sample rate.
+     *
+     * @param clazz - the class of the object the bins were produced from.
+     * @param key   - the key of the record, used to size the key fields. This can be null.
+     * @param bins  - the bins of the record.
+     */
+    public void record(Class<?> clazz, Key key, Bin[] bins) {
+        int rate = sampleRate;
+        if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0) {
+            return;
+        }
+        ClassProfile profile = classes.computeIfAbsent(clazz, c -> new ClassProfile());
+        long recordSize = key == null ? MESSAGE_HEADER_SIZE : estimateHeaderSize(key);
+        for (Bin bin : bins) {
+            int binSize = estimateSize(bin);
+            recordSize += binSize;
+            profile.binSizes.computeIfAbsent(bin.name, name -> new Histogram()).record(binSize);
+        }
+        profile.recordSizes.record(recordSize);
+    }
+
+    /**
+     * Profile the bins of each record a call the mapper is about to make writes. Calls which do not write bins are
+     * ignored.
+     */
+    @Override
+    public Object beforeCall(ClientCall call) {
+        Key[] keys = call.getKeys();
+        if (keys != null) {
+            for (int i = 0; i < keys.length; i++) {
+                Bin[] bins = call.getBins(i);
+                if (bins != null) {
+                    record(call.getKeyClass(i), keys[i], bins);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void afterCall(ClientCall call, Object context, Throwable error) {
+    }
+
+    /**
+     * Estimate the number of bytes a bin occupies in a write command.
+     */
+    public static int estimateSize(Bin bin) {
+        return OPERATION_HEADER_SIZE + Buffer.estimateSizeUtf8(bin.name) + bin.value.estimateSize();
+    }
+
+    /**
+     * Estimate the number of bytes of a write command before its bins, when the key is sent as a digest.
+     */
+    public static int estimateHeaderSize(Key key) {
+        int size = MESSAGE_HEADER_SIZE + FIELD_HEADER_SIZE + Buffer.estimateSizeUtf8(key.namespace)
+                + FIELD_HEADER_SIZE + DIGEST_SIZE;
+        if (key.setName != null) {
+            size += FIELD_HEADER_SIZE + Buffer.estimateSizeUtf8(key.setName);
+        }
+        return size;
+    }
+
+    /**
+     * The classes which have had at least one record profiled.
+     */
+    public Set<Class<?>> getClasses() {
+        return Collections.unmodifiableSet(classes.keySet());
+    }
+
+    /**
+     * The estimated sizes in bytes of the records written for a class, or null if none have been profiled.
+     */
+    public Histogram getRecordSizes(Class<?> clazz) {
+        ClassProfile profile = classes.get(clazz);
+        return profile == null ? null : profile.recordSizes;
+    }
+
+    /**
+     * The estimated sizes in bytes of each bin written for a class, keyed by bin name. The map is empty if no records
+     * of the class have been profiled.
+     */
+    public Map<String, Histogram> getBinSizes(Class<?> clazz) {
+        ClassProfile profile = classes.get(clazz);
+        return profile == null ? Collections.emptyMap() : Collections.unmodifiableMap(profile.binSizes);
+    }
+
+    /**
+     * Forget everything profiled so far.
+     */
+    public void reset() {
+        classes.clear();
+    }
+
+    /**
+     * Describe the record sizes of each class, followed by its bins, largest average size first.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Class<?>, ClassProfile> classEntry : classes.entrySet()) {
+            ClassProfile profile = classEntry.getValue();
+            sb.append(String.format("%s: %s%n", classEntry.getKey().getSimpleName(), profile.recordSizes));
+            List<Map.Entry<String, Histogram>> bins = new ArrayList<>(profile.binSizes.entrySet());
+            bins.sort((a, b) -> Double.compare(b.getValue().getMean(), a.getValue().getMean()));
+            for (Map.Entry<String, Histogram> binEntry : bins) {
+                sb.append(String.format("    %s: %s%n", binEntry.getKey(), binEntry.getValue()));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Pass the report to the consumer periodically, until the returned future is cancelled.
+     *
+     * @param executor - the executor to run the report on.
+     * @param period   - the time between reports.
+     * @param unit     - the unit of the period.
+     * @param consumer - what to do with each report, for example log it.
+     * @return the future of the scheduled task.
+     */
+    public ScheduledFuture<?> reportEvery(ScheduledExecutorService executor, long period, TimeUnit unit,
+                                          Consumer<String> consumer) {
+        return executor.scheduleAtFixedRate(() -> consumer.accept(report()), period, period, unit);
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+}
@@ -0,0 +1,392 @@
+package com.aerospike.mapper.tools.query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.validation.constraints.NotNull;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.exp.Exp;
+import com.aerospike.client.exp.Expression;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.IBaseAeroMapper;
+import com.aerospike.mapper.tools.ValueType;
+import com.aerospike.mapper.tools.mappers.CompressedMapper;
+import com.aerospike.mapper.tools.utils.MapperUtils;
+
+/**
+ * A typed predicate on the fields of a mapped class which is compiled to an Aerospike filter expression, so that records
+ * which do not match are discarded on the server. Predicates are written in terms of the Java field names and values;
+ * the bin names and the conversion of the values to their database form are taken from the mapping of the class.
+ * For example:
+ * <pre>
+ * Criteria criteria = Criteria.where("age").gt(30).and("status").eq(Status.ACTIVE);
+ * List&lt;Person&gt; people = mapper.scan(null, Person.class, criteria);
+ * </pre>
+ * Conditions are combined from left to right, so <code>where("a").eq(1).or("b").eq(2).and("c").eq(3)</code> means
+ * <code>(a == 1 || b == 2) &amp;&amp; c == 3</code>. Use {@link #and(Criteria)} and {@link #or(Criteria)} to group conditions.
+ * <p/>
+ * Criteria are immutable and thread-safe. The compiled expression is cached per mapped class, so it is worthwhile
+ * holding on to a Criteria which is used repeatedly.
+ */
+public class Criteria {
+
+    enum Operator {
+        EQ, NE, GT, GE, LT, LE
+    }
+
+    interface Node {
+        Exp toExp(ClassCacheEntry<?> entry);
+    }
+
+    static class Comparison implements Node {
+        final String fieldName;
+        final Operator operator;
+        final Object value;
+
+        Comparison(String fieldName, Operator operator, Object value) {
+            this.fieldName = fieldName;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        String getBinName(ClassCacheEntry<?> entry) {
+            String binName = entry.getBinNameForField(fieldName);
+            if (binName == null) {
+                throw new AerospikeException(String.format("Field %s is not a mapped field of class %s",
+                        fieldName, entry.getUnderlyingClass().getName()));
+            }
+            return binName;
+        }
+
+        Object getAerospikeValue(ClassCacheEntry<?> entry) {
+            ValueType valueType = entry.getValueFromFieldName(fieldName);
+            if (valueType == null) {
+                throw new AerospikeException(String.format("Field %s is not a mapped field of class %s",
+                        fieldName, entry.getUnderlyingClass().getName()));
+            }
+            if (valueType.getTypeMapper() instanceof CompressedMapper) {
+                // The stored value may be a compressed blob, which the server cannot compare
+                throw new AerospikeException(String.format("Field %s of class %s is compressed, so cannot be used in a filter expression",
+                        fieldName, entry.getUnderlyingClass().getName()));
+            }
+            return matchFieldType(valueType.getType(), valueType.getTypeMapper().toAerospikeFormat(value), entry);
+        }
+
+        /**
+         * Numbers are passed through as they are by the mappers, so a literal such as <code>10</code> compared with a
+         * <code>double</code> field would otherwise be compared as an integer, which the server never matches with a
+         * float bin. Convert the value to the type the field is stored as, so the right kind of bin is compared.
+         */
+        private Object matchFieldType(Class<?> fieldType, Object aerospikeValue, ClassCacheEntry<?> entry) {
+            if (!(aerospikeValue instanceof Number)) {
+                return aerospikeValue;
+            }
+            Number number = (Number) aerospikeValue;
+            boolean integral = isIntegral(number);
+            if (isFloatType(fieldType) && integral) {
+                return number.doubleValue();
+            }
+            if (isIntegralType(fieldType) && !integral) {
+                double doubleValue = number.doubleValue();
+                if (doubleValue != Math.rint(doubleValue) || Double.isInfinite(doubleValue)) {
+                    throw new AerospikeException(String.format(
+                            "Field %s of class %s holds whole numbers, so cannot be compared with %s", fieldName,
+                            entry.getUnderlyingClass().getName(), aerospikeValue));
+                }
+                return (long) doubleValue;
+            }
+            return aerospikeValue;
+        }
+
+        @Override
+        public Exp toExp(ClassCacheEntry<?> entry) {
+            String binName = getBinName(entry);
+            Object aerospikeValue = getAerospikeValue(entry);
+            if (aerospikeValue == null) {
+                switch (operator) {
+                    case EQ:
+                        return Exp.not(Exp.binExists(binName));
+                    case NE:
+                        return Exp.binExists(binName);
+                    default:
+                        throw new AerospikeException(String.format("Field %s cannot be compared to null using %s",
+                                fieldName, operator));
+                }
+            }
+            Exp bin;
+            Exp val;
+            if (isIntegral(aerospikeValue)) {
+                bin = Exp.intBin(binName);
+                val = Exp.val(((Number) aerospikeValue).longValue());
+            } else if (aerospikeValue instanceof Double || aerospikeValue instanceof Float) {
+                bin = Exp.floatBin(binName);
+                val = Exp.val(((Number) aerospikeValue).doubleValue());
+            } else if (aerospikeValue instanceof String) {
+                bin = Exp.stringBin(binName);
+                val = Exp.val((String) aerospikeValue);
+            } else if (aerospikeValue instanceof Boolean) {
+                bin = Exp.boolBin(binName);
+                val = Exp.val((Boolean) aerospikeValue);
+            } else if (aerospikeValue instanceof byte[]) {
+                bin = Exp.blobBin(binName);
+                val = Exp.val((byte[]) aerospikeValue);
+            } else if (aerospikeValue instanceof List) {
+                bin = Exp.listBin(binName);
+                val = Exp.val((List<?>) aerospikeValue);
+            } else if (aerospikeValue instanceof Map) {
+                bin = Exp.mapBin(binName);
+                val = Exp.val((Map<?, ?>) aerospikeValue);
+            } else {
+                throw new AerospikeException(String.format("Field %s of class %s is stored as %s which cannot be used in a filter expression",
+                        fieldName, entry.getUnderlyingClass().getName(), aerospikeValue.getClass().getName()));
+            }
+            switch (operator) {
+                case EQ:
+                    return Exp.eq(bin, val);
+                case NE:
+                    return Exp.ne(bin, val);
+                case GT:
+                    return Exp.gt(bin, val);
+                case GE:
+                    return Exp.ge(bin, val);
+                case LT:
+                    return Exp.lt(bin, val);
+                case LE:
+                default:
+                    return Exp.le(bin, val);
+            }
+        }
+    }
+
+    static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isFloatType(Class<?> type) {
+        return type == double.class || type == Double.class || type == float.class || type == Float.class;
+    }
+
+    private static boolean isIntegralType(Class<?> type) {
+        return type == long.class || type == Long.class || type == int.class || type == Integer.class
+                || type == short.class || type == Short.class || type == byte.class || type == Byte.class;
+    }
+
+    static class And implements Node {
+        final Node left;
+        final Node right;
+
+        And(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Exp toExp(ClassCacheEntry<?> entry) {
+            return Exp.and(left.toExp(entry), right.toExp(entry));
+        }
+    }
+
+    private static class Or implements Node {
+        private final Node left;
+        private final Node right;
+
+        Or(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public Exp toExp(ClassCacheEntry<?> entry) {
+            return Exp.or(left.toExp(entry), right.toExp(entry));
+        }
+    }
+
+    private static class Not implements Node {
+        private final Node node;
+
+        Not(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public Exp toExp(ClassCacheEntry<?> entry) {
+            return Exp.not(node.toExp(entry));
+        }
+    }
+
+    private enum Combinator {
+        NONE, AND, OR
+    }
+
+    /**
+     * The second half of a condition, used to specify how the named field is compared.
+     */
+    public static class FieldCondition {
+        private final Criteria previous;
+        private final Combinator combinator;
+        private final String fieldName;
+
+        private FieldCondition(Criteria previous, Combinator combinator, String fieldName) {
+            this.previous = previous;
+            this.combinator = combinator;
+            this.fieldName = fieldName;
+        }
+
+        private Criteria complete(Operator operator, Object value) {
+            Node node = new Comparison(fieldName, operator, value);
+            switch (combinator) {
+                case AND:
+                    return new Criteria(new And(previous.root, node));
+                case OR:
+                    return new Criteria(new Or(previous.root, node));
+                case NONE:
+                default:
+                    return new Criteria(node);
+            }
+        }
+
+        public Criteria eq(Object value) {
+            return complete(Operator.EQ, value);
+        }
+
+        public Criteria ne(Object value) {
+            return complete(Operator.NE, value);
+        }
+
+        public Criteria gt(Object value) {
+            return complete(Operator.GT, value);
+        }
+
+        public Criteria ge(Object value) {
+            return complete(Operator.GE, value);
+        }
+
+        public Criteria lt(Object value) {
+            return complete(Operator.LT, value);
+        }
+
+        public Criteria le(Object value) {
+            return complete(Operator.LE, value);
+        }
+
+        /**
+         * The field must be between the two values, inclusive of both.
+         */
+        public Criteria between(Object low, Object high) {
+            Criteria range = new Criteria(new And(new Comparison(fieldName, Operator.GE, low),
+                    new Comparison(fieldName, Operator.LE, high)));
+            switch (combinator) {
+                case AND:
+                    return previous.and(range);
+                case OR:
+                    return previous.or(range);
+                case NONE:
+                default:
+                    return range;
+            }
+        }
+
+        public Criteria isNull() {
+            return complete(Operator.EQ, null);
+        }
+
+        public Criteria isNotNull() {
+            return complete(Operator.NE, null);
+        }
+    }
+
+    private final Node root;
+    private final Map<ClassCacheEntry<?>, Expression> compiled = new ConcurrentHashMap<>();
+    private final Map<ClassCacheEntry<?>, QueryPlan> plans = new ConcurrentHashMap<>();
+
+    Criteria(Node root) {
+        this.root = root;
+    }
+
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Start a new Criteria with a condition on the named Java field.
+     *
+     * @param fieldName - the name of the field on the mapped class.
+     */
+    public static FieldCondition where(@NotNull String fieldName) {
+        return new FieldCondition(null, Combinator.NONE, fieldName);
+    }
+
+    /**
+     * Negate the passed Criteria.
+     */
+    public static Criteria not(@NotNull Criteria criteria) {
+        return new Criteria(new Not(criteria.root));
+    }
+
+    /**
+     * Add a condition on the named Java field which must also be true.
+     */
+    public FieldCondition and(@NotNull String fieldName) {
+        return new FieldCondition(this, Combinator.AND, fieldName);
+    }
+
+    /**
+     * Add a condition on the named Java field, either this or the existing conditions must be true.
+     */
+    public FieldCondition or(@NotNull String fieldName) {
+        return new FieldCondition(this, Combinator.OR, fieldName);
+    }
+
+    /**
+     * Combine this Criteria with the passed one, both of which must be true.
+     */
+    public Criteria and(@NotNull Criteria other) {
+        return new Criteria(new And(this.root, other.root));
+    }
+
+    /**
+     * Combine this Criteria with the passed one, either of which must be true.
+     */
+    public Criteria or(@NotNull Criteria other) {
+        return new Criteria(new Or(this.root, other.root));
+    }
+
+    /**
+     * Compile this Criteria to a filter expression for the passed class. The result is cached, so subsequent calls
+     * for the same class are cheap. The expression can be set as the <code>filterExp</code> on any policy.
+     *
+     * @param clazz  - the mapped class the field names refer to.
+     * @param mapper - the mapper used to load the mapping of the class.
+     * @return the compiled filter expression.
+     */
+    public Expression compile(@NotNull Class<?> clazz, @NotNull IBaseAeroMapper mapper) {
+        return compile(MapperUtils.getEntryAndValidateNamespace(clazz, mapper));
+    }
+
+    /**
+     * Compile this Criteria to a filter expression for the passed class cache entry.
+     */
+    public Expression compile(@NotNull ClassCacheEntry<?> entry) {
+        return compiled.computeIfAbsent(entry, e -> Exp.build(toExp(e)));
+    }
+
+    /**
+     * Determine how this Criteria is executed as a query against the passed class. If one of the conditions which must
+     * always be true can be satisfied by a secondary index declared on the class, it is used as the query
+     * <code>Filter</code> and the remaining conditions form the filter expression. Otherwise, the whole Criteria is used
+     * as the filter expression and the query becomes a scan. The plan is cached per class.
+     */
+    public QueryPlan plan(@NotNull ClassCacheEntry<?> entry) {
+        return plans.computeIfAbsent(entry, e -> QueryPlanner.plan(this, e));
+    }
+
+    /**
+     * Convert this Criteria to an un-compiled expression for the passed class cache entry, so that it can be
+     * combined with other expressions.
+     */
+    public Exp toExp(@NotNull ClassCacheEntry<?> entry) {
+        return root.toExp(entry);
+    }
+}
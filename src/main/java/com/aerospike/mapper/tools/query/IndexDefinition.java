@@ -0,0 +1,61 @@
+package com.aerospike.mapper.tools.query;
+
+import com.aerospike.client.query.IndexCollectionType;
+import com.aerospike.client.query.IndexType;
+
+/**
+ * The definition of a secondary index declared on a mapped class, either through the <code>@AerospikeIndex</code>
+ * annotation or the index option of the bin configuration.
+ */
+public class IndexDefinition {
+    private final String namespace;
+    private final String setName;
+    private final String binName;
+    private final String indexName;
+    private final IndexType indexType;
+    private final IndexCollectionType collectionType;
+
+    public IndexDefinition(String namespace, String setName, String binName, String indexName, IndexType indexType,
+                           IndexCollectionType collectionType) {
+        this.namespace = namespace;
+        this.setName = setName;
+        this.binName = binName;
+        this.indexType = indexType;
+        this.collectionType = collectionType == null ? IndexCollectionType.DEFAULT : collectionType;
+        if (indexName == null || indexName.isEmpty()) {
+            this.indexName = String.format("%s_%s_idx", setName == null || setName.isEmpty() ? namespace : setName, binName);
+        } else {
+            this.indexName = indexName;
+        }
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getSetName() {
+        return setName;
+    }
+
+    public String getBinName() {
+        return binName;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public IndexType getIndexType() {
+        return indexType;
+    }
+
+    public IndexCollectionType getCollectionType() {
+        return collectionType;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IndexDefinition(%s on %s.%s.%s, type=%s, collectionType=%s)", indexName, namespace,
+                setName, binName, indexType, collectionType);
+    }
+}
@@ -0,0 +1,47 @@
+package com.aerospike.mapper.tools.query;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Log;
+import com.aerospike.client.ResultCode;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+
+/**
+ * Creates the secondary indexes declared on mapped classes.
+ */
+public class IndexManager {
+    private final IAerospikeClient client;
+    private final Set<String> processedIndexes = new HashSet<>();
+
+    public IndexManager(IAerospikeClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Create any of the indexes declared on the passed class which do not already exist, waiting for each
+     * index to finish building.
+     *
+     * @param entry - the class whose indexes should be created.
+     */
+    public void createIndexes(ClassCacheEntry<?> entry) {
+        for (IndexDefinition index : entry.getIndexes()) {
+            if (!processedIndexes.add(index.getNamespace() + ":" + index.getIndexName())) {
+                continue;
+            }
+            try {
+                client.createIndex(null, index.getNamespace(), index.getSetName(), index.getIndexName(),
+                        index.getBinName(), index.getIndexType(), index.getCollectionType()).waitTillComplete();
+                if (Log.infoEnabled()) {
+                    Log.info("Created " + index);
+                }
+            } catch (AerospikeException ae) {
+                if (ae.getResultCode() != ResultCode.INDEX_ALREADY_EXISTS) {
+                    throw ae;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.aerospike.mapper.tools.query;
+
+import com.aerospike.client.exp.Expression;
+import com.aerospike.client.query.Filter;
+
+/**
+ * How a <code>Criteria</code> is executed as a query: the secondary index <code>Filter</code> (if any condition can use
+ * a declared index) and the filter expression holding the remaining conditions.
+ */
+public class QueryPlan {
+    private final Filter filter;
+    private final IndexDefinition index;
+    private final Expression filterExpression;
+
+    public QueryPlan(Filter filter, IndexDefinition index, Expression filterExpression) {
+        this.filter = filter;
+        this.index = index;
+        this.filterExpression = filterExpression;
+    }
+
+    /**
+     * The secondary index filter, or null if no condition could use an index, in which case the query is a scan.
+     */
+    public Filter getFilter() {
+        return filter;
+    }
+
+    /**
+     * The index used by the filter, or null if there is no filter.
+     */
+    public IndexDefinition getIndex() {
+        return index;
+    }
+
+    /**
+     * The filter expression for the conditions not satisfied by the index, or null if there are none.
+     */
+    public Expression getFilterExpression() {
+        return filterExpression;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QueryPlan(index=%s, hasFilterExpression=%b)",
+                index == null ? "none" : index.getIndexName(), filterExpression != null);
+    }
+}
@@ -0,0 +1,145 @@
+package com.aerospike.mapper.tools.query;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.aerospike.client.exp.Exp;
+import com.aerospike.client.exp.Expression;
+import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.IndexCollectionType;
+import com.aerospike.client.query.IndexType;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+
+/**
+ * Splits a Criteria into a secondary index Filter and a filter expression. Only conditions which must always be true
+ * (that is, the top level conditions joined by <code>and</code>) can be used for the index. An equality condition is
+ * preferred over a range, as it is normally more selective.
+ */
+class QueryPlanner {
+    private QueryPlanner() {
+    }
+
+    private static class Candidate {
+        final IndexDefinition index;
+        final Filter filter;
+        final Set<Integer> consumed;
+        final int score;
+
+        Candidate(IndexDefinition index, Filter filter, Set<Integer> consumed, int score) {
+            this.index = index;
+            this.filter = filter;
+            this.consumed = consumed;
+            this.score = score;
+        }
+    }
+
+    static QueryPlan plan(Criteria criteria, ClassCacheEntry<?> entry) {
+        List<Criteria.Node> conjuncts = new ArrayList<>();
+        flatten(criteria.getRoot(), conjuncts);
+
+        Candidate best = null;
+        for (IndexDefinition index : entry.getIndexes()) {
+            if (index.getCollectionType() != IndexCollectionType.DEFAULT) {
+                continue;
+            }
+            Candidate candidate = evaluate(index, conjuncts, entry);
+            if (candidate != null && (best == null || candidate.score > best.score)) {
+                best = candidate;
+            }
+        }
+
+        Exp remaining = null;
+        for (int i = 0; i < conjuncts.size(); i++) {
+            if (best != null && best.consumed.contains(i)) {
+                continue;
+            }
+            Exp exp = conjuncts.get(i).toExp(entry);
+            remaining = remaining == null ? exp : Exp.and(remaining, exp);
+        }
+        Expression filterExpression = remaining == null ? null : Exp.build(remaining);
+        if (best == null) {
+            return new QueryPlan(null, null, filterExpression);
+        }
+        return new QueryPlan(best.filter, best.index, filterExpression);
+    }
+
+    private static void flatten(Criteria.Node node, List<Criteria.Node> conjuncts) {
+        if (node instanceof Criteria.And) {
+            Criteria.And and = (Criteria.And) node;
+            flatten(and.left, conjuncts);
+            flatten(and.right, conjuncts);
+        } else {
+            conjuncts.add(node);
+        }
+    }
+
+    private static Candidate evaluate(IndexDefinition index, List<Criteria.Node> conjuncts, ClassCacheEntry<?> entry) {
+        String binName = index.getBinName();
+        Long low = null;
+        Long high = null;
+        Set<Integer> rangeConditions = new HashSet<>();
+
+        for (int i = 0; i < conjuncts.size(); i++) {
+            if (!(conjuncts.get(i) instanceof Criteria.Comparison)) {
+                continue;
+            }
+            Criteria.Comparison comparison = (Criteria.Comparison) conjuncts.get(i);
+            if (!binName.equals(comparison.getBinName(entry))) {
+                continue;
+            }
+            // The value has already been converted to the type the field is stored as
+            Object value = comparison.getAerospikeValue(entry);
+            if (index.getIndexType() == IndexType.STRING && value instanceof String
+                    && comparison.operator == Criteria.Operator.EQ) {
+                return new Candidate(index, Filter.equal(binName, (String) value), singleton(i), 2);
+            }
+            if (index.getIndexType() != IndexType.NUMERIC || !Criteria.isIntegral(value)) {
+                continue;
+            }
+            long longValue = ((Number) value).longValue();
+            switch (comparison.operator) {
+                case EQ:
+                    return new Candidate(index, Filter.equal(binName, longValue), singleton(i), 2);
+                case GT:
+                    if (longValue == Long.MAX_VALUE) {
+                        continue;
+                    }
+                    low = low == null ? longValue + 1 : Math.max(low, longValue + 1);
+                    break;
+                case GE:
+                    low = low == null ? longValue : Math.max(low, longValue);
+                    break;
+                case LT:
+                    if (longValue == Long.MIN_VALUE) {
+                        continue;
+                    }
+                    high = high == null ? longValue - 1 : Math.min(high, longValue - 1);
+                    break;
+                case LE:
+                    high = high == null ? longValue : Math.min(high, longValue);
+                    break;
+                default:
+                    continue;
+            }
+            rangeConditions.add(i);
+        }
+        if (rangeConditions.isEmpty()) {
+            return null;
+        }
+        if (low != null && high != null && low > high) {
+            // Contradictory bounds match nothing, and an inverted range must not be sent to the server. Leave the
+            // conditions in the filter expression, which is false for every record.
+            return null;
+        }
+        Filter filter = Filter.range(binName, low == null ? Long.MIN_VALUE : low, high == null ? Long.MAX_VALUE : high);
+        return new Candidate(index, filter, rangeConditions, 1);
+    }
+
+    private static Set<Integer> singleton(int i) {
+        Set<Integer> result = new HashSet<>();
+        result.add(i);
+        return result;
+    }
+}
@@ -0,0 +1,295 @@
+package com.aerospike.mapper.tools.tracing;
+
+import com.aerospike.client.BatchRecord;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
+
+import java.util.List;
+
+/**
+ * A description of one call the mapper makes to the Aerospike client, passed to a {@link MapperInterceptor}.
+ * <p/>
+ * The static methods are used by the mapper to notify the interceptor around a call. They do nothing when passed a
+ * null call, which is what {@link #begin} returns when no interceptor is registered:
+ * <pre>
+ * ClientCall call = ClientCall.begin(interceptor, ClientCall.Type.GET, clazz, 1, 0, null);
+ * try {
+ *     record = client.get(policy, key);
+ * } catch (RuntimeException e) {
+ *     throw ClientCall.failed(call, e);
+ * } finally {
+ *     ClientCall.end(call);
+ * }
+ * </pre>
+ */
+public final class ClientCall {
+
+    /**
+     * The kind of client call.
+     */
+    public enum Type {
+        PUT,
+        GET,
+        BATCH_GET,
+        DELETE,
+        SCAN,
+        BATCH_WRITE,
+        QUERY,
+        OPERATE,
+        BATCH_OPERATE,
+        BATCH_DELETE;
+
+        /**
+         * Whether the call writes or deletes the records of its keys. Operate calls can read or write, which is given
+         * by {@link ClientCall#isWrite(int)}.
+         */
+        public boolean isWrite() {
+            return this == PUT || this == DELETE || this == BATCH_WRITE || this == BATCH_DELETE;
+        }
+    }
+
+    private final MapperInterceptor interceptor;
+    private final Type type;
+    private final Class<?> mappedClass;
+    private final int keyCount;
+    private final int depth;
+    private final String[] binNames;
+    private Key[] keys;
+    private Class<?>[] keyClasses;
+    private Bin[][] bins;
+    private boolean[] writes;
+    private Object context;
+    private Throwable error;
+
+    private ClientCall(MapperInterceptor interceptor, Type type, Class<?> mappedClass, int keyCount, int depth,
+                       String[] binNames) {
+        this.interceptor = interceptor;
+        this.type = type;
+        this.mappedClass = mappedClass;
+        this.keyCount = keyCount;
+        this.depth = depth;
+        this.binNames = binNames;
+    }
+
+    /**
+     * Notify the interceptor that a call is about to be made.
+     *
+     * @param interceptor - the registered interceptor, or null if there is none.
+     * @param type        - the kind of call.
+     * @param mappedClass - the class the call is for.
+     * @param keyCount    - the number of keys passed to the call, or 0 for a scan or query.
+     * @param depth       - the depth of the references being resolved, or 0 if the call is not resolving references.
+     * @param binNames    - the names of the bins read or written, or null for all the bins.
+     * @return the call, or null if there is no interceptor.
+     */
+    public static ClientCall begin(MapperInterceptor interceptor, Type type, Class<?> mappedClass, int keyCount,
+                                   int depth, String[] binNames) {
+        if (interceptor == null) {
+            return null;
+        }
+        return start(new ClientCall(interceptor, type, mappedClass, keyCount, depth, binNames));
+    }
+
+    /**
+     * Notify the interceptor that a call is about to be made on one record.
+     *
+     * @param interceptor - the registered interceptor, or null if there is none.
+     * @param type        - the kind of call.
+     * @param mappedClass - the class the call is for.
+     * @param key         - the key of the record.
+     * @param bins        - the bins written, or null if the call does not write bins.
+     * @return the call, or null if there is no interceptor.
+     */
+    public static ClientCall begin(MapperInterceptor interceptor, Type type, Class<?> mappedClass, Key key, Bin[] bins) {
+        if (interceptor == null) {
+            return null;
+        }
+        ClientCall call = new ClientCall(interceptor, type, mappedClass, 1, 0, bins == null ? null : namesOf(bins));
+        call.keys = new Key[] {key};
+        if (bins != null) {
+            call.bins = new Bin[][] {bins};
+        }
+        return start(call);
+    }
+
+    /**
+     * Notify the interceptor that a batch call is about to be made.
+     *
+     * @param interceptor - the registered interceptor, or null if there is none.
+     * @param type        - the kind of call.
+     * @param mappedClass - the class the call is for.
+     * @param keys        - the keys passed to the call.
+     * @param keyClasses  - the class of the record of each key, or null if they are all of the mapped class.
+     * @param bins        - the bins written to the record of each key, or null if the call does not write bins.
+     * @param depth       - the depth of the references being resolved, or 0 if the call is not resolving references.
+     * @return the call, or null if there is no interceptor.
+     */
+    public static ClientCall begin(MapperInterceptor interceptor, Type type, Class<?> mappedClass, Key[] keys,
+                                   Class<?>[] keyClasses, Bin[][] bins, int depth) {
+        if (interceptor == null) {
+            return null;
+        }
+        ClientCall call = new ClientCall(interceptor, type, mappedClass, keys.length, depth, null);
+        call.keys = keys;
+        call.keyClasses = keyClasses;
+        call.bins = bins;
+        return start(call);
+    }
+
+    /**
+     * Notify the interceptor that an operate call is about to be made on one record.
+     *
+     * @param interceptor - the registered interceptor, or null if there is none.
+     * @param mappedClass - the class the call is for.
+     * @param key         - the key of the record.
+     * @param operations  - the operations applied to the record, which determine whether the call writes it.
+     * @return the call, or null if there is no interceptor.
+     */
+    public static ClientCall beginOperate(MapperInterceptor interceptor, Class<?> mappedClass, Key key,
+                                          Operation... operations) {
+        if (interceptor == null) {
+            return null;
+        }
+        boolean write = false;
+        for (Operation operation : operations) {
+            write |= operation.type.isWrite;
+        }
+        ClientCall call = new ClientCall(interceptor, Type.OPERATE, mappedClass, 1, 0, null);
+        call.keys = new Key[] {key};
+        call.writes = new boolean[] {write};
+        return start(call);
+    }
+
+    /**
+     * Notify the interceptor that a batch operate call is about to be made.
+     *
+     * @param interceptor - the registered interceptor, or null if there is none.
+     * @param mappedClass - the class the call is for.
+     * @param records     - the records of the batch, which give the keys and whether each record is written.
+     * @return the call, or null if there is no interceptor.
+     */
+    public static ClientCall beginBatch(MapperInterceptor interceptor, Class<?> mappedClass,
+                                        List<? extends BatchRecord> records) {
+        if (interceptor == null) {
+            return null;
+        }
+        ClientCall call = new ClientCall(interceptor, Type.BATCH_OPERATE, mappedClass, records.size(), 0, null);
+        call.keys = new Key[records.size()];
+        call.writes = new boolean[records.size()];
+        for (int i = 0; i < call.keys.length; i++) {
+            BatchRecord record = records.get(i);
+            call.keys[i] = record.key;
+            call.writes[i] = record.hasWrite;
+        }
+        return start(call);
+    }
+
+    private static ClientCall start(ClientCall call) {
+        call.context = call.interceptor.beforeCall(call);
+        return call;
+    }
+
+    /**
+     * Return the names of the passed bins.
+     */
+    public static String[] namesOf(Bin[] bins) {
+        String[] binNames = new String[bins.length];
+        for (int i = 0; i < bins.length; i++) {
+            binNames[i] = bins[i].name;
+        }
+        return binNames;
+    }
+
+    /**
+     * Record that the call failed.
+     *
+     * @return the passed exception, so it can be rethrown.
+     */
+    public static <E extends Throwable> E failed(ClientCall call, E error) {
+        if (call != null) {
+            call.error = error;
+        }
+        return error;
+    }
+
+    /**
+     * Notify the interceptor that the call has completed.
+     */
+    public static void end(ClientCall call) {
+        if (call != null) {
+            call.interceptor.afterCall(call, call.context, call.error);
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * The class the call is for. When resolving references, this is the class of the object whose references are
+     * being resolved, as a batch can load objects of different classes. It is <code>Object.class</code> if the
+     * references were found converting a value which is not a mapped class.
+     */
+    public Class<?> getMappedClass() {
+        return mappedClass;
+    }
+
+    /**
+     * The number of keys passed to the call, or 0 for a scan or query.
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * The keys passed to the call, or null if the call is not made on keys, such as a scan or query. The array must not be
+     * modified.
+     */
+    public Key[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * The class of the record of the key at the passed index of {@link #getKeys()}. This is the mapped class except
+     * when resolving references, where a batch can load objects of different classes.
+     */
+    public Class<?> getKeyClass(int index) {
+        return keyClasses == null ? mappedClass : keyClasses[index];
+    }
+
+    /**
+     * Whether the call writes or deletes the record of the key at the passed index of {@link #getKeys()}.
+     */
+    public boolean isWrite(int index) {
+        return writes == null ? type.isWrite() : writes[index];
+    }
+
+    /**
+     * The bins written to the record of the key at the passed index of {@link #getKeys()}, or null if the call does not
+     * write bins. The array must not be modified.
+     */
+    public Bin[] getBins(int index) {
+        return bins == null ? null : bins[index];
+    }
+
+    /**
+     * The depth of the references being loaded: 0 for a call made directly by a mapper operation, 1 for a batch
+     * loading the objects it references, 2 for the objects those reference, and so on.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * The names of the bins read or written, or null if the call reads all the bins. The array must not be modified.
+     */
+    public String[] getBinNames() {
+        return binNames;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s (keys=%d, depth=%d)", type, mappedClass.getSimpleName(), keyCount, depth);
+    }
+}
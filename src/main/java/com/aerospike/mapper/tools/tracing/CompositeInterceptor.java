@@ -0,0 +1,68 @@
+package com.aerospike.mapper.tools.tracing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An interceptor which passes each call on to several interceptors, so that tracing, profiling and hot key tracking
+ * can all be registered on the same mapper. The interceptors are called in the order they were registered before the
+ * call, and in the reverse order after it.
+ */
+public final class CompositeInterceptor implements MapperInterceptor {
+    private final MapperInterceptor[] interceptors;
+
+    private CompositeInterceptor(MapperInterceptor[] interceptors) {
+        this.interceptors = interceptors;
+    }
+
+    /**
+     * Combine an interceptor with another one.
+     *
+     * @param existing - the interceptor already registered, or null if there is none.
+     * @param added    - the interceptor to add, or null to leave the existing one as it is.
+     * @return an interceptor which calls both, or the only one which is not null.
+     */
+    public static MapperInterceptor combine(MapperInterceptor existing, MapperInterceptor added) {
+        if (existing == null) {
+            return added;
+        }
+        if (added == null) {
+            return existing;
+        }
+        List<MapperInterceptor> list = new ArrayList<>();
+        for (MapperInterceptor interceptor : new MapperInterceptor[] {existing, added}) {
+            if (interceptor instanceof CompositeInterceptor) {
+                Collections.addAll(list, ((CompositeInterceptor) interceptor).interceptors);
+            } else {
+                list.add(interceptor);
+            }
+        }
+        return new CompositeInterceptor(list.toArray(new MapperInterceptor[0]));
+    }
+
+    /**
+     * The interceptors which each call is passed on to.
+     */
+    public List<MapperInterceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(interceptors));
+    }
+
+    @Override
+    public Object beforeCall(ClientCall call) {
+        Object[] contexts = new Object[interceptors.length];
+        for (int i = 0; i < interceptors.length; i++) {
+            contexts[i] = interceptors[i].beforeCall(call);
+        }
+        return contexts;
+    }
+
+    @Override
+    public void afterCall(ClientCall call, Object context, Throwable error) {
+        Object[] contexts = (Object[]) context;
+        for (int i = interceptors.length - 1; i >= 0; i--) {
+            interceptors[i].afterCall(call, contexts[i], error);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.aerospike.mapper.tools.tracing;
+
+/**
+ * Called before and after each call the mapper makes to the Aerospike client, so the calls can be traced. An
+ * interceptor is registered with <code>withInterceptor</code> on the mapper builder. For example, to trace each call
+ * as a span:
+ * <pre>
+ * public Object beforeCall(ClientCall call) {
+ *     return tracer.spanBuilder("aerospike." + call.getType())
+ *             .setAttribute("class", call.getMappedClass().getSimpleName())
+ *             .setAttribute("keys", call.getKeyCount())
+ *             .setAttribute("depth", call.getDepth())
+ *             .startSpan();
+ * }
+ *
+ * public void afterCall(ClientCall call, Object context, Throwable error) {
+ *     ((Span) context).end();
+ * }
+ * </pre>
+ * Every call is reported, including queries, scans, aggregations, bulk exports and imports, and the operations of the
+ * virtual lists. A query or scan is one call which lasts until all its records have been processed; for a stream, it
+ * lasts until the stream is closed. Both methods are called on the thread which makes the call, except for the reactive
+ * mapper, where <code>afterCall</code> is called on the thread which completes it. They must not throw exceptions. When no
+ * interceptor is registered, the mapper does not create a {@link ClientCall}.
+ */
+public interface MapperInterceptor {
+
+    /**
+     * Called before the client call is made.
+     *
+     * @param call - a description of the call.
+     * @return a context object which is passed to {@link #afterCall}, for example a span. This can be null.
+     */
+    Object beforeCall(ClientCall call);
+
+    /**
+     * Called after the client call has completed, whether it succeeded or not.
+     *
+     * @param call    - the description of the call passed to {@link #beforeCall}.
+     * @param context - the object returned by {@link #beforeCall}.
+     * @param error   - the exception thrown by the call, or null if it succeeded.
+     */
+    void afterCall(ClientCall call, Object context, Throwable error);
+}
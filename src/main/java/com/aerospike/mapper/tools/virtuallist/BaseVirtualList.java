@@ -11,6 +11,7 @@ import com.aerospike.mapper.tools.ClassCacheEntry;
 import com.aerospike.mapper.tools.IBaseAeroMapper;
 import com.aerospike.mapper.tools.TypeMapper;
 import com.aerospike.mapper.tools.ValueType;
+import com.aerospike.mapper.tools.mappers.CompressedMapper;
 import com.aerospike.mapper.tools.mappers.ListMapper;
 import com.aerospike.mapper.tools.utils.TypeUtils;
 
@@ -41,7 +42,8 @@ public abstract class BaseVirtualList<E> {
         }
 
         ClassCacheEntry<?> elementEntry = ClassCache.getInstance().loadClass(clazz, mapper);
-        this.binName = binName;
+        // Operations on the list must use the name the bin is stored under
+        this.binName = owningEntry.getStoredBinName(binName);
         ValueType value = owningEntry.getValueFromBinName(binName);
         if (value == null) {
             throw new AerospikeException(String.format("Class %s has no bin called %s", clazz.getSimpleName(), binName));
@@ -65,6 +67,11 @@ public abstract class BaseVirtualList<E> {
         }
 
         TypeMapper typeMapper = value.getTypeMapper();
+        if (typeMapper instanceof CompressedMapper) {
+            // List operations run on the server, which cannot see inside a compressed blob
+            throw new AerospikeException(String.format("Bin %s on class %s is compressed, so cannot be used as a virtual list",
+                    binName, owningClazz.getSimpleName()));
+        }
         if (typeMapper instanceof ListMapper) {
             listMapper = ((ListMapper) typeMapper);
         } else {
@@ -73,7 +80,8 @@ public abstract class BaseVirtualList<E> {
         }
 
         Function<Object, Object> instanceMapper = listMapper::fromAerospikeInstanceFormat;
-        this.virtualListInteractors = new VirtualListInteractors(binName, listType, elementEntry, instanceMapper, mapper);
+        this.virtualListInteractors = new VirtualListInteractors(this.binName, listType, elementEntry, instanceMapper,
+                listMapper.loadsReferences(), mapper);
     }
 
     protected String alignedSet() {
@@ -85,6 +93,35 @@ public abstract class BaseVirtualList<E> {
         return set;
     }
 
+    /**
+     * The default set for the records which hold the parts of a list spread over several records. These are kept out of
+     * the set of the owning class so that scans and queries of the owning class do not find them.
+     *
+     * @param suffix - the kind of part, such as <code>shards</code>.
+     * @return a set named <code>&lt;set&gt;_&lt;bin&gt;_&lt;suffix&gt;</code>.
+     */
+    protected String getPartSetName(String suffix) {
+        String set = alignedSet();
+        return (set == null ? "" : set + "_") + binName + "_" + suffix;
+    }
+
+    /**
+     * The key of a record holding one part of a list spread over several records. It is built from the digest of the
+     * owning record rather than its user key, so owners whose keys only differ in type, such as 1 and "1", do not
+     * share parts.
+     *
+     * @param setName - the set of the parts.
+     * @param part    - the identifier of this part, such as its shard number.
+     * @return the key of the part.
+     */
+    protected Key getPartKey(String setName, String part) {
+        StringBuilder sb = new StringBuilder(key.digest.length * 2 + 1 + part.length());
+        for (byte b : key.digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return new Key(key.namespace, setName, sb.append('#').append(part).toString());
+    }
+
     protected WritePolicy getWritePolicy(Policy policy) {
         if (policy == null) {
             return new WritePolicy(owningEntry.getWritePolicy());
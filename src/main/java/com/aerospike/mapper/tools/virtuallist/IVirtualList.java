@@ -3,9 +3,12 @@ package com.aerospike.mapper.tools.virtuallist;
 import com.aerospike.client.policy.Policy;
 import com.aerospike.client.policy.WritePolicy;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface IVirtualList<E> {
+public interface IVirtualList<E> extends Iterable<E> {
 
     /**
      * Get items from the list matching the specified value.
@@ -581,6 +584,44 @@ public interface IVirtualList<E> {
      */
     long append(WritePolicy writePolicy, E element);
 
+    /**
+     * Append all the given elements to the end of the virtual list. The elements are converted and sent in as few
+     * calls as the size budget allows. If more than one call is needed, the append is not atomic.
+     *
+     * @param elements The elements to append.
+     * @return The size of the list after the last call. If the list is stored as a map, this is the size of the map.
+     */
+    long appendAll(Collection<E> elements);
+
+    /**
+     * Append all the given elements to the end of the virtual list. The elements are converted and sent in as few
+     * calls as the size budget allows. If more than one call is needed, the append is not atomic.
+     *
+     * @param writePolicy An Aerospike write policy to use for the operate() operations.
+     * @param elements    The elements to append.
+     * @return The size of the list after the last call. If the list is stored as a map, this is the size of the map.
+     */
+    long appendAll(WritePolicy writePolicy, Collection<E> elements);
+
+    /**
+     * Put all the given elements into a virtual list which is stored as a map, keyed by the key of each element.
+     * The elements are sent in as few calls as the size budget allows.
+     *
+     * @param elements The elements to put.
+     * @return The size of the map after the last call.
+     */
+    long putAll(Collection<E> elements);
+
+    /**
+     * Put all the given elements into a virtual list which is stored as a map, keyed by the key of each element.
+     * The elements are sent in as few calls as the size budget allows.
+     *
+     * @param writePolicy An Aerospike write policy to use for the operate() operations.
+     * @param elements    The elements to put.
+     * @return The size of the map after the last call.
+     */
+    long putAll(WritePolicy writePolicy, Collection<E> elements);
+
     /**
      * Get an element from the virtual list at a specific index.
      *
@@ -610,4 +651,28 @@ public interface IVirtualList<E> {
      * Remove all the items in the virtual list.
      */
     void clear();
+
+    /**
+     * Iterate over the elements of the virtual list, reading them from the database a page at a time. While one page
+     * is being consumed, the next page is read in the background.
+     *
+     * @param pageSize The number of elements to read in each call to the database.
+     * @return An iterator over the elements of the list.
+     */
+    Iterator<E> iterator(int pageSize);
+
+    /**
+     * Stream the elements of the virtual list, reading them from the database a page at a time.
+     *
+     * @return A sequential stream of the elements of the list.
+     */
+    Stream<E> stream();
+
+    /**
+     * Stream the elements of the virtual list, reading them from the database a page at a time.
+     *
+     * @param pageSize The number of elements to read in each call to the database.
+     * @return A sequential stream of the elements of the list.
+     */
+    Stream<E> stream(int pageSize);
 }
@@ -0,0 +1,121 @@
+package com.aerospike.mapper.tools.virtuallist;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A list over the elements returned from the database which converts each element to its Java form the first time it
+ * is accessed, and keeps the converted element for later accesses. Callers who look at only a few elements of a large
+ * result do not pay to convert the rest. The list can be changed like an <code>ArrayList</code>; the first change
+ * which adds or removes elements converts all the remaining elements.
+ */
+class LazyList<E> extends AbstractList<E> implements RandomAccess {
+    private static final Object NOT_CONVERTED = new Object();
+
+    private final Function<Object, Object> converter;
+    private final Runnable afterConversion;
+    private List<Object> source;
+    private Object[] converted;
+    private List<E> materialized = null;
+
+    /**
+     * @param source          - the elements in Aerospike format.
+     * @param converter       - the function to convert an element to its Java form.
+     * @param afterConversion - run after each element is converted, for example to resolve dependencies. May be null.
+     */
+    LazyList(List<Object> source, Function<Object, Object> converter, Runnable afterConversion) {
+        this.source = source;
+        this.converter = converter;
+        this.afterConversion = afterConversion;
+        this.converted = new Object[source.size()];
+        Arrays.fill(converted, NOT_CONVERTED);
+    }
+
+    private Object convert(Object aerospikeElement) {
+        Object result = converter.apply(aerospikeElement);
+        if (afterConversion != null) {
+            afterConversion.run();
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized E get(int index) {
+        if (materialized != null) {
+            return materialized.get(index);
+        }
+        if (index < 0 || index >= converted.length) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, converted.length));
+        }
+        Object value = converted[index];
+        if (value == NOT_CONVERTED) {
+            value = convert(source.get(index));
+            converted[index] = value;
+        }
+        return (E) value;
+    }
+
+    @Override
+    public synchronized int size() {
+        return materialized != null ? materialized.size() : converted.length;
+    }
+
+    @Override
+    public synchronized E set(int index, E element) {
+        if (materialized != null) {
+            return materialized.set(index, element);
+        }
+        E previous = get(index);
+        converted[index] = element;
+        return previous;
+    }
+
+    @Override
+    public synchronized void add(int index, E element) {
+        materialize().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public synchronized E remove(int index) {
+        E result = materialize().remove(index);
+        modCount++;
+        return result;
+    }
+
+    private List<E> materialize() {
+        if (materialized == null) {
+            List<E> list = new ArrayList<>(converted.length);
+            for (int i = 0; i < converted.length; i++) {
+                list.add(get(i));
+            }
+            materialized = list;
+            source = null;
+            converted = null;
+        }
+        return materialized;
+    }
+
+    /**
+     * Stream the elements, converting each one as the stream reaches it without keeping the converted element, so the
+     * converted elements can be discarded as soon as they have been processed. Elements which have already been
+     * converted are not converted again.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized Stream<E> streamWithoutCaching() {
+        if (materialized != null) {
+            return new ArrayList<>(materialized).stream();
+        }
+        List<Object> elements = source;
+        Object[] alreadyConverted = converted.clone();
+        return IntStream.range(0, alreadyConverted.length).mapToObj(i -> alreadyConverted[i] == NOT_CONVERTED
+                ? (E) convert(elements.get(i)) : (E) alreadyConverted[i]);
+    }
+}
@@ -1,11 +1,19 @@
 package com.aerospike.mapper.tools.virtuallist;
 
 import com.aerospike.client.AerospikeException;
+import com.aerospike.client.BatchRead;
+import com.aerospike.client.BatchRecord;
+import com.aerospike.client.BatchWrite;
 import com.aerospike.client.Key;
 import com.aerospike.client.Operation;
 import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.Value;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.BatchWritePolicy;
 import com.aerospike.client.policy.WritePolicy;
 import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.ClassCacheEntry;
 import com.aerospike.mapper.tools.IAeroMapper;
 import com.aerospike.mapper.tools.mappers.ListMapper;
 
@@ -23,6 +31,9 @@ public class MultiOperation<E> {
     Key key;
     final VirtualListInteractors virtualListInteractors;
     final IAeroMapper mapper;
+    Runnable writeListener = null;
+    ClassCacheEntry<?> owningEntry = null;
+    long maxBytesPerOperation = Long.MAX_VALUE;
 
     MultiOperation(@NotNull WritePolicy writePolicy,
                    String binName,
@@ -45,6 +56,22 @@ public class MultiOperation<E> {
         return this;
     }
 
+    /**
+     * Append all the items. If the list is stored as a map, the items are put into the map. The items are split into
+     * operations by the <code>maxBytesPerOperation</code> budget of the VirtualList, as its own <code>appendAll</code>
+     * does, but all the operations are still sent in the single call which ends this multi operation.
+     */
+    public MultiOperation<E> appendAll(Collection<E> items) {
+        List<Object> aerospikeItems = new ArrayList<>(items.size());
+        for (E item : items) {
+            aerospikeItems.add(listMapper.toAerospikeInstanceFormat(item));
+        }
+        for (Operation operation : virtualListInteractors.getAppendItemsOperations(aerospikeItems, maxBytesPerOperation)) {
+            this.interactions.add(new Interactor(operation));
+        }
+        return this;
+    }
+
     public MultiOperation<E> removeByKey(Object key) {
         this.interactions.add(virtualListInteractors.getRemoveKeyInteractor(key));
         return this;
@@ -222,8 +249,106 @@ public class MultiOperation<E> {
             return null;
         }
         writePolicy.respondAllOps = true;
-        Operation[] operations = new Operation[interactions.size()];
+        Operation[] operations = prepareOperations();
+
+        boolean hasWrite = hasWriteOperation();
+        Record record;
+        try {
+            record = TracedCalls.operate(mapper, getOwningClass(), writePolicy, key, operations);
+        } finally {
+            if (writeListener != null && hasWrite) {
+                writeListener.run();
+            }
+        }
+
+        T result = (T) getResult(record, operations.length);
+        resolveDependencies(result);
+        return result;
+    }
+
+    /**
+     * Finish the multi operation and apply it to the list in the same bin of each of the passed owning records, in a
+     * single batch call. This allows the same operations, for example "the last 10 by rank", to be run for many owners
+     * at once.
+     *
+     * @param ownerKeys The keys of the owning records, as passed to the constructor of the VirtualList.
+     * @return The result of the multi operation for each owner, in the order of the keys. The result is null for an owner
+     * whose record does not exist.
+     */
+    public List<Object> endBatch(@NotNull List<?> ownerKeys) {
+        return endBatch(null, ownerKeys, Object.class);
+    }
+
+    /**
+     * Finish the multi operation and apply it to the list in the same bin of each of the passed owning records, in a
+     * single batch call. If any of the operations change the list, the settings of the write policy of this multi
+     * operation are used for each record.
+     *
+     * @param batchPolicy The batch policy to use, or null for the batch policy of the owning class.
+     * @param ownerKeys   The keys of the owning records, as passed to the constructor of the VirtualList.
+     * @param resultType  The return type for the result of each owner.
+     * @return The result of the multi operation for each owner, in the order of the keys. The result is null for an owner
+     * whose record does not exist.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> endBatch(BatchPolicy batchPolicy, @NotNull List<?> ownerKeys, Class<T> resultType) {
+        List<T> results = new ArrayList<>(ownerKeys.size());
+        if (interactions.isEmpty() || ownerKeys.isEmpty()) {
+            for (int i = 0; i < ownerKeys.size(); i++) {
+                results.add(null);
+            }
+            return results;
+        }
+        if (owningEntry == null) {
+            throw new AerospikeException("endBatch() requires a multi operation started from a VirtualList");
+        }
+        Operation[] operations = prepareOperations();
+        boolean hasWrite = hasWriteOperation();
+        BatchWritePolicy batchWritePolicy = null;
+        if (hasWrite) {
+            batchWritePolicy = new BatchWritePolicy();
+            batchWritePolicy.recordExistsAction = writePolicy.recordExistsAction;
+            batchWritePolicy.expiration = writePolicy.expiration;
+            batchWritePolicy.sendKey = writePolicy.sendKey;
+            batchWritePolicy.durableDelete = writePolicy.durableDelete;
+        }
+
+        List<BatchRecord> records = new ArrayList<>(ownerKeys.size());
+        for (Object ownerKey : ownerKeys) {
+            Key recordKey = new Key(key.namespace, key.setName,
+                    Value.get(owningEntry.translateKeyToAerospikeKey(ownerKey)));
+            records.add(hasWrite ? new BatchWrite(batchWritePolicy, recordKey, operations)
+                    : new BatchRead(recordKey, operations));
+        }
+        BatchPolicy policy = new BatchPolicy(batchPolicy == null ? owningEntry.getBatchPolicy() : batchPolicy);
+        try {
+            TracedCalls.operate(mapper, owningEntry.getUnderlyingClass(), policy, records);
+        } finally {
+            if (writeListener != null && hasWrite) {
+                writeListener.run();
+            }
+        }
+
+        Object firstResult = null;
+        for (BatchRecord record : records) {
+            if (record.resultCode == ResultCode.OK && record.record != null) {
+                T result = (T) getResult(record.record, operations.length);
+                if (firstResult == null) {
+                    firstResult = result;
+                }
+                results.add(result);
+            } else if (record.resultCode == ResultCode.KEY_NOT_FOUND_ERROR) {
+                results.add(null);
+            } else {
+                throw new AerospikeException(record.resultCode,
+                        String.format("Multi operation on %s failed", record.key));
+            }
+        }
+        resolveDependencies(firstResult);
+        return results;
+    }
 
+    private Operation[] prepareOperations() {
         int listSize = interactions.size();
         if (this.indexToReturn < 0) {
             // Mark the last get operation to return it's value, or the last value if there are no get operations
@@ -234,41 +359,52 @@ public class MultiOperation<E> {
                     break;
                 }
             }
+            if (indexToReturn < 0) {
+                indexToReturn = listSize - 1;
+            }
         }
+        Operation[] operations = new Operation[listSize];
         int count = 0;
         for (Interactor thisInteractor : interactions) {
             operations[count++] = thisInteractor.getOperation();
         }
+        return operations;
+    }
 
-        Record record = mapper.asMapper().getClient().operate(writePolicy, key, operations);
+    private Class<?> getOwningClass() {
+        return owningEntry == null ? Object.class : owningEntry.getUnderlyingClass();
+    }
 
-        T result;
+    private boolean hasWriteOperation() {
+        for (Interactor thisInteractor : interactions) {
+            if (thisInteractor.isWriteOperation()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object getResult(Record record, int count) {
         if (count == 1) {
             Object resultObj = record.getValue(binName);
-            result = (T) interactions.get(0).getResult(resultObj);
+            return interactions.get(0).getResult(resultObj);
         } else {
             List<?> resultList = record.getList(binName);
-            if (indexToReturn < 0) {
-                indexToReturn = listSize - 1;
-                // Determine the last GET operation
-                for (int i = listSize - 1; i >= 0; i--) {
-                    if (!interactions.get(i).isWriteOperation()) {
-                        indexToReturn = i;
-                        break;
-                    }
-                }
-            }
-            result = (T) interactions.get(indexToReturn).getResult(resultList.get(indexToReturn));
+            return interactions.get(indexToReturn).getResult(resultList.get(indexToReturn));
         }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resolveDependencies(Object result) {
         if (result != null) {
             Object object = result;
             if (result instanceof Collection) {
-                Collection<T> collection = (Collection<T>) result;
+                Collection<Object> collection = (Collection<Object>) result;
                 object = collection.isEmpty() ? null : collection.iterator().next();
             }
-            assert object != null;
-            mapper.getMappingConverter().resolveDependencies(ClassCache.getInstance().loadClass(object.getClass(), mapper));
+            if (object != null) {
+                mapper.getMappingConverter().resolveDependencies(ClassCache.getInstance().loadClass(object.getClass(), mapper));
+            }
         }
-        return result;
     }
 }
@@ -0,0 +1,51 @@
+package com.aerospike.mapper.tools.virtuallist;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded, least recently used cache of the pages of a virtual list. Every invalidation increases the generation, and
+ * a page read before an invalidation is not stored, so a prefetch in flight during a mutation cannot put stale data
+ * back into the cache.
+ */
+class PageCache<E> {
+    private final int pageSize;
+    private final Map<Integer, List<E>> pages;
+    private long generation = 0;
+
+    PageCache(int pageSize, int maxPages) {
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<Integer, List<E>>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<E>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    int getPageSize() {
+        return pageSize;
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    synchronized List<E> get(int pageIndex) {
+        return pages.get(pageIndex);
+    }
+
+    synchronized void put(int pageIndex, long readGeneration, List<E> page) {
+        if (readGeneration == generation) {
+            pages.put(pageIndex, page);
+        }
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        pages.clear();
+    }
+}
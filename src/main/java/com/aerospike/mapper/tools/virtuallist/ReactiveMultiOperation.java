@@ -5,6 +5,7 @@ import com.aerospike.client.Key;
 import com.aerospike.client.Operation;
 import com.aerospike.client.policy.WritePolicy;
 import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.ClassCacheEntry;
 import com.aerospike.mapper.tools.IReactiveAeroMapper;
 import com.aerospike.mapper.tools.mappers.ListMapper;
 import reactor.core.publisher.Mono;
@@ -23,6 +24,7 @@ public class ReactiveMultiOperation<E> {
     Key key;
     final VirtualListInteractors virtualListInteractors;
     final IReactiveAeroMapper reactiveAeroMapper;
+    ClassCacheEntry<?> owningEntry = null;
 
     ReactiveMultiOperation(@NotNull WritePolicy writePolicy,
                            String binName,
@@ -231,8 +233,8 @@ public class ReactiveMultiOperation<E> {
         }
 
         int finalCount = count;
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, operations)
+        Class<?> owningClazz = owningEntry == null ? Object.class : owningEntry.getUnderlyingClass();
+        return TracedCalls.reactiveOperate(reactiveAeroMapper, owningClazz, writePolicy, key, operations)
                 .map(keyRecord -> {
                     T result;
                     if (finalCount == 1) {
@@ -1,6 +1,7 @@
 package com.aerospike.mapper.tools.virtuallist;
 
 import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
 import com.aerospike.client.Value;
 import com.aerospike.client.policy.Policy;
 import com.aerospike.client.policy.RecordExistsAction;
@@ -44,7 +45,10 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
             writePolicy = new WritePolicy(owningEntry.getWritePolicy());
             writePolicy.recordExistsAction = RecordExistsAction.UPDATE;
         }
-        return new ReactiveMultiOperation<>(writePolicy, binName, listMapper, key, virtualListInteractors, reactiveAeroMapper);
+        ReactiveMultiOperation<E> multiOperation = new ReactiveMultiOperation<>(writePolicy, binName, listMapper, key,
+                virtualListInteractors, reactiveAeroMapper);
+        multiOperation.owningEntry = owningEntry;
+        return multiOperation;
     }
 
     @Override
@@ -61,8 +65,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByValueInteractor(value);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -80,8 +83,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByValueRangeInteractor(startValue, endValue);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -99,8 +101,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByValueListInteractor(values);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -118,8 +119,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByValueRelativeRankRangeInteractor(value, rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -137,8 +137,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByValueRelativeRankRangeInteractor(value, rank, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -156,8 +155,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByIndexRangeInteractor(index);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -175,8 +173,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByIndexRangeInteractor(index, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -194,8 +191,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByRankInteractor(rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -213,8 +209,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByRankRangeInteractor(rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -232,8 +227,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByRankRangeInteractor(rank, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -251,8 +245,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByKeyInteractor(key);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, this.key, interactor.getOperation())
+        return operate(writePolicy, this.key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -270,8 +263,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getGetByKeyRangeInteractor(startKey, endKey);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, this.key, interactor.getOperation())
+        return operate(writePolicy, this.key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -289,8 +281,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveKeyInteractor(key);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, this.key, interactor.getOperation())
+        return operate(writePolicy, this.key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -308,8 +299,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByValueInteractor(value);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -327,8 +317,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByValueListInteractor(values);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -346,8 +335,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByValueRangeInteractor(startValue, endValue);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -365,8 +353,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByValueRelativeRankRangeInteractor(value, rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -384,8 +371,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByValueRelativeRankRangeInteractor(value, rank, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -403,8 +389,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByIndexInteractor(index);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -422,8 +407,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByIndexRangeInteractor(index);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -441,8 +425,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByIndexRangeInteractor(index, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -460,8 +443,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByRankInteractor(rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -479,8 +461,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByRankRangeInteractor(rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -498,8 +479,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveByRankRangeInteractor(rank, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -517,8 +497,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
         Interactor interactor = virtualListInteractors.getRemoveKeyRangeInteractor(startKey, endKey);
         interactor.setNeedsResultOfType(returnResultsOfType);
 
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, interactor.getOperation())
+        return operate(writePolicy, key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
@@ -534,8 +513,7 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
             writePolicy = new WritePolicy(owningEntry.getWritePolicy());
             writePolicy.recordExistsAction = RecordExistsAction.UPDATE;
         }
-        return reactiveAeroMapper.getReactorClient()
-                .operate(writePolicy, key, virtualListInteractors.getAppendOperation(result))
+        return operate(writePolicy, key, virtualListInteractors.getAppendOperation(result))
                 .map(keyRecord -> keyRecord == null ? -1L : keyRecord.record.getLong(binName));
     }
 
@@ -547,24 +525,26 @@ public class ReactiveVirtualList<E> extends BaseVirtualList<E> implements IReact
     @Override
     public Mono<E> get(Policy policy, int index) {
         Interactor interactor = virtualListInteractors.getByIndexInteractor(index);
-        return reactiveAeroMapper.getReactorClient()
-                .operate(getWritePolicy(policy), key, interactor.getOperation())
+        return operate(getWritePolicy(policy), key, interactor.getOperation())
                 .map(keyRecord -> getResultsWithDependencies(keyRecord, interactor));
     }
 
     @Override
     public Mono<Long> size(Policy policy) {
         Interactor interactor = virtualListInteractors.getSizeInteractor();
-        return reactiveAeroMapper.getReactorClient()
-                .operate(getWritePolicy(policy), key, interactor.getOperation())
+        return operate(getWritePolicy(policy), key, interactor.getOperation())
                 .map(keyRecord -> keyRecord == null ? -1L : keyRecord.record.getLong(binName));
     }
 
     @Override
     public Mono<Void> clear() {
         Interactor interactor = virtualListInteractors.getClearInteractor();
-        return reactiveAeroMapper.getReactorClient()
-                .operate(null, key, interactor.getOperation()).then();
+        return operate(null, key, interactor.getOperation()).then();
+    }
+
+    private Mono<KeyRecord> operate(WritePolicy writePolicy, Key key, Operation... operations) {
+        return TracedCalls.reactiveOperate(reactiveAeroMapper, owningEntry.getUnderlyingClass(), writePolicy, key,
+                operations);
     }
 
     @SuppressWarnings("unchecked")
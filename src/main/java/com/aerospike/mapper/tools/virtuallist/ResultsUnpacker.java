@@ -49,10 +49,14 @@ public interface ResultsUnpacker {
         }
     }
 
-    class ArrayUnpacker implements ResultsUnpacker {
+    /**
+     * Unpacks a list of elements by converting them all straight away. This is used for elements which hold references,
+     * so the references of all the elements are collected before they are loaded in one batch.
+     */
+    class EagerArrayUnpacker implements ResultsUnpacker {
         Function<Object, Object> function;
 
-        public ArrayUnpacker(Function<Object, Object> itemMapper) {
+        public EagerArrayUnpacker(Function<Object, Object> itemMapper) {
             this.function = itemMapper;
         }
 
@@ -61,8 +65,7 @@ public interface ResultsUnpacker {
             if (object == null) {
                 return null;
             }
-
-            List<Object> source = (List<Object>) object;
+            List<?> source = (List<?>) object;
             List<Object> results = new ArrayList<>(source.size());
             for (Object thisObject : source) {
                 results.add(function.apply(thisObject));
@@ -70,4 +73,34 @@ public interface ResultsUnpacker {
             return results;
         }
     }
+
+    /**
+     * Unpacks a list of elements into a list which converts each element when it is first accessed.
+     */
+    class ArrayUnpacker implements ResultsUnpacker {
+        Function<Object, Object> function;
+        Runnable afterConversion;
+
+        public ArrayUnpacker(Function<Object, Object> itemMapper) {
+            this(itemMapper, null);
+        }
+
+        /**
+         * @param itemMapper      - converts an element to its Java form.
+         * @param afterConversion - run after each element is converted, or null.
+         */
+        public ArrayUnpacker(Function<Object, Object> itemMapper, Runnable afterConversion) {
+            this.function = itemMapper;
+            this.afterConversion = afterConversion;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object unpack(Object object) {
+            if (object == null) {
+                return null;
+            }
+            return new LazyList<>((List<Object>) object, function, afterConversion);
+        }
+    }
 }
@@ -0,0 +1,1089 @@
+package com.aerospike.mapper.tools.virtuallist;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.BatchRead;
+import com.aerospike.client.BatchRecord;
+import com.aerospike.client.BatchWrite;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
+import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.exp.Exp;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.BatchWritePolicy;
+import com.aerospike.client.policy.Policy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.IAeroMapper;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A virtual list whose elements are spread over several records, so it is not limited by the maximum record size and
+ * appends are not all directed at one key. The shards are separate records, each holding the elements in a bin with
+ * the same name as the virtual list. They are kept in their own set, <code>&lt;set&gt;_&lt;bin&gt;_shards</code> unless
+ * changed with {@link #withSetName(String)}, so scans and queries of the owning class do not find them. Their keys are
+ * of the form <code>&lt;owner digest&gt;#&lt;shard&gt;</code>.
+ * <p/>
+ * Operations which select elements by key or value are sent to every shard in a single batch and the results are
+ * combined. Operations by index and rank refer to the position of an element in the whole list:
+ * <ul>
+ *     <li>For lists stored as maps, the index is the position in key order across all the shards.</li>
+ *     <li>For lists stored as lists, the index is the position in the shards taken in order, which for rollover
+ *     sharding is the order in which the elements were appended.</li>
+ *     <li>Rank is the position in value order across all the shards, which is worked out on the client. This needs an
+ *     ordering of the elements which matches the database: the natural ordering if the elements are
+ *     <code>Comparable</code>, otherwise one set with {@link #withOrdering(Comparator)}.</li>
+ * </ul>
+ * Operations which touch more than one shard are not atomic.
+ */
+public class ShardedVirtualList<E> implements IVirtualList<E> {
+    private static final String BUCKET_BIN = "bucket";
+    private static final String SHARD_SET_SUFFIX = "shards";
+
+    private interface RangeInteractor {
+        Interactor get(int start, int count);
+    }
+
+    private static class Positioned<E> {
+        final int shard;
+        final int position;
+        final E element;
+
+        Positioned(int shard, int position, E element) {
+            this.shard = shard;
+            this.position = position;
+            this.element = element;
+        }
+    }
+
+    /**
+     * Elements selected from the combined list, along with the range of positions they came from in each shard.
+     */
+    private static class Selection<E> {
+        final List<E> elements = new ArrayList<>();
+        final Map<Integer, int[]> ranges = new LinkedHashMap<>();
+
+        void add(int shard, int position, E element) {
+            elements.add(element);
+            int[] range = ranges.get(shard);
+            if (range == null) {
+                ranges.put(shard, new int[]{position, 1});
+            } else {
+                range[1]++;
+            }
+        }
+    }
+
+    private final IAeroMapper mapper;
+    private final Sharding sharding;
+    private final Supplier<VirtualList<E>> listFactory;
+    private final Class<E> elementClazz;
+    private final ClassCacheEntry<?> owningEntry;
+    private final ClassCacheEntry<?> elementEntry;
+    private final String binName;
+    private final VirtualList<E> prototype;
+    private volatile String setName;
+    private volatile Key metadataKey;
+    private final Map<Integer, VirtualList<E>> shards = new ConcurrentHashMap<>();
+    private volatile int currentBucket = -1;
+    private volatile Comparator<? super E> ordering = null;
+
+    public ShardedVirtualList(@NotNull IAeroMapper mapper, @NotNull Class<?> owningClazz, @NotNull Object key,
+                              @NotNull String binName, @NotNull Class<E> clazz, @NotNull Sharding sharding) {
+        this(mapper, () -> new VirtualList<>(mapper, owningClazz, key, binName, clazz), clazz, sharding);
+    }
+
+    public ShardedVirtualList(@NotNull IAeroMapper mapper, @NotNull Object object, @NotNull String binName,
+                              @NotNull Class<E> clazz, @NotNull Sharding sharding) {
+        this(mapper, () -> new VirtualList<>(mapper, object, binName, clazz), clazz, sharding);
+    }
+
+    private ShardedVirtualList(IAeroMapper mapper, Supplier<VirtualList<E>> listFactory, Class<E> clazz,
+                               Sharding sharding) {
+        this.mapper = mapper;
+        this.sharding = sharding;
+        this.listFactory = listFactory;
+        this.elementClazz = clazz;
+        VirtualList<E> prototype = listFactory.get();
+        this.owningEntry = prototype.owningEntry;
+        this.elementEntry = ClassCache.getInstance().loadClass(clazz, mapper);
+        this.binName = prototype.binName;
+        this.prototype = prototype;
+        this.setName = prototype.getPartSetName(SHARD_SET_SUFFIX);
+        this.metadataKey = prototype.getPartKey(setName, "buckets");
+    }
+
+    /**
+     * Set the set which holds the shards, instead of <code>&lt;set&gt;_&lt;bin&gt;_shards</code>. This must be called
+     * before the list is used, and must not be changed once the list holds data. It should not be the set of the owning
+     * class, as scans and queries of that class would then find the shards.
+     *
+     * @param setName - the name of the set.
+     * @return this ShardedVirtualList
+     */
+    public ShardedVirtualList<E> withSetName(@NotNull String setName) {
+        this.setName = setName;
+        this.metadataKey = prototype.getPartKey(setName, "buckets");
+        this.shards.clear();
+        this.currentBucket = -1;
+        return this;
+    }
+
+    public String getSetName() {
+        return setName;
+    }
+
+    /**
+     * Set the budget for the estimated size of the elements sent in one operation, as
+     * {@link VirtualList#withMaxBytesPerOperation(int)} does. With hash sharding, the elements of each shard are split
+     * into operations by this budget, which are all sent in the write of that shard.
+     *
+     * @param maxBytesPerOperation - the estimated number of bytes of elements to send in one operation.
+     * @return this ShardedVirtualList
+     */
+    public ShardedVirtualList<E> withMaxBytesPerOperation(int maxBytesPerOperation) {
+        prototype.withMaxBytesPerOperation(maxBytesPerOperation);
+        for (VirtualList<E> shard : shards.values()) {
+            shard.withMaxBytesPerOperation(maxBytesPerOperation);
+        }
+        return this;
+    }
+
+    /**
+     * Set the ordering used for operations by rank. It must match the order of the values in the database.
+     *
+     * @param ordering - the ordering of the elements.
+     * @return this ShardedVirtualList
+     */
+    public ShardedVirtualList<E> withOrdering(Comparator<? super E> ordering) {
+        this.ordering = ordering;
+        return this;
+    }
+
+    public Sharding getSharding() {
+        return sharding;
+    }
+
+    /**
+     * The number of shards currently in use. For rollover sharding this reads the current bucket from the database.
+     */
+    public int getShardCount() {
+        if (sharding.getMode() == Sharding.Mode.HASH) {
+            return sharding.getShardCount();
+        }
+        return readCurrentBucket() + 1;
+    }
+
+    private Key shardKey(int shard) {
+        return prototype.getPartKey(setName, Integer.toString(shard));
+    }
+
+    private VirtualList<E> shard(int shard) {
+        return shards.computeIfAbsent(shard, i -> {
+            VirtualList<E> list = listFactory.get().withMaxBytesPerOperation(prototype.getMaxBytesPerOperation());
+            list.key = shardKey(i);
+            return list;
+        });
+    }
+
+    private List<Integer> allShards() {
+        int count = getShardCount();
+        List<Integer> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    private static int hashOf(Object aerospikeObject) {
+        if (aerospikeObject instanceof Long || aerospikeObject instanceof Integer
+                || aerospikeObject instanceof Short || aerospikeObject instanceof Byte) {
+            return Long.hashCode(((Number) aerospikeObject).longValue());
+        } else if (aerospikeObject instanceof byte[]) {
+            return Arrays.hashCode((byte[]) aerospikeObject);
+        }
+        return Objects.hashCode(aerospikeObject);
+    }
+
+    private int shardForAerospikeObject(Object aerospikeObject) {
+        Object toHash = aerospikeObject instanceof Map.Entry ? ((Map.Entry<?, ?>) aerospikeObject).getKey() : aerospikeObject;
+        return Math.floorMod(hashOf(toHash), sharding.getShardCount());
+    }
+
+    private int shardForKey(Object key) {
+        return Math.floorMod(hashOf(elementEntry.translateKeyToAerospikeKey(key)), sharding.getShardCount());
+    }
+
+    private int readCurrentBucket() {
+        Record record = TracedCalls.get(mapper, owningEntry.getUnderlyingClass(), owningEntry.getReadPolicy(), metadataKey,
+                BUCKET_BIN);
+        int bucket = record == null ? 0 : record.getInt(BUCKET_BIN);
+        currentBucket = bucket;
+        return bucket;
+    }
+
+    private int getCurrentBucket() {
+        int bucket = currentBucket;
+        return bucket < 0 ? readCurrentBucket() : bucket;
+    }
+
+    /**
+     * Move on from the passed bucket, unless another process has done so already.
+     */
+    private int advanceBucket(int fullBucket) {
+        WritePolicy writePolicy = new WritePolicy(owningEntry.getWritePolicy());
+        writePolicy.recordExistsAction = RecordExistsAction.UPDATE;
+        writePolicy.failOnFilteredOut = false;
+        writePolicy.filterExp = Exp.build(Exp.or(
+                Exp.not(Exp.binExists(BUCKET_BIN)),
+                Exp.le(Exp.intBin(BUCKET_BIN), Exp.val(fullBucket))));
+        TracedCalls.put(mapper, owningEntry.getUnderlyingClass(), writePolicy, metadataKey,
+                new Bin(BUCKET_BIN, fullBucket + 1));
+        return readCurrentBucket();
+    }
+
+    private boolean isMapBacked() {
+        return prototype.virtualListInteractors.isMapBacked();
+    }
+
+    private static boolean returnsElements(ReturnType returnType) {
+        return returnType == ReturnType.DEFAULT || returnType == ReturnType.ELEMENTS;
+    }
+
+    private static void checkReturnType(ReturnType returnType) {
+        if (returnType == ReturnType.COUNT || returnType == ReturnType.INDEX) {
+            throw new AerospikeException(String.format("ReturnType %s is not supported by a sharded virtual list",
+                    returnType));
+        }
+    }
+
+    private static Interactor withType(Interactor interactor, ReturnType returnType) {
+        interactor.setNeedsResultOfType(returnType);
+        return interactor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<? super E> getOrdering() {
+        Comparator<? super E> result = this.ordering;
+        if (result != null) {
+            return result;
+        }
+        if (Comparable.class.isAssignableFrom(elementClazz)) {
+            return (a, b) -> ((Comparable<Object>) a).compareTo(b);
+        }
+        throw new AerospikeException(String.format("Operations by rank on a sharded virtual list of %s need an ordering, "
+                + "set one with withOrdering()", elementClazz.getSimpleName()));
+    }
+
+    private Comparator<E> getKeyOrdering() {
+        return (a, b) -> compareKeys(elementEntry.getKey(a), elementEntry.getKey(b));
+    }
+
+    /**
+     * Compare two keys in Aerospike format the way the database orders map keys: integers, then strings, then blobs.
+     */
+    private static int compareKeys(Object a, Object b) {
+        int typeA = keyTypeOrder(a);
+        int typeB = keyTypeOrder(b);
+        if (typeA != typeB) {
+            return Integer.compare(typeA, typeB);
+        }
+        switch (typeA) {
+            case 0:
+                return Long.compare(((Number) a).longValue(), ((Number) b).longValue());
+            case 1:
+                return ((String) a).compareTo((String) b);
+            default:
+                byte[] bytesA = (byte[]) a;
+                byte[] bytesB = (byte[]) b;
+                for (int i = 0; i < Math.min(bytesA.length, bytesB.length); i++) {
+                    int diff = (bytesA[i] & 0xff) - (bytesB[i] & 0xff);
+                    if (diff != 0) {
+                        return diff;
+                    }
+                }
+                return Integer.compare(bytesA.length, bytesB.length);
+        }
+    }
+
+    private static int keyTypeOrder(Object key) {
+        if (key instanceof Number) {
+            return 0;
+        } else if (key instanceof String) {
+            return 1;
+        } else if (key instanceof byte[]) {
+            return 2;
+        }
+        throw new AerospikeException(String.format("Keys of type %s cannot be ordered",
+                key == null ? "null" : key.getClass().getName()));
+    }
+
+    private BatchPolicy getBatchPolicy(Policy policy) {
+        BatchPolicy batchPolicy = new BatchPolicy(owningEntry.getBatchPolicy());
+        if (policy != null) {
+            batchPolicy.socketTimeout = policy.socketTimeout;
+            batchPolicy.totalTimeout = policy.totalTimeout;
+            batchPolicy.maxRetries = policy.maxRetries;
+        }
+        return batchPolicy;
+    }
+
+    private BatchWritePolicy getBatchWritePolicy(WritePolicy writePolicy) {
+        if (writePolicy == null) {
+            writePolicy = owningEntry.getWritePolicy();
+        }
+        BatchWritePolicy batchWritePolicy = new BatchWritePolicy();
+        batchWritePolicy.recordExistsAction = RecordExistsAction.UPDATE;
+        batchWritePolicy.sendKey = writePolicy.sendKey;
+        batchWritePolicy.durableDelete = writePolicy.durableDelete;
+        batchWritePolicy.expiration = writePolicy.expiration;
+        batchWritePolicy.filterExp = writePolicy.filterExp;
+        return batchWritePolicy;
+    }
+
+    /**
+     * Run one interactor against each of the passed shards in a single batch, returning the unpacked result of each.
+     * Shards which do not exist give a null result.
+     */
+    private Object[] fanOut(WritePolicy writePolicy, List<Integer> shardIds, IntFunction<Interactor> interactorForShard,
+                            boolean write) {
+        Object[] results = new Object[shardIds.size()];
+        if (shardIds.isEmpty()) {
+            return results;
+        }
+        Interactor[] interactors = new Interactor[shardIds.size()];
+        List<Operation[]> operations = new ArrayList<>(shardIds.size());
+        for (int i = 0; i < shardIds.size(); i++) {
+            interactors[i] = interactorForShard.apply(shardIds.get(i));
+            operations.add(new Operation[]{interactors[i].getOperation()});
+        }
+        Record[] records = operateOnShards(writePolicy, shardIds, operations, write);
+        for (int i = 0; i < records.length; i++) {
+            if (records[i] != null) {
+                results[i] = interactors[i].getResult(records[i].getValue(binName));
+            }
+        }
+        mapper.getMappingConverter().resolveDependencies(owningEntry);
+        return results;
+    }
+
+    /**
+     * Run the passed operations against each of the passed shards in a single batch, returning the record of each
+     * shard, or null for shards which do not exist.
+     */
+    private Record[] operateOnShards(WritePolicy writePolicy, List<Integer> shardIds, List<Operation[]> operations,
+                                     boolean write) {
+        Record[] results = new Record[shardIds.size()];
+        BatchWritePolicy batchWritePolicy = write ? getBatchWritePolicy(writePolicy) : null;
+        List<BatchRecord> records = new ArrayList<>(shardIds.size());
+        for (int i = 0; i < shardIds.size(); i++) {
+            Key key = shardKey(shardIds.get(i));
+            records.add(write ? new BatchWrite(batchWritePolicy, key, operations.get(i))
+                    : new BatchRead(key, operations.get(i)));
+        }
+        TracedCalls.operate(mapper, owningEntry.getUnderlyingClass(), getBatchPolicy(writePolicy), records);
+        for (int i = 0; i < records.size(); i++) {
+            BatchRecord record = records.get(i);
+            if (record.resultCode == ResultCode.OK && record.record != null) {
+                results[i] = record.record;
+            } else if (record.resultCode != ResultCode.KEY_NOT_FOUND_ERROR) {
+                throw new AerospikeException(record.resultCode, String.format("Operation on shard %d of bin %s failed",
+                        shardIds.get(i), binName));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The size of a shard after several operations which each return it, as a list, or after one, as a number.
+     */
+    private static long lastSize(Object result) {
+        if (result instanceof List) {
+            List<?> sizes = (List<?>) result;
+            return ((Number) sizes.get(sizes.size() - 1)).longValue();
+        }
+        return result == null ? 0 : ((Number) result).longValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<E>> readLists(WritePolicy writePolicy, List<Integer> shardIds,
+                                    IntFunction<Interactor> interactorForShard) {
+        Object[] results = fanOut(writePolicy, shardIds,
+                shard -> withType(interactorForShard.apply(shard), ReturnType.DEFAULT), false);
+        List<List<E>> lists = new ArrayList<>(results.length);
+        for (Object result : results) {
+            lists.add(result == null ? new ArrayList<>() : (List<E>) result);
+        }
+        return lists;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<E> union(Object[] results, ReturnType returnType) {
+        if (!returnsElements(returnType)) {
+            return null;
+        }
+        List<E> combined = new ArrayList<>();
+        for (Object result : results) {
+            if (result != null) {
+                combined.addAll((List<E>) result);
+            }
+        }
+        return combined;
+    }
+
+    private List<E> unionOperation(WritePolicy writePolicy, Supplier<Interactor> interactor, ReturnType returnType,
+                                   boolean write, boolean sortByKey) {
+        checkReturnType(returnType);
+        List<E> result = union(fanOut(writePolicy, allShards(),
+                shard -> withType(interactor.get(), returnType), write), returnType);
+        if (result != null && sortByKey && isMapBacked()) {
+            result.sort(getKeyOrdering());
+        }
+        return result;
+    }
+
+    /**
+     * Merge the lists read from the shards into a single order, and select the elements at the passed positions.
+     */
+    private Selection<E> select(List<Integer> shardIds, List<List<E>> perShard, Comparator<? super E> order,
+                                int from, int to) {
+        List<Positioned<E>> merged = new ArrayList<>();
+        for (int i = 0; i < shardIds.size(); i++) {
+            List<E> elements = perShard.get(i);
+            for (int j = 0; j < elements.size(); j++) {
+                merged.add(new Positioned<>(shardIds.get(i), j, elements.get(j)));
+            }
+        }
+        if (order != null) {
+            // The sort is stable, so the elements from each shard stay in their order within that shard
+            merged.sort((a, b) -> order.compare(a.element, b.element));
+        }
+        Selection<E> selection = new Selection<>();
+        for (int i = Math.max(0, from); i < Math.min(to, merged.size()); i++) {
+            Positioned<E> positioned = merged.get(i);
+            selection.add(positioned.shard, positioned.position, positioned.element);
+        }
+        return selection;
+    }
+
+    private void removeRanges(WritePolicy writePolicy, Selection<E> selection, IntFunction<RangeInteractor> remover) {
+        List<Integer> shardIds = new ArrayList<>(selection.ranges.keySet());
+        fanOut(writePolicy, shardIds, shard -> {
+            int[] range = selection.ranges.get(shard);
+            return withType(remover.apply(shard).get(range[0], range[1]), ReturnType.NONE);
+        }, true);
+    }
+
+    private static int endOf(int start, Integer count) {
+        return count == null ? Integer.MAX_VALUE : (int) Math.min(Integer.MAX_VALUE, (long) start + count);
+    }
+
+    private int normalize(WritePolicy writePolicy, int position) {
+        if (position >= 0) {
+            return position;
+        }
+        return (int) Math.max(0, Math.max(0, size(writePolicy)) + position);
+    }
+
+    private List<E> rankRange(WritePolicy writePolicy, int rank, Integer count, ReturnType returnType, boolean remove) {
+        checkReturnType(returnType);
+        Comparator<? super E> order = getOrdering();
+        int start = normalize(writePolicy, rank);
+        int end = endOf(start, count);
+        List<Integer> shardIds = allShards();
+        VirtualListInteractors interactors = prototype.virtualListInteractors;
+        List<List<E>> perShard = readLists(writePolicy, shardIds, shard -> count == null
+                ? interactors.getGetByRankRangeInteractor(0) : interactors.getGetByRankRangeInteractor(0, end));
+        Selection<E> selection = select(shardIds, perShard, order, start, end);
+        if (remove) {
+            removeRanges(writePolicy, selection, shard -> interactors::getRemoveByRankRangeInteractor);
+        }
+        return returnsElements(returnType) ? selection.elements : null;
+    }
+
+    private List<E> indexRange(WritePolicy writePolicy, int index, Integer count, ReturnType returnType, boolean remove) {
+        checkReturnType(returnType);
+        VirtualListInteractors interactors = prototype.virtualListInteractors;
+        List<Integer> shardIds = allShards();
+        if (isMapBacked()) {
+            int start = normalize(writePolicy, index);
+            int end = endOf(start, count);
+            List<List<E>> perShard = readLists(writePolicy, shardIds, shard -> count == null
+                    ? interactors.getGetByIndexRangeInteractor(0) : interactors.getGetByIndexRangeInteractor(0, end));
+            Selection<E> selection = select(shardIds, perShard, getKeyOrdering(), start, end);
+            if (remove) {
+                removeRanges(writePolicy, selection, shard -> interactors::getRemoveByIndexRangeInteractor);
+            }
+            return returnsElements(returnType) ? selection.elements : null;
+        }
+
+        // Lists are taken in shard order, so the sizes of the shards are enough to find the elements
+        Object[] sizes = fanOut(writePolicy, shardIds, shard -> interactors.getSizeInteractor(), false);
+        long total = 0;
+        for (Object size : sizes) {
+            total += size == null ? 0 : (Long) size;
+        }
+        long start = index < 0 ? Math.max(0, total + index) : index;
+        long end = count == null ? total : Math.min(total, start + count);
+        Map<Integer, int[]> ranges = new LinkedHashMap<>();
+        long offset = 0;
+        for (int i = 0; i < shardIds.size(); i++) {
+            long size = sizes[i] == null ? 0 : (Long) sizes[i];
+            long from = Math.max(start, offset);
+            long to = Math.min(end, offset + size);
+            if (from < to) {
+                ranges.put(shardIds.get(i), new int[]{(int) (from - offset), (int) (to - from)});
+            }
+            offset += size;
+        }
+        List<Integer> involved = new ArrayList<>(ranges.keySet());
+        ReturnType shardReturnType = returnsElements(returnType) ? ReturnType.DEFAULT : ReturnType.NONE;
+        Object[] results = fanOut(writePolicy, involved, shard -> {
+            int[] range = ranges.get(shard);
+            Interactor interactor = remove ? interactors.getRemoveByIndexRangeInteractor(range[0], range[1])
+                    : interactors.getGetByIndexRangeInteractor(range[0], range[1]);
+            return withType(interactor, shardReturnType);
+        }, remove);
+        return union(results, returnType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<E> relativeRankRange(WritePolicy writePolicy, Object value, int rank, Integer count,
+                                      ReturnType returnType, boolean remove) {
+        checkReturnType(returnType);
+        Comparator<? super E> order = getOrdering();
+        E pivot = (E) value;
+        VirtualListInteractors interactors = prototype.virtualListInteractors;
+        // Every element within the range overall is also within this range in its own shard
+        int fetchRank = Math.min(rank, 0);
+        Integer fetchCount = count == null ? null : rank < 0 ? count : endOf(rank, count);
+        List<Integer> shardIds = allShards();
+        List<List<E>> perShard = readLists(writePolicy, shardIds, shard -> fetchCount == null
+                ? interactors.getGetByValueRelativeRankRangeInteractor(value, fetchRank)
+                : interactors.getGetByValueRelativeRankRangeInteractor(value, fetchRank, fetchCount));
+
+        // The number of elements read from each shard which are below the value gives the position of the value
+        int[] below = new int[shardIds.size()];
+        int origin = 0;
+        for (int i = 0; i < shardIds.size(); i++) {
+            for (E element : perShard.get(i)) {
+                if (order.compare(element, pivot) < 0) {
+                    below[i]++;
+                }
+            }
+            origin += below[i];
+        }
+        int start = origin + rank;
+        Selection<E> selection = select(shardIds, perShard, order, start, endOf(start, count));
+        if (remove) {
+            Map<Integer, Integer> belowByShard = new LinkedHashMap<>();
+            for (int i = 0; i < shardIds.size(); i++) {
+                belowByShard.put(shardIds.get(i), below[i]);
+            }
+            removeRanges(writePolicy, selection, shard -> (localStart, localCount) ->
+                    interactors.getRemoveByValueRelativeRankRangeInteractor(value,
+                            localStart - belowByShard.get(shard), localCount));
+        }
+        return returnsElements(returnType) ? selection.elements : null;
+    }
+
+    @Override
+    public List<E> getByValue(Object value, ReturnType returnResultsOfType) {
+        return getByValue(null, value, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByValue(WritePolicy writePolicy, Object value, ReturnType returnResultsOfType) {
+        return unionOperation(writePolicy, () -> prototype.virtualListInteractors.getGetByValueInteractor(value),
+                returnResultsOfType, false, false);
+    }
+
+    @Override
+    public List<E> getByValueRange(Object startValue, Object endValue, ReturnType returnResultsOfType) {
+        return getByValueRange(null, startValue, endValue, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByValueRange(WritePolicy writePolicy, Object startValue, Object endValue,
+                                   ReturnType returnResultsOfType) {
+        return unionOperation(writePolicy, () -> prototype.virtualListInteractors.getGetByValueRangeInteractor(startValue, endValue),
+                returnResultsOfType, false, false);
+    }
+
+    @Override
+    public List<E> getByValueList(List<Object> values, ReturnType returnResultsOfType) {
+        return getByValueList(null, values, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByValueList(WritePolicy writePolicy, List<Object> values, ReturnType returnResultsOfType) {
+        return unionOperation(writePolicy, () -> prototype.virtualListInteractors.getGetByValueListInteractor(values),
+                returnResultsOfType, false, false);
+    }
+
+    @Override
+    public List<E> getByValueRelativeRankRange(Object value, int rank, ReturnType returnResultsOfType) {
+        return getByValueRelativeRankRange(null, value, rank, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByValueRelativeRankRange(WritePolicy writePolicy, Object value, int rank,
+                                               ReturnType returnResultsOfType) {
+        return relativeRankRange(writePolicy, value, rank, null, returnResultsOfType, false);
+    }
+
+    @Override
+    public List<E> getByValueRelativeRankRange(Object value, int rank, int count, ReturnType returnResultsOfType) {
+        return getByValueRelativeRankRange(null, value, rank, count, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByValueRelativeRankRange(WritePolicy writePolicy, Object value, int rank, int count,
+                                               ReturnType returnResultsOfType) {
+        return relativeRankRange(writePolicy, value, rank, count, returnResultsOfType, false);
+    }
+
+    @Override
+    public List<E> getByIndexRange(int index, ReturnType returnResultsOfType) {
+        return getByIndexRange(null, index, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByIndexRange(WritePolicy writePolicy, int index, ReturnType returnResultsOfType) {
+        return indexRange(writePolicy, index, null, returnResultsOfType, false);
+    }
+
+    @Override
+    public List<E> getByIndexRange(int index, int count, ReturnType returnResultsOfType) {
+        return getByIndexRange(null, index, count, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByIndexRange(WritePolicy writePolicy, int index, int count, ReturnType returnResultsOfType) {
+        return indexRange(writePolicy, index, count, returnResultsOfType, false);
+    }
+
+    @Override
+    public List<E> getByRank(int rank, ReturnType returnResultsOfType) {
+        return getByRank(null, rank, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByRank(WritePolicy writePolicy, int rank, ReturnType returnResultsOfType) {
+        return rankRange(writePolicy, rank, 1, returnResultsOfType, false);
+    }
+
+    @Override
+    public List<E> getByRankRange(int rank, ReturnType returnResultsOfType) {
+        return getByRankRange(null, rank, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByRankRange(WritePolicy writePolicy, int rank, ReturnType returnResultsOfType) {
+        return rankRange(writePolicy, rank, null, returnResultsOfType, false);
+    }
+
+    @Override
+    public List<E> getByRankRange(int rank, int count, ReturnType returnResultsOfType) {
+        return getByRankRange(null, rank, count, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByRankRange(WritePolicy writePolicy, int rank, int count, ReturnType returnResultsOfType) {
+        return rankRange(writePolicy, rank, count, returnResultsOfType, false);
+    }
+
+    @Override
+    public List<E> getByKey(Object key, ReturnType returnResultsOfType) {
+        return getByKey(null, key, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByKey(WritePolicy writePolicy, Object key, ReturnType returnResultsOfType) {
+        if (sharding.getMode() == Sharding.Mode.HASH && isMapBacked()) {
+            return shard(shardForKey(key)).getByKey(writePolicy, key, returnResultsOfType);
+        }
+        return unionOperation(writePolicy, () -> prototype.virtualListInteractors.getGetByKeyInteractor(key),
+                returnResultsOfType, false, true);
+    }
+
+    @Override
+    public List<E> getByKeyRange(Object startKey, Object endKey, ReturnType returnResultsOfType) {
+        return getByKeyRange(null, startKey, endKey, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> getByKeyRange(WritePolicy writePolicy, Object startKey, Object endKey,
+                                 ReturnType returnResultsOfType) {
+        return unionOperation(writePolicy, () -> prototype.virtualListInteractors.getGetByKeyRangeInteractor(startKey, endKey),
+                returnResultsOfType, false, true);
+    }
+
+    @Override
+    public List<E> removeByKey(Object key, ReturnType returnResultsOfType) {
+        return removeByKey(null, key, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByKey(WritePolicy writePolicy, Object key, ReturnType returnResultsOfType) {
+        if (sharding.getMode() == Sharding.Mode.HASH && isMapBacked()) {
+            return shard(shardForKey(key)).removeByKey(writePolicy, key, returnResultsOfType);
+        }
+        return unionOperation(writePolicy, () -> prototype.virtualListInteractors.getRemoveKeyInteractor(key),
+                returnResultsOfType, true, true);
+    }
+
+    @Override
+    public List<E> removeByValue(Object value, ReturnType returnResultsOfType) {
+        return removeByValue(null, value, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByValue(WritePolicy writePolicy, Object value, ReturnType returnResultsOfType) {
+        return unionOperation(writePolicy, () -> prototype.virtualListInteractors.getRemoveByValueInteractor(value),
+                returnResultsOfType, true, false);
+    }
+
+    @Override
+    public List<E> removeByValueList(List<Object> values, ReturnType returnResultsOfType) {
+        return removeByValueList(null, values, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByValueList(WritePolicy writePolicy, List<Object> values, ReturnType returnResultsOfType) {
+        return unionOperation(writePolicy, () -> prototype.virtualListInteractors.getRemoveByValueListInteractor(values),
+                returnResultsOfType, true, false);
+    }
+
+    @Override
+    public List<E> removeByValueRange(Object startValue, Object endValue, ReturnType returnResultsOfType) {
+        return removeByValueRange(null, startValue, endValue, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByValueRange(WritePolicy writePolicy, Object startValue, Object endValue,
+                                      ReturnType returnResultsOfType) {
+        return unionOperation(writePolicy,
+                () -> prototype.virtualListInteractors.getRemoveByValueRangeInteractor(startValue, endValue),
+                returnResultsOfType, true, false);
+    }
+
+    @Override
+    public List<E> removeByValueRelativeRankRange(Object value, int rank, ReturnType returnResultsOfType) {
+        return removeByValueRelativeRankRange(null, value, rank, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByValueRelativeRankRange(WritePolicy writePolicy, Object value, int rank,
+                                                  ReturnType returnResultsOfType) {
+        return relativeRankRange(writePolicy, value, rank, null, returnResultsOfType, true);
+    }
+
+    @Override
+    public List<E> removeByValueRelativeRankRange(Object value, int rank, int count, ReturnType returnResultsOfType) {
+        return removeByValueRelativeRankRange(null, value, rank, count, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByValueRelativeRankRange(WritePolicy writePolicy, Object value, int rank, int count,
+                                                  ReturnType returnResultsOfType) {
+        return relativeRankRange(writePolicy, value, rank, count, returnResultsOfType, true);
+    }
+
+    @Override
+    public List<E> removeByIndex(int index, ReturnType returnResultsOfType) {
+        return removeByIndex(null, index, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByIndex(WritePolicy writePolicy, int index, ReturnType returnResultsOfType) {
+        return indexRange(writePolicy, index, 1, returnResultsOfType, true);
+    }
+
+    @Override
+    public List<E> removeByIndexRange(int index, ReturnType returnResultsOfType) {
+        return removeByIndexRange(null, index, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByIndexRange(WritePolicy writePolicy, int index, ReturnType returnResultsOfType) {
+        return indexRange(writePolicy, index, null, returnResultsOfType, true);
+    }
+
+    @Override
+    public List<E> removeByIndexRange(int index, int count, ReturnType returnResultsOfType) {
+        return removeByIndexRange(null, index, count, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByIndexRange(WritePolicy writePolicy, int index, int count, ReturnType returnResultsOfType) {
+        return indexRange(writePolicy, index, count, returnResultsOfType, true);
+    }
+
+    @Override
+    public List<E> removeByRank(int rank, ReturnType returnResultsOfType) {
+        return removeByRank(null, rank, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByRank(WritePolicy writePolicy, int rank, ReturnType returnResultsOfType) {
+        return rankRange(writePolicy, rank, 1, returnResultsOfType, true);
+    }
+
+    @Override
+    public List<E> removeByRankRange(int rank, ReturnType returnResultsOfType) {
+        return removeByRankRange(null, rank, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByRankRange(WritePolicy writePolicy, int rank, ReturnType returnResultsOfType) {
+        return rankRange(writePolicy, rank, null, returnResultsOfType, true);
+    }
+
+    @Override
+    public List<E> removeByRankRange(int rank, int count, ReturnType returnResultsOfType) {
+        return removeByRankRange(null, rank, count, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByRankRange(WritePolicy writePolicy, int rank, int count, ReturnType returnResultsOfType) {
+        return rankRange(writePolicy, rank, count, returnResultsOfType, true);
+    }
+
+    @Override
+    public List<E> removeByKeyRange(Object startKey, Object endKey, ReturnType returnResultsOfType) {
+        return removeByKeyRange(null, startKey, endKey, returnResultsOfType);
+    }
+
+    @Override
+    public List<E> removeByKeyRange(WritePolicy writePolicy, Object startKey, Object endKey,
+                                    ReturnType returnResultsOfType) {
+        return unionOperation(writePolicy, () -> prototype.virtualListInteractors.getRemoveKeyRangeInteractor(startKey, endKey),
+                returnResultsOfType, true, true);
+    }
+
+    /**
+     * Append an element to the shard it belongs to.
+     *
+     * @return the size of the shard the element was appended to.
+     */
+    @Override
+    public long append(E element) {
+        return append(null, element);
+    }
+
+    /**
+     * Append an element to the shard it belongs to.
+     *
+     * @return the size of the shard the element was appended to.
+     */
+    @Override
+    public long append(WritePolicy writePolicy, E element) {
+        if (sharding.getMode() == Sharding.Mode.HASH) {
+            return shard(shardForAerospikeObject(prototype.listMapper.toAerospikeInstanceFormat(element))).append(writePolicy, element);
+        }
+        int bucket = getCurrentBucket();
+        long size = shard(bucket).append(writePolicy, element);
+        if (size >= sharding.getMaxElementsPerBucket()) {
+            advanceBucket(bucket);
+        }
+        return size;
+    }
+
+    /**
+     * Append all the elements. With hash sharding, the elements are grouped by shard and written in a single batch.
+     * With rollover sharding, the current bucket is filled and then further buckets are started as needed.
+     *
+     * @return the sum of the sizes of the shards which were written to.
+     */
+    @Override
+    public long appendAll(Collection<E> elements) {
+        return appendAll(null, elements);
+    }
+
+    /**
+     * Append all the elements. With hash sharding, the elements are grouped by shard and written in a single batch.
+     * With rollover sharding, the current bucket is filled and then further buckets are started as needed.
+     *
+     * @return the sum of the sizes of the shards which were written to.
+     */
+    @Override
+    public long appendAll(WritePolicy writePolicy, Collection<E> elements) {
+        if (sharding.getMode() == Sharding.Mode.HASH) {
+            Map<Integer, List<Object>> byShard = new LinkedHashMap<>();
+            for (E element : elements) {
+                Object aerospikeElement = prototype.listMapper.toAerospikeInstanceFormat(element);
+                byShard.computeIfAbsent(shardForAerospikeObject(aerospikeElement), i -> new ArrayList<>())
+                        .add(aerospikeElement);
+            }
+            // Each shard's elements are split by the byte budget, and all the operations for a shard go in its write
+            List<Integer> shardIds = new ArrayList<>(byShard.keySet());
+            List<Operation[]> operations = new ArrayList<>(shardIds.size());
+            for (Integer shard : shardIds) {
+                operations.add(prototype.virtualListInteractors.getAppendItemsOperations(byShard.get(shard),
+                        prototype.getMaxBytesPerOperation()).toArray(new Operation[0]));
+            }
+            Record[] records = operateOnShards(writePolicy, shardIds, operations, true);
+            long total = 0;
+            for (Record record : records) {
+                total += record == null ? 0 : lastSize(record.getValue(binName));
+            }
+            return total;
+        }
+
+        List<E> remaining = new ArrayList<>(elements);
+        int capacity = sharding.getMaxElementsPerBucket();
+        int bucket = getCurrentBucket();
+        int offset = 0;
+        long total = 0;
+        while (offset < remaining.size()) {
+            long size = Math.max(0, shard(bucket).size(writePolicy));
+            if (size >= capacity) {
+                bucket = advanceBucket(bucket);
+                continue;
+            }
+            int end = (int) Math.min(remaining.size(), offset + capacity - size);
+            long newSize = shard(bucket).appendAll(writePolicy, remaining.subList(offset, end));
+            total += newSize;
+            offset = end;
+            if (newSize >= capacity) {
+                bucket = advanceBucket(bucket);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long putAll(Collection<E> elements) {
+        return putAll(null, elements);
+    }
+
+    @Override
+    public long putAll(WritePolicy writePolicy, Collection<E> elements) {
+        if (!isMapBacked()) {
+            throw new AerospikeException(String.format("Bin %s on class %s is not stored as a map, use appendAll instead",
+                    binName, owningEntry.getUnderlyingClass().getSimpleName()));
+        }
+        return appendAll(writePolicy, elements);
+    }
+
+    @Override
+    public E get(int index) {
+        return get(null, index);
+    }
+
+    @Override
+    public E get(Policy policy, int index) {
+        List<E> results = indexRange(policy == null ? null : new WritePolicy(policy), index, 1, ReturnType.DEFAULT, false);
+        return results == null || results.isEmpty() ? null : results.get(0);
+    }
+
+    /**
+     * Get the total number of elements in all the shards.
+     *
+     * @return The size of the list. If none of the shards exist, this method returns -1.
+     */
+    @Override
+    public long size(Policy policy) {
+        Object[] sizes = fanOut(policy == null ? null : new WritePolicy(policy), allShards(),
+                shard -> prototype.virtualListInteractors.getSizeInteractor(), false);
+        long total = -1;
+        for (Object size : sizes) {
+            if (size != null) {
+                total = Math.max(total, 0) + (Long) size;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Remove all the shards of the list. For rollover sharding, the next append starts again from the first bucket.
+     */
+    @Override
+    public void clear() {
+        List<Integer> shardIds = allShards();
+        Key[] keys = new Key[shardIds.size() + (sharding.getMode() == Sharding.Mode.ROLLOVER ? 1 : 0)];
+        for (int i = 0; i < shardIds.size(); i++) {
+            keys[i] = shardKey(shardIds.get(i));
+        }
+        if (sharding.getMode() == Sharding.Mode.ROLLOVER) {
+            keys[keys.length - 1] = metadataKey;
+        }
+        try {
+            TracedCalls.delete(mapper, owningEntry.getUnderlyingClass(), getBatchPolicy(null), keys);
+        } finally {
+            currentBucket = -1;
+            for (VirtualList<E> list : shards.values()) {
+                list.invalidatePageCache();
+            }
+        }
+    }
+
+    /**
+     * Iterate over the shards in order. Within each shard, elements are read a page at a time with the next page
+     * read in the background.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return iterator(VirtualList.DEFAULT_PAGE_SIZE);
+    }
+
+    @Override
+    public Iterator<E> iterator(int pageSize) {
+        int shardCount = getShardCount();
+        return new Iterator<E>() {
+            private int nextShard = 0;
+            private Iterator<E> current = null;
+
+            @Override
+            public boolean hasNext() {
+                while (current == null || !current.hasNext()) {
+                    if (nextShard >= shardCount) {
+                        return false;
+                    }
+                    current = shard(nextShard++).iterator(pageSize);
+                }
+                return true;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return stream(VirtualList.DEFAULT_PAGE_SIZE);
+    }
+
+    @Override
+    public Stream<E> stream(int pageSize) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(pageSize), Spliterator.ORDERED), false);
+    }
+}
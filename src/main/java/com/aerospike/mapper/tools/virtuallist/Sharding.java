@@ -0,0 +1,67 @@
+package com.aerospike.mapper.tools.virtuallist;
+
+import com.aerospike.client.AerospikeException;
+
+/**
+ * How the elements of a {@link ShardedVirtualList} are spread over records.
+ */
+public final class Sharding {
+    public enum Mode {
+        /**
+         * Each element is stored in one of a fixed number of records, chosen by the hash of its key (for lists stored as
+         * maps) or of its value (for lists stored as lists).
+         */
+        HASH,
+        /**
+         * Elements are appended to the current bucket until it holds the maximum number of elements, then a new bucket
+         * is started. The order of the elements is the order of the buckets.
+         */
+        ROLLOVER
+    }
+
+    private final Mode mode;
+    private final int size;
+
+    private Sharding(Mode mode, int size) {
+        this.mode = mode;
+        this.size = size;
+    }
+
+    /**
+     * Spread the elements over a fixed number of records by hash.
+     *
+     * @param shardCount - the number of records to use. This must not be changed once the list holds data.
+     */
+    public static Sharding byHash(int shardCount) {
+        if (shardCount <= 0) {
+            throw new AerospikeException(String.format("shardCount must be greater than zero, not %d", shardCount));
+        }
+        return new Sharding(Mode.HASH, shardCount);
+    }
+
+    /**
+     * Append the elements to a bucket until it is full, then start a new bucket. As several processes may append to
+     * the same bucket before one of them rolls over to the next, a bucket may hold slightly more elements than this.
+     *
+     * @param maxElementsPerBucket - the number of elements after which a new bucket is started.
+     */
+    public static Sharding rollover(int maxElementsPerBucket) {
+        if (maxElementsPerBucket <= 0) {
+            throw new AerospikeException(String.format("maxElementsPerBucket must be greater than zero, not %d",
+                    maxElementsPerBucket));
+        }
+        return new Sharding(Mode.ROLLOVER, maxElementsPerBucket);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getShardCount() {
+        return mode == Mode.HASH ? size : -1;
+    }
+
+    public int getMaxElementsPerBucket() {
+        return mode == Mode.ROLLOVER ? size : -1;
+    }
+}
@@ -0,0 +1,368 @@
+package com.aerospike.mapper.tools.virtuallist;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.BatchRead;
+import com.aerospike.client.BatchRecord;
+import com.aerospike.client.BatchWrite;
+import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.BatchWritePolicy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.IAeroMapper;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A virtual list for time series, where the elements are written to a separate record for each period of time (for
+ * example, one per hour). Each bucket record is given its own time to live, so old data is removed by expiry rather
+ * than by trimming a single ever-growing record. The buckets are kept in their own set,
+ * <code>&lt;set&gt;_&lt;bin&gt;_buckets</code> unless changed with {@link #withSetName(String)}, so scans and queries of
+ * the owning class do not find them. Their keys are of the form <code>&lt;owner digest&gt;#&lt;bucket number&gt;</code>,
+ * where the bucket number is the start of the bucket in milliseconds since the epoch divided by the bucket duration.
+ * <p/>
+ * The time of an element is given by the function passed to {@link #withTimestamp(ToLongFunction)}. Without one, each
+ * element is placed in the bucket of the time it is appended, and reads by time range return whole buckets.
+ */
+public class TimeBucketedVirtualList<E> {
+    public static final Duration DEFAULT_BUCKET_DURATION = Duration.ofHours(1);
+    public static final int DEFAULT_MAX_BUCKETS_PER_READ = 1000;
+    private static final String BUCKET_SET_SUFFIX = "buckets";
+
+    private final IAeroMapper mapper;
+    private final Supplier<VirtualList<E>> listFactory;
+    private final VirtualList<E> prototype;
+    private final ClassCacheEntry<?> owningEntry;
+    private final String binName;
+    private final Map<Long, VirtualList<E>> buckets = new ConcurrentHashMap<>();
+    private volatile String setName;
+    private volatile long bucketMillis = DEFAULT_BUCKET_DURATION.toMillis();
+    private volatile int maxBucketsPerRead = DEFAULT_MAX_BUCKETS_PER_READ;
+    private volatile Integer timeToLive = null;
+    private volatile ToLongFunction<? super E> timestampFunction = null;
+
+    public TimeBucketedVirtualList(@NotNull IAeroMapper mapper, @NotNull Class<?> owningClazz, @NotNull Object key,
+                                   @NotNull String binName, @NotNull Class<E> clazz) {
+        this(mapper, () -> new VirtualList<>(mapper, owningClazz, key, binName, clazz));
+    }
+
+    public TimeBucketedVirtualList(@NotNull IAeroMapper mapper, @NotNull Object object, @NotNull String binName,
+                                   @NotNull Class<E> clazz) {
+        this(mapper, () -> new VirtualList<>(mapper, object, binName, clazz));
+    }
+
+    private TimeBucketedVirtualList(IAeroMapper mapper, Supplier<VirtualList<E>> listFactory) {
+        this.mapper = mapper;
+        this.listFactory = listFactory;
+        this.prototype = listFactory.get();
+        this.owningEntry = prototype.owningEntry;
+        this.binName = prototype.binName;
+        this.setName = prototype.getPartSetName(BUCKET_SET_SUFFIX);
+    }
+
+    /**
+     * Set the set which holds the buckets, instead of <code>&lt;set&gt;_&lt;bin&gt;_buckets</code>. This must be called
+     * before the list is used, and must not be changed once the list holds data. It should not be the set of the owning
+     * class, as scans and queries of that class would then find the buckets.
+     *
+     * @param setName - the name of the set.
+     * @return this TimeBucketedVirtualList
+     */
+    public TimeBucketedVirtualList<E> withSetName(@NotNull String setName) {
+        this.setName = setName;
+        this.buckets.clear();
+        return this;
+    }
+
+    /**
+     * Set the budget for the estimated size of the elements sent in one operation, as
+     * {@link VirtualList#withMaxBytesPerOperation(int)} does. The elements appended to each bucket by
+     * {@link #appendAll(BatchPolicy, WritePolicy, Collection)} are split into operations by this budget.
+     *
+     * @param maxBytesPerOperation - the estimated number of bytes of elements to send in one operation.
+     * @return this TimeBucketedVirtualList
+     */
+    public TimeBucketedVirtualList<E> withMaxBytesPerOperation(int maxBytesPerOperation) {
+        prototype.withMaxBytesPerOperation(maxBytesPerOperation);
+        for (VirtualList<E> bucket : buckets.values()) {
+            bucket.withMaxBytesPerOperation(maxBytesPerOperation);
+        }
+        return this;
+    }
+
+    /**
+     * Set the largest number of buckets a read by time range may cover. All the buckets of a range are read in one
+     * batch, so this bounds the size of that batch. Longer ranges must be read in several calls.
+     *
+     * @param maxBucketsPerRead - the maximum number of buckets, at least 1. The default is 1000.
+     * @return this TimeBucketedVirtualList
+     */
+    public TimeBucketedVirtualList<E> withMaxBucketsPerRead(int maxBucketsPerRead) {
+        if (maxBucketsPerRead <= 0) {
+            throw new AerospikeException(String.format("maxBucketsPerRead must be greater than zero, not %d",
+                    maxBucketsPerRead));
+        }
+        this.maxBucketsPerRead = maxBucketsPerRead;
+        return this;
+    }
+
+    public String getSetName() {
+        return setName;
+    }
+
+    /**
+     * Set the period of time covered by each bucket. This must not be changed once the list holds data, as the
+     * existing buckets would no longer be found.
+     *
+     * @param bucketDuration - the duration of each bucket, at least one millisecond.
+     * @return this TimeBucketedVirtualList
+     */
+    public TimeBucketedVirtualList<E> withBucketDuration(@NotNull Duration bucketDuration) {
+        if (bucketDuration.toMillis() <= 0) {
+            throw new AerospikeException(String.format("The bucket duration must be at least 1ms, not %s", bucketDuration));
+        }
+        this.bucketMillis = bucketDuration.toMillis();
+        return this;
+    }
+
+    /**
+     * Set the time to live given to a bucket each time it is written to. As the last write to a bucket is normally
+     * near its end, a bucket expires roughly this long after the period it covers. If not set, the expiration of the
+     * write policy of the owning class is used.
+     *
+     * @param seconds - the time to live of the buckets in seconds.
+     * @return this TimeBucketedVirtualList
+     */
+    public TimeBucketedVirtualList<E> withTimeToLive(int seconds) {
+        this.timeToLive = seconds;
+        return this;
+    }
+
+    /**
+     * Set the function which gives the time of an element in milliseconds since the epoch. This time selects the
+     * bucket the element is written to, and is used to filter and order the results of reads by time range.
+     *
+     * @param timestampFunction - the function to extract the time from an element.
+     * @return this TimeBucketedVirtualList
+     */
+    public TimeBucketedVirtualList<E> withTimestamp(ToLongFunction<? super E> timestampFunction) {
+        this.timestampFunction = timestampFunction;
+        return this;
+    }
+
+    public Duration getBucketDuration() {
+        return Duration.ofMillis(bucketMillis);
+    }
+
+    /**
+     * Get the bucket number which holds the passed time.
+     */
+    public long getBucketNumber(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, bucketMillis);
+    }
+
+    /**
+     * Get the key of the record which holds a bucket.
+     *
+     * @param bucket - the bucket number, as returned by {@link #getBucketNumber(long)}.
+     * @return the key of the bucket record.
+     */
+    public Key getBucketKey(long bucket) {
+        return prototype.getPartKey(setName, Long.toString(bucket));
+    }
+
+    /**
+     * Get a VirtualList on a single bucket, for operations which are not supported across buckets.
+     *
+     * @param bucket - the bucket number, as returned by {@link #getBucketNumber(long)}.
+     * @return a VirtualList on the bucket record.
+     */
+    public VirtualList<E> getBucket(long bucket) {
+        return buckets.computeIfAbsent(bucket, b -> {
+            VirtualList<E> list = listFactory.get().withMaxBytesPerOperation(prototype.getMaxBytesPerOperation());
+            list.key = getBucketKey(b);
+            return list;
+        });
+    }
+
+    private long timestampOf(E element, long now) {
+        ToLongFunction<? super E> function = this.timestampFunction;
+        return function == null ? now : function.applyAsLong(element);
+    }
+
+    private WritePolicy getWritePolicy(WritePolicy writePolicy) {
+        WritePolicy result = new WritePolicy(writePolicy == null ? owningEntry.getWritePolicy() : writePolicy);
+        result.recordExistsAction = RecordExistsAction.UPDATE;
+        if (timeToLive != null) {
+            result.expiration = timeToLive;
+        }
+        return result;
+    }
+
+    /**
+     * Append an element to the bucket for its time.
+     *
+     * @param element The element to append.
+     * @return The size of the bucket after the append.
+     */
+    public long append(E element) {
+        return append(null, element);
+    }
+
+    /**
+     * Append an element to the bucket for its time.
+     *
+     * @param writePolicy An Aerospike write policy to use for the operate() operation. The time to live, if set, overrides
+     *                    the expiration of this policy.
+     * @param element     The element to append.
+     * @return The size of the bucket after the append.
+     */
+    public long append(WritePolicy writePolicy, E element) {
+        long bucket = getBucketNumber(timestampOf(element, System.currentTimeMillis()));
+        return getBucket(bucket).append(getWritePolicy(writePolicy), element);
+    }
+
+    /**
+     * Append all the elements, grouped by bucket, in a single batch operate call.
+     *
+     * @param elements The elements to append.
+     * @return The number of buckets written to.
+     */
+    public int appendAll(Collection<E> elements) {
+        return appendAll(null, null, elements);
+    }
+
+    /**
+     * Append all the elements, grouped by bucket, in a single batch operate call.
+     *
+     * @param batchPolicy The batch policy to use, or null for the batch policy of the owning class.
+     * @param writePolicy The write policy whose settings are used for each bucket, or null for the write policy of the
+     *                    owning class. The time to live, if set, overrides the expiration of this policy.
+     * @param elements    The elements to append.
+     * @return The number of buckets written to.
+     */
+    public int appendAll(BatchPolicy batchPolicy, WritePolicy writePolicy, Collection<E> elements) {
+        long now = System.currentTimeMillis();
+        Map<Long, List<Object>> byBucket = new LinkedHashMap<>();
+        for (E element : elements) {
+            byBucket.computeIfAbsent(getBucketNumber(timestampOf(element, now)), b -> new ArrayList<>())
+                    .add(prototype.listMapper.toAerospikeInstanceFormat(element));
+        }
+        if (byBucket.isEmpty()) {
+            return 0;
+        }
+        WritePolicy policy = getWritePolicy(writePolicy);
+        BatchWritePolicy batchWritePolicy = new BatchWritePolicy();
+        batchWritePolicy.recordExistsAction = RecordExistsAction.UPDATE;
+        batchWritePolicy.expiration = policy.expiration;
+        batchWritePolicy.sendKey = policy.sendKey;
+        batchWritePolicy.durableDelete = policy.durableDelete;
+
+        List<BatchRecord> records = new ArrayList<>(byBucket.size());
+        for (Map.Entry<Long, List<Object>> entry : byBucket.entrySet()) {
+            // A burst of elements for one bucket is split by the byte budget, all in the write of that bucket
+            List<Operation> operations = prototype.virtualListInteractors.getAppendItemsOperations(entry.getValue(),
+                    prototype.getMaxBytesPerOperation());
+            records.add(new BatchWrite(batchWritePolicy, getBucketKey(entry.getKey()),
+                    operations.toArray(new Operation[0])));
+        }
+        TracedCalls.operate(mapper, owningEntry.getUnderlyingClass(), getBatchPolicy(batchPolicy), records);
+        for (BatchRecord record : records) {
+            if (record.resultCode != ResultCode.OK) {
+                throw new AerospikeException(record.resultCode, String.format("Append to bucket %s failed", record.key));
+            }
+        }
+        return records.size();
+    }
+
+    private BatchPolicy getBatchPolicy(BatchPolicy batchPolicy) {
+        return new BatchPolicy(batchPolicy == null ? owningEntry.getBatchPolicy() : batchPolicy);
+    }
+
+    /**
+     * Get the elements whose time is in the passed range, reading all the buckets which cover the range in a single
+     * batch operate call. The range may cover at most {@link #withMaxBucketsPerRead(int) maxBucketsPerRead} buckets.
+     *
+     * @param from The start of the range, inclusive.
+     * @param to   The end of the range, exclusive.
+     * @return The elements in the range, in bucket order.
+     */
+    public List<E> getByTimeRange(@NotNull Instant from, @NotNull Instant to) {
+        return getByTimeRange(null, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    /**
+     * Get the elements whose time is in the passed range, reading all the buckets which cover the range in a single
+     * batch operate call. If a timestamp function has been set, the elements are filtered to the exact range and sorted
+     * by time, otherwise all the elements of the buckets are returned in bucket order.
+     * <p/>
+     * The range may cover at most {@link #withMaxBucketsPerRead(int) maxBucketsPerRead} buckets, so that a long range
+     * of short buckets does not turn into one huge batch. Longer ranges must be split by the caller.
+     *
+     * @param batchPolicy The batch policy to use, or null for the batch policy of the owning class.
+     * @param fromMillis  The start of the range in milliseconds since the epoch, inclusive.
+     * @param toMillis    The end of the range in milliseconds since the epoch, exclusive.
+     * @return The elements in the range.
+     */
+    @SuppressWarnings("unchecked")
+    public List<E> getByTimeRange(BatchPolicy batchPolicy, long fromMillis, long toMillis) {
+        List<E> results = new ArrayList<>();
+        if (toMillis <= fromMillis) {
+            return results;
+        }
+        long firstBucket = getBucketNumber(fromMillis);
+        long lastBucket = getBucketNumber(toMillis - 1);
+        int maxBuckets = this.maxBucketsPerRead;
+        long bucketCount = lastBucket - firstBucket + 1;
+        // A negative count means the subtraction overflowed, so the range is far too long
+        if (bucketCount > maxBuckets || bucketCount <= 0) {
+            throw new AerospikeException(String.format("The range from %d to %d covers more than the maximum of %d "
+                    + "buckets which can be read at once", fromMillis, toMillis, maxBuckets));
+        }
+        List<BatchRecord> records = new ArrayList<>();
+        List<Interactor> interactors = new ArrayList<>();
+        for (long bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            Interactor interactor = prototype.virtualListInteractors.getGetByIndexRangeInteractor(0);
+            interactor.setNeedsResultOfType(ReturnType.DEFAULT);
+            interactors.add(interactor);
+            records.add(new BatchRead(getBucketKey(bucket), new Operation[]{interactor.getOperation()}));
+        }
+        TracedCalls.operate(mapper, owningEntry.getUnderlyingClass(), getBatchPolicy(batchPolicy), records);
+        for (int i = 0; i < records.size(); i++) {
+            BatchRecord record = records.get(i);
+            if (record.resultCode == ResultCode.OK && record.record != null) {
+                List<E> elements = (List<E>) interactors.get(i).getResult(record.record.getList(binName));
+                if (elements != null) {
+                    results.addAll(elements);
+                }
+            } else if (record.resultCode != ResultCode.KEY_NOT_FOUND_ERROR) {
+                throw new AerospikeException(record.resultCode, String.format("Read of bucket %s failed", record.key));
+            }
+        }
+        mapper.getMappingConverter().resolveDependencies(owningEntry);
+
+        ToLongFunction<? super E> function = this.timestampFunction;
+        if (function != null) {
+            results.removeIf(element -> {
+                long timestamp = function.applyAsLong(element);
+                return timestamp < fromMillis || timestamp >= toMillis;
+            });
+            results.sort(Comparator.comparingLong(function));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,107 @@
+package com.aerospike.mapper.tools.virtuallist;
+
+import com.aerospike.client.BatchRecord;
+import com.aerospike.client.BatchResults;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
+import com.aerospike.client.Record;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.Policy;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.mapper.tools.IAeroMapper;
+import com.aerospike.mapper.tools.IReactiveAeroMapper;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+import com.aerospike.mapper.tools.tracing.MapperInterceptor;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The client calls made by the virtual lists, wrapped so that the interceptor of the mapper, if there is one, is
+ * notified around each of them. The mapped class of each call is the class which owns the list.
+ */
+final class TracedCalls {
+
+    private TracedCalls() {
+    }
+
+    static Record operate(IAeroMapper mapper, Class<?> owningClazz, WritePolicy writePolicy, Key key,
+                          Operation... operations) {
+        ClientCall call = ClientCall.beginOperate(mapper.getMappingConverter().getInterceptor(), owningClazz, key,
+                operations);
+        try {
+            return mapper.getClient().operate(writePolicy, key, operations);
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+        }
+    }
+
+    static boolean operate(IAeroMapper mapper, Class<?> owningClazz, BatchPolicy batchPolicy,
+                           List<BatchRecord> records) {
+        ClientCall call = ClientCall.beginBatch(mapper.getMappingConverter().getInterceptor(), owningClazz, records);
+        try {
+            return mapper.getClient().operate(batchPolicy, records);
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+        }
+    }
+
+    static BatchResults delete(IAeroMapper mapper, Class<?> owningClazz, BatchPolicy batchPolicy, Key[] keys) {
+        ClientCall call = ClientCall.begin(mapper.getMappingConverter().getInterceptor(), ClientCall.Type.BATCH_DELETE,
+                owningClazz, keys, null, null, 0);
+        try {
+            return mapper.getClient().delete(batchPolicy, null, keys);
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+        }
+    }
+
+    static Record get(IAeroMapper mapper, Class<?> owningClazz, Policy policy, Key key, String... binNames) {
+        ClientCall call = ClientCall.begin(mapper.getMappingConverter().getInterceptor(), ClientCall.Type.GET,
+                owningClazz, key, null);
+        try {
+            return mapper.getClient().get(policy, key, binNames);
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+        }
+    }
+
+    static void put(IAeroMapper mapper, Class<?> owningClazz, WritePolicy writePolicy, Key key, Bin... bins) {
+        ClientCall call = ClientCall.begin(mapper.getMappingConverter().getInterceptor(), ClientCall.Type.PUT,
+                owningClazz, key, bins);
+        try {
+            mapper.getClient().put(writePolicy, key, bins);
+        } catch (RuntimeException e) {
+            throw ClientCall.failed(call, e);
+        } finally {
+            ClientCall.end(call);
+        }
+    }
+
+    /**
+     * The reactive form of an operate call, which notifies the interceptor when it is subscribed to and when it
+     * completes.
+     */
+    static Mono<KeyRecord> reactiveOperate(IReactiveAeroMapper mapper, Class<?> owningClazz, WritePolicy writePolicy,
+                                           Key key, Operation... operations) {
+        Mono<KeyRecord> mono = mapper.getReactorClient().operate(writePolicy, key, operations);
+        MapperInterceptor interceptor = mapper.getMappingConverter().getInterceptor();
+        if (interceptor == null) {
+            return mono;
+        }
+        return Mono.defer(() -> {
+            ClientCall call = ClientCall.beginOperate(interceptor, owningClazz, key, operations);
+            return mono.doOnError(e -> ClientCall.failed(call, e)).doFinally(signal -> ClientCall.end(call));
+        });
+    }
+}
@@ -1,6 +1,8 @@
 package com.aerospike.mapper.tools.virtuallist;
 
+import com.aerospike.client.AerospikeException;
 import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
 import com.aerospike.client.Record;
 import com.aerospike.client.Value;
 import com.aerospike.client.policy.Policy;
@@ -10,11 +12,32 @@ import com.aerospike.mapper.tools.ClassCache;
 import com.aerospike.mapper.tools.IAeroMapper;
 
 import jakarta.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E> {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_BYTES_PER_OPERATION = 1024 * 1024;
+
+    private static volatile ExecutorService prefetchExecutor = null;
+
     private final IAeroMapper mapper;
+    private volatile PageCache<E> pageCache = null;
+    private volatile int maxBytesPerOperation = DEFAULT_MAX_BYTES_PER_OPERATION;
 
     public VirtualList(@NotNull IAeroMapper mapper, @NotNull Class<?> owningClazz, @NotNull Object key,
                        @NotNull String binName, @NotNull Class<E> clazz) {
@@ -31,9 +54,249 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
     public VirtualList<E> changeKey(Object newKey) {
         String set = alignedSet();
         this.key = new Key(owningEntry.getNamespace(), set, Value.get(owningEntry.translateKeyToAerospikeKey(key)));
+        invalidatePageCache();
+        return this;
+    }
+
+    /**
+     * Set the budget for the size of the elements sent in one call by {@link #appendAll(Collection)} and
+     * {@link #putAll(Collection)}. Larger collections are sent in several calls. This should be set below the maximum
+     * record size of the namespace.
+     *
+     * @param maxBytesPerOperation - the estimated number of bytes of elements to send in one call.
+     * @return this VirtualList
+     */
+    public VirtualList<E> withMaxBytesPerOperation(int maxBytesPerOperation) {
+        if (maxBytesPerOperation <= 0) {
+            throw new AerospikeException(String.format("maxBytesPerOperation must be greater than zero, not %d",
+                    maxBytesPerOperation));
+        }
+        this.maxBytesPerOperation = maxBytesPerOperation;
         return this;
     }
 
+    public int getMaxBytesPerOperation() {
+        return maxBytesPerOperation;
+    }
+
+    /**
+     * Cache pages of the list on the client. Reads by index and iteration are served from the cache where possible, and
+     * the cache is cleared by every change made through this VirtualList, including multi operations. Changes made by
+     * anything else are not seen until {@link #invalidatePageCache()} is called.
+     *
+     * @param pageSize - the number of elements in each page, which is also the page size used by {@link #iterator()}.
+     * @param maxPages - the maximum number of pages to hold; the least recently used page is discarded first.
+     * @return this VirtualList
+     */
+    public VirtualList<E> withPageCache(int pageSize, int maxPages) {
+        if (pageSize <= 0 || maxPages <= 0) {
+            throw new AerospikeException(String.format("pageSize (%d) and maxPages (%d) must both be greater than zero",
+                    pageSize, maxPages));
+        }
+        this.pageCache = new PageCache<>(pageSize, maxPages);
+        return this;
+    }
+
+    /**
+     * Stop caching pages of the list on the client.
+     *
+     * @return this VirtualList
+     */
+    public VirtualList<E> withoutPageCache() {
+        this.pageCache = null;
+        return this;
+    }
+
+    /**
+     * Discard any cached pages, for example after the list has been changed by another process.
+     */
+    public void invalidatePageCache() {
+        PageCache<E> cache = this.pageCache;
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        PageCache<E> cache = this.pageCache;
+        return iterator(cache == null ? DEFAULT_PAGE_SIZE : cache.getPageSize());
+    }
+
+    @Override
+    public Iterator<E> iterator(int pageSize) {
+        if (pageSize <= 0) {
+            throw new AerospikeException(String.format("pageSize must be greater than zero, not %d", pageSize));
+        }
+        return new PagedIterator(pageSize);
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return toStream(iterator());
+    }
+
+    @Override
+    public Stream<E> stream(int pageSize) {
+        return toStream(iterator(pageSize));
+    }
+
+    /**
+     * Stream the elements with keys in the passed range. The elements are read in a single call, but each is converted
+     * to its Java form only when the stream reaches it and is not kept by the list, which suits very large results.
+     *
+     * @param startKey - the start of the range, inclusive.
+     * @param endKey   - the end of the range, exclusive.
+     */
+    public Stream<E> streamByKeyRange(Object startKey, Object endKey) {
+        return streamOf(getByKeyRange(startKey, endKey, ReturnType.DEFAULT));
+    }
+
+    /**
+     * Stream the elements with values in the passed range, converting each element only when the stream reaches it.
+     *
+     * @param startValue - the start of the range, inclusive.
+     * @param endValue   - the end of the range, exclusive.
+     */
+    public Stream<E> streamByValueRange(Object startValue, Object endValue) {
+        return streamOf(getByValueRange(startValue, endValue, ReturnType.DEFAULT));
+    }
+
+    /**
+     * Stream <code>count</code> elements starting at the passed index, converting each element only when the stream
+     * reaches it.
+     */
+    public Stream<E> streamByIndexRange(int index, int count) {
+        return streamOf(getByIndexRange(index, count, ReturnType.DEFAULT));
+    }
+
+    /**
+     * Stream <code>count</code> elements starting at the passed rank, converting each element only when the stream
+     * reaches it.
+     */
+    public Stream<E> streamByRankRange(int rank, int count) {
+        return streamOf(getByRankRange(rank, count, ReturnType.DEFAULT));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Stream<E> streamOf(List<E> results) {
+        if (results == null) {
+            return Stream.empty();
+        }
+        if (results instanceof LazyList) {
+            return ((LazyList<E>) results).streamWithoutCaching();
+        }
+        return results.stream();
+    }
+
+    private Stream<E> toStream(Iterator<E> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Read one page of the list, using the page cache if it has the same page size. A page which is not cached is read
+     * with the passed policy, or the policy of the owning class if it is null.
+     */
+    private List<E> loadPage(WritePolicy writePolicy, int pageSize, int pageIndex) {
+        PageCache<E> cache = this.pageCache;
+        boolean useCache = cache != null && cache.getPageSize() == pageSize;
+        long generation = 0;
+        if (useCache) {
+            List<E> page = cache.get(pageIndex);
+            if (page != null) {
+                return page;
+            }
+            generation = cache.getGeneration();
+        }
+        List<E> page = getByIndexRange(writePolicy, pageIndex * pageSize, pageSize, ReturnType.DEFAULT);
+        if (page == null) {
+            page = Collections.emptyList();
+        }
+        if (useCache) {
+            cache.put(pageIndex, generation, page);
+        }
+        return page;
+    }
+
+    private static ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            synchronized (VirtualList.class) {
+                if (prefetchExecutor == null) {
+                    AtomicInteger threadCounter = new AtomicInteger();
+                    prefetchExecutor = Executors.newCachedThreadPool(runnable -> {
+                        Thread thread = new Thread(runnable,
+                                String.format("aerospike-mapper-virtuallist-prefetch-%d", threadCounter.incrementAndGet()));
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return prefetchExecutor;
+    }
+
+    /**
+     * Iterates the list a page at a time. When a full page is loaded, the next page is requested in the background, so
+     * the round trip overlaps with processing of the current page. Pages are read by index, so changes made to the list
+     * during iteration may cause elements to be skipped or seen twice.
+     */
+    private class PagedIterator implements Iterator<E> {
+        private final int pageSize;
+        private List<E> current = null;
+        private int pageIndex = 0;
+        private int position = 0;
+        private CompletableFuture<List<E>> next = null;
+
+        PagedIterator(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (current == null) {
+                setCurrent(loadPage(null, pageSize, 0));
+            }
+            while (position >= current.size()) {
+                if (current.size() < pageSize) {
+                    return false;
+                }
+                pageIndex++;
+                setCurrent(awaitNext());
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.get(position++);
+        }
+
+        private void setCurrent(List<E> page) {
+            current = page;
+            position = 0;
+            if (page.size() == pageSize) {
+                int nextPage = pageIndex + 1;
+                next = CompletableFuture.supplyAsync(() -> loadPage(null, pageSize, nextPage), getPrefetchExecutor());
+            } else {
+                next = null;
+            }
+        }
+
+        private List<E> awaitNext() {
+            try {
+                return next.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof AerospikeException) {
+                    throw (AerospikeException) e.getCause();
+                }
+                throw new AerospikeException(e.getCause());
+            }
+        }
+    }
+
     public MultiOperation<E> beginMultiOperation() {
         return this.beginMulti(null);
     }
@@ -43,7 +306,12 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
             writePolicy = new WritePolicy(owningEntry.getWritePolicy());
             writePolicy.recordExistsAction = RecordExistsAction.UPDATE;
         }
-        return new MultiOperation<>(writePolicy, binName, listMapper, key, virtualListInteractors, mapper);
+        MultiOperation<E> multiOperation = new MultiOperation<>(writePolicy, binName, listMapper, key,
+                virtualListInteractors, mapper);
+        multiOperation.writeListener = this::invalidatePageCache;
+        multiOperation.owningEntry = owningEntry;
+        multiOperation.maxBytesPerOperation = maxBytesPerOperation;
+        return multiOperation;
     }
 
     @Override
@@ -59,7 +327,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByValueInteractor(value);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -76,7 +344,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByValueRangeInteractor(startValue, endValue);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -93,7 +361,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByValueListInteractor(values);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -110,7 +378,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByValueRelativeRankRangeInteractor(value, rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -127,7 +395,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByValueRelativeRankRangeInteractor(value, rank, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -144,7 +412,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByIndexRangeInteractor(index);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -161,7 +429,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByIndexRangeInteractor(index, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -178,7 +446,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByRankInteractor(rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -195,7 +463,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByRankRangeInteractor(rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -212,7 +480,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByRankRangeInteractor(rank, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -229,7 +497,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByKeyInteractor(key);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, this.key, interactor.getOperation());
+        Record record = operate(writePolicy, this.key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -246,7 +514,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getGetByKeyRangeInteractor(startKey, endKey);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, this.key, interactor.getOperation());
+        Record record = operate(writePolicy, this.key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -263,7 +531,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveKeyInteractor(key);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, this.key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, this.key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -280,7 +548,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByValueInteractor(value);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -297,7 +565,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByValueListInteractor(values);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -314,7 +582,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByValueRangeInteractor(startValue, endValue);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -331,7 +599,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByValueRelativeRankRangeInteractor(value, rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -348,7 +616,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByValueRelativeRankRangeInteractor(value, rank, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -365,7 +633,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByIndexInteractor(index);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -382,7 +650,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByIndexRangeInteractor(index);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -399,7 +667,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByIndexRangeInteractor(index, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -416,7 +684,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByRankInteractor(rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -433,7 +701,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByRankRangeInteractor(rank);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -450,7 +718,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveByRankRangeInteractor(rank, count);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -467,7 +735,7 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
         }
         Interactor interactor = virtualListInteractors.getRemoveKeyRangeInteractor(startKey, endKey);
         interactor.setNeedsResultOfType(returnResultsOfType);
-        Record record = this.mapper.getClient().operate(writePolicy, key, interactor.getOperation());
+        Record record = operateAndInvalidate(writePolicy, key, interactor.getOperation());
         return getResultsAsListWithDependencies(record, interactor);
     }
 
@@ -483,10 +751,54 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
             writePolicy = new WritePolicy(owningEntry.getWritePolicy());
             writePolicy.recordExistsAction = RecordExistsAction.UPDATE;
         }
-        Record record = this.mapper.getClient().operate(writePolicy, key, virtualListInteractors.getAppendOperation(result));
+        Record record = operateAndInvalidate(writePolicy, key, virtualListInteractors.getAppendOperation(result));
         return record == null ? -1L : record.getLong(binName);
     }
 
+    @Override
+    public long appendAll(Collection<E> elements) {
+        return this.appendAll(null, elements);
+    }
+
+    @Override
+    public long appendAll(WritePolicy writePolicy, Collection<E> elements) {
+        List<Object> aerospikeElements = new ArrayList<>(elements.size());
+        for (E element : elements) {
+            aerospikeElements.add(listMapper.toAerospikeInstanceFormat(element));
+        }
+        if (writePolicy == null) {
+            writePolicy = new WritePolicy(owningEntry.getWritePolicy());
+            writePolicy.recordExistsAction = RecordExistsAction.UPDATE;
+        }
+        if (aerospikeElements.isEmpty()) {
+            return size(writePolicy);
+        }
+        long result = -1L;
+        try {
+            for (Operation operation : virtualListInteractors.getAppendItemsOperations(aerospikeElements, maxBytesPerOperation)) {
+                Record record = operate(writePolicy, key, operation);
+                result = record == null ? -1L : record.getLong(binName);
+            }
+        } finally {
+            invalidatePageCache();
+        }
+        return result;
+    }
+
+    @Override
+    public long putAll(Collection<E> elements) {
+        return this.putAll(null, elements);
+    }
+
+    @Override
+    public long putAll(WritePolicy writePolicy, Collection<E> elements) {
+        if (!virtualListInteractors.isMapBacked()) {
+            throw new AerospikeException(String.format("Bin %s on class %s is not stored as a map, use appendAll instead",
+                    binName, owningEntry.getUnderlyingClass().getSimpleName()));
+        }
+        return this.appendAll(writePolicy, elements);
+    }
+
     @Override
     public E get(int index) {
         return get(null, index);
@@ -494,22 +806,45 @@ public class VirtualList<E> extends BaseVirtualList<E> implements IVirtualList<E
 
     @Override
     public E get(Policy policy, int index) {
+        PageCache<E> cache = this.pageCache;
+        if (cache != null && index >= 0) {
+            WritePolicy writePolicy = policy == null ? null : getWritePolicy(policy);
+            List<E> page = loadPage(writePolicy, cache.getPageSize(), index / cache.getPageSize());
+            int position = index % cache.getPageSize();
+            return position < page.size() ? page.get(position) : null;
+        }
         Interactor interactor = virtualListInteractors.getByIndexInteractor(index);
-        Record record = this.mapper.getClient().operate(getWritePolicy(policy), key, interactor.getOperation());
+        Record record = operate(getWritePolicy(policy), key, interactor.getOperation());
         return getResultsWithDependencies(record, interactor);
     }
 
     @Override
     public long size(Policy policy) {
         Interactor interactor = virtualListInteractors.getSizeInteractor();
-        Record record = this.mapper.getClient().operate(getWritePolicy(policy), key, interactor.getOperation());
+        Record record = operate(getWritePolicy(policy), key, interactor.getOperation());
         return record == null ? -1L : record.getLong(binName);
     }
 
     @Override
     public void clear() {
         Interactor interactor = virtualListInteractors.getClearInteractor();
-        this.mapper.getClient().operate(null, key, interactor.getOperation());
+        operateAndInvalidate(null, key, interactor.getOperation());
+    }
+
+    /**
+     * Run operations which change the list, dropping the cached pages even if the call fails, as a timeout may come
+     * after the server has applied the change.
+     */
+    private Record operateAndInvalidate(WritePolicy writePolicy, Key key, Operation... operations) {
+        try {
+            return operate(writePolicy, key, operations);
+        } finally {
+            invalidatePageCache();
+        }
+    }
+
+    private Record operate(WritePolicy writePolicy, Key key, Operation... operations) {
+        return TracedCalls.operate(mapper, owningEntry.getUnderlyingClass(), writePolicy, key, operations);
     }
 
     @SuppressWarnings("unchecked")
@@ -8,857 +8,346 @@ import com.aerospike.mapper.tools.ClassCacheEntry;
 import com.aerospike.mapper.tools.IBaseAeroMapper;
 import com.aerospike.mapper.tools.utils.TypeUtils;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-
+import java.util.function.IntFunction;
+
+/**
+ * Creates the interactors for the operations on a virtual list. Everything which depends only on the list and not on
+ * the arguments of a call is worked out once when the list is created: whether each operation is a list or map
+ * operation, the Aerospike return type for each {@link ReturnType}, and the unpackers for the results. A call then
+ * only converts its arguments and binds them to the precompiled template for the operation.
+ */
 public class VirtualListInteractors {
 
+    private interface ValueTemplate {
+        Operation bind(Value value, int returnType);
+    }
+
+    private interface ValueRangeTemplate {
+        Operation bind(Value start, Value end, int returnType);
+    }
+
+    private interface ValueListTemplate {
+        Operation bind(List<Value> values, int returnType);
+    }
+
+    private interface RelativeRankTemplate {
+        Operation bind(Value value, int rank, int returnType);
+    }
+
+    private interface RelativeRankCountTemplate {
+        Operation bind(Value value, int rank, int count, int returnType);
+    }
+
+    private interface PositionTemplate {
+        Operation bind(int position, int returnType);
+    }
+
+    private interface PositionCountTemplate {
+        Operation bind(int position, int count, int returnType);
+    }
+
+    /**
+     * A template with the arguments of a call bound to it. Only the return type remains to be chosen.
+     */
+    private final class BoundOperation implements DeferredOperation {
+        private final IntFunction<Operation> operation;
+        private final boolean getOperation;
+
+        BoundOperation(IntFunction<Operation> operation, boolean getOperation) {
+            this.operation = operation;
+            this.getOperation = getOperation;
+        }
+
+        @Override
+        public Operation getOperation(OperationParameters operationParams) {
+            return operation.apply(returnTypes[operationParams.getNeedsResultOfType().ordinal()]);
+        }
+
+        @Override
+        public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
+            return unpackers[operationParams.getNeedsResultOfType().ordinal()];
+        }
+
+        @Override
+        public boolean isGetOperation() {
+            return getOperation;
+        }
+    }
+
     private final String binName;
     private final AerospikeEmbed.EmbedType listType;
     private final ClassCacheEntry<?> elementEntry;
     private final Function<Object, Object> instanceMapper;
     private final IBaseAeroMapper mapper;
+    private final Runnable dependencyResolver;
+
+    private final int[] returnTypes;
+    private final ResultsUnpacker[][] unpackers;
+    private final ResultsUnpacker[] byIndexUnpackers;
+    private final Operation sizeOperation;
+    private final Operation clearOperation;
+
+    private final ValueTemplate getByValue;
+    private final ValueRangeTemplate getByValueRange;
+    private final ValueListTemplate getByValueList;
+    private final RelativeRankTemplate getByValueRelativeRankRange;
+    private final RelativeRankCountTemplate getByValueRelativeRankRangeCount;
+    private final PositionTemplate getByIndexRange;
+    private final PositionCountTemplate getByIndexRangeCount;
+    private final PositionTemplate getByRank;
+    private final PositionTemplate getByRankRange;
+    private final PositionCountTemplate getByRankRangeCount;
+    private final ValueTemplate getByKey;
+    private final ValueRangeTemplate getByKeyRange;
+    private final ValueRangeTemplate removeByKeyRange;
+    private final ValueTemplate removeByKey;
+    private final ValueTemplate removeByValue;
+    private final ValueListTemplate removeByValueList;
+    private final ValueRangeTemplate removeByValueRange;
+    private final RelativeRankTemplate removeByValueRelativeRankRange;
+    private final RelativeRankCountTemplate removeByValueRelativeRankRangeCount;
+    private final PositionTemplate removeByIndex;
+    private final PositionTemplate removeByIndexRange;
+    private final PositionCountTemplate removeByIndexRangeCount;
+    private final PositionTemplate removeByRank;
+    private final PositionTemplate removeByRankRange;
+    private final PositionCountTemplate removeByRankRangeCount;
 
     public VirtualListInteractors(String binName, AerospikeEmbed.EmbedType listType, ClassCacheEntry<?> elementEntry,
                                   Function<Object, Object> instanceMapper, IBaseAeroMapper mapper) {
+        this(binName, listType, elementEntry, instanceMapper, true, mapper);
+    }
+
+    /**
+     * @param loadsReferences - whether converting an element may load other records. If so, range results are
+     *                        converted as soon as they are read, so the references of all the elements are loaded
+     *                        together in one batch by the caller. Otherwise elements are converted when accessed.
+     */
+    public VirtualListInteractors(String binName, AerospikeEmbed.EmbedType listType, ClassCacheEntry<?> elementEntry,
+                                  Function<Object, Object> instanceMapper, boolean loadsReferences,
+                                  IBaseAeroMapper mapper) {
         this.binName = binName;
         this.listType = listType;
         this.elementEntry = elementEntry;
         this.instanceMapper = instanceMapper;
         this.mapper = mapper;
-    }
+        // A subclass of the element class may still hold references, so resolve any left by a lazily converted element
+        this.dependencyResolver = () -> mapper.getMappingConverter().resolveDependencies(elementEntry);
+
+        boolean isList = listType == AerospikeEmbed.EmbedType.LIST;
+        ReturnType[] allReturnTypes = ReturnType.values();
+        this.returnTypes = new int[allReturnTypes.length];
+        this.unpackers = new ResultsUnpacker[allReturnTypes.length][];
+        ResultsUnpacker[] elementUnpackers = {loadsReferences ? new ResultsUnpacker.EagerArrayUnpacker(instanceMapper)
+                : new ResultsUnpacker.ArrayUnpacker(instanceMapper, dependencyResolver)};
+        ResultsUnpacker[] noUnpackers = new ResultsUnpacker[0];
+        for (ReturnType returnType : allReturnTypes) {
+            returnTypes[returnType.ordinal()] = isList ? TypeUtils.returnTypeToListReturnType(returnType)
+                    : TypeUtils.returnTypeToMapReturnType(returnType);
+            unpackers[returnType.ordinal()] = returnType == ReturnType.DEFAULT || returnType == ReturnType.ELEMENTS
+                    ? elementUnpackers : noUnpackers;
+        }
 
-    public Interactor getGetByValueInteractor(Object value) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
+        if (isList) {
+            byIndexUnpackers = new ResultsUnpacker[]{new ResultsUnpacker.ElementUnpacker(instanceMapper)};
+            sizeOperation = ListOperation.size(binName);
+            clearOperation = ListOperation.clear(binName);
+            getByValue = (value, rt) -> ListOperation.getByValue(binName, value, rt);
+            getByValueRange = (start, end, rt) -> ListOperation.getByValueRange(binName, start, end, rt);
+            getByValueList = (values, rt) -> ListOperation.getByValueList(binName, values, rt);
+            getByValueRelativeRankRange = (value, rank, rt) -> ListOperation.getByValueRelativeRankRange(binName, value, rank, rt);
+            getByValueRelativeRankRangeCount = (value, rank, count, rt) -> ListOperation.getByValueRelativeRankRange(binName, value, rank, count, rt);
+            getByIndexRange = (index, rt) -> ListOperation.getByIndexRange(binName, index, rt);
+            getByIndexRangeCount = (index, count, rt) -> ListOperation.getByIndexRange(binName, index, count, rt);
+            getByRank = (rank, rt) -> ListOperation.getByRank(binName, rank, rt);
+            getByRankRange = (rank, rt) -> ListOperation.getByRankRange(binName, rank, rt);
+            getByRankRangeCount = (rank, count, rt) -> ListOperation.getByRankRange(binName, rank, count, rt);
+            // A list has no keys, so operations on keys are done on the values
+            getByKey = getByValue;
+            getByKeyRange = getByValueRange;
+            removeByKeyRange = (start, end, rt) -> ListOperation.removeByValueRange(binName, start, end, rt);
+            removeByKey = (value, rt) -> ListOperation.removeByValue(binName, value, rt);
+            removeByValue = removeByKey;
+            removeByValueList = (values, rt) -> ListOperation.removeByValueList(binName, values, rt);
+            removeByValueRange = removeByKeyRange;
+            removeByValueRelativeRankRange = (value, rank, rt) -> ListOperation.removeByValueRelativeRankRange(binName, value, rank, rt);
+            removeByValueRelativeRankRangeCount = (value, rank, count, rt) -> ListOperation.removeByValueRelativeRankRange(binName, value, rank, count, rt);
+            removeByIndex = (index, rt) -> ListOperation.removeByIndex(binName, index, rt);
+            removeByIndexRange = (index, rt) -> ListOperation.removeByIndexRange(binName, index, rt);
+            removeByIndexRangeCount = (index, count, rt) -> ListOperation.removeByIndexRange(binName, index, count, rt);
+            removeByRank = (rank, rt) -> ListOperation.removeByRank(binName, rank, rt);
+            removeByRankRange = (rank, rt) -> ListOperation.removeByRankRange(binName, rank, rt);
+            removeByRankRangeCount = (rank, count, rt) -> ListOperation.removeByRankRange(binName, rank, count, rt);
+        } else {
+            byIndexUnpackers = new ResultsUnpacker[]{ResultsUnpacker.ListUnpacker.instance,
+                    new ResultsUnpacker.ElementUnpacker(instanceMapper)};
+            sizeOperation = MapOperation.size(binName);
+            clearOperation = MapOperation.clear(binName);
+            getByValue = (value, rt) -> MapOperation.getByValue(binName, value, rt);
+            getByValueRange = (start, end, rt) -> MapOperation.getByValueRange(binName, start, end, rt);
+            getByValueList = (values, rt) -> MapOperation.getByValueList(binName, values, rt);
+            getByValueRelativeRankRange = (value, rank, rt) -> MapOperation.getByValueRelativeRankRange(binName, value, rank, rt);
+            getByValueRelativeRankRangeCount = (value, rank, count, rt) -> MapOperation.getByValueRelativeRankRange(binName, value, rank, count, rt);
+            getByIndexRange = (index, rt) -> MapOperation.getByIndexRange(binName, index, rt);
+            getByIndexRangeCount = (index, count, rt) -> MapOperation.getByIndexRange(binName, index, count, rt);
+            getByRank = (rank, rt) -> MapOperation.getByRank(binName, rank, rt);
+            getByRankRange = (rank, rt) -> MapOperation.getByRankRange(binName, rank, rt);
+            getByRankRangeCount = (rank, count, rt) -> MapOperation.getByRankRange(binName, rank, count, rt);
+            getByKey = (key, rt) -> MapOperation.getByKey(binName, key, rt);
+            getByKeyRange = (start, end, rt) -> MapOperation.getByKeyRange(binName, start, end, rt);
+            removeByKeyRange = (start, end, rt) -> MapOperation.removeByKeyRange(binName, start, end, rt);
+            removeByKey = (key, rt) -> MapOperation.removeByKey(binName, key, rt);
+            removeByValue = (value, rt) -> MapOperation.removeByValue(binName, value, rt);
+            removeByValueList = (values, rt) -> MapOperation.removeByValueList(binName, values, rt);
+            removeByValueRange = (start, end, rt) -> MapOperation.removeByValueRange(binName, start, end, rt);
+            removeByValueRelativeRankRange = (value, rank, rt) -> MapOperation.removeByValueRelativeRankRange(binName, value, rank, rt);
+            removeByValueRelativeRankRangeCount = (value, rank, count, rt) -> MapOperation.removeByValueRelativeRankRange(binName, value, rank, count, rt);
+            removeByIndex = (index, rt) -> MapOperation.removeByIndex(binName, index, rt);
+            removeByIndexRange = (index, rt) -> MapOperation.removeByIndexRange(binName, index, rt);
+            removeByIndexRangeCount = (index, count, rt) -> MapOperation.removeByIndexRange(binName, index, count, rt);
+            removeByRank = (rank, rt) -> MapOperation.removeByRank(binName, rank, rt);
+            removeByRankRange = (rank, rt) -> MapOperation.removeByRankRange(binName, rank, rt);
+            removeByRankRangeCount = (rank, count, rt) -> MapOperation.removeByRankRange(binName, rank, count, rt);
+        }
+    }
 
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByValue(binName, getValue(value, false),
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByValue(binName, getValue(value, false),
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
+    private Interactor get(IntFunction<Operation> operation) {
+        return new Interactor(new BoundOperation(operation, true));
+    }
 
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+    private Interactor modify(IntFunction<Operation> operation) {
+        return new Interactor(new BoundOperation(operation, false));
     }
 
-    public Interactor getGetByValueRangeInteractor(Object startValue, Object endValue) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
+    private List<Value> getValues(List<Object> values) {
+        List<Value> aerospikeValues = new ArrayList<>(values.size());
+        for (Object value : values) {
+            aerospikeValues.add(getValue(value, false));
+        }
+        return aerospikeValues;
+    }
 
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByValueRange(binName, getValue(startValue, false), getValue(endValue, false),
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByValueRange(binName, getValue(startValue, false), getValue(endValue, false),
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
+    public Interactor getGetByValueInteractor(Object value) {
+        Value aerospikeValue = getValue(value, false);
+        return get(rt -> getByValue.bind(aerospikeValue, rt));
+    }
 
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+    public Interactor getGetByValueRangeInteractor(Object startValue, Object endValue) {
+        Value start = getValue(startValue, false);
+        Value end = getValue(endValue, false);
+        return get(rt -> getByValueRange.bind(start, end, rt));
     }
 
     public Interactor getGetByValueListInteractor(List<Object> values) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                List<Value> aerospikeValues = values.stream()
-                        .map(x -> getValue(x, false))
-                        .collect(Collectors.toList());
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByValueList(binName, aerospikeValues,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByValueList(binName, aerospikeValues,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        List<Value> aerospikeValues = getValues(values);
+        return get(rt -> getByValueList.bind(aerospikeValues, rt));
     }
 
     public Interactor getGetByValueRelativeRankRangeInteractor(Object value, int rank) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByValueRelativeRankRange(binName, getValue(value, false), rank,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByValueRelativeRankRange(binName, getValue(value, false), rank,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        Value aerospikeValue = getValue(value, false);
+        return get(rt -> getByValueRelativeRankRange.bind(aerospikeValue, rank, rt));
     }
 
     public Interactor getGetByValueRelativeRankRangeInteractor(Object value, int rank, int count) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByValueRelativeRankRange(binName, getValue(value, false), rank, count,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByValueRelativeRankRange(binName, getValue(value, false), rank, count,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        Value aerospikeValue = getValue(value, false);
+        return get(rt -> getByValueRelativeRankRangeCount.bind(aerospikeValue, rank, count, rt));
     }
 
     public Interactor getGetByIndexRangeInteractor(int index) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByIndexRange(binName, index,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByIndexRange(binName, index,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        return get(rt -> getByIndexRange.bind(index, rt));
     }
 
     public Interactor getGetByIndexRangeInteractor(int index, int count) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByIndexRange(binName, index, count,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByIndexRange(binName, index, count,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        return get(rt -> getByIndexRangeCount.bind(index, count, rt));
     }
 
     public Interactor getGetByRankInteractor(int index) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByRank(binName, index,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByRank(binName, index,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        return get(rt -> getByRank.bind(index, rt));
     }
 
     public Interactor getGetByRankRangeInteractor(int index) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByRankRange(binName, index,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByRankRange(binName, index,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        return get(rt -> getByRankRange.bind(index, rt));
     }
 
     public Interactor getGetByRankRangeInteractor(int index, int count) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByRankRange(binName, index, count,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByRankRange(binName, index, count,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        return get(rt -> getByRankRangeCount.bind(index, count, rt));
     }
 
     public Interactor getGetByKeyInteractor(Object key) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByValue(binName, getValue(key, true),
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByKey(binName, getValue(key, true),
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        Value aerospikeKey = getValue(key, true);
+        return get(rt -> getByKey.bind(aerospikeKey, rt));
     }
 
     public Interactor getGetByKeyRangeInteractor(Object startKey, Object endKey) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.getByValueRange(binName, getValue(startKey, true), getValue(endKey, true),
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.getByKeyRange(binName, getValue(startKey, true), getValue(endKey, true),
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return true;
-            }
-        };
-        return new Interactor(deferred);
+        Value start = getValue(startKey, true);
+        Value end = getValue(endKey, true);
+        return get(rt -> getByKeyRange.bind(start, end, rt));
     }
 
     public Interactor getRemoveKeyRangeInteractor(Object startKey, Object endKey) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByValueRange(binName, getValue(startKey, true), getValue(endKey, true),
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByKeyRange(binName, getValue(startKey, true), getValue(endKey, true),
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        Value start = getValue(startKey, true);
+        Value end = getValue(endKey, true);
+        return modify(rt -> removeByKeyRange.bind(start, end, rt));
     }
 
     public Interactor getRemoveKeyInteractor(Object key) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByValue(binName, getValue(key, true),
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByKey(binName, getValue(key, true),
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        Value aerospikeKey = getValue(key, true);
+        return modify(rt -> removeByKey.bind(aerospikeKey, rt));
     }
 
     public Interactor getRemoveByValueInteractor(Object value) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByValue(binName, getValue(value, false),
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByValue(binName, getValue(value, false),
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        Value aerospikeValue = getValue(value, false);
+        return modify(rt -> removeByValue.bind(aerospikeValue, rt));
     }
 
     public Interactor getRemoveByValueListInteractor(List<Object> values) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                List<Value> aerospikeValues = values.stream()
-                        .map(x -> getValue(x, false))
-                        .collect(Collectors.toList());
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByValueList(binName, aerospikeValues,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByValueList(binName, aerospikeValues,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        List<Value> aerospikeValues = getValues(values);
+        return modify(rt -> removeByValueList.bind(aerospikeValues, rt));
     }
 
     public Interactor getRemoveByValueRangeInteractor(Object startValue, Object endValue) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByValueRange(binName, getValue(startValue, false), getValue(endValue, false),
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByValueRange(binName, getValue(startValue, false), getValue(endValue, false),
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        Value start = getValue(startValue, false);
+        Value end = getValue(endValue, false);
+        return modify(rt -> removeByValueRange.bind(start, end, rt));
     }
 
     public Interactor getRemoveByValueRelativeRankRangeInteractor(Object value, int rank) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByValueRelativeRankRange(binName, getValue(value, false), rank,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByValueRelativeRankRange(binName, getValue(value, false), rank,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        Value aerospikeValue = getValue(value, false);
+        return modify(rt -> removeByValueRelativeRankRange.bind(aerospikeValue, rank, rt));
     }
 
     public Interactor getRemoveByValueRelativeRankRangeInteractor(Object value, int rank, int count) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByValueRelativeRankRange(binName, getValue(value, false), rank, count,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByValueRelativeRankRange(binName, getValue(value, false), rank, count,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        Value aerospikeValue = getValue(value, false);
+        return modify(rt -> removeByValueRelativeRankRangeCount.bind(aerospikeValue, rank, count, rt));
     }
 
     public Interactor getRemoveByIndexInteractor(int index) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByIndex(binName, index,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByIndex(binName, index,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        return modify(rt -> removeByIndex.bind(index, rt));
     }
 
     public Interactor getRemoveByIndexRangeInteractor(int index) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByIndexRange(binName, index,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByIndexRange(binName, index,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        return modify(rt -> removeByIndexRange.bind(index, rt));
     }
 
     public Interactor getRemoveByIndexRangeInteractor(int index, int count) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByIndexRange(binName, index, count,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByIndexRange(binName, index, count,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        return modify(rt -> removeByIndexRangeCount.bind(index, count, rt));
     }
 
     public Interactor getRemoveByRankInteractor(int rank) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByRank(binName, rank,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByRank(binName, rank,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        return modify(rt -> removeByRank.bind(rank, rt));
     }
 
     public Interactor getRemoveByRankRangeInteractor(int rank) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByRankRange(binName, rank,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByRankRange(binName, rank,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        return modify(rt -> removeByRankRange.bind(rank, rt));
     }
 
     public Interactor getRemoveByRankRangeInteractor(int rank, int count) {
-        DeferredOperation deferred = new DeferredOperation() {
-
-            @Override
-            public ResultsUnpacker[] getUnpackers(OperationParameters operationParams) {
-                switch (operationParams.getNeedsResultOfType()) {
-                    case DEFAULT:
-                    case ELEMENTS:
-                        return new ResultsUnpacker[]{new ResultsUnpacker.ArrayUnpacker(instanceMapper)};
-                    default:
-                        return new ResultsUnpacker[0];
-                }
-            }
-
-            @Override
-            public Operation getOperation(OperationParameters operationParams) {
-                if (listType == AerospikeEmbed.EmbedType.LIST) {
-                    return ListOperation.removeByRankRange(binName, rank, count,
-                            TypeUtils.returnTypeToListReturnType(operationParams.getNeedsResultOfType()));
-                } else {
-                    return MapOperation.removeByRankRange(binName, rank, count,
-                            TypeUtils.returnTypeToMapReturnType(operationParams.getNeedsResultOfType()));
-                }
-            }
-
-            @Override
-            public boolean isGetOperation() {
-                return false;
-            }
-        };
-        return new Interactor(deferred);
+        return modify(rt -> removeByRankRangeCount.bind(rank, count, rt));
     }
 
     public Value getValue(Object javaObject, boolean isKey) {
@@ -886,29 +375,74 @@ public class VirtualListInteractors {
         }
     }
 
+    /**
+     * Get the operations which append all the passed items, each already in Aerospike format. The items are split over
+     * several operations if needed so the estimated size of the items in any one operation does not go past
+     * <code>maxBytesPerOperation</code>. An item larger than the budget is put in an operation on its own.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Operation> getAppendItemsOperations(List<Object> aerospikeObjects, long maxBytesPerOperation) {
+        List<Operation> operations = new ArrayList<>();
+        List<Value> values = new ArrayList<>();
+        Map<Value, Value> entries = new LinkedHashMap<>();
+        long bytes = 0;
+        for (Object aerospikeObject : aerospikeObjects) {
+            int itemSize;
+            Value key = null;
+            Value value;
+            if (aerospikeObject instanceof Map.Entry) {
+                Map.Entry<Object, Object> entry = (Map.Entry<Object, Object>) aerospikeObject;
+                key = Value.get(entry.getKey());
+                value = Value.get(entry.getValue());
+                itemSize = key.estimateSize() + value.estimateSize();
+            } else {
+                value = Value.get(aerospikeObject);
+                itemSize = value.estimateSize();
+            }
+            if (bytes > 0 && bytes + itemSize > maxBytesPerOperation) {
+                addAppendItemsOperation(operations, values, entries);
+                bytes = 0;
+            }
+            if (key != null) {
+                entries.put(key, value);
+            } else {
+                values.add(value);
+            }
+            bytes += itemSize;
+        }
+        addAppendItemsOperation(operations, values, entries);
+        return operations;
+    }
+
+    private void addAppendItemsOperation(List<Operation> operations, List<Value> values, Map<Value, Value> entries) {
+        if (!values.isEmpty()) {
+            operations.add(ListOperation.appendItems(binName, new ArrayList<>(values)));
+            values.clear();
+        }
+        if (!entries.isEmpty()) {
+            operations.add(MapOperation.putItems(new MapPolicy(MapOrder.KEY_ORDERED, 0), binName,
+                    new LinkedHashMap<>(entries)));
+            entries.clear();
+        }
+    }
+
+    public boolean isMapBacked() {
+        return listType == AerospikeEmbed.EmbedType.MAP;
+    }
+
     public Interactor getByIndexInteractor(int index) {
         if (listType == AerospikeEmbed.EmbedType.LIST) {
-            return new Interactor(ListOperation.getByIndex(binName, index, ListReturnType.VALUE),
-                    new ResultsUnpacker.ElementUnpacker(instanceMapper));
+            return new Interactor(ListOperation.getByIndex(binName, index, ListReturnType.VALUE), byIndexUnpackers);
         } else {
-            return new Interactor(MapOperation.getByIndex(binName, index, MapReturnType.KEY_VALUE),
-                    ResultsUnpacker.ListUnpacker.instance, new ResultsUnpacker.ElementUnpacker(instanceMapper));
+            return new Interactor(MapOperation.getByIndex(binName, index, MapReturnType.KEY_VALUE), byIndexUnpackers);
         }
     }
 
     public Interactor getSizeInteractor() {
-        if (listType == AerospikeEmbed.EmbedType.LIST) {
-            return new Interactor(ListOperation.size(binName));
-        } else {
-            return new Interactor(MapOperation.size(binName));
-        }
+        return new Interactor(sizeOperation);
     }
 
     public Interactor getClearInteractor() {
-        if (listType == AerospikeEmbed.EmbedType.LIST) {
-            return new Interactor(ListOperation.clear(binName));
-        } else {
-            return new Interactor(MapOperation.clear(binName));
-        }
+        return new Interactor(clearOperation);
     }
 }
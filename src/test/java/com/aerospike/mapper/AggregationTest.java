@@ -0,0 +1,123 @@
+package com.aerospike.mapper;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.mapper.annotations.AerospikeBin;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.aggregation.Aggregations;
+import com.aerospike.mapper.tools.query.Criteria;
+
+public class AggregationTest extends AeroMapperBaseTest {
+    @AerospikeRecord(namespace = "test", set = "aggregate")
+    public static class Order {
+        @AerospikeKey
+        public int id;
+        @AerospikeBin(name = "tnt")
+        public String tenant;
+        public long quantity;
+        public double amount;
+        public String notes;
+
+        public Order() {
+        }
+
+        public Order(int id, String tenant, long quantity, double amount, String notes) {
+            this.id = id;
+            this.tenant = tenant;
+            this.quantity = quantity;
+            this.amount = amount;
+            this.notes = notes;
+        }
+    }
+
+    private AeroMapper populate() {
+        client.truncate(null, "test", "aggregate", null);
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        for (int i = 1; i <= 100; i++) {
+            mapper.save(new Order(i, "tenant" + (i % 3), i, i * 1.5, "order " + i));
+        }
+        return mapper;
+    }
+
+    @Test
+    public void testCountAndSum() {
+        AeroMapper mapper = populate();
+        Long count = mapper.aggregate(Order.class, Aggregations.count());
+        assertEquals(100L, (long) count);
+
+        Number quantity = mapper.aggregate(Order.class, Aggregations.sum("quantity"));
+        assertEquals(5050L, quantity);
+
+        Number amount = mapper.aggregate(Order.class, Aggregations.sum("amount"));
+        assertEquals(7575.0, amount.doubleValue(), 0.0001);
+    }
+
+    @Test
+    public void testMinAndMax() {
+        AeroMapper mapper = populate();
+        Long min = mapper.aggregate(Order.class, Aggregations.min("quantity"));
+        Long max = mapper.aggregate(Order.class, Aggregations.max("quantity"));
+        assertEquals(1L, (long) min);
+        assertEquals(100L, (long) max);
+
+        Long none = mapper.aggregate(null, Order.class, Criteria.where("quantity").gt(1000L), Aggregations.max("quantity"));
+        assertNull(none);
+    }
+
+    @Test
+    public void testGroupBy() {
+        AeroMapper mapper = populate();
+        Map<String, Long> counts = mapper.aggregate(Order.class, Aggregations.groupBy("tenant", Aggregations.count()));
+        assertEquals(3, counts.size());
+        assertEquals(33L, (long) counts.get("tenant0"));
+        assertEquals(34L, (long) counts.get("tenant1"));
+        assertEquals(33L, (long) counts.get("tenant2"));
+
+        Map<String, Number> sums = mapper.aggregate(Order.class, Aggregations.groupBy("tenant", Aggregations.sum("quantity")));
+        long total = sums.values().stream().mapToLong(Number::longValue).sum();
+        assertEquals(5050L, total);
+    }
+
+    @Test
+    public void testTopNOnlyReadsReferencedFields() {
+        AeroMapper mapper = populate();
+        List<Order> top = mapper.aggregate(null, Order.class, null, Aggregations.topN("quantity", 3, "id"), 7);
+        assertEquals(Arrays.asList(100, 99, 98), top.stream().map(o -> o.id).collect(toList()));
+        for (Order order : top) {
+            assertNull(order.notes);
+            assertNull(order.tenant);
+        }
+
+        List<Order> bottom = mapper.aggregate(Order.class, Aggregations.bottomN("amount", 2, "id"));
+        assertEquals(Arrays.asList(1, 2), bottom.stream().map(o -> o.id).collect(toList()));
+    }
+
+    @Test
+    public void testCustomCollectorWithCriteria() {
+        AeroMapper mapper = populate();
+        Criteria criteria = Criteria.where("tenant").eq("tenant1");
+        List<Integer> ids = mapper.aggregate(null, Order.class, criteria,
+                Aggregations.of(Collectors.mapping((Order o) -> o.id, Collectors.toList()), "id"));
+        assertEquals(34, ids.size());
+        ids.forEach(id -> assertEquals(1, id % 3));
+    }
+
+    @Test
+    public void testUnknownField() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        assertThrows(AerospikeException.class, () -> mapper.aggregate(Order.class, Aggregations.sum("missing")));
+    }
+}
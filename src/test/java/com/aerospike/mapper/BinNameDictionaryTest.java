@@ -0,0 +1,176 @@
+package com.aerospike.mapper;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.mapper.annotations.AerospikeBin;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.configuration.BinNameDictionary;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests storing bins under short names from a bin name dictionary. It uses the in-memory client, so does not need a
+ * server.
+ */
+public class BinNameDictionaryTest {
+
+    @AerospikeRecord(namespace = "test", set = "compactCustomer", compactBinNames = true)
+    public static class Customer {
+        @AerospikeKey
+        public int id;
+        public String firstName;
+        public String lastName;
+        @AerospikeBin(name = "dob")
+        public long dateOfBirth;
+    }
+
+    @AerospikeRecord(compactBinNames = true)
+    public static class VipCustomer extends Customer {
+        public int loyaltyLevel;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "plainCustomer")
+    public static class PlainCustomer {
+        @AerospikeKey
+        public int id;
+        public String firstName;
+    }
+
+    @TempDir
+    File tempDir;
+
+    private IAerospikeClient client;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        client = new InMemoryAerospike().getClient();
+    }
+
+    private static VipCustomer createCustomer() {
+        VipCustomer customer = new VipCustomer();
+        customer.id = 1;
+        customer.firstName = "Tim";
+        customer.lastName = "Smith";
+        customer.dateOfBirth = 1234;
+        customer.loyaltyLevel = 3;
+        return customer;
+    }
+
+    private static void checkCustomer(VipCustomer vip) {
+        assertEquals("Tim", vip.firstName);
+        assertEquals("Smith", vip.lastName);
+        assertEquals(1234, vip.dateOfBirth);
+        assertEquals(3, vip.loyaltyLevel);
+    }
+
+    @Test
+    public void testBinsStoredUnderShortNames() {
+        BinNameDictionary dictionary = BinNameDictionary.inRecord(client, new Key("test", "meta", "binNames"));
+        AeroMapper mapper = new AeroMapper.Builder(client).withBinNameDictionary(dictionary).build();
+        mapper.save(createCustomer());
+
+        Record record = client.get(null, new Key("test", "compactCustomer", 1));
+        assertEquals(5, record.bins.size());
+        for (String binName : record.bins.keySet()) {
+            assertTrue(binName.length() == 1 && Character.isDigit(binName.charAt(0)), binName);
+        }
+        checkCustomer(mapper.read(VipCustomer.class, 1));
+
+        // Field names map to the stored names for queries
+        ClassCacheEntry<VipCustomer> entry = ClassCache.getInstance().loadClass(VipCustomer.class, mapper);
+        String stored = dictionary.getClasses().get(Customer.class.getName()).get("firstName");
+        assertEquals(stored, entry.getBinNameForField("firstName"));
+        assertEquals("Tim", record.getString(stored));
+        assertEquals(dictionary.getClasses().get(Customer.class.getName()).get("dob"), entry.getBinNameForField("dateOfBirth"));
+
+        // Classes which do not opt in keep their bin names
+        mapper.save(new PlainCustomer());
+        assertTrue(client.get(null, new Key("test", "plainCustomer", 0)).bins.containsKey("id"));
+    }
+
+    @Test
+    public void testDictionaryPersistedInFile() {
+        File file = new File(tempDir, "binNames.yml");
+        AeroMapper mapper = new AeroMapper.Builder(client).withBinNameDictionary(BinNameDictionary.inFile(file)).build();
+        mapper.save(createCustomer());
+        assertTrue(file.exists());
+
+        // A new run reads the names back from the file
+        ClassCache.getInstance().clear();
+        BinNameDictionary dictionary = BinNameDictionary.inFile(file);
+        assertEquals(2, dictionary.getVersion());
+        mapper = new AeroMapper.Builder(client).withBinNameDictionary(dictionary).build();
+        checkCustomer(mapper.read(VipCustomer.class, 1));
+        assertEquals(2, dictionary.getVersion());
+    }
+
+    @Test
+    public void testNamesAreOnlyAdded() {
+        BinNameDictionary dictionary = BinNameDictionary.inFile(new File(tempDir, "names.yml"));
+        Map<String, String> first = dictionary.getStoredNames("Order", Arrays.asList("total", "status"));
+        assertEquals(1, dictionary.getVersion());
+
+        Map<String, String> second = dictionary.getStoredNames("Order", Arrays.asList("total", "status", "currency"));
+        assertEquals(first.get("total"), second.get("total"));
+        assertEquals(first.get("status"), second.get("status"));
+        assertEquals(3, new HashSet<>(second.values()).size());
+        assertEquals(2, dictionary.getVersion());
+
+        // Asking for names which already exist does not change the dictionary
+        dictionary.getStoredNames("Order", Arrays.asList("status"));
+        assertEquals(2, dictionary.getVersion());
+
+        List<String> manyBins = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            manyBins.add("bin" + i);
+        }
+        Set<String> names = new HashSet<>(dictionary.getStoredNames("Wide", manyBins).values());
+        assertEquals(1000, names.size());
+        for (String name : names) {
+            assertTrue(name.length() <= 3, name);
+        }
+    }
+
+    @Test
+    public void testConcurrentDictionariesDoNotClash() {
+        Key key = new Key("test", "meta", "shared");
+        BinNameDictionary first = BinNameDictionary.inRecord(client, key);
+        BinNameDictionary second = BinNameDictionary.inRecord(client, key);
+        assertEquals(0, second.getVersion());
+
+        Map<String, String> firstNames = first.getStoredNames("A", Arrays.asList("x", "y"));
+        // The second dictionary is out of date, so must load the first one's names before adding its own
+        Map<String, String> secondNames = second.getStoredNames("B", Arrays.asList("x", "y"));
+        assertEquals(2, second.getVersion());
+        for (String name : secondNames.values()) {
+            assertFalse(firstNames.containsValue(name), name);
+        }
+        assertEquals(firstNames, second.getClasses().get("A"));
+    }
+
+    @Test
+    public void testDictionaryRequired() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        AerospikeException ae = assertThrows(AerospikeException.class, () -> mapper.save(createCustomer()));
+        assertTrue(ae.getMessage().contains("bin name dictionary"), ae.getMessage());
+    }
+}
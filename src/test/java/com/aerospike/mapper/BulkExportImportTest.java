@@ -0,0 +1,238 @@
+package com.aerospike.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.BatchRecord;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.mapper.annotations.AerospikeEmbed;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.annotations.AerospikeReference;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.bulk.BulkExporter;
+import com.aerospike.mapper.tools.bulk.BulkFormat;
+import com.aerospike.mapper.tools.bulk.BulkImporter;
+import com.aerospike.mapper.tools.bulk.BulkResult;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+
+/**
+ * Tests exporting and importing records. It uses the in-memory client, so does not need a server.
+ */
+public class BulkExportImportTest {
+    public enum Status {
+        ACTIVE,
+        CLOSED
+    }
+
+    @AerospikeRecord
+    public static class Address {
+        public String street;
+        public String city;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "bulk")
+    public static class Customer {
+        @AerospikeKey
+        public int id;
+        public String name;
+        public byte[] avatar;
+        public List<String> tags;
+        public double balance;
+        public Status status;
+        @AerospikeEmbed
+        public Address address;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "bulkOrder")
+    public static class Order {
+        @AerospikeKey
+        public int id;
+        @AerospikeReference
+        public Customer customer;
+        @AerospikeReference(lazy = true)
+        public Customer referrer;
+    }
+
+    @TempDir
+    File directory;
+
+    @BeforeEach
+    public void clearCache() {
+        ClassCache.getInstance().clear();
+    }
+
+    private AeroMapper populate(InMemoryAerospike store, int count) {
+        AeroMapper mapper = new AeroMapper.Builder(store.getClient()).build();
+        for (int i = 0; i < count; i++) {
+            Customer customer = new Customer();
+            customer.id = i;
+            customer.name = "Customer \"" + i + "\"\né";
+            customer.avatar = new byte[] {(byte) i, 0, (byte) 255};
+            customer.tags = new ArrayList<>(Arrays.asList("tag" + i, "common"));
+            customer.balance = i * 1.25;
+            customer.status = i % 2 == 0 ? Status.ACTIVE : Status.CLOSED;
+            customer.address = new Address();
+            customer.address.street = i + " Main St";
+            customer.address.city = "Denver";
+            mapper.save(customer);
+        }
+        return mapper;
+    }
+
+    private void exportAndImport(BulkFormat format) {
+        InMemoryAerospike source = new InMemoryAerospike();
+        AeroMapper sourceMapper = populate(source, 50);
+        BulkResult exported = new BulkExporter(sourceMapper)
+                .withFormat(format)
+                .withParallelism(4)
+                .export(Customer.class, directory);
+        assertEquals(50, exported.getRecordCount());
+        assertEquals(4, exported.getFiles().size());
+
+        InMemoryAerospike target = new InMemoryAerospike();
+        AeroMapper targetMapper = new AeroMapper.Builder(target.getClient()).build();
+        BulkResult imported = new BulkImporter(targetMapper)
+                .withBatchSize(7)
+                .withMaxInFlight(2)
+                .withParallelism(2)
+                .importDirectory(Customer.class, directory);
+        assertEquals(50, imported.getRecordCount());
+        assertEquals(0, imported.getFailedCount());
+        assertNull(imported.getFirstError());
+        assertEquals(source.getRecordCount("test"), target.getRecordCount("test"));
+
+        for (int i = 0; i < 50; i++) {
+            Customer original = sourceMapper.read(Customer.class, i);
+            Customer copy = targetMapper.read(Customer.class, i);
+            assertNotNull(copy);
+            assertEquals(original.name, copy.name);
+            assertArrayEquals(original.avatar, copy.avatar);
+            assertEquals(original.tags, copy.tags);
+            assertEquals(original.balance, copy.balance, 0.0);
+            assertEquals(original.status, copy.status);
+            assertEquals(original.address.street, copy.address.street);
+            assertEquals(original.address.city, copy.address.city);
+        }
+    }
+
+    @Test
+    public void testReferencesAreKept() {
+        InMemoryAerospike source = new InMemoryAerospike();
+        AeroMapper sourceMapper = populate(source, 5);
+        for (int i = 0; i < 5; i++) {
+            Order order = new Order();
+            order.id = i;
+            order.customer = sourceMapper.read(Customer.class, i);
+            order.referrer = sourceMapper.read(Customer.class, (i + 1) % 5);
+            sourceMapper.save(order);
+        }
+        source.resetCommandCounts();
+        BulkResult exported = new BulkExporter(sourceMapper).withParallelism(2).export(Order.class, directory);
+        assertEquals(5, exported.getRecordCount());
+        // The references are exported as keys, without reading the customers
+        assertEquals(0, source.getCommandCount("get") + source.getCommandCount("batchGet"));
+
+        InMemoryAerospike target = new InMemoryAerospike();
+        AeroMapper targetMapper = populate(target, 5);
+        BulkResult imported = new BulkImporter(targetMapper).importDirectory(Order.class, directory);
+        assertEquals(5, imported.getRecordCount());
+        assertNull(imported.getFirstError());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, target.getClient().get(null, new Key("test", "bulkOrder", i)).getInt("customer"));
+            Order copy = targetMapper.read(Order.class, i);
+            assertEquals(i, copy.customer.id);
+            assertEquals("Customer \"" + i + "\"\né", copy.customer.name);
+            assertEquals((i + 1) % 5, copy.referrer.id);
+        }
+    }
+
+    @Test
+    public void testNdjsonRoundTrip() {
+        exportAndImport(BulkFormat.NDJSON);
+    }
+
+    @Test
+    public void testBinaryRoundTrip() {
+        exportAndImport(BulkFormat.BINARY);
+    }
+
+    @Test
+    public void testEmptySet() {
+        AeroMapper mapper = populate(new InMemoryAerospike(), 0);
+        BulkResult exported = new BulkExporter(mapper).withParallelism(2).export(Customer.class, directory);
+        assertEquals(0, exported.getRecordCount());
+        assertEquals(2, exported.getFiles().size());
+
+        BulkResult imported = new BulkImporter(mapper).importDirectory(Customer.class, directory);
+        assertEquals(0, imported.getRecordCount());
+    }
+
+    @Test
+    public void testEarlierExportIsReplaced() throws Exception {
+        AeroMapper sourceMapper = populate(new InMemoryAerospike(), 20);
+        new BulkExporter(sourceMapper).withFormat(BulkFormat.BINARY).withParallelism(8).export(Customer.class, directory);
+        File unrelated = new File(directory, "notes.ndjson");
+        assertTrue(unrelated.createNewFile());
+
+        BulkResult exported = new BulkExporter(sourceMapper).withParallelism(2).export(Customer.class, directory);
+        assertEquals(2, exported.getFiles().size());
+        // The files of the first export are gone, but files which are not exports are left alone
+        assertEquals(3, directory.listFiles().length);
+        assertTrue(unrelated.exists());
+
+        AeroMapper targetMapper = new AeroMapper.Builder(new InMemoryAerospike().getClient()).build();
+        BulkResult imported = new BulkImporter(targetMapper).importDirectory(Customer.class, directory);
+        assertEquals(2, imported.getFiles().size());
+        assertEquals(20, imported.getRecordCount());
+    }
+
+    @Test
+    public void testFailedBatchCountsRecordsWritten() {
+        AeroMapper sourceMapper = populate(new InMemoryAerospike(), 10);
+        new BulkExporter(sourceMapper).withParallelism(1).export(Customer.class, directory);
+
+        // Write the first half of each batch, then fail the batch
+        InMemoryAerospike target = new InMemoryAerospike();
+        IAerospikeClient delegate = target.getClient();
+        IAerospikeClient client = (IAerospikeClient) Proxy.newProxyInstance(IAerospikeClient.class.getClassLoader(),
+                new Class<?>[] {IAerospikeClient.class}, (proxy, method, args) -> {
+                    if (!"operate".equals(method.getName()) || !(args[1] instanceof List)) {
+                        return method.invoke(delegate, args);
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<BatchRecord> batch = (List<BatchRecord>) args[1];
+                    delegate.operate((BatchPolicy) args[0], batch.subList(0, batch.size() / 2));
+                    throw new AerospikeException(ResultCode.TIMEOUT, "Simulated timeout");
+                });
+        AeroMapper targetMapper = new AeroMapper.Builder(client).build();
+        BulkResult imported = new BulkImporter(targetMapper)
+                .withBatchSize(4)
+                .withMaxInFlight(1)
+                .importDirectory(Customer.class, directory);
+        // Batches of 4, 4 and 2 records
+        assertEquals(5, imported.getRecordCount());
+        assertEquals(5, imported.getFailedCount());
+        assertEquals(5, target.getRecordCount("test"));
+        assertNotNull(imported.getFirstError());
+        assertEquals(ResultCode.TIMEOUT, imported.getFirstError().getResultCode());
+    }
+}
@@ -0,0 +1,320 @@
+package com.aerospike.mapper;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.query.IndexType;
+import com.aerospike.mapper.annotations.AerospikeBin;
+import com.aerospike.mapper.annotations.AerospikeEmbed;
+import com.aerospike.mapper.annotations.AerospikeIndex;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.compression.CompressionCodec;
+import com.aerospike.mapper.tools.compression.CompressionCodecs;
+import com.aerospike.mapper.tools.compression.DeflateCodec;
+import com.aerospike.mapper.tools.configuration.ClassConfig;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import com.aerospike.mapper.tools.mappers.CompressedMapper;
+import com.aerospike.mapper.tools.query.Criteria;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests compressing the values of large bins. It uses the in-memory client, so does not need a server.
+ */
+public class CompressionTest {
+
+    @AerospikeRecord(namespace = "test", set = "compressDoc")
+    public static class Document {
+        @AerospikeKey
+        public int id;
+        @AerospikeBin(compress = true)
+        public String body;
+        @AerospikeBin(compress = true, compressThreshold = 100)
+        public List<String> tags = new ArrayList<>();
+        public String title;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "compressNote")
+    public static class Note {
+        @AerospikeKey
+        public int id;
+        public String text;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "compressReversed")
+    public static class Reversed {
+        @AerospikeKey
+        public int id;
+        @AerospikeBin(compress = true, compressThreshold = 10, compressCodec = "reverse")
+        public String text;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "compressUnknown")
+    public static class UnknownCodec {
+        @AerospikeKey
+        public int id;
+        @AerospikeBin(compress = true, compressCodec = "missing")
+        public String text;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "compressKey")
+    public static class CompressedKey {
+        @AerospikeKey
+        @AerospikeBin(compress = true)
+        public String id;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "compressIndexed")
+    public static class CompressedIndex {
+        @AerospikeKey
+        public int id;
+        @AerospikeIndex(type = IndexType.STRING)
+        @AerospikeBin(compress = true)
+        public String text;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "compressList")
+    public static class CompressedList {
+        @AerospikeKey
+        public int id;
+        @AerospikeEmbed(type = AerospikeEmbed.EmbedType.LIST)
+        @AerospikeBin(compress = true)
+        public List<Note> notes = new ArrayList<>();
+    }
+
+    @AerospikeRecord(namespace = "test", set = "compressBlob")
+    public static class Blob {
+        @AerospikeKey
+        public int id;
+        @AerospikeBin(compress = true)
+        public byte[] data;
+    }
+
+    /**
+     * A codec which reverses the output of deflate, to check codecs can be plugged in.
+     */
+    public static class ReverseCodec implements CompressionCodec {
+        private final DeflateCodec deflate = new DeflateCodec();
+
+        @Override
+        public String getName() {
+            return "reverse";
+        }
+
+        @Override
+        public int getId() {
+            return 200;
+        }
+
+        @Override
+        public byte[] compress(byte[] data) {
+            return reverse(deflate.compress(data));
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int length) {
+            return deflate.decompress(reverse(data), length);
+        }
+
+        private static byte[] reverse(byte[] data) {
+            byte[] result = new byte[data.length];
+            for (int i = 0; i < data.length; i++) {
+                result[i] = data[data.length - 1 - i];
+            }
+            return result;
+        }
+    }
+
+    private IAerospikeClient client;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        client = new InMemoryAerospike().getClient();
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(text);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testLargeValuesAreCompressed() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        Document document = new Document();
+        document.id = 1;
+        document.body = repeat("The quick brown fox jumps over the lazy dog. ", 200);
+        document.tags = Arrays.asList(repeat("tag", 50), "short");
+        document.title = repeat("title ", 500);
+        mapper.save(document);
+
+        Record record = client.get(null, new Key("test", "compressDoc", 1));
+        Object body = record.getValue("body");
+        assertTrue(CompressedMapper.isCompressed(body));
+        assertTrue(((byte[]) body).length < document.body.length() / 10);
+        assertTrue(CompressedMapper.isCompressed(record.getValue("tags")));
+        // Bins which are not marked are left alone
+        assertEquals(document.title, record.getString("title"));
+
+        Document read = mapper.read(Document.class, 1);
+        assertEquals(document.body, read.body);
+        assertEquals(document.tags, read.tags);
+        assertEquals(document.title, read.title);
+    }
+
+    @Test
+    public void testSmallValuesAreNotCompressed() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        Document document = new Document();
+        document.id = 2;
+        document.body = "short";
+        document.tags = Arrays.asList("a", "b");
+        mapper.save(document);
+
+        Record record = client.get(null, new Key("test", "compressDoc", 2));
+        assertEquals("short", record.getString("body"));
+        assertEquals(Arrays.asList("a", "b"), record.getList("tags"));
+
+        Document read = mapper.read(Document.class, 2);
+        assertEquals("short", read.body);
+        assertEquals(document.tags, read.tags);
+    }
+
+    @Test
+    public void testUncompressedValuesStillRead() {
+        // Written before the bins were marked for compression
+        String body = repeat("plain ", 1000);
+        client.put(null, new Key("test", "compressDoc", 3), new Bin("id", 3), new Bin("body", body),
+                new Bin("tags", Arrays.asList("x", "y")));
+
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        Document read = mapper.read(Document.class, 3);
+        assertEquals(body, read.body);
+        assertEquals(Arrays.asList("x", "y"), read.tags);
+
+        // Saving it again compresses it
+        mapper.save(read);
+        assertTrue(CompressedMapper.isCompressed(client.get(null, new Key("test", "compressDoc", 3)).getValue("body")));
+    }
+
+    @Test
+    public void testUncompressedBlobWhichLooksCompressed() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        byte[] small = {(byte) 0xC5, 'A', 'M', 'Z', 1, 0, 0, 0, 5, 1, 2, 3, 4, 5};
+        byte[] large = new byte[2000];
+        new Random(1).nextBytes(large);
+        System.arraycopy(small, 0, large, 0, small.length);
+
+        int id = 0;
+        for (byte[] data : new byte[][] {small, large}) {
+            Blob blob = new Blob();
+            blob.id = ++id;
+            blob.data = data;
+            mapper.save(blob);
+            // Neither is compressed, the small one being below the threshold and the large one random, so both are
+            // marked as stored
+            byte[] stored = (byte[]) client.get(null, new Key("test", "compressBlob", id)).getValue("data");
+            assertEquals(0, stored[4]);
+            assertArrayEquals(data, mapper.read(Blob.class, id).data);
+        }
+    }
+
+    @Test
+    public void testCompressionThroughConfiguration() {
+        AeroMapper mapper = new AeroMapper.Builder(client)
+                .withClassConfigurations(new ClassConfig.Builder(Note.class)
+                        .withFieldNamed("text").beingCompressed(50, "deflate")
+                        .build())
+                .build();
+        Note note = new Note();
+        note.id = 1;
+        note.text = repeat("note ", 20);
+        mapper.save(note);
+
+        assertTrue(CompressedMapper.isCompressed(client.get(null, new Key("test", "compressNote", 1)).getValue("text")));
+        assertEquals(note.text, mapper.read(Note.class, 1).text);
+    }
+
+    @Test
+    public void testPluggableCodec() {
+        CompressionCodecs.register(new ReverseCodec());
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        Reversed reversed = new Reversed();
+        reversed.id = 1;
+        reversed.text = repeat("z", 100);
+        mapper.save(reversed);
+
+        byte[] stored = (byte[]) client.get(null, new Key("test", "compressReversed", 1)).getValue("text");
+        assertTrue(CompressedMapper.isCompressed(stored));
+        assertEquals(200, stored[4] & 0xff);
+        assertEquals(reversed.text, mapper.read(Reversed.class, 1).text);
+    }
+
+    @Test
+    public void testUnknownCodec() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        AerospikeException ae = assertThrows(AerospikeException.class,
+                () -> ClassCache.getInstance().loadClass(UnknownCodec.class, mapper));
+        assertTrue(ae.getMessage().contains("missing"), ae.getMessage());
+    }
+
+    @Test
+    public void testKeyCannotBeCompressed() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        AerospikeException ae = assertThrows(AerospikeException.class,
+                () -> ClassCache.getInstance().loadClass(CompressedKey.class, mapper));
+        assertTrue(ae.getMessage().contains("key"), ae.getMessage());
+    }
+
+    @Test
+    public void testIndexedBinCannotBeCompressed() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        AerospikeException ae = assertThrows(AerospikeException.class,
+                () -> ClassCache.getInstance().loadClass(CompressedIndex.class, mapper));
+        assertTrue(ae.getMessage().contains("index"), ae.getMessage());
+
+        AeroMapper configuredMapper = new AeroMapper.Builder(client)
+                .withClassConfigurations(new ClassConfig.Builder(Note.class)
+                        .withFieldNamed("text").beingIndexedAs(IndexType.STRING)
+                        .withFieldNamed("text").beingCompressed()
+                        .build())
+                .build();
+        assertThrows(AerospikeException.class, () -> ClassCache.getInstance().loadClass(Note.class, configuredMapper));
+    }
+
+    @Test
+    public void testCompressedBinCannotBeFiltered() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        AerospikeException ae = assertThrows(AerospikeException.class,
+                () -> mapper.scan(null, Document.class, Criteria.where("body").eq("text")));
+        assertTrue(ae.getMessage().contains("compressed"), ae.getMessage());
+        // Other fields of the class can still be filtered on
+        mapper.scan(null, Document.class, Criteria.where("title").eq("text"));
+    }
+
+    @Test
+    public void testCompressedBinCannotBeVirtualList() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        CompressedList owner = new CompressedList();
+        owner.id = 1;
+        mapper.save(owner);
+        AerospikeException ae = assertThrows(AerospikeException.class,
+                () -> mapper.asBackedList(owner, "notes", Note.class));
+        assertTrue(ae.getMessage().contains("compressed"), ae.getMessage());
+    }
+}
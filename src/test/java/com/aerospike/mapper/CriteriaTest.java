@@ -0,0 +1,141 @@
+package com.aerospike.mapper;
+
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.exp.Exp;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.mapper.annotations.AerospikeBin;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.query.Criteria;
+
+public class CriteriaTest extends AeroMapperBaseTest {
+    public enum Status {
+        ACTIVE,
+        SUSPENDED
+    }
+
+    @AerospikeRecord(namespace = "test", set = "criteria")
+    public static class Customer {
+        @AerospikeKey
+        public int id;
+        @AerospikeBin(name = "nm")
+        public String name;
+        public int age;
+        public Status status;
+        public double balance;
+
+        public Customer() {
+        }
+
+        public Customer(int id, String name, int age, Status status, double balance) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.status = status;
+            this.balance = balance;
+        }
+    }
+
+    private AeroMapper populate() {
+        client.truncate(null, "test", "criteria", null);
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        mapper.save(new Customer(1, "Tim", 52, Status.ACTIVE, 100.0),
+                new Customer(2, "Bob", 24, Status.ACTIVE, 20.5),
+                new Customer(3, "Sue", 37, Status.SUSPENDED, 0.0),
+                new Customer(4, "Rob", 31, Status.ACTIVE, 73.25),
+                new Customer(5, "Jim", 45, Status.SUSPENDED, 12.0),
+                new Customer(6, "Bob", 78, Status.ACTIVE, 1000.0));
+        return mapper;
+    }
+
+    private List<Integer> ids(List<Customer> customers) {
+        return customers.stream().sorted(comparing(c -> c.id)).map(c -> c.id).collect(toList());
+    }
+
+    @Test
+    public void testSimpleCriteria() {
+        AeroMapper mapper = populate();
+        List<Customer> results = mapper.scan(null, Customer.class,
+                Criteria.where("age").gt(30).and("status").eq(Status.ACTIVE));
+        assertEquals(Arrays.asList(1, 4, 6), ids(results));
+    }
+
+    @Test
+    public void testCriteriaUsesBinNames() {
+        AeroMapper mapper = populate();
+        List<Customer> results = mapper.scan(null, Customer.class, Criteria.where("name").eq("Bob"));
+        assertEquals(Arrays.asList(2, 6), ids(results));
+    }
+
+    @Test
+    public void testCriteriaGrouping() {
+        AeroMapper mapper = populate();
+        Criteria criteria = Criteria.where("status").eq(Status.SUSPENDED)
+                .or(Criteria.where("balance").between(20.0, 100.0).and(Criteria.not(Criteria.where("name").eq("Tim"))));
+        List<Customer> results = mapper.scan(null, Customer.class, criteria);
+        assertEquals(Arrays.asList(2, 3, 4, 5), ids(results));
+    }
+
+    @Test
+    public void testCriteriaWithProcessorAndBatch() {
+        AeroMapper mapper = populate();
+        Criteria criteria = Criteria.where("age").lt(40);
+        List<Customer> results = new ArrayList<>();
+        mapper.scan(Customer.class, criteria, customer -> {
+            synchronized (results) {
+                results.add(customer);
+            }
+            return true;
+        });
+        assertEquals(Arrays.asList(2, 3, 4), ids(results));
+
+        BatchPolicy batchPolicy = new BatchPolicy(mapper.getBatchPolicy(Customer.class));
+        batchPolicy.filterExp = criteria.compile(Customer.class, mapper);
+        Customer[] customers = mapper.read(batchPolicy, Customer.class, new Object[] {1, 2, 3});
+        assertEquals(3, customers.length);
+        assertEquals(null, customers[0]);
+        assertEquals(2, customers[1].id);
+        assertEquals(3, customers[2].id);
+    }
+
+    @Test
+    public void testNumbersMatchTheTypeOfTheField() {
+        AeroMapper mapper = populate();
+        // An integer literal compared with a double field is compared as a float
+        assertArrayEquals(Exp.build(Exp.gt(Exp.floatBin("balance"), Exp.val(20.0))).getBytes(),
+                Criteria.where("balance").gt(20).compile(Customer.class, mapper).getBytes());
+        assertEquals(Arrays.asList(1, 2, 4, 6), ids(mapper.scan(null, Customer.class, Criteria.where("balance").gt(20))));
+
+        // A whole double compared with an int field is compared as an integer, but a fraction cannot be
+        assertArrayEquals(Exp.build(Exp.lt(Exp.intBin("age"), Exp.val(31L))).getBytes(),
+                Criteria.where("age").lt(31.0).compile(Customer.class, mapper).getBytes());
+        assertThrows(AerospikeException.class, () -> Criteria.where("age").lt(30.5).compile(Customer.class, mapper));
+    }
+
+    @Test
+    public void testCompiledExpressionIsCached() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        Criteria criteria = Criteria.where("age").ge(18);
+        assertSame(criteria.compile(Customer.class, mapper), criteria.compile(Customer.class, mapper));
+    }
+
+    @Test
+    public void testUnknownField() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        assertThrows(AerospikeException.class, () -> Criteria.where("nm").eq("Bob").compile(Customer.class, mapper));
+    }
+}
@@ -0,0 +1,128 @@
+package com.aerospike.mapper;
+
+import com.aerospike.client.Key;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import com.aerospike.mapper.tools.metrics.HotKeyTracker;
+import com.aerospike.mapper.tools.metrics.HotKeyTracker.Access;
+import com.aerospike.mapper.tools.metrics.HotKeyTracker.HotKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the hot key tracker. It uses the in-memory client, so does not need a server.
+ */
+public class HotKeyTrackerTest {
+
+    @AerospikeRecord(namespace = "test", set = "hotCounter")
+    public static class Counter {
+        @AerospikeKey
+        public int id;
+        public long value;
+
+        public Counter() {
+        }
+
+        public Counter(int id, long value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+
+    private HotKeyTracker tracker;
+    private AeroMapper mapper;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        // Count every access, so the counts are exact
+        tracker = new HotKeyTracker().withSampleRate(1);
+        mapper = new AeroMapper.Builder(new InMemoryAerospike().getClient()).withHotKeyTracker(tracker).build();
+    }
+
+    @Test
+    public void testReadsAndWrites() {
+        for (int i = 0; i < 100; i++) {
+            mapper.save(new Counter(i % 10 == 0 ? 7 : i, i));
+        }
+        for (int i = 0; i < 20; i++) {
+            mapper.read(Counter.class, 3);
+        }
+        mapper.read(Counter.class, new Object[]{3, 4});
+        mapper.delete(Counter.class, 5);
+
+        List<HotKey> writes = tracker.getTopKeys(Counter.class, Access.WRITE, 1);
+        assertEquals(1, writes.size());
+        assertEquals(new Key("test", "hotCounter", 7), writes.get(0).getKey());
+        assertEquals(11, writes.get(0).getCount());
+        assertEquals(0, writes.get(0).getError());
+        assertTrue(writes.get(0).getRate() > 0);
+
+        List<HotKey> reads = tracker.getTopKeys(Counter.class, Access.READ, 5);
+        assertEquals(2, reads.size());
+        assertEquals(new Key("test", "hotCounter", 3), reads.get(0).getKey());
+        assertEquals(21, reads.get(0).getCount());
+        assertEquals(1, reads.get(1).getCount());
+    }
+
+    @Test
+    public void testHotKeyKeptAtCapacity() {
+        HotKeyTracker small = new HotKeyTracker().withCapacity(4).withSampleRate(1);
+        Key hot = new Key("test", "hotCounter", -1);
+        for (int i = 0; i < 1000; i++) {
+            small.record(Counter.class, Access.WRITE, i % 3 == 0 ? hot : new Key("test", "hotCounter", i));
+        }
+        List<HotKey> top = small.getTopKeys(Counter.class, Access.WRITE, 4);
+        assertEquals(4, top.size());
+        assertEquals(hot, top.get(0).getKey());
+        // Space-Saving never under estimates, and the error bounds the over estimate
+        assertTrue(top.get(0).getCount() >= 334);
+        assertTrue(top.get(0).getCount() - top.get(0).getError() <= 334);
+
+        small.reset();
+        assertTrue(small.getTopKeys(Counter.class, Access.WRITE, 4).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        HotKeyTracker concurrent = new HotKeyTracker().withCapacity(16).withSampleRate(1);
+        Key hot = new Key("test", "hotCounter", -1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t * 10000;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    concurrent.record(Counter.class, Access.READ, i % 4 == 0 ? hot : new Key("test", "hotCounter", offset + i));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        List<HotKey> top = concurrent.getTopKeys(Counter.class, Access.READ, 1);
+        assertEquals(hot, top.get(0).getKey());
+        assertTrue(top.get(0).getCount() >= 20000);
+        assertTrue(top.get(0).getCount() - top.get(0).getError() <= 20000);
+    }
+
+    @Test
+    public void testSampledByDefault() {
+        HotKeyTracker sampled = new HotKeyTracker();
+        Key hot = new Key("test", "hotCounter", -1);
+        for (int i = 0; i < 100000; i++) {
+            sampled.record(Counter.class, Access.WRITE, hot);
+        }
+        // The counts are scaled up from about one access in ten
+        long count = sampled.getTopKeys(Counter.class, Access.WRITE, 1).get(0).getCount();
+        assertEquals(0, count % HotKeyTracker.DEFAULT_SAMPLE_RATE);
+        assertTrue(count > 80000 && count < 120000, Long.toString(count));
+    }
+}
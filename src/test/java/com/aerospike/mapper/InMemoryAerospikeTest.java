@@ -0,0 +1,215 @@
+package com.aerospike.mapper;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.Value;
+import com.aerospike.client.cdt.ListOperation;
+import com.aerospike.client.cdt.ListReturnType;
+import com.aerospike.client.cdt.MapOperation;
+import com.aerospike.client.cdt.MapPolicy;
+import com.aerospike.client.cdt.MapReturnType;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.mapper.annotations.AerospikeEmbed;
+import com.aerospike.mapper.annotations.AerospikeEmbed.EmbedType;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.ReactiveAeroMapper;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import com.aerospike.mapper.tools.query.Criteria;
+import com.aerospike.mapper.tools.virtuallist.ReturnType;
+import com.aerospike.mapper.tools.virtuallist.VirtualList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the in-memory client on its own and under the mapper. It needs no server, so does not extend
+ * {@link AeroMapperBaseTest}.
+ */
+public class InMemoryAerospikeTest {
+
+    @AerospikeRecord(namespace = "test", set = "inMemPerson")
+    public static class Person {
+        @AerospikeKey
+        public int id;
+        public String name;
+        public int age;
+
+        public Person() {
+        }
+
+        public Person(int id, String name, int age) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+        }
+    }
+
+    @AerospikeRecord(namespace = "test", set = "inMemItem")
+    public static class Item {
+        @AerospikeKey
+        public int id;
+        public String name;
+
+        public Item() {
+        }
+
+        public Item(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @AerospikeRecord(namespace = "test", set = "inMemOwner")
+    public static class Owner {
+        @AerospikeKey
+        public int id;
+        @AerospikeEmbed(type = EmbedType.MAP, elementType = EmbedType.LIST)
+        public List<Item> items = new ArrayList<>();
+    }
+
+    private InMemoryAerospike store;
+    private IAerospikeClient client;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        store = new InMemoryAerospike();
+        client = store.getClient();
+    }
+
+    @Test
+    public void testSaveReadAndDelete() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        mapper.save(new Person(1, "Tim", 42));
+
+        Person person = mapper.read(Person.class, 1);
+        assertEquals("Tim", person.name);
+        assertEquals(42, person.age);
+        assertEquals(1, store.getRecordCount("test"));
+
+        assertTrue(mapper.delete(Person.class, 1));
+        assertNull(mapper.read(Person.class, 1));
+        assertEquals(1, store.getCommandCount("put"));
+        assertEquals(2, store.getCommandCount("get"));
+        assertEquals(1, store.getCommandCount("delete"));
+    }
+
+    @Test
+    public void testRecordExistsAndGeneration() {
+        Key key = new Key("test", "inMemRaw", 1);
+        WritePolicy createOnly = new WritePolicy();
+        createOnly.recordExistsAction = RecordExistsAction.CREATE_ONLY;
+        client.put(createOnly, key, new Bin("a", 1));
+        AerospikeException ae = assertThrows(AerospikeException.class, () -> client.put(createOnly, key, new Bin("a", 2)));
+        assertEquals(ResultCode.KEY_EXISTS_ERROR, ae.getResultCode());
+
+        client.add(null, key, new Bin("a", 5));
+        Record record = client.get(null, key);
+        assertEquals(6, record.getLong("a"));
+        assertEquals(2, record.generation);
+    }
+
+    @Test
+    public void testListAndMapOperations() {
+        Key key = new Key("test", "inMemRaw", 2);
+        client.operate(null, key,
+                ListOperation.appendItems("list", Arrays.asList(Value.get(5), Value.get(3), Value.get(9), Value.get(1))),
+                MapOperation.put(MapPolicy.Default, "map", Value.get("b"), Value.get(2)),
+                MapOperation.put(MapPolicy.Default, "map", Value.get("a"), Value.get(1)));
+
+        Record record = client.operate(null, key,
+                ListOperation.getByRankRange("list", 0, 2, ListReturnType.VALUE),
+                ListOperation.removeByValueRange("list", Value.get(4), Value.get(10), ListReturnType.COUNT),
+                MapOperation.getByIndex("map", 0, MapReturnType.KEY));
+        assertEquals(Arrays.asList(1L, 3L), record.getList("list").get(0));
+        assertEquals(2L, record.getList("list").get(1));
+        assertEquals("a", record.getValue("map"));
+
+        record = client.get(null, key);
+        assertEquals(Arrays.asList(3L, 1L), record.getList("list"));
+        assertEquals(2, ((Map<?, ?>) record.getMap("map")).size());
+    }
+
+    @Test
+    public void testVirtualList() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        Owner owner = new Owner();
+        owner.id = 1;
+        mapper.save(owner);
+
+        VirtualList<Item> list = mapper.asBackedList(owner, "items", Item.class);
+        list.append(new Item(3, "three"));
+        list.append(new Item(1, "one"));
+        list.append(new Item(2, "two"));
+        assertEquals(3, list.size(null));
+
+        List<Item> items = list.getByKeyRange(1, 3, ReturnType.ELEMENTS);
+        assertEquals(2, items.size());
+        assertEquals("one", items.get(0).name);
+        assertEquals("two", items.get(1).name);
+
+        list.removeByKey(2, ReturnType.NONE);
+        assertEquals(2, mapper.read(Owner.class, 1).items.size());
+    }
+
+    @Test
+    public void testScanWithCriteria() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        for (int i = 0; i < 20; i++) {
+            mapper.save(new Person(i, "Person " + i, 20 + i));
+        }
+        List<Person> people = mapper.scan(null, Person.class, Criteria.where("age").ge(30));
+        assertEquals(10, people.size());
+        for (Person person : people) {
+            assertTrue(person.age >= 30);
+        }
+    }
+
+    @Test
+    public void testInjectedFailures() {
+        store.withFailures(1.0, ResultCode.TIMEOUT);
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        AerospikeException ae = assertThrows(AerospikeException.class, () -> mapper.save(new Person(1, "Tim", 42)));
+        assertEquals(ResultCode.TIMEOUT, ae.getResultCode());
+
+        store.withFailures(0, ResultCode.OK);
+        mapper.save(new Person(1, "Tim", 42));
+        assertNotNull(mapper.read(Person.class, 1));
+    }
+
+    @Test
+    public void testLatencyTimeout() {
+        store.withLatency(50, TimeUnit.MILLISECONDS);
+        WritePolicy policy = new WritePolicy();
+        policy.totalTimeout = 10;
+        AerospikeException ae = assertThrows(AerospikeException.class,
+                () -> client.put(policy, new Key("test", "inMemRaw", 3), new Bin("a", 1)));
+        assertEquals(ResultCode.TIMEOUT, ae.getResultCode());
+    }
+
+    @Test
+    public void testReactive() {
+        ReactiveAeroMapper mapper = new ReactiveAeroMapper.Builder(store.getReactorClient()).build();
+        mapper.save(new Person(1, "Tim", 42)).block();
+
+        Person person = mapper.read(Person.class, 1).block();
+        assertNotNull(person);
+        assertEquals("Tim", person.name);
+        assertEquals(1, store.getCommandCount("put"));
+    }
+}
@@ -0,0 +1,120 @@
+package com.aerospike.mapper;
+
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aerospike.client.query.IndexType;
+import com.aerospike.mapper.annotations.AerospikeBin;
+import com.aerospike.mapper.annotations.AerospikeIndex;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.query.Criteria;
+import com.aerospike.mapper.tools.query.IndexDefinition;
+import com.aerospike.mapper.tools.query.QueryPlan;
+
+public class IndexTest extends AeroMapperBaseTest {
+    @AerospikeRecord(namespace = "test", set = "indexed")
+    public static class Account {
+        @AerospikeKey
+        public int id;
+        @AerospikeIndex(type = IndexType.STRING)
+        @AerospikeBin(name = "own")
+        public String owner;
+        @AerospikeIndex(name = "indexed_bal_idx", type = IndexType.NUMERIC)
+        public long balance;
+        public String region;
+
+        public Account() {
+        }
+
+        public Account(int id, String owner, long balance, String region) {
+            this.id = id;
+            this.owner = owner;
+            this.balance = balance;
+            this.region = region;
+        }
+    }
+
+    private AeroMapper populate() {
+        client.truncate(null, "test", "indexed", null);
+        AeroMapper mapper = new AeroMapper.Builder(client)
+                .preLoadClass(Account.class)
+                .withIndexCreation()
+                .build();
+        mapper.save(new Account(1, "Tim", 100, "east"),
+                new Account(2, "Bob", 250, "west"),
+                new Account(3, "Sue", 400, "east"),
+                new Account(4, "Bob", 600, "east"),
+                new Account(5, "Jim", 50, "west"));
+        return mapper;
+    }
+
+    private List<Integer> query(AeroMapper mapper, Criteria criteria) {
+        List<Account> results = new ArrayList<>();
+        mapper.query(Account.class, criteria, account -> {
+            synchronized (results) {
+                results.add(account);
+            }
+            return true;
+        });
+        return results.stream().sorted(comparing(a -> a.id)).map(a -> a.id).collect(toList());
+    }
+
+    @Test
+    public void testIndexesAreDeclared() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        ClassCacheEntry<Account> entry = ClassCache.getInstance().loadClass(Account.class, mapper);
+        List<IndexDefinition> indexes = entry.getIndexes();
+        assertEquals(2, indexes.size());
+        IndexDefinition balance = indexes.stream().filter(i -> i.getBinName().equals("balance")).findFirst().get();
+        assertEquals("indexed_bal_idx", balance.getIndexName());
+        assertEquals(IndexType.NUMERIC, balance.getIndexType());
+        IndexDefinition owner = indexes.stream().filter(i -> i.getBinName().equals("own")).findFirst().get();
+        assertEquals("indexed_own_idx", owner.getIndexName());
+    }
+
+    @Test
+    public void testPlanUsesIndex() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        ClassCacheEntry<Account> entry = ClassCache.getInstance().loadClass(Account.class, mapper);
+
+        QueryPlan plan = Criteria.where("region").eq("east").and("owner").eq("Bob").plan(entry);
+        assertNotNull(plan.getFilter());
+        assertEquals("own", plan.getIndex().getBinName());
+        assertNotNull(plan.getFilterExpression());
+
+        plan = Criteria.where("balance").between(100L, 500L).plan(entry);
+        assertEquals("balance", plan.getIndex().getBinName());
+        assertNull(plan.getFilterExpression());
+
+        plan = Criteria.where("owner").eq("Bob").or("region").eq("west").plan(entry);
+        assertNull(plan.getFilter());
+        assertNotNull(plan.getFilterExpression());
+
+        // Contradictory bounds do not produce an inverted range
+        plan = Criteria.where("balance").gt(500L).and("balance").lt(100L).plan(entry);
+        assertNull(plan.getFilter());
+        assertNotNull(plan.getFilterExpression());
+    }
+
+    @Test
+    public void testQueryWithCriteria() {
+        AeroMapper mapper = populate();
+        assertEquals(Arrays.asList(2, 4), query(mapper, Criteria.where("owner").eq("Bob")));
+        assertEquals(Arrays.asList(1, 3), query(mapper, Criteria.where("balance").between(100L, 500L).and("region").eq("east")));
+        assertEquals(Arrays.asList(2, 5), query(mapper, Criteria.where("owner").eq("Jim").or("region").eq("west")));
+        assertEquals(Arrays.asList(), query(mapper, Criteria.where("balance").gt(500L).and("balance").lt(100L)));
+    }
+}
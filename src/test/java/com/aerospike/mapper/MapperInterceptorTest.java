@@ -0,0 +1,199 @@
+package com.aerospike.mapper;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.ResultCode;
+import com.aerospike.mapper.annotations.AerospikeEmbed;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.annotations.AerospikeReference;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import com.aerospike.mapper.tools.metrics.HotKeyTracker;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+import com.aerospike.mapper.tools.tracing.MapperInterceptor;
+import com.aerospike.mapper.tools.virtuallist.VirtualList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the calls reported to an interceptor. It uses the in-memory client, so does not need a server.
+ */
+public class MapperInterceptorTest {
+
+    @AerospikeRecord(namespace = "test", set = "traceLeaf")
+    public static class Leaf {
+        @AerospikeKey
+        public int id;
+        public String name;
+
+        public Leaf() {
+        }
+
+        public Leaf(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @AerospikeRecord(namespace = "test", set = "traceBranch")
+    public static class Branch {
+        @AerospikeKey
+        public int id;
+        @AerospikeReference
+        public List<Leaf> leaves = new ArrayList<>();
+    }
+
+    @AerospikeRecord(namespace = "test", set = "traceTree")
+    public static class Tree {
+        @AerospikeKey
+        public int id;
+        @AerospikeEmbed
+        public List<Leaf> leaves = new ArrayList<>();
+    }
+
+    private static class RecordingInterceptor implements MapperInterceptor {
+        private final List<String> events = new ArrayList<>();
+        private final List<ClientCall> calls = new ArrayList<>();
+
+        @Override
+        public Object beforeCall(ClientCall call) {
+            events.add("begin " + call);
+            calls.add(call);
+            return calls.size();
+        }
+
+        @Override
+        public void afterCall(ClientCall call, Object context, Throwable error) {
+            events.add("end " + context + (error == null ? "" : " " + error.getClass().getSimpleName()));
+        }
+    }
+
+    private InMemoryAerospike store;
+    private RecordingInterceptor interceptor;
+    private AeroMapper mapper;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        store = new InMemoryAerospike();
+        interceptor = new RecordingInterceptor();
+        mapper = new AeroMapper.Builder(store.getClient()).withInterceptor(interceptor).build();
+    }
+
+    @Test
+    public void testCallsAndDepth() {
+        Branch branch = new Branch();
+        branch.id = 1;
+        for (int i = 0; i < 3; i++) {
+            Leaf leaf = new Leaf(i, "leaf " + i);
+            branch.leaves.add(leaf);
+            mapper.save(leaf);
+        }
+        mapper.save(branch);
+        interceptor.events.clear();
+        interceptor.calls.clear();
+
+        Branch read = mapper.read(Branch.class, 1);
+        assertEquals(3, read.leaves.size());
+        assertEquals(Arrays.asList(
+                "begin GET Branch (keys=1, depth=0)",
+                "end 1",
+                "begin BATCH_GET Branch (keys=3, depth=1)",
+                "end 2"), interceptor.events);
+        assertNull(interceptor.calls.get(0).getBinNames());
+        ClientCall batch = interceptor.calls.get(1);
+        assertEquals(3, batch.getKeys().length);
+        assertEquals(Leaf.class, batch.getKeyClass(0));
+        assertNull(batch.getBins(0));
+
+        interceptor.calls.clear();
+        mapper.save(new Leaf(9, "nine"));
+        ClientCall put = interceptor.calls.get(0);
+        assertEquals(ClientCall.Type.PUT, put.getType());
+        assertEquals(Leaf.class, put.getMappedClass());
+        assertTrue(Arrays.asList(put.getBinNames()).contains("name"));
+        assertEquals(9, put.getKeys()[0].userKey.toInteger());
+        assertEquals(put.getBinNames().length, put.getBins(0).length);
+    }
+
+    @Test
+    public void testSeveralInterceptors() {
+        RecordingInterceptor first = new RecordingInterceptor();
+        RecordingInterceptor second = new RecordingInterceptor();
+        HotKeyTracker tracker = new HotKeyTracker().withSampleRate(1);
+        AeroMapper tracedMapper = new AeroMapper.Builder(store.getClient())
+                .withInterceptor(first)
+                .withHotKeyTracker(tracker)
+                .withInterceptor(second)
+                .build();
+
+        tracedMapper.save(new Leaf(1, "one"));
+        tracedMapper.read(Leaf.class, 1);
+        assertEquals(Arrays.asList("begin PUT Leaf (keys=1, depth=0)", "end 1",
+                "begin GET Leaf (keys=1, depth=0)", "end 2"), first.events);
+        assertEquals(first.events, second.events);
+        assertEquals(1, tracker.getTopKeys(Leaf.class, HotKeyTracker.Access.WRITE, 1).get(0).getCount());
+        assertEquals(1, tracker.getTopKeys(Leaf.class, HotKeyTracker.Access.READ, 1).get(0).getCount());
+    }
+
+    @Test
+    public void testFailedCall() {
+        store.withFailures(1.0, ResultCode.TIMEOUT);
+        assertThrows(AerospikeException.class, () -> mapper.delete(Leaf.class, 1));
+        assertEquals(Arrays.asList(
+                "begin DELETE Leaf (keys=1, depth=0)",
+                "end 1 AerospikeException"), interceptor.events);
+    }
+
+    private List<ClientCall.Type> types() {
+        return interceptor.calls.stream().map(ClientCall::getType).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testQueriesAreTraced() {
+        for (int i = 0; i < 3; i++) {
+            mapper.save(new Leaf(i, "leaf " + i));
+        }
+        interceptor.events.clear();
+        interceptor.calls.clear();
+
+        assertEquals(3, mapper.query(Leaf.class, null).size());
+        assertEquals(3, mapper.queryPage(Leaf.class, null, 10, null).getResults().size());
+        assertEquals(Arrays.asList(ClientCall.Type.QUERY, ClientCall.Type.QUERY), types());
+        assertEquals(4, interceptor.events.size());
+
+        interceptor.events.clear();
+        try (Stream<Leaf> stream = mapper.queryStream(Leaf.class, null)) {
+            assertEquals(3, stream.count());
+            // The call lasts until the stream is closed
+            assertEquals(1, interceptor.events.size());
+        }
+        assertEquals(2, interceptor.events.size());
+    }
+
+    @Test
+    public void testVirtualListOperationsAreTraced() {
+        Tree tree = new Tree();
+        tree.id = 1;
+        mapper.save(tree);
+        VirtualList<Leaf> leaves = mapper.asBackedList(tree, "leaves", Leaf.class);
+        interceptor.calls.clear();
+
+        leaves.append(new Leaf(1, "one"));
+        assertEquals(1, leaves.size(null));
+        assertEquals(Arrays.asList(ClientCall.Type.OPERATE, ClientCall.Type.OPERATE), types());
+        ClientCall append = interceptor.calls.get(0);
+        assertEquals(Tree.class, append.getMappedClass());
+        assertTrue(append.isWrite(0));
+        assertFalse(interceptor.calls.get(1).isWrite(0));
+    }
+}
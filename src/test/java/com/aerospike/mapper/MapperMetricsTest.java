@@ -0,0 +1,136 @@
+package com.aerospike.mapper;
+
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.annotations.AerospikeReference;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import com.aerospike.mapper.tools.metrics.Histogram;
+import com.aerospike.mapper.tools.metrics.HistogramMapperMetrics;
+import com.aerospike.mapper.tools.metrics.MapperMetrics.OperationType;
+import com.aerospike.mapper.tools.metrics.MapperMetrics.Phase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the metrics reported by the mapper. It uses the in-memory client, so does not need a server.
+ */
+public class MapperMetricsTest {
+
+    @AerospikeRecord(namespace = "test", set = "metricsLeaf")
+    public static class Leaf {
+        @AerospikeKey
+        public int id;
+        public String name;
+
+        public Leaf() {
+        }
+
+        public Leaf(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @AerospikeRecord(namespace = "test", set = "metricsBranch")
+    public static class Branch {
+        @AerospikeKey
+        public int id;
+        @AerospikeReference
+        public List<Leaf> leaves = new ArrayList<>();
+    }
+
+    @AerospikeRecord(namespace = "test", set = "metricsTree")
+    public static class Tree {
+        @AerospikeKey
+        public int id;
+        @AerospikeReference
+        public Branch branch;
+    }
+
+    private HistogramMapperMetrics metrics;
+    private AeroMapper mapper;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        metrics = new HistogramMapperMetrics();
+        mapper = new AeroMapper.Builder(new InMemoryAerospike().getClient()).withMetrics(metrics).build();
+    }
+
+    @Test
+    public void testSaveReadAndDelete() {
+        mapper.save(new Leaf(1, "a"));
+        mapper.read(Leaf.class, 1);
+        mapper.read(Leaf.class, 2);
+        mapper.delete(Leaf.class, 1);
+
+        assertEquals(1, metrics.getLatency(Leaf.class, OperationType.SAVE, Phase.SERIALIZE).getCount());
+        assertEquals(1, metrics.getLatency(Leaf.class, OperationType.SAVE, Phase.NETWORK).getCount());
+        assertEquals(2, metrics.getLatency(Leaf.class, OperationType.READ, Phase.NETWORK).getCount());
+        // Only the record which was found is hydrated
+        assertEquals(1, metrics.getLatency(Leaf.class, OperationType.READ, Phase.HYDRATE).getCount());
+        assertEquals(1, metrics.getLatency(Leaf.class, OperationType.DELETE, Phase.NETWORK).getCount());
+        assertNull(metrics.getLatency(Leaf.class, OperationType.BATCH_READ, Phase.NETWORK));
+    }
+
+    @Test
+    public void testBatchSizesAndDependencyLevels() {
+        Branch branch = new Branch();
+        branch.id = 1;
+        for (int i = 0; i < 3; i++) {
+            Leaf leaf = new Leaf(i, "leaf " + i);
+            branch.leaves.add(leaf);
+            mapper.save(leaf);
+        }
+        mapper.save(branch);
+        Tree tree = new Tree();
+        tree.id = 1;
+        tree.branch = branch;
+        mapper.save(tree);
+
+        Tree[] trees = mapper.read(Tree.class, new Object[]{1, 2});
+        assertEquals(3, trees[0].branch.leaves.size());
+        assertNull(trees[1]);
+
+        assertEquals(2, metrics.getBatchSizes(Tree.class, OperationType.BATCH_READ).getMax());
+        assertEquals(1, metrics.getLatency(Tree.class, OperationType.BATCH_READ, Phase.HYDRATE).getCount());
+        assertEquals(1, metrics.getDependencyFanOut(Tree.class, OperationType.BATCH_READ, 0).getMax());
+        assertEquals(3, metrics.getDependencyFanOut(Tree.class, OperationType.BATCH_READ, 1).getMax());
+        assertEquals(1, metrics.getDependencyLatency(Tree.class, OperationType.BATCH_READ, 1).getCount());
+        assertNull(metrics.getDependencyFanOut(Tree.class, OperationType.BATCH_READ, 2));
+        assertTrue(metrics.getClasses().contains(Leaf.class));
+
+        metrics.reset();
+        assertTrue(metrics.getClasses().isEmpty());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500.0, histogram.getMean(), 0.001);
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(p50 >= 500_000 && p50 <= 500_000 * 17 / 16, "p50 was " + p50);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 was " + p99);
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+
+        histogram.record(7);
+        assertEquals(7, histogram.getValueAtPercentile(0));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
@@ -1,6 +1,10 @@
 package com.aerospike.mapper;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.toList;
 
@@ -8,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 
@@ -16,10 +21,12 @@ import com.aerospike.client.exp.Exp;
 import com.aerospike.client.policy.QueryPolicy;
 import com.aerospike.client.query.Filter;
 import com.aerospike.client.query.IndexType;
+import com.aerospike.client.query.PartitionFilter;
 import com.aerospike.mapper.annotations.AerospikeKey;
 import com.aerospike.mapper.annotations.AerospikeRecord;
 import com.aerospike.mapper.annotations.ParamFrom;
 import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.QueryPage;
 
 public class QueryTest extends AeroMapperBaseTest {
     @AerospikeRecord(namespace = "test", set = "testScan")
@@ -161,4 +168,54 @@ public class QueryTest extends AeroMapperBaseTest {
         assertEquals(2, result.size());
         assertEquals(expected, result.stream().sorted(comparing(A::getId)).collect(toList()));
     }
+
+    @Test
+    public void queryPageTest() {
+        AeroMapper mapper = populate();
+        List<A> result = new ArrayList<>();
+        QueryPage<A> page = mapper.queryPage(A.class, Filter.range("age", 30, 54), 3, null);
+        int pages = 1;
+        while (true) {
+            assertTrue(page.getResults().size() <= 3);
+            result.addAll(page.getResults());
+            if (page.isDone()) {
+                break;
+            }
+            page = mapper.queryPage(A.class, Filter.range("age", 30, 54), 3, page.getCursor());
+            pages++;
+        }
+
+        List<A> expected = data.stream()
+                               .filter(d -> d.age >= 30 && d.age <= 54)
+                               .sorted(comparing(A::getId))
+                               .collect(toList());
+        assertTrue(pages >= 3);
+        assertEquals(expected, result.stream().sorted(comparing(A::getId)).collect(toList()));
+    }
+
+    @Test
+    public void queryPageLeavesCursorAloneTest() {
+        AeroMapper mapper = populate();
+        PartitionFilter cursor = PartitionFilter.all();
+        QueryPage<A> page = mapper.queryPage(A.class, Filter.range("age", 30, 54), 3, cursor);
+        assertNotSame(cursor, page.getCursor());
+        // The query starts tracking partitions on the copy, not on the cursor which was passed in
+        assertNull(cursor.getPartitions());
+        assertFalse(cursor.isDone());
+    }
+
+    @Test
+    public void queryStreamTest() {
+        AeroMapper mapper = populate();
+        List<A> result;
+        try (Stream<A> stream = mapper.queryStream(A.class, Filter.range("age", 30, 54))) {
+            result = stream.sorted(comparing(A::getId)).collect(toList());
+        }
+
+        List<A> expected = data.stream()
+                               .filter(d -> d.age >= 30 && d.age <= 54)
+                               .sorted(comparing(A::getId))
+                               .collect(toList());
+        assertEquals(expected, result);
+    }
 }
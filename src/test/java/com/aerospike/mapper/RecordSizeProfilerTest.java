@@ -0,0 +1,94 @@
+package com.aerospike.mapper;
+
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import com.aerospike.mapper.tools.metrics.Histogram;
+import com.aerospike.mapper.tools.metrics.RecordSizeProfiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the record size profiler. It uses the in-memory client, so does not need a server.
+ */
+public class RecordSizeProfilerTest {
+
+    @AerospikeRecord(namespace = "test", set = "sizeDoc")
+    public static class Document {
+        @AerospikeKey
+        public int id;
+        public String title;
+        public byte[] body;
+
+        public Document() {
+        }
+
+        public Document(int id, String title, int bodySize) {
+            this.id = id;
+            this.title = title;
+            this.body = new byte[bodySize];
+        }
+    }
+
+    private RecordSizeProfiler profiler;
+    private AeroMapper mapper;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        profiler = new RecordSizeProfiler();
+        mapper = new AeroMapper.Builder(new InMemoryAerospike().getClient()).withRecordSizeProfiler(profiler).build();
+    }
+
+    @Test
+    public void testBinSizes() {
+        mapper.save(new Document(1, "abc", 1000));
+        mapper.save(new Document(2, "abcdef", 3000));
+
+        Map<String, Histogram> bins = profiler.getBinSizes(Document.class);
+        // Each bin is the operation header, the name and the particle
+        assertEquals(8 + 5 + 3, bins.get("title").getValueAtPercentile(0));
+        assertEquals(8 + 5 + 6, bins.get("title").getMax());
+        assertEquals(8 + 4 + 3000, bins.get("body").getMax());
+        assertEquals(2, profiler.getRecordSizes(Document.class).getCount());
+        assertTrue(profiler.getRecordSizes(Document.class).getMax() > 3000);
+
+        // Calls which do not write bins are not profiled
+        mapper.read(Document.class, 1);
+        mapper.delete(Document.class, 2);
+        assertEquals(2, profiler.getRecordSizes(Document.class).getCount());
+
+        // The largest bin is reported first
+        String report = profiler.report();
+        assertTrue(report.indexOf("body") < report.indexOf("title"), report);
+    }
+
+    @Test
+    public void testEstimates() {
+        assertEquals(8 + 1 + 8, RecordSizeProfiler.estimateSize(new Bin("a", 5L)));
+        Key key = new Key("test", "set", 1);
+        assertEquals(30 + 5 + 4 + 5 + 20 + 5 + 3, RecordSizeProfiler.estimateHeaderSize(key));
+    }
+
+    @Test
+    public void testSampling() {
+        profiler.withSampleRate(1_000_000);
+        for (int i = 0; i < 10; i++) {
+            mapper.save(new Document(i, "t", 10));
+        }
+        Histogram sizes = profiler.getRecordSizes(Document.class);
+        assertTrue(sizes == null || sizes.getCount() < 10);
+
+        profiler.reset();
+        assertTrue(profiler.getClasses().isEmpty());
+        assertTrue(profiler.getBinSizes(Document.class).isEmpty());
+    }
+}
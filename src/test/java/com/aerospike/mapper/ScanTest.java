@@ -3,20 +3,29 @@ package com.aerospike.mapper;
 import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 
 import com.aerospike.client.exp.Exp;
+import com.aerospike.client.policy.QueryPolicy;
 import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.mapper.annotations.AerospikeKey;
 import com.aerospike.mapper.annotations.AerospikeRecord;
 import com.aerospike.mapper.annotations.ParamFrom;
+import com.aerospike.mapper.tools.AdaptiveThrottle;
 import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ForegroundLatencyTracker;
+import com.aerospike.mapper.tools.ScanPipelineMetrics;
+import com.aerospike.mapper.tools.ScanPipelineOptions;
 
 public class ScanTest extends AeroMapperBaseTest {
     @AerospikeRecord(namespace = "test", set = "testScan")
@@ -149,4 +158,106 @@ public class ScanTest extends AeroMapperBaseTest {
         assertEquals(2, result.size());
         assertEquals(expected, result.stream().sorted(comparing(Person::getId)).collect(toList()));
     }
+
+    @Test
+    public void streamTest() {
+        AeroMapper mapper = populate();
+        List<Person> result;
+        try (Stream<Person> stream = mapper.stream(Person.class)) {
+            result = stream.sorted(comparing(Person::getId)).collect(toList());
+        }
+        assertEquals(data.stream().sorted(comparing(Person::getId)).collect(toList()), result);
+    }
+
+    @Test
+    public void streamTestWithEarlyClose() {
+        AeroMapper mapper = populate();
+        QueryPolicy queryPolicy = new QueryPolicy(mapper.getQueryPolicy(Person.class));
+        queryPolicy.recordQueueSize = 2;
+        try (Stream<Person> stream = mapper.stream(queryPolicy, Person.class)) {
+            assertEquals(2, stream.limit(2).count());
+        }
+    }
+
+    @Test
+    public void pipelinedScanTest() {
+        AeroMapper mapper = populate();
+        List<Person> result = Collections.synchronizedList(new ArrayList<>());
+        ScanPipelineOptions options = new ScanPipelineOptions().withWorkerThreads(4).withQueueCapacity(2);
+        ScanPipelineMetrics metrics = mapper.scan(Person.class, (person) -> {
+            result.add(person);
+            return true;
+        }, options);
+        assertEquals(6, metrics.getRecordsReceived());
+        assertEquals(6, metrics.getRecordsProcessed());
+        assertEquals(0, metrics.getQueueDepth());
+        assertEquals(data.stream().sorted(comparing(Person::getId)).collect(toList()),
+                result.stream().sorted(comparing(Person::getId)).collect(toList()));
+    }
+
+    @Test
+    public void pipelinedScanOrderedWithAbort() {
+        AeroMapper mapper = populate();
+        AtomicInteger counter = new AtomicInteger(0);
+        ScanPipelineOptions options = new ScanPipelineOptions().withOrderedDelivery(true).withQueueCapacity(1);
+        mapper.scan(Person.class, (person) -> counter.incrementAndGet() < 3, options);
+        assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void adaptiveScanIncreasesRateWhenLatencyIsLow() {
+        AeroMapper mapper = populate();
+        AdaptiveThrottle throttle = new AdaptiveThrottle()
+                .withRecordsPerSecondBounds(5, 100)
+                .withAdditiveIncrease(5)
+                .withAdjustmentInterval(200, TimeUnit.MILLISECONDS)
+                .withLatencySignal(() -> 0.1);
+        List<Person> result = Collections.synchronizedList(new ArrayList<>());
+        mapper.scan(Person.class, (person) -> result.add(person), throttle);
+        result.sort(comparing(Person::getId));
+        assertEquals(data.stream().sorted(comparing(Person::getId)).collect(toList()), result);
+        assertTrue(throttle.getCurrentRate() > 5);
+    }
+
+    @Test
+    public void adaptiveScanStaysAtMinimumWhenLatencyIsHigh() {
+        AeroMapper mapper = populate();
+        AdaptiveThrottle throttle = new AdaptiveThrottle()
+                .withRecordsPerSecondBounds(5, 100)
+                .withInitialRecordsPerSecond(10)
+                .withTargetLatency(2, TimeUnit.MILLISECONDS)
+                .withAdjustmentInterval(200, TimeUnit.MILLISECONDS)
+                .withLatencySignal(() -> 50.0);
+        AtomicInteger counter = new AtomicInteger(0);
+        mapper.scan(null, Person.class, (person) -> counter.incrementAndGet() > 0, throttle);
+        assertEquals(data.size(), counter.get());
+        assertEquals(5, throttle.getCurrentRate());
+    }
+
+    @Test
+    public void foregroundLatencyDecaysWhenIdle() throws InterruptedException {
+        ForegroundLatencyTracker tracker = new ForegroundLatencyTracker(0.5, 10, TimeUnit.MILLISECONDS);
+        assertTrue(tracker.getLatencyMillis() < 0);
+        tracker.record(TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(tracker.getLatencyMillis() > 2);
+        // With no foreground traffic the spike is forgotten, so a throttle would speed up again
+        Thread.sleep(200);
+        assertTrue(tracker.getLatencyMillis() < 0.01, String.valueOf(tracker.getLatencyMillis()));
+    }
+
+    @Test
+    public void adaptiveStreamTest() {
+        AeroMapper mapper = populate();
+        mapper.read(Person.class, data.get(0).getId());
+        assertTrue(mapper.getForegroundLatency().getLatencyMillis() >= 0);
+
+        AdaptiveThrottle throttle = new AdaptiveThrottle()
+                .withRecordsPerSecondBounds(5, 100)
+                .withAdjustmentInterval(200, TimeUnit.MILLISECONDS);
+        List<Person> result;
+        try (Stream<Person> stream = mapper.stream(null, Person.class, throttle)) {
+            result = stream.sorted(comparing(Person::getId)).collect(toList());
+        }
+        assertEquals(data.stream().sorted(comparing(Person::getId)).collect(toList()), result);
+    }
 }
@@ -0,0 +1,176 @@
+package com.aerospike.mapper;
+
+import com.aerospike.mapper.annotations.AerospikeEmbed;
+import com.aerospike.mapper.annotations.AerospikeEmbed.EmbedType;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.virtuallist.ReturnType;
+import com.aerospike.mapper.tools.virtuallist.ShardedVirtualList;
+import com.aerospike.mapper.tools.virtuallist.Sharding;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ShardedVirtualListTest extends AeroMapperBaseTest {
+
+    @AerospikeRecord
+    public static class Event {
+        @AerospikeKey
+        public int id;
+        public String name;
+
+        public Event() {
+        }
+
+        public Event(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @AerospikeRecord(namespace = "test", set = "sharded")
+    public static class Timeline {
+        @AerospikeKey
+        public int id;
+        @AerospikeEmbed(type = EmbedType.MAP, elementType = EmbedType.LIST)
+        public List<Event> events = new ArrayList<>();
+        @AerospikeEmbed(type = EmbedType.LIST)
+        public List<Long> values = new ArrayList<>();
+    }
+
+    private List<Long> range(long from, long to) {
+        List<Long> result = new ArrayList<>();
+        for (long i = from; i < to; i++) {
+            result.add(i);
+        }
+        return result;
+    }
+
+    private void truncate() {
+        client.truncate(null, "test", "sharded", null);
+        client.truncate(null, "test", "sharded_values_shards", null);
+        client.truncate(null, "test", "sharded_events_shards", null);
+    }
+
+    @Test
+    public void testShardsAreNotInOwningSet() {
+        truncate();
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        ShardedVirtualList<Long> list = mapper.asShardedList(Timeline.class, 4, "values", Long.class, Sharding.rollover(10));
+        assertEquals("sharded_values_shards", list.getSetName());
+
+        list.appendAll(range(0, 25));
+        assertEquals(3, list.getShardCount());
+        // Neither the shards nor the bucket record are hydrated as timelines
+        assertEquals(0, mapper.scan(Timeline.class).size());
+
+        ShardedVirtualList<Long> other = mapper.asShardedList(Timeline.class, 4, "values", Long.class, Sharding.rollover(10))
+                .withSetName("sharded_values_other");
+        assertEquals(-1, other.size(null));
+        list.clear();
+    }
+
+    @Test
+    public void testHashShardedList() {
+        truncate();
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        ShardedVirtualList<Long> list = mapper.asShardedList(Timeline.class, 1, "values", Long.class, Sharding.byHash(4));
+
+        assertEquals(100, list.appendAll(range(1, 101)));
+        assertEquals(100, list.size(null));
+        assertEquals(4, list.getShardCount());
+
+        List<Long> inRange = list.getByValueRange(10L, 20L, ReturnType.DEFAULT);
+        assertEquals(range(10, 20), inRange.stream().sorted().collect(Collectors.toList()));
+
+        assertEquals(range(1, 6), list.getByRankRange(0, 5, ReturnType.DEFAULT));
+        assertEquals(Arrays.asList(100L), list.getByRank(-1, ReturnType.DEFAULT));
+        assertEquals(Arrays.asList(48L, 49L, 50L, 51L), list.getByValueRelativeRankRange(50L, -2, 4, ReturnType.DEFAULT));
+
+        assertEquals(range(1, 4), list.removeByRankRange(0, 3, ReturnType.DEFAULT));
+        assertEquals(Arrays.asList(50L, 51L), list.removeByValueRelativeRankRange(50L, 0, 2, ReturnType.DEFAULT));
+        assertEquals(95, list.size(null));
+        List<Long> expected = range(4, 101);
+        expected.removeAll(Arrays.asList(50L, 51L));
+        assertEquals(expected, list.stream(7).sorted().collect(Collectors.toList()));
+
+        list.clear();
+        assertEquals(-1, list.size(null));
+    }
+
+    @Test
+    public void testHashShardedAppendAllIsSplitByBudget() {
+        truncate();
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        ShardedVirtualList<Long> list = mapper.asShardedList(Timeline.class, 3, "values", Long.class, Sharding.byHash(4))
+                .withMaxBytesPerOperation(20);
+
+        // Each shard gets several appends in its write, and the size of each shard is the result of the last
+        assertEquals(100, list.appendAll(range(1000000, 1000100)));
+        assertEquals(100, list.size(null));
+        assertEquals(range(1000000, 1000100), list.stream(7).sorted().collect(Collectors.toList()));
+        list.clear();
+    }
+
+    @Test
+    public void testRolloverShardedList() {
+        truncate();
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        ShardedVirtualList<Long> list = mapper.asShardedList(Timeline.class, 2, "values", Long.class, Sharding.rollover(10));
+
+        for (long i = 0; i < 15; i++) {
+            list.append(i);
+        }
+        list.appendAll(range(15, 25));
+        assertEquals(3, list.getShardCount());
+        assertEquals(25, list.size(null));
+
+        assertEquals(Long.valueOf(12), list.get(12));
+        assertEquals(range(8, 13), list.getByIndexRange(8, 5, ReturnType.DEFAULT));
+        assertEquals(range(22, 25), list.getByIndexRange(-3, ReturnType.DEFAULT));
+        assertEquals(range(0, 25), list.stream(4).collect(Collectors.toList()));
+
+        assertEquals(range(9, 11), list.removeByIndexRange(9, 2, ReturnType.DEFAULT));
+        assertEquals(Long.valueOf(11), list.get(9));
+        assertEquals(23, list.size(null));
+
+        list.clear();
+        assertEquals(1, list.getShardCount());
+        assertNull(list.get(0));
+    }
+
+    @Test
+    public void testHashShardedMap() {
+        truncate();
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        Timeline timeline = new Timeline();
+        timeline.id = 3;
+        ShardedVirtualList<Event> events = mapper.asShardedList(timeline, "events", Event.class, Sharding.byHash(3));
+
+        List<Event> toAdd = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            toAdd.add(new Event(i, "event" + i));
+        }
+        events.putAll(toAdd);
+        events.append(new Event(20, "event20"));
+        assertEquals(21, events.size(null));
+
+        assertEquals("event7", events.getByKey(7, ReturnType.DEFAULT).get(0).name);
+        List<Event> byKey = events.getByKeyRange(5, 9, ReturnType.DEFAULT);
+        assertEquals(Arrays.asList(5, 6, 7, 8), byKey.stream().map(e -> e.id).collect(Collectors.toList()));
+        List<Event> byIndex = events.getByIndexRange(10, 3, ReturnType.DEFAULT);
+        assertEquals(Arrays.asList(10, 11, 12), byIndex.stream().map(e -> e.id).collect(Collectors.toList()));
+
+        events.removeByKey(10, ReturnType.NONE);
+        events.removeByIndex(0, ReturnType.NONE);
+        assertEquals(19, events.size(null));
+        assertEquals(11, events.get(9).id);
+    }
+}
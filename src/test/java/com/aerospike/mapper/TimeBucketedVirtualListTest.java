@@ -0,0 +1,143 @@
+package com.aerospike.mapper;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.mapper.annotations.AerospikeEmbed;
+import com.aerospike.mapper.annotations.AerospikeEmbed.EmbedType;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.virtuallist.TimeBucketedVirtualList;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The time to live checks in this class require positive nsup-period configured
+ */
+public class TimeBucketedVirtualListTest extends AeroMapperBaseTest {
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    private static final long BASE = 1_700_000_000_000L / HOUR * HOUR;
+
+    @AerospikeRecord
+    public static class Reading {
+        public long time;
+        public double value;
+
+        public Reading() {
+        }
+
+        public Reading(long time, double value) {
+            this.time = time;
+            this.value = value;
+        }
+    }
+
+    @AerospikeRecord(namespace = "test", set = "timeseries")
+    public static class Device {
+        @AerospikeKey
+        public String id;
+        @AerospikeEmbed(type = EmbedType.LIST, elementType = EmbedType.LIST)
+        public List<Reading> readings = new ArrayList<>();
+    }
+
+    private List<Long> times(List<Reading> readings) {
+        return readings.stream().map(r -> r.time).collect(Collectors.toList());
+    }
+
+    private void truncate() {
+        client.truncate(null, "test", "timeseries", null);
+        client.truncate(null, "test", "timeseries_readings_buckets", null);
+    }
+
+    @Test
+    public void testAppendAndReadByTimeRange() {
+        truncate();
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        TimeBucketedVirtualList<Reading> readings = mapper.asTimeBucketedList(Device.class, "dev1", "readings", Reading.class)
+                .withTimestamp(r -> r.time)
+                .withTimeToLive(3600);
+
+        readings.append(new Reading(BASE + 10, 1.0));
+        readings.append(new Reading(BASE + HOUR - 1, 2.0));
+        assertEquals(4, readings.appendAll(Arrays.asList(
+                new Reading(BASE + HOUR + 5, 3.0),
+                new Reading(BASE + 2 * HOUR + 5, 4.0),
+                new Reading(BASE + 30, 5.0),
+                new Reading(BASE + 4 * HOUR, 6.0))));
+
+        List<Reading> all = readings.getByTimeRange(Instant.ofEpochMilli(BASE), Instant.ofEpochMilli(BASE + 5 * HOUR));
+        assertEquals(Arrays.asList(BASE + 10, BASE + 30, BASE + HOUR - 1, BASE + HOUR + 5, BASE + 2 * HOUR + 5,
+                BASE + 4 * HOUR), times(all));
+
+        List<Reading> some = readings.getByTimeRange(null, BASE + 20, BASE + HOUR + 6);
+        assertEquals(Arrays.asList(BASE + 30, BASE + HOUR - 1, BASE + HOUR + 5), times(some));
+
+        assertEquals(0, readings.getByTimeRange(null, BASE + 3 * HOUR, BASE + 4 * HOUR).size());
+        assertEquals(3, readings.getBucket(readings.getBucketNumber(BASE)).size(null));
+
+        Key bucketKey = readings.getBucketKey(readings.getBucketNumber(BASE + HOUR));
+        assertEquals("timeseries_readings_buckets", bucketKey.setName);
+        Record bucket = client.get(null, bucketKey);
+        assertTrue(bucket.getTimeToLive() > 3590 && bucket.getTimeToLive() <= 3600);
+
+        // The buckets are not hydrated as devices
+        assertEquals(0, mapper.scan(Device.class).size());
+    }
+
+    @Test
+    public void testCustomBucketDuration() {
+        truncate();
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        TimeBucketedVirtualList<Reading> readings = mapper.asTimeBucketedList(Device.class, "dev2", "readings", Reading.class)
+                .withBucketDuration(Duration.ofMinutes(1))
+                .withTimestamp(r -> r.time);
+
+        for (int i = 0; i < 10; i++) {
+            readings.append(new Reading(BASE + i * 30_000L, i));
+        }
+        assertEquals(2, readings.getBucket(readings.getBucketNumber(BASE + 60_000L)).size(null));
+        List<Reading> range = readings.getByTimeRange(null, BASE + 60_000L, BASE + 180_000L);
+        assertEquals(Arrays.asList(BASE + 60_000L, BASE + 90_000L, BASE + 120_000L, BASE + 150_000L), times(range));
+    }
+
+    @Test
+    public void testBurstIsSplitByBudget() {
+        truncate();
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        TimeBucketedVirtualList<Reading> readings = mapper.asTimeBucketedList(Device.class, "dev4", "readings", Reading.class)
+                .withTimestamp(r -> r.time)
+                .withMaxBytesPerOperation(40);
+
+        List<Reading> burst = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            burst.add(new Reading(BASE + i, i));
+        }
+        // All the readings are in one bucket, and are sent as several appends in its write
+        assertEquals(1, readings.appendAll(burst));
+        assertEquals(50, readings.getBucket(readings.getBucketNumber(BASE)).size(null));
+        assertEquals(times(burst), times(readings.getByTimeRange(null, BASE, BASE + HOUR)));
+    }
+
+    @Test
+    public void testRangeLimitedToMaxBuckets() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        TimeBucketedVirtualList<Reading> readings = mapper.asTimeBucketedList(Device.class, "dev3", "readings", Reading.class)
+                .withBucketDuration(Duration.ofMinutes(1))
+                .withMaxBucketsPerRead(60);
+
+        assertEquals(0, readings.getByTimeRange(null, BASE, BASE + HOUR).size());
+        assertThrows(AerospikeException.class, () -> readings.getByTimeRange(null, BASE, BASE + HOUR + 1));
+        assertThrows(AerospikeException.class, () -> readings.getByTimeRange(null, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+}
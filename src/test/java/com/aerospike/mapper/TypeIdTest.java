@@ -0,0 +1,226 @@
+package com.aerospike.mapper;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.mapper.annotations.AerospikeEmbed;
+import com.aerospike.mapper.annotations.AerospikeEmbed.EmbedType;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.configuration.ClassConfig;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests storing numeric type ids instead of class names for subclasses. It uses the in-memory client, so does not need
+ * a server.
+ */
+public class TypeIdTest {
+
+    @AerospikeRecord(namespace = "test", set = "typeIdEvent")
+    public static class Event {
+        @AerospikeKey
+        public int id;
+        public long timestamp;
+    }
+
+    @AerospikeRecord(typeId = 1)
+    public static class Click extends Event {
+        public String target;
+    }
+
+    @AerospikeRecord(typeId = 2)
+    public static class View extends Event {
+        public int duration;
+    }
+
+    // Configured with a type id in code rather than annotated
+    public static class Purchase extends Event {
+        public double amount;
+    }
+
+    @AerospikeRecord(typeId = 1)
+    public static class Duplicate extends Event {
+    }
+
+    @AerospikeRecord(namespace = "test", set = "typeIdStream")
+    public static class Stream {
+        @AerospikeKey
+        public int id;
+        @AerospikeEmbed(type = EmbedType.LIST, elementType = EmbedType.LIST)
+        public List<Event> listEvents = new ArrayList<>();
+        @AerospikeEmbed(type = EmbedType.LIST, elementType = EmbedType.MAP)
+        public List<Event> mapEvents = new ArrayList<>();
+        public Event lastEvent;
+    }
+
+    @AerospikeRecord(namespace = "test", set = "typeIdLists")
+    public static class Lists {
+        @AerospikeKey
+        public int id;
+        public List<Object> values = new ArrayList<>();
+    }
+
+    private IAerospikeClient client;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        client = new InMemoryAerospike().getClient();
+    }
+
+    private AeroMapper buildMapper() {
+        return new AeroMapper.Builder(client)
+                .withClassConfigurations(new ClassConfig.Builder(Purchase.class).withTypeId(3).build())
+                .preLoadClasses(Click.class, View.class)
+                .build();
+    }
+
+    private Stream createStream() {
+        Click click = new Click();
+        click.id = 1;
+        click.target = "buy";
+        View view = new View();
+        view.id = 2;
+        view.duration = 30;
+        Purchase purchase = new Purchase();
+        purchase.id = 3;
+        purchase.amount = 9.99;
+
+        Stream stream = new Stream();
+        stream.id = 100;
+        stream.listEvents.add(click);
+        stream.listEvents.add(view);
+        stream.listEvents.add(purchase);
+        stream.mapEvents.add(view);
+        stream.mapEvents.add(purchase);
+        stream.lastEvent = click;
+        return stream;
+    }
+
+    private void checkStream(Stream stream) {
+        assertEquals("buy", ((Click) stream.listEvents.get(0)).target);
+        assertEquals(30, ((View) stream.listEvents.get(1)).duration);
+        assertEquals(9.99, ((Purchase) stream.listEvents.get(2)).amount);
+        assertEquals(30, ((View) stream.mapEvents.get(0)).duration);
+        assertEquals(9.99, ((Purchase) stream.mapEvents.get(1)).amount);
+        assertEquals("buy", ((Click) stream.lastEvent).target);
+    }
+
+    @Test
+    public void testTypeIdsAreStored() {
+        AeroMapper mapper = buildMapper();
+        Stream stream = createStream();
+        mapper.save(stream.lastEvent);
+        mapper.save(stream);
+
+        Record record = client.get(null, new Key("test", "typeIdStream", 100));
+        List<?> listEvents = record.getList("listEvents");
+        assertEquals("@#1", last(listEvents.get(0)));
+        assertEquals("@#2", last(listEvents.get(1)));
+        assertEquals("@#3", last(listEvents.get(2)));
+        List<?> mapEvents = record.getList("mapEvents");
+        assertEquals(2, ((Number) ((Map<?, ?>) mapEvents.get(0)).get(".type")).intValue());
+        assertEquals(1, ((Number) ((List<?>) record.getList("lastEvent")).get(1)).intValue());
+
+        checkStream(mapper.read(Stream.class, 100));
+    }
+
+    @Test
+    public void testConfiguredTypeIdResolvedBeforeLoad() {
+        AeroMapper mapper = buildMapper();
+        Stream stream = createStream();
+        mapper.save(stream.lastEvent);
+        mapper.save(stream);
+
+        // Purchase is only known through its configuration when the stream is read
+        ClassCache.getInstance().clear();
+        mapper = buildMapper();
+        assertFalse(ClassCache.getInstance().hasClass(Purchase.class));
+        checkStream(mapper.read(Stream.class, 100));
+    }
+
+    @Test
+    public void testClassNameTagsStillRead() {
+        AeroMapper mapper = buildMapper();
+        Stream stream = createStream();
+        mapper.save(stream.lastEvent);
+        mapper.save(stream);
+
+        // Rewrite the record with the class name tags used before type ids were declared
+        Key key = new Key("test", "typeIdStream", 100);
+        Record record = client.get(null, key);
+        List<Object> listEvents = new ArrayList<>();
+        for (Object element : record.getList("listEvents")) {
+            List<Object> event = new ArrayList<>((List<?>) element);
+            String tag = (String) event.get(event.size() - 1);
+            event.set(event.size() - 1, tag.equals("@#1") ? "@T:Click" : tag.equals("@#2") ? "@T:View" : "@T:Purchase");
+            listEvents.add(event);
+        }
+        List<Object> lastEvent = new ArrayList<>(record.getList("lastEvent"));
+        lastEvent.set(1, "Click");
+        client.put(null, key, new Bin("listEvents", listEvents), new Bin("lastEvent", lastEvent));
+
+        checkStream(mapper.read(Stream.class, 100));
+    }
+
+    @Test
+    public void testDuplicateTypeId() {
+        AeroMapper mapper = buildMapper();
+        AerospikeException ae = assertThrows(AerospikeException.class,
+                () -> ClassCache.getInstance().loadClass(Duplicate.class, mapper));
+        assertTrue(ae.getMessage().contains("Type id of 1"), ae.getMessage());
+    }
+
+    @Test
+    public void testUnknownTypeId() {
+        AeroMapper mapper = buildMapper();
+        Stream stream = createStream();
+        mapper.save(stream.lastEvent);
+        mapper.save(stream);
+
+        // Without preloading, the annotated type ids cannot be resolved
+        ClassCache.getInstance().clear();
+        AeroMapper unloaded = new AeroMapper.Builder(client).build();
+        assertThrows(AerospikeException.class, () -> unloaded.read(Stream.class, 100));
+    }
+
+    @Test
+    public void testValuesLikeTagsAreNotTypes() {
+        assertTrue(ClassCacheEntry.isListTypeTag("@#12"));
+        assertTrue(ClassCacheEntry.isListTypeTag("@T:Click"));
+        assertFalse(ClassCacheEntry.isListTypeTag("@#hashtag"));
+        assertFalse(ClassCacheEntry.isListTypeTag("@#"));
+        assertFalse(ClassCacheEntry.isListTypeTag("@#123456789012"));
+
+        // Untyped lists whose last element looks like a tag, but names no known class, are read back as lists
+        AeroMapper mapper = buildMapper();
+        Lists lists = new Lists();
+        lists.id = 1;
+        lists.values.add(Arrays.asList("tweet", "@#hashtag"));
+        lists.values.add(Arrays.asList("note", "@T:NoSuchClass"));
+        lists.values.add(Arrays.asList("id", "@#999"));
+        mapper.save(lists);
+
+        Lists read = mapper.read(Lists.class, 1);
+        assertEquals(lists.values, read.values);
+    }
+
+    private static Object last(Object list) {
+        List<?> elements = (List<?>) list;
+        return elements.get(elements.size() - 1);
+    }
+}
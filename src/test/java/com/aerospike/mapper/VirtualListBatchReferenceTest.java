@@ -0,0 +1,121 @@
+package com.aerospike.mapper;
+
+import com.aerospike.mapper.annotations.AerospikeEmbed;
+import com.aerospike.mapper.annotations.AerospikeEmbed.EmbedType;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import com.aerospike.mapper.tools.tracing.ClientCall;
+import com.aerospike.mapper.tools.tracing.MapperInterceptor;
+import com.aerospike.mapper.tools.virtuallist.ReturnType;
+import com.aerospike.mapper.tools.virtuallist.VirtualList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the references held by the elements read from a virtual list are loaded in one batch. It uses the
+ * in-memory client, so does not need a server.
+ */
+public class VirtualListBatchReferenceTest {
+
+    @AerospikeRecord(namespace = "test", set = "vlbCustomer")
+    public static class Customer {
+        @AerospikeKey
+        public int id;
+        public String name;
+
+        public Customer() {
+        }
+
+        public Customer(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    @AerospikeRecord(namespace = "test", set = "vlbOrder")
+    public static class Order {
+        @AerospikeKey
+        public int id;
+        public Customer customer;
+
+        public Order() {
+        }
+
+        public Order(int id, Customer customer) {
+            this.id = id;
+            this.customer = customer;
+        }
+    }
+
+    @AerospikeRecord(namespace = "test", set = "vlbShop")
+    public static class Shop {
+        @AerospikeKey
+        public int id;
+        @AerospikeEmbed(type = EmbedType.MAP)
+        public List<Order> orders = new ArrayList<>();
+    }
+
+    private static class BatchCounter implements MapperInterceptor {
+        private int batches;
+
+        @Override
+        public Object beforeCall(ClientCall call) {
+            if (call.getType() == ClientCall.Type.BATCH_GET) {
+                batches++;
+            }
+            return null;
+        }
+
+        @Override
+        public void afterCall(ClientCall call, Object context, Throwable error) {
+        }
+    }
+
+    private InMemoryAerospike store;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        store = new InMemoryAerospike();
+    }
+
+    @Test
+    public void testReferencesOfElementsReadInOneBatch() {
+        BatchCounter counter = new BatchCounter();
+        AeroMapper mapper = new AeroMapper.Builder(store.getClient()).withInterceptor(counter).build();
+
+        Shop shop = new Shop();
+        shop.id = 1;
+        mapper.save(shop);
+        VirtualList<Order> orders = mapper.asBackedList(shop, "orders", Order.class);
+        for (int i = 0; i < 10; i++) {
+            Customer customer = new Customer(100 + i, "customer" + i);
+            mapper.save(customer);
+            orders.append(new Order(i, customer));
+        }
+
+        counter.batches = 0;
+        List<Order> results = orders.getByKeyRange(0, 10, ReturnType.ELEMENTS);
+        assertEquals(10, results.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, results.get(i).id);
+            assertEquals(100 + i, results.get(i).customer.id);
+            assertEquals("customer" + i, results.get(i).customer.name);
+        }
+        assertEquals(1, counter.batches);
+
+        counter.batches = 0;
+        List<Order> page = orders.getByIndexRange(2, 3, ReturnType.ELEMENTS);
+        assertEquals(3, page.size());
+        assertEquals("customer4", page.get(2).customer.name);
+        assertEquals(1, counter.batches);
+    }
+}
@@ -1,14 +1,22 @@
 package com.aerospike.mapper;
 
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.policy.Policy;
 import com.aerospike.mapper.annotations.*;
 import com.aerospike.mapper.annotations.AerospikeEmbed.EmbedType;
 import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
 import com.aerospike.mapper.tools.virtuallist.ReturnType;
 import com.aerospike.mapper.tools.virtuallist.VirtualList;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -289,4 +297,185 @@ public class VirtualListTest extends AeroMapperBaseTest {
         assertTrue(results2.containsAll(valueList));
         assertFalse(results2.contains(44444L));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPagedIteration() {
+        D collection = new D();
+        collection.id = 2;
+        for (long value = 0; value < 25; value++) {
+            collection.elements2.add(value);
+        }
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        mapper.save(collection);
+        VirtualList<Long> list = mapper.asBackedList(collection, "elements2", Long.class);
+
+        List<Long> iterated = new ArrayList<>();
+        Iterator<Long> iterator = list.iterator(10);
+        while (iterator.hasNext()) {
+            iterated.add(iterator.next());
+        }
+        assertEquals(collection.elements2, iterated);
+        assertFalse(iterator.hasNext());
+
+        assertEquals(collection.elements2, list.stream(5).collect(Collectors.toList()));
+        assertEquals(collection.elements2, list.stream(25).collect(Collectors.toList()));
+        assertEquals(Long.valueOf(300), list.stream(7).reduce(0L, Long::sum));
+
+        list.clear();
+        assertFalse(list.iterator().hasNext());
+        assertEquals(0, list.stream().count());
+    }
+
+    @Test
+    public void testPageCacheInvalidation() {
+        D collection = new D();
+        collection.id = 3;
+        for (long value = 0; value < 12; value++) {
+            collection.elements2.add(value);
+        }
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        mapper.save(collection);
+        VirtualList<Long> list = mapper.asBackedList(collection, "elements2", Long.class).withPageCache(5, 2);
+
+        assertEquals(Long.valueOf(7), list.get(7));
+        assertEquals(12, list.stream().count());
+
+        list.append(12L);
+        assertEquals(13, list.stream().count());
+        assertEquals(Long.valueOf(12), list.get(12));
+
+        list.removeByIndex(0, ReturnType.NONE);
+        assertEquals(Long.valueOf(8), list.get(7));
+
+        list.beginMultiOperation().append(13L).end();
+        assertEquals(Long.valueOf(13), list.get(12));
+
+        // A change made outside this VirtualList is not seen until the cache is invalidated
+        VirtualList<Long> other = mapper.asBackedList(collection, "elements2", Long.class);
+        other.removeByIndex(0, ReturnType.NONE);
+        assertEquals(Long.valueOf(8), list.get(7));
+        list.invalidatePageCache();
+        assertEquals(Long.valueOf(9), list.get(7));
+    }
+
+    @Test
+    public void testPageCacheHonoursPolicy() {
+        D collection = new D();
+        collection.id = 5;
+        for (long value = 0; value < 12; value++) {
+            collection.elements2.add(value);
+        }
+        InMemoryAerospike slowServer = new InMemoryAerospike();
+        AeroMapper mapper = new AeroMapper.Builder(slowServer.getClient()).build();
+        mapper.save(collection);
+        VirtualList<Long> list = mapper.asBackedList(collection, "elements2", Long.class).withPageCache(5, 2);
+        slowServer.withLatency(50, TimeUnit.MILLISECONDS);
+
+        // A page which is not cached is read with the policy passed to get
+        Policy policy = new Policy();
+        policy.totalTimeout = 1;
+        AerospikeException ae = assertThrows(AerospikeException.class, () -> list.get(policy, 7));
+        assertEquals(ResultCode.TIMEOUT, ae.getResultCode());
+        assertEquals(Long.valueOf(7), list.get(null, 7));
+    }
+
+    @Test
+    public void testAppendAllAndPutAll() {
+        D collection = new D();
+        collection.id = 4;
+        collection.elements2.add(0L);
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        mapper.save(collection);
+        VirtualList<Long> list = mapper.asBackedList(collection, "elements2", Long.class).withMaxBytesPerOperation(20);
+
+        List<Long> toAppend = new ArrayList<>();
+        for (long value = 1; value <= 20; value++) {
+            toAppend.add(value * 1000000L);
+        }
+        assertEquals(21, list.appendAll(toAppend));
+        List<Long> expected = new ArrayList<>(collection.elements2);
+        expected.addAll(toAppend);
+        assertEquals(expected, list.stream().collect(Collectors.toList()));
+
+        // A multi operation splits the elements by the same budget, but sends them in one call
+        list.beginMultiOperation().appendAll(toAppend).end();
+        assertEquals(41, list.size(null));
+        assertThrows(AerospikeException.class, () -> list.putAll(Arrays.asList(3L)));
+
+        C c = new C(11, "k");
+        mapper.save(c);
+        A container = new A();
+        container.id = 5;
+        container.elements.add(new B(200, "ann", 1000, c));
+        mapper.save(container);
+        VirtualList<B> map = mapper.asBackedList(container, "elements", B.class).withMaxBytesPerOperation(50);
+        assertEquals(4, map.putAll(Arrays.asList(new B(203, "cat", 4000, c), new B(201, "ben", 2000, c),
+                new B(202, "dan", 3000, c), new B(200, "eve", 5000, c))));
+        List<B> results = map.getByKeyRange(200, 204, ReturnType.DEFAULT);
+        assertEquals(4, results.size());
+        assertEquals("eve", results.get(0).name);
+        assertEquals(203, results.get(3).id);
+    }
+
+    @Test
+    public void testLazyRangeResults() {
+        D collection = new D();
+        collection.id = 6;
+        for (long value = 0; value < 50; value++) {
+            collection.elements2.add(value * 10);
+        }
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        mapper.save(collection);
+        VirtualList<Long> list = mapper.asBackedList(collection, "elements2", Long.class);
+
+        List<Long> results = list.getByIndexRange(5, 10, ReturnType.DEFAULT);
+        assertEquals(10, results.size());
+        assertEquals(Long.valueOf(90), results.get(4));
+        assertEquals(collection.elements2.subList(5, 15), results);
+
+        // The results can still be changed like any other list
+        results.remove(0);
+        results.add(1000L);
+        assertEquals(Long.valueOf(60), results.get(0));
+        assertEquals(Long.valueOf(1000), results.get(9));
+
+        assertEquals(collection.elements2.subList(20, 30), list.streamByIndexRange(20, 10).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(100L, 110L, 120L), list.streamByValueRange(100L, 130L).collect(Collectors.toList()));
+        assertEquals(Long.valueOf(0), list.streamByRankRange(0, 50).findFirst().get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBatchMultiOperation() {
+        AeroMapper mapper = new AeroMapper.Builder(client).build();
+        for (int id = 10; id < 13; id++) {
+            D collection = new D();
+            collection.id = id;
+            for (long value = 0; value < 5; value++) {
+                collection.elements2.add(id * 100 + value);
+            }
+            mapper.save(collection);
+        }
+        mapper.delete(D.class, 13);
+        VirtualList<Long> list = mapper.asBackedList(D.class, 10, "elements2", Long.class);
+
+        List<Object> results = list.beginMultiOperation()
+                .getByRankRange(-2)
+                .endBatch(Arrays.asList(10, 11, 13, 12));
+        assertEquals(4, results.size());
+        assertEquals(Arrays.asList(1003L, 1004L), results.get(0));
+        assertEquals(Arrays.asList(1103L, 1104L), results.get(1));
+        assertNull(results.get(2));
+        assertEquals(Arrays.asList(1203L, 1204L), results.get(3));
+
+        List<List> removed = list.beginMultiOperation()
+                .removeByIndex(0)
+                .getByIndexRange(0, 1)
+                .asResult()
+                .endBatch(null, Arrays.asList(11, 12), List.class);
+        assertEquals(Arrays.asList(1101L), removed.get(0));
+        assertEquals(Arrays.asList(1201L), removed.get(1));
+        assertEquals(4, mapper.asBackedList(D.class, 12, "elements2", Long.class).size(null));
+        assertEquals(5, list.size(null));
+    }
+}
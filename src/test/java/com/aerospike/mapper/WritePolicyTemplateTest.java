@@ -0,0 +1,106 @@
+package com.aerospike.mapper;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.policy.GenerationPolicy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.mapper.annotations.AerospikeGeneration;
+import com.aerospike.mapper.annotations.AerospikeKey;
+import com.aerospike.mapper.annotations.AerospikeRecord;
+import com.aerospike.mapper.tools.AeroMapper;
+import com.aerospike.mapper.tools.ClassCache;
+import com.aerospike.mapper.tools.ClassCacheEntry;
+import com.aerospike.mapper.tools.inmemory.InMemoryAerospike;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the write and delete policies cached per class. It uses the in-memory client, so does not need a server.
+ */
+public class WritePolicyTemplateTest {
+
+    @AerospikeRecord(namespace = "test", set = "templateA", ttl = 300, sendKey = true, durableDelete = true)
+    public static class Account {
+        @AerospikeKey
+        public int id;
+        public String name;
+        @AerospikeGeneration
+        public int generation;
+
+        public Account() {
+        }
+
+        public Account(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private AeroMapper mapper;
+    private ClassCacheEntry<Account> entry;
+
+    @BeforeEach
+    public void setup() {
+        ClassCache.getInstance().clear();
+        mapper = new AeroMapper.Builder(new InMemoryAerospike().getClient()).build();
+        entry = ClassCache.getInstance().loadClass(Account.class, mapper);
+    }
+
+    @Test
+    public void testTemplatesAreShared() {
+        Account account = new Account(1, "a");
+        WritePolicy replace = entry.getWritePolicy(account, RecordExistsAction.REPLACE);
+        assertSame(replace, entry.getWritePolicy(new Account(2, "b"), RecordExistsAction.REPLACE));
+        assertEquals(RecordExistsAction.REPLACE, replace.recordExistsAction);
+        assertEquals(300, replace.expiration);
+        assertTrue(replace.sendKey);
+
+        WritePolicy insert = entry.getWritePolicy(account, RecordExistsAction.CREATE_ONLY);
+        assertNotSame(replace, insert);
+        assertEquals(RecordExistsAction.CREATE_ONLY, insert.recordExistsAction);
+        // The policy of the class is not changed
+        assertNotEquals(300, entry.getWritePolicy().expiration);
+
+        WritePolicy delete = entry.getDeletePolicy();
+        assertSame(delete, entry.getDeletePolicy());
+        assertTrue(delete.durableDelete);
+        assertFalse(entry.getWritePolicy().durableDelete);
+    }
+
+    @Test
+    public void testGenerationCopiesTemplate() {
+        Account account = new Account(1, "a");
+        account.generation = 4;
+        WritePolicy policy = entry.getWritePolicy(account, RecordExistsAction.UPDATE);
+        assertEquals(4, policy.generation);
+        assertEquals(GenerationPolicy.EXPECT_GEN_EQUAL, policy.generationPolicy);
+
+        WritePolicy template = entry.getWritePolicy(new Account(2, "b"), RecordExistsAction.UPDATE);
+        assertNotSame(template, policy);
+        assertEquals(GenerationPolicy.NONE, template.generationPolicy);
+    }
+
+    @Test
+    public void testInsertAndUpdate() {
+        mapper.insert(new Account(1, "a"));
+        AerospikeException ae = assertThrows(AerospikeException.class, () -> mapper.insert(new Account(1, "b")));
+        assertEquals(ResultCode.KEY_EXISTS_ERROR, ae.getResultCode());
+
+        ae = assertThrows(AerospikeException.class, () -> mapper.update(new Account(2, "b")));
+        assertEquals(ResultCode.KEY_NOT_FOUND_ERROR, ae.getResultCode());
+
+        Account read = mapper.read(Account.class, 1);
+        read.name = "c";
+        mapper.update(read);
+        assertEquals("c", mapper.read(Account.class, 1).name);
+
+        // A stale generation is rejected
+        read.name = "d";
+        ae = assertThrows(AerospikeException.class, () -> mapper.update(read));
+        assertEquals(ResultCode.GENERATION_ERROR, ae.getResultCode());
+        assertTrue(mapper.delete(Account.class, 1));
+    }
+}
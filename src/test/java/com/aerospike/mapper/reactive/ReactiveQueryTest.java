@@ -6,13 +6,16 @@ import com.aerospike.client.query.IndexType;
 import com.aerospike.mapper.annotations.AerospikeKey;
 import com.aerospike.mapper.annotations.AerospikeRecord;
 import com.aerospike.mapper.annotations.ParamFrom;
+import com.aerospike.mapper.tools.QueryPage;
 import com.aerospike.mapper.tools.ReactiveAeroMapper;
 import org.junit.jupiter.api.Test;
 import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ReactiveQueryTest extends ReactiveAeroMapperBaseTest {
     @AerospikeRecord(namespace = "test", set = "testScan")
@@ -86,4 +89,21 @@ public class ReactiveQueryTest extends ReactiveAeroMapperBaseTest {
         assert results != null;
         assertEquals(7, results.size());
     }
+
+    @Test
+    public void queryPageTest() {
+        ReactiveAeroMapper reactiveMapper = populate();
+        List<A> results = new ArrayList<>();
+        QueryPage<A> page = reactiveMapper.queryPage(A.class, Filter.range("age", 30, 54), 3, null).block();
+        while (true) {
+            assert page != null;
+            assertTrue(page.getResults().size() <= 3);
+            results.addAll(page.getResults());
+            if (page.isDone()) {
+                break;
+            }
+            page = reactiveMapper.queryPage(A.class, Filter.range("age", 30, 54), 3, page.getCursor()).block();
+        }
+        assertEquals(7, results.size());
+    }
 }
@@ -0,0 +1,725 @@
+package com.aerospike.mapper.tools.inmemory;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Operation;
+import com.aerospike.client.ResultCode;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies list and map operations to a stored bin value, as the server would.
+ * <p/>
+ * Operations are decoded from the bytes the client packs them into, so every list and map operation the client can
+ * build is understood without depending on the client's internal classes. Operations on nested elements (those given
+ * a <code>CTX</code>) are not supported. Maps are always held in key order, which is also the order the server uses
+ * for the index operations on unordered maps.
+ */
+final class CdtOperations {
+    // Return types, shared by lists and maps
+    private static final int RETURN_NONE = 0;
+    private static final int RETURN_INDEX = 1;
+    private static final int RETURN_REVERSE_INDEX = 2;
+    private static final int RETURN_RANK = 3;
+    private static final int RETURN_REVERSE_RANK = 4;
+    private static final int RETURN_COUNT = 5;
+    private static final int RETURN_KEY = 6;
+    private static final int RETURN_VALUE = 7;
+    private static final int RETURN_KEY_VALUE = 8;
+    private static final int RETURN_EXISTS = 13;
+    private static final int RETURN_UNORDERED_MAP = 16;
+    private static final int RETURN_ORDERED_MAP = 17;
+    private static final int RETURN_INVERTED = 0x10000;
+
+    private static final int CONTEXT_EVAL = 0xff;
+
+    // List write flags
+    private static final int LIST_ADD_UNIQUE = 1;
+    private static final int LIST_INSERT_BOUNDED = 2;
+    private static final int LIST_NO_FAIL = 4;
+    private static final int LIST_SORT_DESCENDING = 1;
+    private static final int LIST_SORT_DROP_DUPLICATES = 2;
+
+    // Map write flags
+    private static final int MAP_CREATE_ONLY = 1;
+    private static final int MAP_UPDATE_ONLY = 2;
+    private static final int MAP_NO_FAIL = 4;
+
+    /**
+     * The outcome of an operation: the new value of the bin, whether the bin changed, and the value returned to the
+     * client.
+     */
+    static final class Outcome {
+        final Object value;
+        final boolean changed;
+        final Object result;
+
+        private Outcome(Object value, boolean changed, Object result) {
+            this.value = value;
+            this.changed = changed;
+            this.result = result;
+        }
+
+        static Outcome read(Object value, Object result) {
+            return new Outcome(value, false, result);
+        }
+
+        static Outcome write(Object value, Object result) {
+            return new Outcome(value, true, result);
+        }
+    }
+
+    /**
+     * The elements of a list or map, in index order. Lists have no keys.
+     */
+    private static final class Elements {
+        final List<Object> keys;
+        final List<Object> values;
+        private Integer[] byRank;
+
+        Elements(List<Object> keys, List<Object> values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        /**
+         * The indexes of the elements in rank (value) order. Equal values keep their index order.
+         */
+        Integer[] byRank() {
+            if (byRank == null) {
+                byRank = new Integer[values.size()];
+                for (int i = 0; i < byRank.length; i++) {
+                    byRank[i] = i;
+                }
+                Arrays.sort(byRank, Comparator.comparing(values::get, CdtValues.ORDER));
+            }
+            return byRank;
+        }
+
+        int rankOf(int index) {
+            Integer[] ranks = byRank();
+            for (int rank = 0; rank < ranks.length; rank++) {
+                if (ranks[rank] == index) {
+                    return rank;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * The number of elements whose value is less than the given value.
+         */
+        int countBelow(Object value) {
+            int count = 0;
+            for (Object element : values) {
+                if (CdtValues.compare(element, value) < 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private CdtOperations() {
+    }
+
+    static boolean isMapOperation(Operation operation) {
+        return operation.type == Operation.Type.MAP_READ || operation.type == Operation.Type.MAP_MODIFY;
+    }
+
+    /**
+     * Apply a list or map operation to the current value of its bin.
+     *
+     * @param operation - the operation, of type <code>CDT_READ</code>, <code>CDT_MODIFY</code>, <code>MAP_READ</code>
+     *                  or <code>MAP_MODIFY</code>.
+     * @param current   - the stored value of the bin, or null if the bin does not exist.
+     * @return the outcome of the operation.
+     */
+    @SuppressWarnings("unchecked")
+    static Outcome apply(Operation operation, Object current) {
+        List<Object> packed = (List<Object>) MsgPack.unpackValues((byte[]) operation.value.getObject());
+        int command = toInt(packed.get(0));
+        if (command == CONTEXT_EVAL && packed.size() == 3 && packed.get(1) instanceof List) {
+            throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                    String.format("Operations on nested elements of bin %s are not supported in memory", operation.binName));
+        }
+        List<Object> args = packed.subList(1, packed.size());
+        if (isMapOperation(operation)) {
+            if (current != null && !(current instanceof Map)) {
+                throw binTypeError(operation.binName, "map");
+            }
+            return applyToMap(command, args, (Map<Object, Object>) current, operation.binName);
+        } else {
+            if (current != null && !(current instanceof List)) {
+                throw binTypeError(operation.binName, "list");
+            }
+            return applyToList(command, args, (List<Object>) current, operation.binName);
+        }
+    }
+
+    private static AerospikeException binTypeError(String binName, String expected) {
+        return new AerospikeException(ResultCode.BIN_TYPE_ERROR, String.format("Bin %s is not a %s", binName, expected));
+    }
+
+    private static AerospikeException notApplicable(String format, Object... args) {
+        return new AerospikeException(ResultCode.OP_NOT_APPLICABLE, String.format(format, args));
+    }
+
+    private static int toInt(Object object) {
+        return ((Number) object).intValue();
+    }
+
+    private static Long optionalLong(List<Object> args, int index) {
+        return args.size() > index && args.get(index) != null ? ((Number) args.get(index)).longValue() : null;
+    }
+
+    private static int optionalInt(List<Object> args, int index) {
+        return args.size() > index && args.get(index) != null ? toInt(args.get(index)) : 0;
+    }
+
+    private static Object optional(List<Object> args, int index, Object defaultValue) {
+        return args.size() > index ? args.get(index) : defaultValue;
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Lists
+    // ------------------------------------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    private static Outcome applyToList(int command, List<Object> args, List<Object> current, String binName) {
+        List<Object> list = current == null ? Collections.emptyList() : current;
+        switch (command) {
+            case 0: // SET_TYPE
+                return current == null ? Outcome.write(new ArrayList<>(), null) : Outcome.read(current, null);
+            case 1: // APPEND
+                return listInsert(current, list.size(), Collections.singletonList(args.get(0)), optionalInt(args, 2), false);
+            case 2: // APPEND_ITEMS
+                return listInsert(current, list.size(), (List<Object>) args.get(0), optionalInt(args, 2), false);
+            case 3: // INSERT
+                return listInsert(current, toInt(args.get(0)), Collections.singletonList(args.get(1)), optionalInt(args, 2), true);
+            case 4: // INSERT_ITEMS
+                return listInsert(current, toInt(args.get(0)), (List<Object>) args.get(1), optionalInt(args, 2), true);
+            case 5: // POP
+            case 7: { // REMOVE
+                int index = singleIndex(toInt(args.get(0)), list.size(), binName);
+                List<Object> result = new ArrayList<>(list);
+                Object removed = result.remove(index);
+                return Outcome.write(result, command == 5 ? CdtValues.copy(removed) : (Object) 1L);
+            }
+            case 6: // POP_RANGE
+            case 8: { // REMOVE_RANGE
+                int[] range = range(toInt(args.get(0)), optionalLong(args, 1), list.size(), true);
+                List<Object> result = new ArrayList<>(list);
+                List<Object> removed = new ArrayList<>(result.subList(range[0], range[1]));
+                result.subList(range[0], range[1]).clear();
+                return Outcome.write(result, command == 6 ? CdtValues.copy(removed) : (Object) (long) removed.size());
+            }
+            case 9: { // SET
+                List<Object> result = new ArrayList<>(list);
+                int index = toInt(args.get(0));
+                if (index < 0) {
+                    index = singleIndex(index, list.size(), binName);
+                }
+                while (result.size() <= index) {
+                    result.add(null);
+                }
+                result.set(index, args.get(1));
+                return Outcome.write(result, null);
+            }
+            case 10: { // TRIM
+                int[] range = range(toInt(args.get(0)), optionalLong(args, 1), list.size(), true);
+                List<Object> result = new ArrayList<>(list.subList(range[0], range[1]));
+                return Outcome.write(result, (long) (list.size() - result.size()));
+            }
+            case 11: // CLEAR
+                return current == null ? Outcome.read(null, null) : Outcome.write(new ArrayList<>(), null);
+            case 12: { // INCREMENT
+                List<Object> result = new ArrayList<>(list);
+                int index = toInt(args.get(0));
+                if (index < 0) {
+                    index = singleIndex(index, list.size(), binName);
+                }
+                while (result.size() <= index) {
+                    result.add(null);
+                }
+                Object value = add(result.get(index), optional(args, 1, 1L), binName);
+                result.set(index, value);
+                return Outcome.write(result, value);
+            }
+            case 13: { // SORT
+                int flags = optionalInt(args, 0);
+                List<Object> result = new ArrayList<>(list);
+                Comparator<Object> order = (flags & LIST_SORT_DESCENDING) != 0 ? CdtValues.ORDER.reversed() : CdtValues.ORDER;
+                result.sort(order);
+                if ((flags & LIST_SORT_DROP_DUPLICATES) != 0) {
+                    for (int i = result.size() - 1; i > 0; i--) {
+                        if (CdtValues.compare(result.get(i), result.get(i - 1)) == 0) {
+                            result.remove(i);
+                        }
+                    }
+                }
+                return Outcome.write(result, null);
+            }
+            case 16: // SIZE
+                return Outcome.read(current, current == null ? null : (Object) (long) list.size());
+            case 17: // GET
+                return Outcome.read(current, current == null ? null
+                        : CdtValues.copy(list.get(singleIndex(toInt(args.get(0)), list.size(), binName))));
+            case 18: { // GET_RANGE
+                if (current == null) {
+                    return Outcome.read(null, null);
+                }
+                int[] range = range(toInt(args.get(0)), optionalLong(args, 1), list.size(), true);
+                return Outcome.read(current, CdtValues.copy(new ArrayList<>(list.subList(range[0], range[1]))));
+            }
+            default:
+                if (command >= 19 && command <= 27) {
+                    return selectFromList(command - 19, args, current, false, binName);
+                } else if (command >= 32 && command <= 40) {
+                    return selectFromList(command - 32, args, current, true, binName);
+                }
+                throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                        String.format("List operation %d on bin %s is not supported in memory", command, binName));
+        }
+    }
+
+    private static Outcome listInsert(List<Object> current, int index, List<Object> items, int flags, boolean checkIndex) {
+        List<Object> result = current == null ? new ArrayList<>() : new ArrayList<>(current);
+        if (index < 0) {
+            index += result.size();
+        }
+        if (index < 0 || (checkIndex && (flags & LIST_INSERT_BOUNDED) != 0 && index > result.size())) {
+            if ((flags & LIST_NO_FAIL) != 0) {
+                return Outcome.read(current, (long) result.size());
+            }
+            throw notApplicable("Index %d is out of bounds for a list of size %d", index, result.size());
+        }
+        while (result.size() < index) {
+            result.add(null);
+        }
+        List<Object> toInsert = new ArrayList<>(items.size());
+        for (Object item : items) {
+            if ((flags & LIST_ADD_UNIQUE) != 0 && (contains(result, item) || contains(toInsert, item))) {
+                if ((flags & LIST_NO_FAIL) != 0) {
+                    continue;
+                }
+                throw new AerospikeException(ResultCode.ELEMENT_EXISTS, "The list already contains the value");
+            }
+            toInsert.add(item);
+        }
+        result.addAll(index, toInsert);
+        return Outcome.write(result, (long) result.size());
+    }
+
+    private static boolean contains(List<Object> list, Object value) {
+        for (Object element : list) {
+            if (CdtValues.compare(element, value) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Outcome selectFromList(int selector, List<Object> args, List<Object> current, boolean remove,
+                                          String binName) {
+        int returnType = toInt(args.get(0));
+        if (current == null) {
+            return Outcome.read(null, null);
+        }
+        Elements elements = new Elements(null, current);
+        Selection selection = select(selector, args.subList(1, args.size()), elements, false, binName);
+        return finish(selection, returnType, elements, remove, current, binName);
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Maps
+    // ------------------------------------------------------------------------------------------
+
+    @SuppressWarnings("unchecked")
+    private static Outcome applyToMap(int command, List<Object> args, Map<Object, Object> current, String binName) {
+        switch (command) {
+            case 64: // SET_TYPE
+                return current == null ? Outcome.write(CdtValues.newMap(), null) : Outcome.read(current, null);
+            case 65: // ADD
+                return mapPut(current, Collections.singletonMap(args.get(0), args.get(1)), MAP_CREATE_ONLY, binName);
+            case 66: // ADD_ITEMS
+                return mapPut(current, (Map<Object, Object>) args.get(0), MAP_CREATE_ONLY, binName);
+            case 67: // PUT
+                return mapPut(current, Collections.singletonMap(args.get(0), args.get(1)), optionalInt(args, 3), binName);
+            case 68: // PUT_ITEMS
+                return mapPut(current, (Map<Object, Object>) args.get(0), optionalInt(args, 2), binName);
+            case 69: // REPLACE
+                return mapPut(current, Collections.singletonMap(args.get(0), args.get(1)), MAP_UPDATE_ONLY, binName);
+            case 70: // REPLACE_ITEMS
+                return mapPut(current, (Map<Object, Object>) args.get(0), MAP_UPDATE_ONLY, binName);
+            case 73: // INCREMENT
+            case 74: { // DECREMENT
+                Map<Object, Object> result = current == null ? CdtValues.newMap() : copyOf(current);
+                Object delta = optional(args, 1, 1L);
+                if (command == 74) {
+                    delta = delta instanceof Double ? (Object) (-(Double) delta) : (Object) (-((Number) delta).longValue());
+                }
+                Object value = add(result.get(args.get(0)), delta, binName);
+                result.put(args.get(0), value);
+                return Outcome.write(result, value);
+            }
+            case 75: // CLEAR
+                return current == null ? Outcome.read(null, null) : Outcome.write(CdtValues.newMap(), null);
+            case 96: // SIZE
+                return Outcome.read(current, current == null ? null : (Object) (long) current.size());
+            default:
+                if (command >= 76 && command <= 89) {
+                    return selectFromMap(MAP_REMOVE_SELECTORS[command - 76], args, current, true, binName);
+                } else if (command >= 97 && command <= 110) {
+                    return selectFromMap(MAP_GET_SELECTORS[command - 97], args, current, false, binName);
+                }
+                throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                        String.format("Map operation %d on bin %s is not supported in memory", command, binName));
+        }
+    }
+
+    private static Map<Object, Object> copyOf(Map<Object, Object> map) {
+        Map<Object, Object> result = CdtValues.newMap();
+        result.putAll(map);
+        return result;
+    }
+
+    private static Outcome mapPut(Map<Object, Object> current, Map<Object, Object> items, int flags, String binName) {
+        Map<Object, Object> result = current == null ? CdtValues.newMap() : copyOf(current);
+        boolean changed = current == null;
+        for (Map.Entry<Object, Object> item : items.entrySet()) {
+            boolean exists = result.containsKey(item.getKey());
+            if (((flags & MAP_CREATE_ONLY) != 0 && exists) || ((flags & MAP_UPDATE_ONLY) != 0 && !exists)) {
+                if ((flags & MAP_NO_FAIL) != 0) {
+                    continue;
+                }
+                throw new AerospikeException(exists ? ResultCode.ELEMENT_EXISTS : ResultCode.ELEMENT_NOT_FOUND,
+                        String.format("Map key %s %s in bin %s", item.getKey(), exists ? "already exists" : "does not exist",
+                                binName));
+            }
+            result.put(item.getKey(), item.getValue());
+            changed = true;
+        }
+        return changed ? Outcome.write(result, (long) result.size()) : Outcome.read(current, (long) result.size());
+    }
+
+    // The selectors of the map get and remove commands, indexed from GET_BY_KEY (97) and REMOVE_BY_KEY (76)
+    private static final int SELECT_KEY = 100;
+    private static final int SELECT_KEY_INTERVAL = 101;
+    private static final int SELECT_KEY_LIST = 102;
+    private static final int SELECT_KEY_RELATIVE_INDEX_RANGE = 103;
+    private static final int UNUSED = -1;
+
+    private static final int[] MAP_GET_SELECTORS = {
+            SELECT_KEY, 0, UNUSED, 2, UNUSED, 3, SELECT_KEY_INTERVAL, 5, 6, 7, SELECT_KEY_LIST, 4,
+            SELECT_KEY_RELATIVE_INDEX_RANGE, 8
+    };
+
+    private static final int[] MAP_REMOVE_SELECTORS = {
+            SELECT_KEY, 0, UNUSED, 2, UNUSED, SELECT_KEY_LIST, 3, 4, SELECT_KEY_INTERVAL, 5, 6, 7,
+            SELECT_KEY_RELATIVE_INDEX_RANGE, 8
+    };
+
+    private static Outcome selectFromMap(int selector, List<Object> args, Map<Object, Object> current, boolean remove,
+                                         String binName) {
+        if (selector == UNUSED) {
+            throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                    String.format("Map operation on bin %s is not supported in memory", binName));
+        }
+        int returnType = toInt(args.get(0));
+        if (current == null) {
+            return Outcome.read(null, null);
+        }
+        Elements elements = new Elements(new ArrayList<>(current.keySet()), new ArrayList<>(current.values()));
+        Selection selection = select(selector, args.subList(1, args.size()), elements, true, binName);
+        return finish(selection, returnType, elements, remove, current, binName);
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Selection, shared by lists and maps
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * The indexes of the selected elements, in the order they are returned, and whether the operation selects at
+     * most one element so returns a single value rather than a list.
+     */
+    private static final class Selection {
+        final List<Integer> indexes;
+        final boolean single;
+
+        Selection(List<Integer> indexes, boolean single) {
+            this.indexes = indexes;
+            this.single = single;
+        }
+    }
+
+    /**
+     * Select elements. The selectors 0 to 8 follow the order of the list get by index, rank, value, value list,
+     * index range, value interval, rank range and value relative rank range commands (with 1 unused); the map key
+     * selectors are numbered from 100.
+     */
+    @SuppressWarnings("unchecked")
+    private static Selection select(int selector, List<Object> args, Elements elements, boolean isMap, String binName) {
+        int size = elements.size();
+        List<Integer> indexes = new ArrayList<>();
+        switch (selector) {
+            case 0: // BY_INDEX
+                indexes.add(singleIndex(toInt(args.get(0)), size, binName));
+                return new Selection(indexes, true);
+            case 2: { // BY_RANK
+                int rank = singleIndex(toInt(args.get(0)), size, binName);
+                indexes.add(elements.byRank()[rank]);
+                return new Selection(indexes, true);
+            }
+            case 3: // BY_VALUE
+                for (int i = 0; i < size; i++) {
+                    if (CdtValues.compare(elements.values.get(i), args.get(0)) == 0) {
+                        indexes.add(i);
+                    }
+                }
+                return new Selection(indexes, false);
+            case 4: // BY_VALUE_LIST
+                for (int i = 0; i < size; i++) {
+                    if (contains((List<Object>) args.get(0), elements.values.get(i))) {
+                        indexes.add(i);
+                    }
+                }
+                return new Selection(indexes, false);
+            case 5: { // BY_INDEX_RANGE
+                int[] range = range(toInt(args.get(0)), optionalLong(args, 1), size, true);
+                for (int i = range[0]; i < range[1]; i++) {
+                    indexes.add(i);
+                }
+                return new Selection(indexes, false);
+            }
+            case 6: // BY_VALUE_INTERVAL
+                for (int i = 0; i < size; i++) {
+                    if (inInterval(elements.values.get(i), args)) {
+                        indexes.add(i);
+                    }
+                }
+                return new Selection(indexes, false);
+            case 7: { // BY_RANK_RANGE
+                int[] range = range(toInt(args.get(0)), optionalLong(args, 1), size, true);
+                Integer[] byRank = elements.byRank();
+                indexes.addAll(Arrays.asList(byRank).subList(range[0], range[1]));
+                return new Selection(indexes, false);
+            }
+            case 8: { // BY_VALUE_RELATIVE_RANK_RANGE
+                int start = elements.countBelow(args.get(0)) + toInt(args.get(1));
+                int[] range = range(start, optionalLong(args, 2), size, false);
+                Integer[] byRank = elements.byRank();
+                indexes.addAll(Arrays.asList(byRank).subList(range[0], range[1]));
+                return new Selection(indexes, false);
+            }
+            case SELECT_KEY: {
+                int index = indexOfKey(elements, args.get(0));
+                if (index >= 0) {
+                    indexes.add(index);
+                }
+                return new Selection(indexes, true);
+            }
+            case SELECT_KEY_INTERVAL:
+                for (int i = 0; i < size; i++) {
+                    if (inInterval(elements.keys.get(i), args)) {
+                        indexes.add(i);
+                    }
+                }
+                return new Selection(indexes, false);
+            case SELECT_KEY_LIST:
+                for (int i = 0; i < size; i++) {
+                    if (contains((List<Object>) args.get(0), elements.keys.get(i))) {
+                        indexes.add(i);
+                    }
+                }
+                return new Selection(indexes, false);
+            case SELECT_KEY_RELATIVE_INDEX_RANGE: {
+                int start = 0;
+                while (start < size && CdtValues.compare(elements.keys.get(start), args.get(0)) < 0) {
+                    start++;
+                }
+                int[] range = range(start + toInt(args.get(1)), optionalLong(args, 2), size, false);
+                for (int i = range[0]; i < range[1]; i++) {
+                    indexes.add(i);
+                }
+                return new Selection(indexes, false);
+            }
+            default:
+                throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                        String.format("%s operation on bin %s is not supported in memory", isMap ? "Map" : "List", binName));
+        }
+    }
+
+    private static int indexOfKey(Elements elements, Object key) {
+        for (int i = 0; i < elements.size(); i++) {
+            if (CdtValues.compare(elements.keys.get(i), key) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether a value is in the interval from the first argument (inclusive) to the second (exclusive). A missing end
+     * means the interval is unbounded.
+     */
+    private static boolean inInterval(Object value, List<Object> args) {
+        Object begin = args.get(0);
+        Object end = args.size() > 1 ? args.get(1) : MsgPack.INFINITY;
+        return CdtValues.compare(value, begin) >= 0 && (end == MsgPack.INFINITY || CdtValues.compare(value, end) < 0);
+    }
+
+    private static int singleIndex(int index, int size, String binName) {
+        int result = index < 0 ? size + index : index;
+        if (result < 0 || result >= size) {
+            throw notApplicable("Index %d is out of bounds for bin %s of size %d", index, binName, size);
+        }
+        return result;
+    }
+
+    /**
+     * The range of indexes (or ranks) starting at the given position for the given count, clipped to the elements
+     * which exist. Negative positions count back from the end when <code>fromEnd</code> is set.
+     */
+    private static int[] range(int start, Long count, int size, boolean fromEnd) {
+        long from = start < 0 && fromEnd ? (long) size + start : start;
+        long to = count == null ? size : from + Math.max(0, count);
+        from = Math.max(0, Math.min(size, from));
+        to = Math.max(from, Math.min(size, to));
+        return new int[]{(int) from, (int) to};
+    }
+
+    private static Outcome finish(Selection selection, int returnType, Elements elements, boolean remove,
+                                  Object current, String binName) {
+        List<Integer> indexes = selection.indexes;
+        boolean single = selection.single;
+        if ((returnType & RETURN_INVERTED) != 0) {
+            boolean[] selected = new boolean[elements.size()];
+            for (int index : indexes) {
+                selected[index] = true;
+            }
+            indexes = new ArrayList<>();
+            for (int i = 0; i < selected.length; i++) {
+                if (!selected[i]) {
+                    indexes.add(i);
+                }
+            }
+            single = false;
+        }
+        Object result = buildResult(returnType & ~RETURN_INVERTED, indexes, single, elements, binName);
+        if (!remove || indexes.isEmpty()) {
+            return Outcome.read(current, result);
+        }
+        boolean[] removed = new boolean[elements.size()];
+        for (int index : indexes) {
+            removed[index] = true;
+        }
+        if (elements.keys == null) {
+            List<Object> list = new ArrayList<>(elements.size() - indexes.size());
+            for (int i = 0; i < removed.length; i++) {
+                if (!removed[i]) {
+                    list.add(elements.values.get(i));
+                }
+            }
+            return Outcome.write(list, result);
+        } else {
+            Map<Object, Object> map = CdtValues.newMap();
+            for (int i = 0; i < removed.length; i++) {
+                if (!removed[i]) {
+                    map.put(elements.keys.get(i), elements.values.get(i));
+                }
+            }
+            return Outcome.write(map, result);
+        }
+    }
+
+    private static Object buildResult(int returnType, List<Integer> indexes, boolean single, Elements elements,
+                                      String binName) {
+        int size = elements.size();
+        switch (returnType) {
+            case RETURN_NONE:
+                return null;
+            case RETURN_COUNT:
+                return (long) indexes.size();
+            case RETURN_EXISTS:
+                return !indexes.isEmpty();
+            case RETURN_KEY_VALUE: {
+                List<Object> result = new ArrayList<>(indexes.size());
+                for (int index : indexes) {
+                    result.add(new AbstractMap.SimpleEntry<>(CdtValues.copy(elements.keys.get(index)),
+                            CdtValues.copy(elements.values.get(index))));
+                }
+                return result;
+            }
+            case RETURN_UNORDERED_MAP:
+            case RETURN_ORDERED_MAP: {
+                Map<Object, Object> result = CdtValues.newMap();
+                for (int index : indexes) {
+                    result.put(CdtValues.copy(elements.keys.get(index)), CdtValues.copy(elements.values.get(index)));
+                }
+                return result;
+            }
+            default:
+                break;
+        }
+        List<Object> result = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            switch (returnType) {
+                case RETURN_INDEX:
+                    result.add((long) index);
+                    break;
+                case RETURN_REVERSE_INDEX:
+                    result.add((long) (size - 1 - index));
+                    break;
+                case RETURN_RANK:
+                    result.add((long) elements.rankOf(index));
+                    break;
+                case RETURN_REVERSE_RANK:
+                    result.add((long) (size - 1 - elements.rankOf(index)));
+                    break;
+                case RETURN_KEY:
+                    if (elements.keys == null) {
+                        throw new AerospikeException(ResultCode.PARAMETER_ERROR,
+                                String.format("List bin %s has no keys to return", binName));
+                    }
+                    result.add(CdtValues.copy(elements.keys.get(index)));
+                    break;
+                case RETURN_VALUE:
+                    result.add(CdtValues.copy(elements.values.get(index)));
+                    break;
+                default:
+                    throw new AerospikeException(ResultCode.PARAMETER_ERROR,
+                            String.format("Unknown return type %d for bin %s", returnType, binName));
+            }
+        }
+        if (single) {
+            return result.isEmpty() ? null : result.get(0);
+        }
+        return result;
+    }
+
+    /**
+     * Add two numbers as the increment operations do, keeping integers as integers.
+     */
+    static Object add(Object current, Object delta, String binName) {
+        if (current == null) {
+            return delta;
+        }
+        if (!(current instanceof Number) || !(delta instanceof Number)) {
+            throw binTypeError(binName, "number");
+        }
+        if (current instanceof Double || delta instanceof Double) {
+            return ((Number) current).doubleValue() + ((Number) delta).doubleValue();
+        }
+        return ((Number) current).longValue() + ((Number) delta).longValue();
+    }
+}
@@ -0,0 +1,250 @@
+package com.aerospike.mapper.tools.inmemory;
+
+import com.aerospike.client.Value;
+import com.aerospike.client.command.ParticleType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Converts values to the form they are stored in, and orders them the way the server orders CDT elements.
+ * <p/>
+ * Stored values are <code>null</code>, <code>Boolean</code>, <code>Long</code>, <code>Double</code>,
+ * <code>String</code>, <code>byte[]</code>, <code>List</code> and <code>TreeMap</code> ordered by key, which are the
+ * types the client returns when reading.
+ */
+final class CdtValues {
+    /**
+     * Orders values as the server does: nil, booleans, integers, strings, lists, maps, blobs and then doubles. Values of
+     * the same type are compared by value. The wildcard matches any value.
+     */
+    static final Comparator<Object> ORDER = CdtValues::compare;
+
+    private CdtValues() {
+    }
+
+    static Map<Object, Object> newMap() {
+        return new TreeMap<>(ORDER);
+    }
+
+    /**
+     * Convert a client value, as passed in a bin, to its stored form.
+     */
+    static Object fromValue(Value value) {
+        if (value == null) {
+            return null;
+        }
+        Object object = value.getObject();
+        if (value.getType() == ParticleType.MAP && object instanceof List) {
+            // A map with an order is passed as a list of its entries
+            Map<Object, Object> map = newMap();
+            for (Object entry : (List<?>) object) {
+                Map.Entry<?, ?> mapEntry = (Map.Entry<?, ?>) entry;
+                map.put(normalize(mapEntry.getKey()), normalize(mapEntry.getValue()));
+            }
+            return map;
+        }
+        return normalize(object);
+    }
+
+    /**
+     * Convert a Java value to its stored form.
+     */
+    static Object normalize(Object object) {
+        if (object == null || object instanceof Long || object instanceof Double || object instanceof String
+                || object instanceof Boolean || object instanceof byte[]) {
+            return object;
+        } else if (object instanceof Integer || object instanceof Short || object instanceof Byte) {
+            return ((Number) object).longValue();
+        } else if (object instanceof Float) {
+            return ((Float) object).doubleValue();
+        } else if (object instanceof Character) {
+            return (long) (Character) object;
+        } else if (object instanceof Value) {
+            return fromValue((Value) object);
+        } else if (object instanceof Value[]) {
+            List<Object> result = new ArrayList<>();
+            for (Value value : (Value[]) object) {
+                result.add(fromValue(value));
+            }
+            return result;
+        } else if (object instanceof List) {
+            List<Object> result = new ArrayList<>(((List<?>) object).size());
+            for (Object element : (List<?>) object) {
+                result.add(normalize(element));
+            }
+            return result;
+        } else if (object instanceof Map) {
+            Map<Object, Object> result = newMap();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                result.put(normalize(entry.getKey()), normalize(entry.getValue()));
+            }
+            return result;
+        } else {
+            return object;
+        }
+    }
+
+    /**
+     * Copy a stored value so the copy can be returned or changed without affecting the stored value.
+     */
+    static Object copy(Object object) {
+        if (object instanceof List) {
+            List<Object> result = new ArrayList<>(((List<?>) object).size());
+            for (Object element : (List<?>) object) {
+                result.add(copy(element));
+            }
+            return result;
+        } else if (object instanceof Map) {
+            Map<Object, Object> result = newMap();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                result.put(copy(entry.getKey()), copy(entry.getValue()));
+            }
+            return result;
+        } else if (object instanceof byte[]) {
+            return ((byte[]) object).clone();
+        }
+        return object;
+    }
+
+    /**
+     * The particle type of a stored value, as returned by the bin type expression.
+     */
+    static int particleType(Object object) {
+        if (object == null) {
+            return ParticleType.NULL;
+        } else if (object instanceof Long) {
+            return ParticleType.INTEGER;
+        } else if (object instanceof Double) {
+            return ParticleType.DOUBLE;
+        } else if (object instanceof String) {
+            return ParticleType.STRING;
+        } else if (object instanceof byte[]) {
+            return ParticleType.BLOB;
+        } else if (object instanceof Boolean) {
+            return ParticleType.BOOL;
+        } else if (object instanceof Map) {
+            return ParticleType.MAP;
+        } else if (object instanceof List) {
+            return ParticleType.LIST;
+        }
+        return ParticleType.NULL;
+    }
+
+    private static int typeOrder(Object object) {
+        if (object == null) {
+            return 1;
+        } else if (object instanceof Boolean) {
+            return 2;
+        } else if (object instanceof Long) {
+            return 3;
+        } else if (object instanceof String) {
+            return 4;
+        } else if (object instanceof List) {
+            return 5;
+        } else if (object instanceof Map) {
+            return 6;
+        } else if (object instanceof byte[]) {
+            return 7;
+        } else if (object instanceof Double) {
+            return 8;
+        } else if (object == MsgPack.INFINITY) {
+            return 10;
+        }
+        return 9;
+    }
+
+    @SuppressWarnings("unchecked")
+    static int compare(Object a, Object b) {
+        if (a == MsgPack.WILDCARD || b == MsgPack.WILDCARD) {
+            return 0;
+        }
+        int typeA = typeOrder(a);
+        int typeB = typeOrder(b);
+        if (typeA != typeB) {
+            return Integer.compare(typeA, typeB);
+        }
+        switch (typeA) {
+            case 2:
+                return Boolean.compare((Boolean) a, (Boolean) b);
+            case 3:
+                return Long.compare((Long) a, (Long) b);
+            case 4:
+                return compareBytes(((String) a).getBytes(StandardCharsets.UTF_8),
+                        ((String) b).getBytes(StandardCharsets.UTF_8));
+            case 5:
+                return compareLists((List<Object>) a, (List<Object>) b);
+            case 6:
+                return compareMaps((Map<Object, Object>) a, (Map<Object, Object>) b);
+            case 7:
+                return compareBytes((byte[]) a, (byte[]) b);
+            case 8:
+                return Double.compare((Double) a, (Double) b);
+            case 9:
+                return a.toString().compareTo(b.toString());
+            default:
+                return 0;
+        }
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int result = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    private static int compareLists(List<Object> a, List<Object> b) {
+        int length = Math.min(a.size(), b.size());
+        for (int i = 0; i < length; i++) {
+            int result = compare(a.get(i), b.get(i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        // A list ending with the wildcard matches any list with the same prefix
+        if (a.size() > length && a.get(length) == MsgPack.WILDCARD
+                || b.size() > length && b.get(length) == MsgPack.WILDCARD) {
+            return 0;
+        }
+        return Integer.compare(a.size(), b.size());
+    }
+
+    private static int compareMaps(Map<Object, Object> a, Map<Object, Object> b) {
+        if (a.size() != b.size()) {
+            return Integer.compare(a.size(), b.size());
+        }
+        Iterator<Map.Entry<Object, Object>> iteratorA = sorted(a).entrySet().iterator();
+        Iterator<Map.Entry<Object, Object>> iteratorB = sorted(b).entrySet().iterator();
+        while (iteratorA.hasNext()) {
+            Map.Entry<Object, Object> entryA = iteratorA.next();
+            Map.Entry<Object, Object> entryB = iteratorB.next();
+            int result = compare(entryA.getKey(), entryB.getKey());
+            if (result == 0) {
+                result = compare(entryA.getValue(), entryB.getValue());
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static Map<Object, Object> sorted(Map<Object, Object> map) {
+        if (map instanceof TreeMap && ((TreeMap<Object, Object>) map).comparator() == ORDER) {
+            return map;
+        }
+        Map<Object, Object> result = newMap();
+        result.putAll(map);
+        return result;
+    }
+}
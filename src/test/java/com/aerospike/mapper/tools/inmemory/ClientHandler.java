@@ -0,0 +1,345 @@
+package com.aerospike.mapper.tools.inmemory;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.BatchDelete;
+import com.aerospike.client.BatchRecord;
+import com.aerospike.client.BatchResults;
+import com.aerospike.client.BatchWrite;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.ScanCallback;
+import com.aerospike.client.async.EventLoop;
+import com.aerospike.client.cluster.Cluster;
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.policy.BatchDeletePolicy;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.BatchWritePolicy;
+import com.aerospike.client.policy.Policy;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.ScanPolicy;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.client.query.PartitionFilter;
+import com.aerospike.client.query.RecordSet;
+import com.aerospike.client.query.Statement;
+import com.aerospike.client.task.IndexTask;
+import com.aerospike.client.task.Task;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implements <code>IAerospikeClient</code> over an {@link InMemoryAerospike}.
+ * <p/>
+ * The client interface has many overloads of each call and grows with each release, so it is implemented with a
+ * dynamic proxy which dispatches on the name and parameter types of the method called. This keeps the store working
+ * across client versions: new calls are reported as unsupported rather than breaking the build. The asynchronous calls
+ * (those taking an <code>EventLoop</code>) are not supported; use the reactive client instead.
+ */
+final class ClientHandler implements InvocationHandler {
+    private final InMemoryAerospike store;
+    private final Map<String, Object> defaultPolicies = new ConcurrentHashMap<>();
+
+    ClientHandler(InMemoryAerospike store) {
+        this.store = store;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        Class<?>[] types = method.getParameterTypes();
+        if (args == null) {
+            args = new Object[0];
+        }
+        if (types.length > 0 && types[0] == EventLoop.class) {
+            throw unsupported(method);
+        }
+        if (name.endsWith("PolicyDefault")) {
+            return name.startsWith("set") ? setDefaultPolicy(name, args[0]) : getDefaultPolicy(method);
+        }
+        switch (name) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryAerospike client";
+            case "close":
+                store.close();
+                return null;
+            case "isConnected":
+                return !store.isClosed();
+            case "getNodes":
+                return new Node[0];
+            case "getNodeNames":
+                return new ArrayList<String>();
+            case "get":
+            case "getHeader":
+                return get(name, types, args);
+            case "exists":
+                if (types[1] == Key.class) {
+                    Policy policy = readPolicy(args[0]);
+                    store.beginSingleCommand("exists", policy);
+                    return store.exists(policy, (Key) args[1]);
+                } else if (types[1] == Key[].class) {
+                    BatchPolicy policy = batchPolicy(args[0]);
+                    store.beginCommand("batchExists", policy);
+                    return store.batchExists(policy, (Key[]) args[1]);
+                }
+                break;
+            case "put":
+            case "append":
+            case "prepend":
+            case "add":
+                if (types.length == 3 && types[1] == Key.class) {
+                    WritePolicy policy = writePolicy(args[0]);
+                    store.beginSingleCommand(name, policy);
+                    store.write(policy, (Key) args[1], writeType(name), (Bin[]) args[2]);
+                    return null;
+                }
+                break;
+            case "touch":
+                if (types.length == 2 && types[1] == Key.class) {
+                    WritePolicy policy = new WritePolicy(writePolicy(args[0]));
+                    policy.recordExistsAction = RecordExistsAction.UPDATE_ONLY;
+                    store.beginSingleCommand(name, policy);
+                    store.operate(policy, (Key) args[1], new Operation[]{Operation.touch()});
+                    return null;
+                }
+                break;
+            case "delete":
+                if (types.length == 2 && types[1] == Key.class) {
+                    WritePolicy policy = writePolicy(args[0]);
+                    store.beginSingleCommand(name, policy);
+                    return store.delete(policy, (Key) args[1]);
+                } else if (types.length == 3 && types[2] == Key[].class) {
+                    BatchPolicy policy = batchWritePolicy(args[0]);
+                    BatchDeletePolicy deletePolicy = (BatchDeletePolicy) args[1];
+                    List<BatchRecord> records = new ArrayList<>();
+                    for (Key key : (Key[]) args[2]) {
+                        records.add(new BatchDelete(deletePolicy, key));
+                    }
+                    store.beginCommand("batchDelete", policy);
+                    boolean status = store.batchOperate(policy, records, null, deletePolicy);
+                    return new BatchResults(records.toArray(new BatchRecord[0]), status);
+                }
+                break;
+            case "operate":
+                return operate(types, args);
+            case "scanAll":
+                if (types.length == 5 && types[3] == ScanCallback.class) {
+                    ScanPolicy policy = scanPolicy(args[0]);
+                    store.beginSingleCommand(name, policy);
+                    scan(policy, null, (String) args[1], (String) args[2], (ScanCallback) args[3], (String[]) args[4]);
+                    return null;
+                }
+                break;
+            case "scanPartitions":
+                if (types.length == 6 && types[4] == ScanCallback.class) {
+                    ScanPolicy policy = scanPolicy(args[0]);
+                    store.beginSingleCommand(name, policy);
+                    scan(policy, (PartitionFilter) args[1], (String) args[2], (String) args[3], (ScanCallback) args[4],
+                            (String[]) args[5]);
+                    return null;
+                }
+                break;
+            case "query":
+            case "queryPartitions":
+                if (method.getReturnType() == RecordSet.class) {
+                    QueryPolicy policy = queryPolicy(args[0]);
+                    store.beginSingleCommand(name, policy);
+                    PartitionFilter partitionFilter = args.length > 2 ? (PartitionFilter) args[2] : null;
+                    return new InMemoryRecordSet(store.query(policy, (Statement) args[1], partitionFilter));
+                }
+                break;
+            case "truncate": {
+                store.beginSingleCommand(name, null);
+                Calendar beforeLastUpdate = (Calendar) args[3];
+                store.truncate((String) args[1], (String) args[2],
+                        beforeLastUpdate == null ? Long.MAX_VALUE : beforeLastUpdate.getTimeInMillis());
+                return null;
+            }
+            case "createIndex":
+                if (method.getReturnType() == IndexTask.class) {
+                    store.beginSingleCommand(name, null);
+                    store.createIndex((String) args[1], (String) args[2], (String) args[3]);
+                    return completedIndexTask();
+                }
+                break;
+            case "dropIndex":
+                if (method.getReturnType() == IndexTask.class) {
+                    store.beginSingleCommand(name, null);
+                    store.dropIndex((String) args[1], (String) args[3]);
+                    return completedIndexTask();
+                }
+                break;
+            default:
+                break;
+        }
+        throw unsupported(method);
+    }
+
+    private Object get(String name, Class<?>[] types, Object[] args) {
+        boolean header = "getHeader".equals(name);
+        if (types[1] == Key.class) {
+            Policy policy = readPolicy(args[0]);
+            store.beginSingleCommand(name, policy);
+            String[] binNames = types.length > 2 ? (String[]) args[2] : null;
+            return store.get(policy, (Key) args[1], binNames, header);
+        } else if (types[1] == Key[].class) {
+            BatchPolicy policy = batchPolicy(args[0]);
+            store.beginCommand(header ? "batchGetHeader" : "batchGet", policy);
+            String[] binNames = types.length > 2 && types[2] == String[].class ? (String[]) args[2] : null;
+            Operation[] operations = types.length > 2 && types[2] == Operation[].class ? (Operation[]) args[2] : null;
+            return store.batchGet(policy, (Key[]) args[1], binNames, operations, header);
+        } else if (types[1] == List.class && !header) {
+            BatchPolicy policy = batchPolicy(args[0]);
+            store.beginCommand("batchGet", policy);
+            return store.batchOperate(policy, castList(args[1]), null, null);
+        }
+        throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                String.format("%s%s is not supported in memory", name, Arrays.toString(types)));
+    }
+
+    private Object operate(Class<?>[] types, Object[] args) {
+        if (types.length == 3 && types[1] == Key.class) {
+            WritePolicy policy = writePolicy(args[0]);
+            store.beginSingleCommand("operate", policy);
+            return store.operate(policy, (Key) args[1], (Operation[]) args[2]);
+        } else if (types.length == 2 && types[1] == List.class) {
+            BatchPolicy policy = batchWritePolicy(args[0]);
+            store.beginCommand("batchOperate", policy);
+            return store.batchOperate(policy, castList(args[1]), null, null);
+        } else if (types.length == 4 && types[2] == Key[].class) {
+            BatchPolicy policy = batchWritePolicy(args[0]);
+            BatchWritePolicy writePolicy = (BatchWritePolicy) args[1];
+            List<BatchRecord> records = new ArrayList<>();
+            for (Key key : (Key[]) args[2]) {
+                records.add(new BatchWrite(writePolicy, key, (Operation[]) args[3]));
+            }
+            store.beginCommand("batchOperate", policy);
+            boolean status = store.batchOperate(policy, records, writePolicy, null);
+            return new BatchResults(records.toArray(new BatchRecord[0]), status);
+        }
+        throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                String.format("operate%s is not supported in memory", Arrays.toString(types)));
+    }
+
+    private void scan(ScanPolicy policy, PartitionFilter partitionFilter, String namespace, String setName,
+                      ScanCallback callback, String[] binNames) {
+        store.scan(policy, namespace, setName, partitionFilter, policy.maxRecords, policy.recordsPerSecond, null,
+                binNames, policy.includeBinData, keyRecord -> callback.scanCallback(keyRecord.key, keyRecord.record));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends BatchRecord> List<T> castList(Object list) {
+        return (List<T>) list;
+    }
+
+    private static Operation.Type writeType(String name) {
+        switch (name) {
+            case "append":
+                return Operation.Type.APPEND;
+            case "prepend":
+                return Operation.Type.PREPEND;
+            case "add":
+                return Operation.Type.ADD;
+            default:
+                return Operation.Type.WRITE;
+        }
+    }
+
+    private static AerospikeException unsupported(Method method) {
+        return new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                String.format("%s%s is not supported in memory", method.getName(), Arrays.toString(method.getParameterTypes())));
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Default policies
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Return the default policy a getter such as <code>getWritePolicyDefault</code> asks for, creating it the first
+     * time with the no-argument constructor of its type.
+     */
+    Object getDefaultPolicy(Method method) {
+        String policyName = method.getName().substring("get".length());
+        return defaultPolicies.computeIfAbsent(policyName, key -> {
+            if ("BatchParentPolicyWriteDefault".equals(key)) {
+                return BatchPolicy.WriteDefault();
+            }
+            try {
+                return method.getReturnType().getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                        String.format("Cannot create a default %s: %s", method.getReturnType().getSimpleName(), e));
+            }
+        });
+    }
+
+    private Object setDefaultPolicy(String name, Object policy) {
+        defaultPolicies.put(name.substring("set".length()), policy);
+        return null;
+    }
+
+    Policy readPolicy(Object policy) {
+        return policy != null ? (Policy) policy : (Policy) defaultPolicies.computeIfAbsent("ReadPolicyDefault", key -> new Policy());
+    }
+
+    WritePolicy writePolicy(Object policy) {
+        return policy != null ? (WritePolicy) policy
+                : (WritePolicy) defaultPolicies.computeIfAbsent("WritePolicyDefault", key -> new WritePolicy());
+    }
+
+    BatchPolicy batchPolicy(Object policy) {
+        return policy != null ? (BatchPolicy) policy
+                : (BatchPolicy) defaultPolicies.computeIfAbsent("BatchPolicyDefault", key -> new BatchPolicy());
+    }
+
+    BatchPolicy batchWritePolicy(Object policy) {
+        return policy != null ? (BatchPolicy) policy
+                : (BatchPolicy) defaultPolicies.computeIfAbsent("BatchParentPolicyWriteDefault", key -> BatchPolicy.WriteDefault());
+    }
+
+    ScanPolicy scanPolicy(Object policy) {
+        return policy != null ? (ScanPolicy) policy
+                : (ScanPolicy) defaultPolicies.computeIfAbsent("ScanPolicyDefault", key -> new ScanPolicy());
+    }
+
+    QueryPolicy queryPolicy(Object policy) {
+        return policy != null ? (QueryPolicy) policy
+                : (QueryPolicy) defaultPolicies.computeIfAbsent("QueryPolicyDefault", key -> new QueryPolicy());
+    }
+
+    /**
+     * An index task which has already completed, as indexes in memory need no building.
+     */
+    private static IndexTask completedIndexTask() {
+        try {
+            return IndexTask.class.getConstructor().newInstance();
+        } catch (NoSuchMethodException e) {
+            // Older clients have no constructor for a completed task, so build one and mark it done
+            try {
+                IndexTask task = IndexTask.class.getConstructor(Cluster.class, Policy.class, String.class, String.class,
+                        boolean.class).newInstance(null, new Policy(), "", "", true);
+                Field done = Task.class.getDeclaredField("done");
+                done.setAccessible(true);
+                done.setBoolean(task, true);
+                return task;
+            } catch (ReflectiveOperationException ex) {
+                throw new AerospikeException(ResultCode.CLIENT_ERROR, "Cannot create an index task: " + ex);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new AerospikeException(ResultCode.CLIENT_ERROR, "Cannot create an index task: " + e);
+        }
+    }
+}
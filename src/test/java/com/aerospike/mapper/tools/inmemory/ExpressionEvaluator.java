@@ -0,0 +1,346 @@
+package com.aerospike.mapper.tools.inmemory;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.exp.Expression;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates filter expressions against a stored record.
+ * <p/>
+ * Expressions are decoded from their packed form. The comparison, logical, arithmetic, bin, key and record metadata
+ * expressions are supported, which covers the filters the mapper builds. Expressions which call list, map, bit or HLL
+ * functions are not supported.
+ */
+final class ExpressionEvaluator {
+    private static final int EQ = 1;
+    private static final int NE = 2;
+    private static final int GT = 3;
+    private static final int GE = 4;
+    private static final int LT = 5;
+    private static final int LE = 6;
+    private static final int CMP_REGEX = 7;
+    private static final int AND = 16;
+    private static final int OR = 17;
+    private static final int NOT = 18;
+    private static final int EXCLUSIVE = 19;
+    private static final int ADD = 20;
+    private static final int SUB = 21;
+    private static final int MUL = 22;
+    private static final int DIV = 23;
+    private static final int MOD = 26;
+    private static final int ABS = 27;
+    private static final int MIN = 50;
+    private static final int MAX = 51;
+    private static final int DIGEST_MODULO = 64;
+    private static final int LAST_UPDATE = 66;
+    private static final int SINCE_UPDATE = 67;
+    private static final int VOID_TIME = 68;
+    private static final int TTL = 69;
+    private static final int SET_NAME = 70;
+    private static final int KEY_EXISTS = 71;
+    private static final int IS_TOMBSTONE = 72;
+    private static final int KEY = 80;
+    private static final int BIN = 81;
+    private static final int BIN_TYPE = 82;
+    private static final int COND = 123;
+    private static final int QUOTED = 126;
+
+    private static final int REGEX_ICASE = 2;
+
+    /**
+     * The result of an expression which cannot be evaluated, such as reading a bin which does not exist. A filter
+     * which evaluates to unknown does not match.
+     */
+    private static final Object UNKNOWN = new Object();
+
+    private final StoredRecord record;
+    private final long now;
+
+    private ExpressionEvaluator(StoredRecord record, long now) {
+        this.record = record;
+        this.now = now;
+    }
+
+    /**
+     * Whether the record matches a filter expression.
+     *
+     * @param expression - the filter, or null to match every record.
+     * @param record     - the record to test.
+     * @param now        - the current time in milliseconds.
+     * @return true if the record matches.
+     */
+    static boolean matches(Expression expression, StoredRecord record, long now) {
+        if (expression == null) {
+            return true;
+        }
+        Object result = new ExpressionEvaluator(record, now).evaluate(MsgPack.unpackRaw(expression.getBytes()));
+        return Boolean.TRUE.equals(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object evaluate(Object expression) {
+        if (!(expression instanceof List)) {
+            return value(expression);
+        }
+        List<Object> args = (List<Object>) expression;
+        if (args.isEmpty() || !(args.get(0) instanceof Long)) {
+            return value(expression);
+        }
+        int op = ((Long) args.get(0)).intValue();
+        switch (op) {
+            case EQ:
+            case NE:
+            case GT:
+            case GE:
+            case LT:
+            case LE:
+                return compare(op, evaluate(args.get(1)), evaluate(args.get(2)));
+            case CMP_REGEX: {
+                Object subject = evaluate(args.get(3));
+                if (!(subject instanceof String)) {
+                    return UNKNOWN;
+                }
+                int flags = ((Long) args.get(1)).intValue();
+                Pattern pattern = Pattern.compile(name(args.get(2)),
+                        (flags & REGEX_ICASE) != 0 ? Pattern.CASE_INSENSITIVE : 0);
+                return pattern.matcher((String) subject).find();
+            }
+            case AND:
+                for (int i = 1; i < args.size(); i++) {
+                    Object result = evaluate(args.get(i));
+                    if (!Boolean.TRUE.equals(result)) {
+                        return result == UNKNOWN ? UNKNOWN : Boolean.FALSE;
+                    }
+                }
+                return Boolean.TRUE;
+            case OR: {
+                boolean unknown = false;
+                for (int i = 1; i < args.size(); i++) {
+                    Object result = evaluate(args.get(i));
+                    if (Boolean.TRUE.equals(result)) {
+                        return Boolean.TRUE;
+                    }
+                    unknown |= result == UNKNOWN;
+                }
+                return unknown ? UNKNOWN : Boolean.FALSE;
+            }
+            case NOT: {
+                Object result = evaluate(args.get(1));
+                return result instanceof Boolean ? !(Boolean) result : UNKNOWN;
+            }
+            case EXCLUSIVE: {
+                int trueCount = 0;
+                for (int i = 1; i < args.size(); i++) {
+                    Object result = evaluate(args.get(i));
+                    if (result == UNKNOWN) {
+                        return UNKNOWN;
+                    }
+                    trueCount += Boolean.TRUE.equals(result) ? 1 : 0;
+                }
+                return trueCount == 1;
+            }
+            case ADD:
+            case SUB:
+            case MUL:
+            case DIV:
+            case MOD:
+            case MIN:
+            case MAX:
+                return arithmetic(op, args);
+            case ABS: {
+                Object value = evaluate(args.get(1));
+                if (value instanceof Long) {
+                    return Math.abs((Long) value);
+                }
+                return value instanceof Double ? (Object) Math.abs((Double) value) : UNKNOWN;
+            }
+            case DIGEST_MODULO:
+                return (long) Math.floorMod(digestInt(), ((Long) args.get(1)).intValue());
+            case LAST_UPDATE:
+                return record.lastUpdate * 1_000_000L;
+            case SINCE_UPDATE:
+                return now - record.lastUpdate;
+            case VOID_TIME:
+                return record.voidTime == 0 ? -1L : record.voidTime * 1_000_000_000L;
+            case TTL:
+                return record.voidTime == 0 ? -1L : Math.max(0, record.voidTime - now / 1000);
+            case SET_NAME:
+                return record.key.setName == null ? "" : record.key.setName;
+            case KEY_EXISTS:
+                return record.key.userKey != null;
+            case IS_TOMBSTONE:
+                return Boolean.FALSE;
+            case KEY:
+                return record.key.userKey == null ? UNKNOWN : CdtValues.fromValue(record.key.userKey);
+            case BIN: {
+                String binName = name(args.get(2));
+                if (!record.bins.containsKey(binName)) {
+                    return UNKNOWN;
+                }
+                Object value = record.bins.get(binName);
+                return hasExpType(value, ((Long) args.get(1)).intValue()) ? value : UNKNOWN;
+            }
+            case BIN_TYPE: {
+                Object value = record.bins.get(name(args.get(1)));
+                return value == null ? 0L : (long) CdtValues.particleType(value);
+            }
+            case COND:
+                for (int i = 1; i + 1 < args.size(); i += 2) {
+                    Object condition = evaluate(args.get(i));
+                    if (condition == UNKNOWN) {
+                        return UNKNOWN;
+                    }
+                    if (Boolean.TRUE.equals(condition)) {
+                        return evaluate(args.get(i + 1));
+                    }
+                }
+                return evaluate(args.get(args.size() - 1));
+            case QUOTED:
+                return value(args.get(1));
+            default:
+                throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                        String.format("Expression operation %d is not supported in memory", op));
+        }
+    }
+
+    private int digestInt() {
+        byte[] digest = record.key.digest;
+        return (digest[8] & 0xff) | ((digest[9] & 0xff) << 8) | ((digest[10] & 0xff) << 16) | ((digest[11] & 0xff) << 24);
+    }
+
+    /**
+     * Whether a stored value has the type a bin expression asks for (nil, bool, int, string, list, map, blob, float).
+     */
+    private static boolean hasExpType(Object value, int expType) {
+        switch (expType) {
+            case 1:
+                return value instanceof Boolean;
+            case 2:
+                return value instanceof Long;
+            case 3:
+                return value instanceof String;
+            case 4:
+                return value instanceof List;
+            case 5:
+                return value instanceof Map;
+            case 6:
+                return value instanceof byte[];
+            case 7:
+                return value instanceof Double;
+            default:
+                return true;
+        }
+    }
+
+    private static Object compare(int op, Object left, Object right) {
+        if (left == UNKNOWN || right == UNKNOWN) {
+            return UNKNOWN;
+        }
+        int result = CdtValues.compare(left, right);
+        switch (op) {
+            case EQ:
+                return result == 0;
+            case NE:
+                return result != 0;
+            case GT:
+                return result > 0;
+            case GE:
+                return result >= 0;
+            case LT:
+                return result < 0;
+            default:
+                return result <= 0;
+        }
+    }
+
+    private Object arithmetic(int op, List<Object> args) {
+        Object result = null;
+        for (int i = 1; i < args.size(); i++) {
+            Object value = evaluate(args.get(i));
+            if (result == null) {
+                result = value;
+            } else if (result instanceof Long && value instanceof Long) {
+                result = arithmetic(op, (long) (Long) result, (long) (Long) value);
+            } else if (result instanceof Double && value instanceof Double) {
+                result = arithmetic(op, (double) (Double) result, (double) (Double) value);
+            } else {
+                // The server does not mix integers and floats without an explicit conversion
+                return UNKNOWN;
+            }
+        }
+        if (!(result instanceof Long) && !(result instanceof Double)) {
+            return UNKNOWN;
+        }
+        if (args.size() == 2 && op == SUB) {
+            return result instanceof Long ? (Object) (-(Long) result) : (Object) (-(Double) result);
+        }
+        return result;
+    }
+
+    private static Object arithmetic(int op, long a, long b) {
+        switch (op) {
+            case ADD:
+                return a + b;
+            case SUB:
+                return a - b;
+            case MUL:
+                return a * b;
+            case DIV:
+                return b == 0 ? UNKNOWN : (Object) (a / b);
+            case MOD:
+                return b == 0 ? UNKNOWN : (Object) (a % b);
+            case MIN:
+                return Math.min(a, b);
+            default:
+                return Math.max(a, b);
+        }
+    }
+
+    private static Object arithmetic(int op, double a, double b) {
+        switch (op) {
+            case ADD:
+                return a + b;
+            case SUB:
+                return a - b;
+            case MUL:
+                return a * b;
+            case DIV:
+                return a / b;
+            case MOD:
+                return a % b;
+            case MIN:
+                return Math.min(a, b);
+            default:
+                return Math.max(a, b);
+        }
+    }
+
+    private static String name(Object object) {
+        return object instanceof MsgPack.Raw ? ((MsgPack.Raw) object).asName() : String.valueOf(object);
+    }
+
+    /**
+     * Convert a decoded constant to its stored form. Strings and blobs in constants carry their particle type.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object value(Object object) {
+        if (object instanceof MsgPack.Raw) {
+            return ((MsgPack.Raw) object).asValue();
+        } else if (object instanceof List) {
+            List<Object> list = (List<Object>) object;
+            list.replaceAll(ExpressionEvaluator::value);
+            return list;
+        } else if (object instanceof Map) {
+            Map<Object, Object> map = CdtValues.newMap();
+            for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) object).entrySet()) {
+                map.put(value(entry.getKey()), value(entry.getValue()));
+            }
+            return map;
+        }
+        return object;
+    }
+}
@@ -0,0 +1,920 @@
+package com.aerospike.mapper.tools.inmemory;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.BatchDelete;
+import com.aerospike.client.BatchRead;
+import com.aerospike.client.BatchRecord;
+import com.aerospike.client.BatchWrite;
+import com.aerospike.client.Bin;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
+import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.command.ParticleType;
+import com.aerospike.client.exp.Expression;
+import com.aerospike.client.policy.BatchDeletePolicy;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.BatchWritePolicy;
+import com.aerospike.client.policy.GenerationPolicy;
+import com.aerospike.client.policy.Policy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.IndexCollectionType;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.client.query.PartitionFilter;
+import com.aerospike.client.query.PartitionStatus;
+import com.aerospike.client.query.Statement;
+import com.aerospike.client.reactor.IAerospikeReactorClient;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * An in-memory stand-in for an Aerospike cluster, for benchmarks and load tests which should measure the mapper rather
+ * than the network or the server.
+ * <p/>
+ * {@link #getClient()} and {@link #getReactorClient()} return clients backed by this store, which can be passed to
+ * <code>AeroMapper.Builder</code> and <code>ReactiveAeroMapper.Builder</code> in place of real ones. They support
+ * single record reads, writes, deletes and operations (including list and map operations), batches, scans and
+ * queries, and honour the parts of the policies which change the outcome: the record exists action, the generation
+ * check, the expiration and filter expressions. Calls they do not support throw an <code>AerospikeException</code>
+ * with <code>UNSUPPORTED_FEATURE</code>.
+ * <p/>
+ * Each call can be given a simulated network latency and a probability of failing, so the effect of the mapper's
+ * round trips can be measured repeatably. A batch is one round trip, so is delayed once, but each of its records can
+ * fail on its own. The number of calls of each kind is counted (see {@link #getCommandCounts()}).
+ */
+public class InMemoryAerospike {
+    private final Map<String, ConcurrentSkipListMap<DigestKey, StoredRecord>> namespaces = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> commandCounts = new ConcurrentHashMap<>();
+    private final Set<String> indexes = ConcurrentHashMap.newKeySet();
+    private final Object randomLock = new Object();
+    private Random random = new Random();
+    private volatile long minLatencyNanos = 0;
+    private volatile long maxLatencyNanos = 0;
+    private volatile double failureProbability = 0;
+    private volatile int failureResultCode = ResultCode.SERVER_ERROR;
+    private volatile boolean closed = false;
+
+    private final IAerospikeClient client;
+    private final IAerospikeReactorClient reactorClient;
+
+    public InMemoryAerospike() {
+        ClientHandler clientHandler = new ClientHandler(this);
+        this.client = (IAerospikeClient) Proxy.newProxyInstance(IAerospikeClient.class.getClassLoader(),
+                new Class<?>[]{IAerospikeClient.class}, clientHandler);
+        this.reactorClient = (IAerospikeReactorClient) Proxy.newProxyInstance(IAerospikeReactorClient.class.getClassLoader(),
+                new Class<?>[]{IAerospikeReactorClient.class}, new ReactorClientHandler(this, clientHandler));
+    }
+
+    /**
+     * Delay every call by the given latency.
+     */
+    public InMemoryAerospike withLatency(long latency, TimeUnit unit) {
+        return withLatency(latency, latency, unit);
+    }
+
+    /**
+     * Delay every call by a latency chosen uniformly between the minimum and maximum. A call whose latency is longer
+     * than the <code>totalTimeout</code> of its policy fails with <code>TIMEOUT</code> once the timeout has passed.
+     */
+    public InMemoryAerospike withLatency(long minLatency, long maxLatency, TimeUnit unit) {
+        if (minLatency < 0 || maxLatency < minLatency) {
+            throw new AerospikeException(String.format("Invalid latency: min (%d) must not be negative or more than max (%d)",
+                    minLatency, maxLatency));
+        }
+        this.minLatencyNanos = unit.toNanos(minLatency);
+        this.maxLatencyNanos = unit.toNanos(maxLatency);
+        return this;
+    }
+
+    /**
+     * Make calls fail with the given probability. A failed call throws an <code>AerospikeException</code> with the
+     * given result code and has no effect; in a batch, the failed records have the result code set instead.
+     *
+     * @param probability - the probability of each call (or record in a batch) failing, from 0 to 1.
+     * @param resultCode  - the result code of the failures, such as <code>ResultCode.TIMEOUT</code>.
+     */
+    public InMemoryAerospike withFailures(double probability, int resultCode) {
+        if (probability < 0 || probability > 1) {
+            throw new AerospikeException(String.format("Invalid failure probability %f: it must be from 0 to 1", probability));
+        }
+        this.failureProbability = probability;
+        this.failureResultCode = resultCode;
+        return this;
+    }
+
+    /**
+     * Seed the latencies and failures, so a run can be repeated exactly. Only runs from a single thread are fully
+     * repeatable, as concurrent calls take their random numbers in whatever order they arrive.
+     */
+    public InMemoryAerospike withSeed(long seed) {
+        synchronized (randomLock) {
+            this.random = new Random(seed);
+        }
+        return this;
+    }
+
+    /**
+     * The synchronous client backed by this store.
+     */
+    public IAerospikeClient getClient() {
+        return client;
+    }
+
+    /**
+     * The reactive client backed by this store. Its calls run on the bounded elastic scheduler, and it shares its
+     * default policies with {@link #getClient()}.
+     */
+    public IAerospikeReactorClient getReactorClient() {
+        return reactorClient;
+    }
+
+    /**
+     * The number of calls made of each kind, keyed by the name of the client method (such as <code>get</code> or
+     * <code>operate</code>). Calls which act on a batch of keys have the prefix <code>batch</code>, such as
+     * <code>batchGet</code>.
+     */
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        commandCounts.forEach((command, count) -> result.put(command, count.sum()));
+        return result;
+    }
+
+    /**
+     * The number of calls made of one kind, as named in {@link #getCommandCounts()}.
+     */
+    public long getCommandCount(String command) {
+        LongAdder count = commandCounts.get(command);
+        return count == null ? 0 : count.sum();
+    }
+
+    public void resetCommandCounts() {
+        commandCounts.clear();
+    }
+
+    /**
+     * The number of records in a namespace which have not expired.
+     */
+    public int getRecordCount(String namespace) {
+        ConcurrentSkipListMap<DigestKey, StoredRecord> records = namespaces.get(namespace);
+        if (records == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (StoredRecord record : records.values()) {
+            if (!record.isExpired(now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remove every record.
+     */
+    public void clear() {
+        namespaces.clear();
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Simulation of the network
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Count a call and delay it by the simulated latency, failing it if the latency exceeds its timeout.
+     */
+    void beginCommand(String command, Policy policy) {
+        if (closed) {
+            throw new AerospikeException(ResultCode.CLIENT_ERROR, "The client has been closed");
+        }
+        commandCounts.computeIfAbsent(command, name -> new LongAdder()).increment();
+        long latencyNanos = nextLatencyNanos();
+        if (latencyNanos <= 0) {
+            return;
+        }
+        long timeoutNanos = policy == null || policy.totalTimeout <= 0 ? Long.MAX_VALUE
+                : TimeUnit.MILLISECONDS.toNanos(policy.totalTimeout);
+        try {
+            TimeUnit.NANOSECONDS.sleep(Math.min(latencyNanos, timeoutNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AerospikeException(ResultCode.CLIENT_ERROR, "Interrupted during simulated latency");
+        }
+        if (latencyNanos > timeoutNanos) {
+            throw new AerospikeException(ResultCode.TIMEOUT, String.format("Simulated latency of %dms exceeded the timeout of %dms",
+                    TimeUnit.NANOSECONDS.toMillis(latencyNanos), policy.totalTimeout));
+        }
+    }
+
+    /**
+     * Count a call, delay it, and fail it if a failure is due.
+     */
+    void beginSingleCommand(String command, Policy policy) {
+        beginCommand(command, policy);
+        checkFailure();
+    }
+
+    private long nextLatencyNanos() {
+        long min = minLatencyNanos;
+        long max = maxLatencyNanos;
+        if (max == min) {
+            return min;
+        }
+        synchronized (randomLock) {
+            return min + (long) (random.nextDouble() * (max - min));
+        }
+    }
+
+    private boolean isFailureDue() {
+        double probability = failureProbability;
+        if (probability <= 0) {
+            return false;
+        }
+        synchronized (randomLock) {
+            return random.nextDouble() < probability;
+        }
+    }
+
+    private void checkFailure() {
+        if (isFailureDue()) {
+            throw new AerospikeException(failureResultCode, "Injected failure");
+        }
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Single record commands
+    // ------------------------------------------------------------------------------------------
+
+    private ConcurrentSkipListMap<DigestKey, StoredRecord> namespace(String namespace) {
+        return namespaces.computeIfAbsent(namespace, name -> new ConcurrentSkipListMap<>());
+    }
+
+    private StoredRecord find(Key key, long now) {
+        ConcurrentSkipListMap<DigestKey, StoredRecord> records = namespaces.get(key.namespace);
+        StoredRecord record = records == null ? null : records.get(new DigestKey(key.digest));
+        return record == null || record.isExpired(now) ? null : record;
+    }
+
+    /**
+     * Find a record which matches the filter expression of the policy, or return null if there is none.
+     */
+    private StoredRecord findFiltered(Policy policy, Expression filterExp, Key key, long now) {
+        StoredRecord record = find(key, now);
+        if (record != null && !ExpressionEvaluator.matches(filterExp, record, now)) {
+            if (policy != null && policy.failOnFilteredOut) {
+                throw new AerospikeException(ResultCode.FILTERED_OUT, "The record was filtered out");
+            }
+            return null;
+        }
+        return record;
+    }
+
+    Record get(Policy policy, Key key, String[] binNames, boolean header) {
+        return get(policy, filterExp(policy), key, binNames, header);
+    }
+
+    private Record get(Policy policy, Expression filterExp, Key key, String[] binNames, boolean header) {
+        StoredRecord record = findFiltered(policy, filterExp, key, System.currentTimeMillis());
+        return record == null ? null : record.toRecord(binNames == null || binNames.length == 0 ? null : binNames, header);
+    }
+
+    boolean exists(Policy policy, Key key) {
+        return findFiltered(policy, filterExp(policy), key, System.currentTimeMillis()) != null;
+    }
+
+    void write(WritePolicy policy, Key key, Operation.Type type, Bin[] bins) {
+        Operation[] operations = new Operation[bins.length];
+        for (int i = 0; i < bins.length; i++) {
+            operations[i] = new Operation(type, bins[i].name, bins[i].value);
+        }
+        operate(policy, key, operations);
+    }
+
+    boolean delete(WritePolicy policy, Key key) {
+        return delete(policy, filterExp(policy), key);
+    }
+
+    private boolean delete(WritePolicy policy, Expression filterExp, Key key) {
+        ConcurrentSkipListMap<DigestKey, StoredRecord> records = namespaces.get(key.namespace);
+        if (records == null) {
+            return false;
+        }
+        boolean[] existed = new boolean[1];
+        records.computeIfPresent(new DigestKey(key.digest), (digest, existing) -> {
+            long now = System.currentTimeMillis();
+            existed[0] = false;
+            if (existing.isExpired(now)) {
+                return null;
+            }
+            if (!ExpressionEvaluator.matches(filterExp, existing, now)) {
+                if (policy != null && policy.failOnFilteredOut) {
+                    throw new AerospikeException(ResultCode.FILTERED_OUT, "The record was filtered out");
+                }
+                return existing;
+            }
+            if (policy != null) {
+                checkGeneration(policy.generationPolicy, policy.generation, existing);
+            }
+            existed[0] = true;
+            return null;
+        });
+        return existed[0];
+    }
+
+    Record operate(WritePolicy policy, Key key, Operation[] operations) {
+        return operate(policy, filterExp(policy), key, operations);
+    }
+
+    private Record operate(WritePolicy policy, Expression filterExp, Key key, Operation[] operations) {
+        boolean hasWrite = false;
+        boolean respondAllOps = policy != null && policy.respondAllOps;
+        for (Operation operation : operations) {
+            hasWrite |= operation.type.isWrite;
+            // The client asks for every result when there are map operations, so their results line up
+            respondAllOps |= CdtOperations.isMapOperation(operation);
+        }
+        boolean allResults = respondAllOps;
+        if (!hasWrite) {
+            StoredRecord record = findFiltered(policy, filterExp, key, System.currentTimeMillis());
+            if (record == null) {
+                return null;
+            }
+            Execution execution = new Execution(record.bins, allResults);
+            for (Operation operation : operations) {
+                execution.apply(operation);
+            }
+            return new Record(execution.results, record.generation, record.getExpiration());
+        }
+
+        Record[] result = new Record[1];
+        namespace(key.namespace).compute(new DigestKey(key.digest), (digest, stored) -> {
+            long now = System.currentTimeMillis();
+            StoredRecord existing = stored == null || stored.isExpired(now) ? null : stored;
+            result[0] = null;
+            if (existing != null && !ExpressionEvaluator.matches(filterExp, existing, now)) {
+                if (policy != null && policy.failOnFilteredOut) {
+                    throw new AerospikeException(ResultCode.FILTERED_OUT, "The record was filtered out");
+                }
+                return existing;
+            }
+            RecordExistsAction existsAction = policy == null ? RecordExistsAction.UPDATE : policy.recordExistsAction;
+            checkExistsAction(existsAction, existing);
+            if (policy != null) {
+                checkGeneration(policy.generationPolicy, policy.generation, existing);
+            }
+            boolean replace = existsAction == RecordExistsAction.REPLACE || existsAction == RecordExistsAction.REPLACE_ONLY;
+            Map<String, Object> bins = existing == null || replace ? new LinkedHashMap<>() : new LinkedHashMap<>(existing.bins);
+            Execution execution = new Execution(bins, allResults);
+            for (Operation operation : operations) {
+                execution.apply(operation);
+            }
+            if (execution.deleted || bins.isEmpty()) {
+                result[0] = new Record(execution.results, 0, 0);
+                return null;
+            }
+            int generation = existing == null ? 1 : existing.generation + 1;
+            long voidTime = voidTime(policy == null ? 0 : policy.expiration, existing, now);
+            Key storedKey = key.userKey != null && (policy == null || policy.sendKey) ? key
+                    : existing != null ? existing.key : new Key(key.namespace, key.digest, key.setName, null);
+            StoredRecord updated = new StoredRecord(storedKey, bins, generation, voidTime, now);
+            result[0] = new Record(execution.results, generation, updated.getExpiration());
+            return updated;
+        });
+        return result[0];
+    }
+
+    private static Expression filterExp(Policy policy) {
+        return policy == null ? null : policy.filterExp;
+    }
+
+    private static void checkExistsAction(RecordExistsAction action, StoredRecord existing) {
+        switch (action) {
+            case UPDATE_ONLY:
+            case REPLACE_ONLY:
+                if (existing == null) {
+                    throw new AerospikeException(ResultCode.KEY_NOT_FOUND_ERROR, "The record does not exist");
+                }
+                break;
+            case CREATE_ONLY:
+                if (existing != null) {
+                    throw new AerospikeException(ResultCode.KEY_EXISTS_ERROR, "The record already exists");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void checkGeneration(GenerationPolicy generationPolicy, int generation, StoredRecord existing) {
+        if (existing == null || generationPolicy == null) {
+            return;
+        }
+        if ((generationPolicy == GenerationPolicy.EXPECT_GEN_EQUAL && existing.generation != generation)
+                || (generationPolicy == GenerationPolicy.EXPECT_GEN_GT && generation <= existing.generation)) {
+            throw new AerospikeException(ResultCode.GENERATION_ERROR,
+                    String.format("Expected generation %d but the record has generation %d", generation, existing.generation));
+        }
+    }
+
+    /**
+     * The time a written record expires, from the expiration of the policy: -2 keeps the current expiration, -1 and 0
+     * (the namespace default) never expire, and a positive value is the number of seconds from now.
+     */
+    private static long voidTime(int expiration, StoredRecord existing, long now) {
+        if (expiration == -2) {
+            return existing == null ? 0 : existing.voidTime;
+        }
+        return expiration > 0 ? now / 1000 + expiration : 0;
+    }
+
+    /**
+     * The bins of a record being operated on, and the results of the operations so far.
+     */
+    private static final class Execution {
+        final Map<String, Object> bins;
+        final Map<String, Object> results = new LinkedHashMap<>();
+        final Set<String> multipleResults = new HashSet<>();
+        final boolean allResults;
+        boolean deleted = false;
+
+        Execution(Map<String, Object> bins, boolean allResults) {
+            this.bins = bins;
+            this.allResults = allResults;
+        }
+
+        /**
+         * Add the result of an operation. Where several operations on a bin return results, they are returned as a
+         * list, as the client does.
+         */
+        @SuppressWarnings("unchecked")
+        void addResult(String binName, Object value) {
+            if (!results.containsKey(binName)) {
+                results.put(binName, value);
+            } else if (multipleResults.add(binName)) {
+                List<Object> values = new ArrayList<>();
+                values.add(results.get(binName));
+                values.add(value);
+                results.put(binName, values);
+            } else {
+                ((List<Object>) results.get(binName)).add(value);
+            }
+        }
+
+        void apply(Operation operation) {
+            String binName = operation.binName;
+            switch (operation.type) {
+                case READ:
+                    if (binName == null) {
+                        bins.forEach((name, value) -> addResult(name, CdtValues.copy(value)));
+                    } else if (bins.containsKey(binName) || allResults) {
+                        addResult(binName, CdtValues.copy(bins.get(binName)));
+                    }
+                    break;
+                case READ_HEADER:
+                    break;
+                case WRITE:
+                    if (operation.value == null || operation.value.getType() == ParticleType.NULL) {
+                        bins.remove(binName);
+                    } else {
+                        bins.put(binName, CdtValues.fromValue(operation.value));
+                    }
+                    writeResult(binName);
+                    break;
+                case ADD:
+                    bins.put(binName, CdtOperations.add(bins.get(binName), CdtValues.fromValue(operation.value), binName));
+                    writeResult(binName);
+                    break;
+                case APPEND:
+                case PREPEND:
+                    bins.put(binName, concatenate(bins.get(binName), CdtValues.fromValue(operation.value),
+                            operation.type == Operation.Type.PREPEND, binName));
+                    writeResult(binName);
+                    break;
+                case TOUCH:
+                    writeResult(binName);
+                    break;
+                case DELETE:
+                    bins.clear();
+                    deleted = true;
+                    writeResult(binName);
+                    break;
+                case CDT_READ:
+                case CDT_MODIFY:
+                case MAP_READ:
+                case MAP_MODIFY: {
+                    CdtOperations.Outcome outcome = CdtOperations.apply(operation, bins.get(binName));
+                    if (outcome.changed) {
+                        bins.put(binName, outcome.value);
+                    }
+                    if (outcome.result != null || allResults) {
+                        addResult(binName, outcome.result);
+                    }
+                    break;
+                }
+                default:
+                    throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                            String.format("%s operations are not supported in memory", operation.type));
+            }
+        }
+
+        private void writeResult(String binName) {
+            if (allResults) {
+                addResult(binName, null);
+            }
+        }
+    }
+
+    private static Object concatenate(Object current, Object value, boolean prepend, String binName) {
+        if (current == null) {
+            return value;
+        }
+        if (current instanceof String && value instanceof String) {
+            return prepend ? value + (String) current : current + (String) value;
+        }
+        if (current instanceof byte[] && value instanceof byte[]) {
+            byte[] first = (byte[]) (prepend ? value : current);
+            byte[] second = (byte[]) (prepend ? current : value);
+            byte[] result = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, result, first.length, second.length);
+            return result;
+        }
+        throw new AerospikeException(ResultCode.BIN_TYPE_ERROR,
+                String.format("Bin %s cannot be appended to or prepended to", binName));
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Batches
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Read each key of a batch, leaving null in place of records which do not exist or have failed.
+     */
+    Record[] batchGet(BatchPolicy policy, Key[] keys, String[] binNames, Operation[] operations, boolean header) {
+        Record[] records = new Record[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (isFailureDue()) {
+                continue;
+            }
+            records[i] = operations == null || operations.length == 0
+                    ? get(policy, filterExp(policy), keys[i], binNames, header)
+                    : operate(null, filterExp(policy), keys[i], operations);
+        }
+        return records;
+    }
+
+    boolean[] batchExists(BatchPolicy policy, Key[] keys) {
+        boolean[] exists = new boolean[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            exists[i] = !isFailureDue() && findFiltered(policy, filterExp(policy), keys[i], System.currentTimeMillis()) != null;
+        }
+        return exists;
+    }
+
+    /**
+     * Execute each record of a batch, setting its record and result code.
+     *
+     * @return true if every record succeeded.
+     */
+    boolean batchOperate(BatchPolicy policy, List<? extends BatchRecord> records, BatchWritePolicy writePolicy,
+                         BatchDeletePolicy deletePolicy) {
+        boolean allSucceeded = true;
+        for (BatchRecord record : records) {
+            allSucceeded &= execute(policy, record, writePolicy, deletePolicy);
+        }
+        return allSucceeded;
+    }
+
+    private boolean execute(BatchPolicy policy, BatchRecord batchRecord, BatchWritePolicy defaultWritePolicy,
+                            BatchDeletePolicy defaultDeletePolicy) {
+        batchRecord.record = null;
+        batchRecord.inDoubt = false;
+        if (isFailureDue()) {
+            batchRecord.resultCode = failureResultCode;
+            return false;
+        }
+        try {
+            if (batchRecord instanceof BatchRead) {
+                BatchRead read = (BatchRead) batchRecord;
+                Expression filterExp = read.policy != null && read.policy.filterExp != null ? read.policy.filterExp
+                        : filterExp(policy);
+                if (read.ops != null) {
+                    batchRecord.record = operate(null, filterExp, read.key, read.ops);
+                } else {
+                    batchRecord.record = get(policy, filterExp, read.key, read.readAllBins ? null : read.binNames,
+                            !read.readAllBins && read.binNames == null);
+                }
+            } else if (batchRecord instanceof BatchWrite) {
+                BatchWrite write = (BatchWrite) batchRecord;
+                BatchWritePolicy writePolicy = write.policy != null ? write.policy : defaultWritePolicy;
+                WritePolicy single = toWritePolicy(policy, writePolicy);
+                batchRecord.record = operate(single, single.filterExp, write.key, write.ops);
+            } else if (batchRecord instanceof BatchDelete) {
+                BatchDelete delete = (BatchDelete) batchRecord;
+                BatchDeletePolicy deletePolicy = delete.policy != null ? delete.policy : defaultDeletePolicy;
+                WritePolicy single = toWritePolicy(policy, deletePolicy);
+                batchRecord.resultCode = delete(single, single.filterExp, delete.key) ? ResultCode.OK
+                        : ResultCode.KEY_NOT_FOUND_ERROR;
+                return batchRecord.resultCode == ResultCode.OK;
+            } else {
+                throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                        String.format("%s is not supported in memory", batchRecord.getClass().getSimpleName()));
+            }
+            batchRecord.resultCode = batchRecord.record == null ? ResultCode.KEY_NOT_FOUND_ERROR : ResultCode.OK;
+            return batchRecord.record != null;
+        } catch (AerospikeException ae) {
+            batchRecord.resultCode = ae.getResultCode();
+            return false;
+        }
+    }
+
+    private static WritePolicy toWritePolicy(BatchPolicy batchPolicy, BatchWritePolicy policy) {
+        WritePolicy result = new WritePolicy();
+        result.filterExp = batchPolicy == null ? null : batchPolicy.filterExp;
+        if (policy != null) {
+            if (policy.filterExp != null) {
+                result.filterExp = policy.filterExp;
+            }
+            result.recordExistsAction = policy.recordExistsAction;
+            result.generationPolicy = policy.generationPolicy;
+            result.generation = policy.generation;
+            result.expiration = policy.expiration;
+            result.sendKey = policy.sendKey;
+        }
+        return result;
+    }
+
+    private static WritePolicy toWritePolicy(BatchPolicy batchPolicy, BatchDeletePolicy policy) {
+        WritePolicy result = new WritePolicy();
+        result.filterExp = batchPolicy == null ? null : batchPolicy.filterExp;
+        if (policy != null) {
+            if (policy.filterExp != null) {
+                result.filterExp = policy.filterExp;
+            }
+            result.generationPolicy = policy.generationPolicy;
+            result.generation = policy.generation;
+        }
+        return result;
+    }
+
+    // ------------------------------------------------------------------------------------------
+    // Scans and queries
+    // ------------------------------------------------------------------------------------------
+
+    /**
+     * Visit the records of a namespace (and set, if given) in partition order, stopping after
+     * <code>maxRecords</code> if it is positive. If a partition filter is given, only its partitions are visited,
+     * starting after the digest each last stopped at, and the filter is updated so the next call resumes from where
+     * this one stopped.
+     */
+    void scan(Policy policy, String namespace, String setName, PartitionFilter partitionFilter, long maxRecords,
+              int recordsPerSecond, Filter filter, String[] binNames, boolean includeBinData, Consumer<KeyRecord> consumer) {
+        PartitionStatus[] partitions = partitionFilter == null ? null : partitions(partitionFilter);
+        ConcurrentSkipListMap<DigestKey, StoredRecord> records = namespaces.get(namespace);
+        long now = System.currentTimeMillis();
+        long count = 0;
+        long intervalNanos = recordsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / recordsPerSecond : 0;
+        long nextRecordNanos = System.nanoTime();
+        Collection<StoredRecord> candidates = records == null ? new ArrayList<>() : records.values();
+        int partitionIndex = 0;
+        if (partitions != null && records != null) {
+            candidates = new ArrayList<>();
+            for (PartitionStatus status : partitions) {
+                DigestKey from = status.digest == null ? DigestKey.firstOf(status.id) : new DigestKey(status.digest);
+                candidates.addAll(records.subMap(from, status.digest == null, DigestKey.firstOf(status.id + 1), false).values());
+            }
+        }
+        for (StoredRecord record : candidates) {
+            if (maxRecords > 0 && count >= maxRecords) {
+                break;
+            }
+            if (record.isExpired(now) || (setName != null && !setName.isEmpty() && !setName.equals(record.key.setName))
+                    || !matches(filter, record) || !ExpressionEvaluator.matches(filterExp(policy), record, now)) {
+                continue;
+            }
+            if (intervalNanos > 0) {
+                pace(nextRecordNanos);
+                nextRecordNanos += intervalNanos;
+            }
+            if (partitions != null) {
+                int partitionId = DigestKey.partitionId(record.key.digest);
+                while (partitions[partitionIndex].id != partitionId) {
+                    partitionIndex++;
+                }
+                partitions[partitionIndex].digest = record.key.digest;
+            }
+            consumer.accept(new KeyRecord(record.key, includeBinData
+                    ? record.toRecord(binNames == null || binNames.length == 0 ? null : binNames, false)
+                    : record.toRecord(null, true)));
+            count++;
+        }
+        if (partitions != null) {
+            boolean limited = maxRecords > 0 && count >= maxRecords;
+            boolean done = true;
+            for (int i = 0; i < partitions.length; i++) {
+                // Once the limit is reached, the partition being read and those after it still need reading
+                partitions[i].retry = limited && i >= partitionIndex;
+                done &= !partitions[i].retry;
+            }
+            setDone(partitionFilter, done);
+        }
+    }
+
+    private static void pace(long nextRecordNanos) {
+        long waitNanos = nextRecordNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AerospikeException(ResultCode.CLIENT_ERROR, "Interrupted while throttling a scan");
+            }
+        }
+    }
+
+    private static PartitionStatus[] partitions(PartitionFilter partitionFilter) {
+        PartitionStatus[] partitions = partitionFilter.getPartitions();
+        if (partitions == null) {
+            partitions = new PartitionStatus[partitionFilter.getCount()];
+            for (int i = 0; i < partitions.length; i++) {
+                partitions[i] = new PartitionStatus(partitionFilter.getBegin() + i);
+            }
+            if (partitionFilter.getDigest() != null && partitions.length > 0) {
+                partitions[0].digest = partitionFilter.getDigest();
+            }
+            partitionFilter.setPartitions(partitions);
+        }
+        for (PartitionStatus partition : partitions) {
+            partition.retry = true;
+        }
+        return partitions;
+    }
+
+    /**
+     * Mark a partition filter as done or not. The client sets this itself as the last partition completes, and keeps
+     * the flag private, so it is set reflectively here.
+     */
+    private static void setDone(PartitionFilter partitionFilter, boolean done) {
+        try {
+            Field field = PartitionFilter.class.getDeclaredField("done");
+            field.setAccessible(true);
+            field.setBoolean(partitionFilter, done);
+        } catch (ReflectiveOperationException e) {
+            throw new AerospikeException(ResultCode.CLIENT_ERROR, "Cannot update the partition filter: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a record matches the secondary index filter of a query. The index itself is not needed, so queries work
+     * whether or not it has been created.
+     */
+    private static boolean matches(Filter filter, StoredRecord record) {
+        if (filter == null) {
+            return true;
+        }
+        Object value = record.bins.get(filter.getName());
+        if (value == null) {
+            return false;
+        }
+        IndexCollectionType collectionType = filter.getColType();
+        if (collectionType == null || collectionType == IndexCollectionType.DEFAULT) {
+            return inRange(filter, value);
+        }
+        Collection<?> candidates;
+        if (collectionType == IndexCollectionType.LIST && value instanceof List) {
+            candidates = (List<?>) value;
+        } else if (collectionType == IndexCollectionType.MAPKEYS && value instanceof Map) {
+            candidates = ((Map<?, ?>) value).keySet();
+        } else if (collectionType == IndexCollectionType.MAPVALUES && value instanceof Map) {
+            candidates = ((Map<?, ?>) value).values();
+        } else {
+            return false;
+        }
+        for (Object candidate : candidates) {
+            if (inRange(filter, candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean inRange(Filter filter, Object value) {
+        Object begin = CdtValues.fromValue(filter.getBegin());
+        Object end = CdtValues.fromValue(filter.getEnd());
+        if (begin instanceof String && filter.getBegin().getType() == ParticleType.GEOJSON) {
+            throw new AerospikeException(ResultCode.UNSUPPORTED_FEATURE, "Geospatial queries are not supported in memory");
+        }
+        if (value instanceof Double || value instanceof Boolean || value instanceof List || value instanceof Map) {
+            return false;
+        }
+        return CdtValues.compare(value, begin) >= 0 && CdtValues.compare(value, end) <= 0;
+    }
+
+    List<KeyRecord> query(Policy policy, Statement statement, PartitionFilter partitionFilter) {
+        List<KeyRecord> results = new ArrayList<>();
+        scan(policy, statement.getNamespace(), statement.getSetName(), partitionFilter, statement.getMaxRecords(),
+                statement.getRecordsPerSecond(), statement.getFilter(), statement.getBinNames(), true, results::add);
+        return results;
+    }
+
+    void createIndex(String namespace, String setName, String indexName) {
+        if (!indexes.add(namespace + ":" + indexName)) {
+            throw new AerospikeException(ResultCode.INDEX_ALREADY_EXISTS,
+                    String.format("Index %s already exists on %s.%s", indexName, namespace, setName));
+        }
+    }
+
+    void dropIndex(String namespace, String indexName) {
+        indexes.remove(namespace + ":" + indexName);
+    }
+
+    /**
+     * Remove the records of a namespace (and set, if given) last written before the given time in milliseconds.
+     */
+    void truncate(String namespace, String setName, long beforeLastUpdate) {
+        ConcurrentSkipListMap<DigestKey, StoredRecord> records = namespaces.get(namespace);
+        if (records != null) {
+            records.values().removeIf(record -> (setName == null || setName.equals(record.key.setName))
+                    && record.lastUpdate < beforeLastUpdate);
+        }
+    }
+
+    /**
+     * The key of a stored record, ordered by partition and then by digest as the server scans them.
+     */
+    static final class DigestKey implements Comparable<DigestKey> {
+        private final byte[] digest;
+        private final int partitionId;
+
+        DigestKey(byte[] digest) {
+            this(digest, partitionId(digest));
+        }
+
+        private DigestKey(byte[] digest, int partitionId) {
+            this.digest = digest;
+            this.partitionId = partitionId;
+        }
+
+        /**
+         * A key before every digest in the partition.
+         */
+        static DigestKey firstOf(int partitionId) {
+            return new DigestKey(new byte[0], partitionId);
+        }
+
+        static int partitionId(byte[] digest) {
+            return (digest[0] & 0xff) | ((digest[1] & 0x0f) << 8);
+        }
+
+        @Override
+        public int compareTo(DigestKey other) {
+            if (partitionId != other.partitionId) {
+                return Integer.compare(partitionId, other.partitionId);
+            }
+            int length = Math.min(digest.length, other.digest.length);
+            for (int i = 0; i < length; i++) {
+                int result = Integer.compare(digest[i] & 0xff, other.digest[i] & 0xff);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(digest.length, other.digest.length);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof DigestKey && Arrays.equals(digest, ((DigestKey) obj).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(digest);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.aerospike.mapper.tools.inmemory;
+
+import com.aerospike.client.query.IQueryExecutor;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.client.query.RecordSet;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * A record set over query results which are already in memory. All the results are queued when the set is created,
+ * so it is never waiting on a producer.
+ */
+final class InMemoryRecordSet extends RecordSet {
+
+    InMemoryRecordSet(List<KeyRecord> records) {
+        super(idleExecutor(), records.size() + 1);
+        for (KeyRecord record : records) {
+            put(record);
+        }
+        putEnd();
+    }
+
+    /**
+     * The executor a record set asks to check for errors or stop when it is closed. There is nothing running, so it
+     * does nothing.
+     */
+    private static IQueryExecutor idleExecutor() {
+        return (IQueryExecutor) Proxy.newProxyInstance(IQueryExecutor.class.getClassLoader(),
+                new Class<?>[]{IQueryExecutor.class},
+                (proxy, method, args) -> method.getReturnType() == boolean.class ? Boolean.FALSE : null);
+    }
+}
@@ -0,0 +1,244 @@
+package com.aerospike.mapper.tools.inmemory;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.command.ParticleType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes the MessagePack bytes the client packs CDT operations and filter expressions into.
+ * <p/>
+ * The client packs values which are strings or byte arrays with a leading particle type byte, but packs names (such as
+ * the bin names in expressions) without one. When decoding CDT operations every string is a value, so they are
+ * converted straight away. When decoding expressions they are returned as {@link Raw}, and the evaluator decides
+ * which form to use from where they appear.
+ */
+final class MsgPack {
+    /**
+     * The value greater than all other values, used as the open end of a range.
+     */
+    static final Object INFINITY = new Object() {
+        @Override
+        public String toString() {
+            return "INF";
+        }
+    };
+
+    /**
+     * The value which matches any other value.
+     */
+    static final Object WILDCARD = new Object() {
+        @Override
+        public String toString() {
+            return "*";
+        }
+    };
+
+    /**
+     * A string or blob as packed, whose first byte may be a particle type.
+     */
+    static final class Raw {
+        final byte[] bytes;
+
+        Raw(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        String asName() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Object asValue() {
+            return toParticle(bytes);
+        }
+
+        @Override
+        public String toString() {
+            return asName();
+        }
+    }
+
+    /**
+     * An extension marker, such as the order flags at the start of an ordered list or map.
+     */
+    static final class Ext {
+        final int type;
+        final byte[] data;
+
+        Ext(int type, byte[] data) {
+            this.type = type;
+            this.data = data;
+        }
+    }
+
+    private final byte[] buffer;
+    private final boolean particles;
+    private int offset;
+
+    private MsgPack(byte[] buffer, boolean particles) {
+        this.buffer = buffer;
+        this.particles = particles;
+        this.offset = 0;
+    }
+
+    /**
+     * Decode a packed CDT operation, converting strings and blobs to values.
+     */
+    static Object unpackValues(byte[] bytes) {
+        return new MsgPack(bytes, true).unpack();
+    }
+
+    /**
+     * Decode a packed expression, leaving strings and blobs as {@link Raw}.
+     */
+    static Object unpackRaw(byte[] bytes) {
+        return new MsgPack(bytes, false).unpack();
+    }
+
+    private static Object toParticle(byte[] bytes) {
+        if (bytes.length == 0) {
+            return "";
+        }
+        byte[] data = Arrays.copyOfRange(bytes, 1, bytes.length);
+        switch (bytes[0]) {
+            case ParticleType.STRING:
+            case ParticleType.GEOJSON:
+                return new String(data, StandardCharsets.UTF_8);
+            default:
+                return data;
+        }
+    }
+
+    private Object unpack() {
+        int type = buffer[offset++] & 0xff;
+        if (type <= 0x7f) {
+            return (long) type;
+        } else if (type >= 0xe0) {
+            return (long) (byte) type;
+        } else if (type >= 0xa0 && type <= 0xbf) {
+            return raw(type & 0x1f);
+        } else if (type >= 0x90 && type <= 0x9f) {
+            return list(type & 0x0f);
+        } else if (type >= 0x80 && type <= 0x8f) {
+            return map(type & 0x0f);
+        }
+        switch (type) {
+            case 0xc0:
+                return null;
+            case 0xc2:
+                return Boolean.FALSE;
+            case 0xc3:
+                return Boolean.TRUE;
+            case 0xc4:
+            case 0xd9:
+                return raw(readUnsigned(1));
+            case 0xc5:
+            case 0xda:
+                return raw(readUnsigned(2));
+            case 0xc6:
+            case 0xdb:
+                return raw(readUnsigned(4));
+            case 0xca:
+                return (double) Float.intBitsToFloat((int) readUnsigned(4));
+            case 0xcb:
+                return Double.longBitsToDouble(readUnsigned(8));
+            case 0xcc:
+                return readUnsigned(1);
+            case 0xcd:
+                return readUnsigned(2);
+            case 0xce:
+                return readUnsigned(4);
+            case 0xcf:
+            case 0xd3:
+                return readUnsigned(8);
+            case 0xd0:
+                return (long) buffer[offset++];
+            case 0xd1:
+                return (long) (short) readUnsigned(2);
+            case 0xd2:
+                return (long) (int) readUnsigned(4);
+            case 0xdc:
+                return list(readUnsigned(2));
+            case 0xdd:
+                return list(readUnsigned(4));
+            case 0xde:
+                return map(readUnsigned(2));
+            case 0xdf:
+                return map(readUnsigned(4));
+            case 0xd4:
+                return ext(1);
+            case 0xd5:
+                return ext(2);
+            case 0xd6:
+                return ext(4);
+            case 0xd7:
+                return ext(8);
+            case 0xd8:
+                return ext(16);
+            case 0xc7:
+                return ext(readUnsigned(1));
+            case 0xc8:
+                return ext(readUnsigned(2));
+            case 0xc9:
+                return ext(readUnsigned(4));
+            default:
+                throw new AerospikeException(ResultCode.PARAMETER_ERROR,
+                        String.format("Unknown MessagePack type 0x%02x", type));
+        }
+    }
+
+    private long readUnsigned(int bytes) {
+        long result = 0;
+        for (int i = 0; i < bytes; i++) {
+            result = (result << 8) | (buffer[offset++] & 0xff);
+        }
+        return result;
+    }
+
+    private Object raw(long length) {
+        byte[] bytes = Arrays.copyOfRange(buffer, offset, offset + (int) length);
+        offset += (int) length;
+        return particles ? toParticle(bytes) : new Raw(bytes);
+    }
+
+    private Object ext(long length) {
+        int extType = buffer[offset++];
+        byte[] data = Arrays.copyOfRange(buffer, offset, offset + (int) length);
+        offset += (int) length;
+        if (extType == -1 && data.length == 1) {
+            return data[0] == 0 ? WILDCARD : INFINITY;
+        }
+        return new Ext(extType, data);
+    }
+
+    private List<Object> list(long count) {
+        List<Object> result = new ArrayList<>((int) count);
+        for (long i = 0; i < count; i++) {
+            Object element = unpack();
+            // Skip the order flags of an ordered list
+            if (!(i == 0 && element instanceof Ext)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    private Map<Object, Object> map(long count) {
+        Map<Object, Object> result = new LinkedHashMap<>();
+        for (long i = 0; i < count; i++) {
+            Object key = unpack();
+            Object value = unpack();
+            // Skip the order flags of an ordered map
+            if (!(key instanceof Ext)) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+}
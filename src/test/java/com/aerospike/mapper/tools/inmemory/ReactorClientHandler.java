@@ -0,0 +1,207 @@
+package com.aerospike.mapper.tools.inmemory;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Bin;
+import com.aerospike.client.Key;
+import com.aerospike.client.Operation;
+import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.Policy;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.policy.RecordExistsAction;
+import com.aerospike.client.policy.ScanPolicy;
+import com.aerospike.client.policy.WritePolicy;
+import com.aerospike.client.query.KeyRecord;
+import com.aerospike.client.query.PartitionFilter;
+import com.aerospike.client.query.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Implements <code>IAerospikeReactorClient</code> over an {@link InMemoryAerospike}, in the same way as
+ * {@link ClientHandler}. Each call runs when it is subscribed to, on the bounded elastic scheduler, so simulated
+ * latency does not block the caller. Failures are signalled as errors rather than thrown.
+ */
+final class ReactorClientHandler implements InvocationHandler {
+    private final InMemoryAerospike store;
+    private final ClientHandler clientHandler;
+
+    ReactorClientHandler(InMemoryAerospike store, ClientHandler clientHandler) {
+        this.store = store;
+        this.clientHandler = clientHandler;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        Class<?>[] types = method.getParameterTypes();
+        Object[] arguments = args == null ? new Object[0] : args;
+        if (name.endsWith("PolicyDefault") && name.startsWith("get")) {
+            return clientHandler.getDefaultPolicy(method);
+        }
+        switch (name) {
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == arguments[0];
+            case "toString":
+                return "InMemoryAerospike reactor client";
+            case "getAerospikeClient":
+                return store.getClient();
+            case "close":
+                store.close();
+                return null;
+            case "get":
+            case "getHeader":
+                if (types.length >= 2 && types[1] == Key.class) {
+                    Policy policy = clientHandler.readPolicy(arguments[0]);
+                    Key key = (Key) arguments[1];
+                    String[] binNames = types.length > 2 ? (String[]) arguments[2] : null;
+                    return mono(() -> {
+                        store.beginSingleCommand(name, policy);
+                        return new KeyRecord(key, store.get(policy, key, binNames, "getHeader".equals(name)));
+                    });
+                }
+                break;
+            case "getFlux":
+                if (types.length >= 2 && types[1] == Key[].class) {
+                    BatchPolicy policy = clientHandler.batchPolicy(arguments[0]);
+                    Key[] keys = (Key[]) arguments[1];
+                    String[] binNames = types.length > 2 && types[2] == String[].class ? (String[]) arguments[2] : null;
+                    Operation[] operations = types.length > 2 && types[2] == Operation[].class
+                            ? (Operation[]) arguments[2] : null;
+                    return flux(() -> {
+                        store.beginCommand("batchGet", policy);
+                        Record[] records = store.batchGet(policy, keys, binNames, operations, false);
+                        List<KeyRecord> results = new ArrayList<>(keys.length);
+                        for (int i = 0; i < keys.length; i++) {
+                            results.add(new KeyRecord(keys[i], records[i]));
+                        }
+                        return results;
+                    });
+                }
+                break;
+            case "exists":
+                if (types.length == 2 && types[1] == Key.class) {
+                    Policy policy = clientHandler.readPolicy(arguments[0]);
+                    Key key = (Key) arguments[1];
+                    return mono(() -> {
+                        store.beginSingleCommand(name, policy);
+                        return store.exists(policy, key) ? key : null;
+                    });
+                }
+                break;
+            case "put":
+            case "append":
+            case "prepend":
+            case "add":
+                if (types.length == 3 && types[1] == Key.class) {
+                    WritePolicy policy = clientHandler.writePolicy(arguments[0]);
+                    Key key = (Key) arguments[1];
+                    Bin[] bins = (Bin[]) arguments[2];
+                    Operation.Type type = "put".equals(name) ? Operation.Type.WRITE
+                            : "add".equals(name) ? Operation.Type.ADD
+                            : "append".equals(name) ? Operation.Type.APPEND : Operation.Type.PREPEND;
+                    return mono(() -> {
+                        store.beginSingleCommand(name, policy);
+                        store.write(policy, key, type, bins);
+                        return key;
+                    });
+                }
+                break;
+            case "touch":
+                if (types.length == 2 && types[1] == Key.class) {
+                    WritePolicy policy = new WritePolicy(clientHandler.writePolicy(arguments[0]));
+                    policy.recordExistsAction = RecordExistsAction.UPDATE_ONLY;
+                    Key key = (Key) arguments[1];
+                    return mono(() -> {
+                        store.beginSingleCommand(name, policy);
+                        store.operate(policy, key, new Operation[]{Operation.touch()});
+                        return key;
+                    });
+                }
+                break;
+            case "delete":
+                if (types.length == 2 && types[1] == Key.class) {
+                    WritePolicy policy = clientHandler.writePolicy(arguments[0]);
+                    Key key = (Key) arguments[1];
+                    return mono(() -> {
+                        store.beginSingleCommand(name, policy);
+                        store.delete(policy, key);
+                        return key;
+                    });
+                }
+                break;
+            case "operate":
+                if (types.length == 3 && types[1] == Key.class) {
+                    WritePolicy policy = clientHandler.writePolicy(arguments[0]);
+                    Key key = (Key) arguments[1];
+                    Operation[] operations = (Operation[]) arguments[2];
+                    return mono(() -> {
+                        store.beginSingleCommand(name, policy);
+                        return new KeyRecord(key, store.operate(policy, key, operations));
+                    });
+                }
+                break;
+            case "scanAll":
+            case "scanPartitions":
+                if (method.getReturnType() == Flux.class) {
+                    ScanPolicy policy = clientHandler.scanPolicy(arguments[0]);
+                    boolean partitions = "scanPartitions".equals(name);
+                    PartitionFilter partitionFilter = partitions ? (PartitionFilter) arguments[1] : null;
+                    int first = partitions ? 2 : 1;
+                    String namespace = (String) arguments[first];
+                    String setName = (String) arguments[first + 1];
+                    String[] binNames = (String[]) arguments[first + 2];
+                    return flux(() -> {
+                        store.beginSingleCommand(name, policy);
+                        List<KeyRecord> results = new ArrayList<>();
+                        store.scan(policy, namespace, setName, partitionFilter, policy.maxRecords,
+                                policy.recordsPerSecond, null, binNames, policy.includeBinData, results::add);
+                        return results;
+                    });
+                }
+                break;
+            case "query":
+            case "queryPartitions":
+                if (method.getReturnType() == Flux.class && types.length >= 2 && types[1] == Statement.class) {
+                    QueryPolicy policy = clientHandler.queryPolicy(arguments[0]);
+                    Statement statement = (Statement) arguments[1];
+                    PartitionFilter partitionFilter = types.length > 2 && types[2] == PartitionFilter.class
+                            ? (PartitionFilter) arguments[2] : null;
+                    return flux(() -> {
+                        store.beginSingleCommand(name, policy);
+                        return store.query(policy, statement, partitionFilter);
+                    });
+                }
+                break;
+            default:
+                break;
+        }
+        AerospikeException unsupported = new AerospikeException(ResultCode.UNSUPPORTED_FEATURE,
+                String.format("%s%s is not supported in memory", name, Arrays.toString(types)));
+        if (method.getReturnType() == Mono.class) {
+            return Mono.error(unsupported);
+        } else if (method.getReturnType() == Flux.class) {
+            return Flux.error(unsupported);
+        }
+        throw unsupported;
+    }
+
+    private static <T> Mono<T> mono(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static <T> Flux<T> flux(Callable<List<T>> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic()).flatMapMany(Flux::fromIterable);
+    }
+}
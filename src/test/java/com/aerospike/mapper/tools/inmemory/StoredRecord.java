@@ -0,0 +1,78 @@
+package com.aerospike.mapper.tools.inmemory;
+
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A record held in memory. Stored records are never changed once stored: a write builds a new record with a new map of
+ * bins, sharing the values of the bins it does not change, so readers never see a partial write.
+ */
+final class StoredRecord {
+    /**
+     * Seconds between the Unix epoch and the epoch the server uses for expiration times (2010-01-01).
+     */
+    static final long CITRUSLEAF_EPOCH = 1262304000L;
+
+    final Key key;
+    final Map<String, Object> bins;
+    final int generation;
+    /**
+     * When the record expires, in seconds since the Unix epoch, or 0 if it never expires.
+     */
+    final long voidTime;
+    /**
+     * When the record was last written, in milliseconds since the Unix epoch.
+     */
+    final long lastUpdate;
+
+    StoredRecord(Key key, Map<String, Object> bins, int generation, long voidTime, long lastUpdate) {
+        this.key = key;
+        this.bins = bins;
+        this.generation = generation;
+        this.voidTime = voidTime;
+        this.lastUpdate = lastUpdate;
+    }
+
+    boolean isExpired(long now) {
+        return voidTime != 0 && voidTime <= now / 1000;
+    }
+
+    /**
+     * The expiration time as returned to the client, in seconds since the server epoch, or 0 if the record never
+     * expires.
+     */
+    int getExpiration() {
+        return voidTime == 0 ? 0 : (int) (voidTime - CITRUSLEAF_EPOCH);
+    }
+
+    /**
+     * Convert to a client record holding copies of the requested bins.
+     *
+     * @param binNames - the bins to return, or null for all bins.
+     * @param header   - if true, return only the generation and expiration.
+     */
+    Record toRecord(String[] binNames, boolean header) {
+        if (header) {
+            return new Record(null, generation, getExpiration());
+        }
+        Map<String, Object> result;
+        if (binNames == null) {
+            result = new LinkedHashMap<>(bins.size() * 2);
+            for (Map.Entry<String, Object> bin : bins.entrySet()) {
+                result.put(bin.getKey(), CdtValues.copy(bin.getValue()));
+            }
+        } else {
+            result = new HashMap<>(binNames.length * 2);
+            for (String binName : binNames) {
+                if (bins.containsKey(binName)) {
+                    result.put(binName, CdtValues.copy(bins.get(binName)));
+                }
+            }
+        }
+        return new Record(result, generation, getExpiration());
+    }
+}